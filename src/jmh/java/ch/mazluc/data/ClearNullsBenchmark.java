@@ -0,0 +1,98 @@
+package ch.mazluc.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import static java.lang.System.arraycopy;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Compares the single-pass null compaction of {@link Tuple}
+ * against the previous remove-per-null implementation,
+ * which reallocated the whole array for every null found.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+public class ClearNullsBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double nullRatio;
+
+    private Object[] source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.source = new Object[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.source[i] = random.nextDouble() < this.nullRatio ? null : i;
+        }
+    }
+
+    @Benchmark
+    public Tuple compact() {
+        return new Tuple(this.source);
+    }
+
+    @Benchmark
+    public Object[] legacy() {
+        Object[] values = new Object[this.source.length];
+        arraycopy(this.source, 0, values, 0, values.length);
+        return legacyClearNulls(values);
+    }
+
+    /**
+     * The previous algorithm: every null is dropped by reallocating
+     * the array, and every reallocation rescans it from the start.
+     */
+    private static Object[] legacyClearNulls(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                values = legacyRemove(values, i);
+            }
+        }
+        return values;
+    }
+
+    private static Object[] legacyRemove(Object[] values, int index) {
+        Object[] newValues = new Object[values.length - 1];
+        arraycopy(values, 0, newValues, 0, index);
+        arraycopy(values, index + 1, newValues, index, values.length - 1 - index);
+        return legacyClearNulls(newValues);
+    }
+}
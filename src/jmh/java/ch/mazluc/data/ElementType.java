@@ -0,0 +1,116 @@
+package ch.mazluc.data;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The kinds of values the benchmarks fill tuples and tables with.
+ * Also builds the fixtures, so that every benchmark sees the same data
+ * for the same size and element type.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public enum ElementType {
+
+    /**
+     * Boxed integers, {@code 0, 1, 2, ...}
+     */
+    INTEGER {
+        @Override
+        Object value(int i) {
+            return i;
+        }
+    },
+
+    /**
+     * Strings, {@code "v0", "v1", "v2", ...}
+     */
+    STRING {
+        @Override
+        Object value(int i) {
+            return "v" + i;
+        }
+    },
+
+    /**
+     * Integers, strings and doubles, in turn
+     */
+    MIXED {
+        @Override
+        Object value(int i) {
+            return switch (i % 3) {
+                case 0 -> i;
+                case 1 -> "v" + i;
+                default -> i + .5;
+            };
+        }
+    };
+
+    /**
+     * Number of values in each row of the fixture tables
+     */
+    static final int WIDTH = 4;
+
+    /**
+     * Returns the i-th value of this element type.
+     * Different indices give different values.
+     *
+     * @param i the index
+     * @return the value
+     */
+    abstract Object value(int i);
+
+    /**
+     * Returns the values from {@code from} (inclusive) to {@code to} (exclusive)
+     *
+     * @param from the first index
+     * @param to   the last index, excluded
+     * @return the values
+     */
+    Object[] values(int from, int to) {
+        Object[] values = new Object[to - from];
+        for (int i = from; i < to; i++) {
+            values[i - from] = this.value(i);
+        }
+        return values;
+    }
+
+    /**
+     * Returns rows of {@link #WIDTH} values, numbered from {@code from}
+     * (inclusive) to {@code to} (exclusive). No value repeats across rows.
+     *
+     * @param from the first row
+     * @param to   the last row, excluded
+     * @return the rows
+     */
+    Tuple[] rows(int from, int to) {
+        Tuple[] rows = new Tuple[to - from];
+        for (int i = from; i < to; i++) {
+            rows[i - from] = new Tuple(this.values(i * WIDTH, (i + 1) * WIDTH));
+        }
+        return rows;
+    }
+}
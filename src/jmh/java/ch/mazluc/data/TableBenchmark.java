@@ -0,0 +1,513 @@
+package ch.mazluc.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Benchmarks every public method of {@link Table}, including the ones
+ * of the {@link Data} interface, across sizes and element types.
+ * The size is the number of rows, each holding {@link ElementType#WIDTH} values.
+ *
+ * <p>
+ * Benchmarks that would change the shared fixture either undo their change
+ * (a push is followed by a pop) or work on a {@link Scratch} copy that is
+ * rebuilt before every invocation.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TableBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"INTEGER", "STRING", "MIXED"})
+    public ElementType type;
+
+    /**
+     * The rows of {@link #table}
+     */
+    private Tuple[] rows;
+
+    /**
+     * The fixture, holding {@link #size} distinct rows
+     */
+    private Table table;
+
+    /**
+     * A second table holding the same rows as {@link #table}
+     */
+    private Table copy;
+
+    /**
+     * The first half of {@link #table}, sharing its rows
+     */
+    private Table half;
+
+    /**
+     * A table of the same size sharing no value with {@link #table}
+     */
+    private Table other;
+
+    /**
+     * A second table holding the same rows as {@link #table},
+     * with a hash index on its second column
+     */
+    private Table indexed;
+
+    /**
+     * A second table holding the same rows as {@link #table},
+     * with a sorted index on its second column
+     */
+    private Table sorted;
+
+    /**
+     * A buffer large enough to encode {@link #table}, holding its encoding
+     */
+    private ByteBuffer encoded;
+
+    /**
+     * A file holding {@link #table}, and the table mapped from it
+     */
+    private Path file;
+    private MappedTable mapped;
+
+    /**
+     * An off-heap copy of {@link #table}
+     */
+    private OffHeapTable offHeap;
+
+    /**
+     * A compressed copy of {@link #table}
+     */
+    private CompressedTable compressed;
+
+    /**
+     * {@link #table} as CSV
+     */
+    private byte[] csv;
+
+    private Tuple presentRow;
+    private Object present;
+    private Object absent;
+    private Object upper;
+    private int middle;
+    private Predicate<Object> predicate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.rows = this.type.rows(0, this.size);
+        this.table = new Table(Arrays.copyOf(this.rows, this.size));
+        this.copy = new Table(Arrays.copyOf(this.rows, this.size));
+        this.half = new Table(Arrays.copyOf(this.rows, this.size / 2));
+        this.other = new Table(this.type.rows(this.size, 2 * this.size));
+        this.indexed = new Table(Arrays.copyOf(this.rows, this.size));
+        this.indexed.createIndex(1);
+        this.sorted = new Table(Arrays.copyOf(this.rows, this.size));
+        this.sorted.createSortedIndex(1);
+        this.middle = this.size / 2;
+        this.presentRow = this.rows[this.middle];
+        this.present = this.presentRow.getValue(1);
+        this.absent = this.type.value(-1);
+        Object bound = this.rows[Math.min(this.size - 1, this.middle + this.size / 100)].getValue(1);
+        this.upper = bound.getClass() == this.present.getClass() ? bound : this.present;
+        this.predicate = value -> value.hashCode() % 2 == 0;
+        for (int capacity = 1 << 10; this.encoded == null; capacity *= 2) {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+                BinaryCodec.write(this.table, buffer);
+                this.encoded = buffer.flip();
+            } catch (BufferOverflowException e) {
+                // Try a larger one
+            }
+        }
+        this.file = Files.createTempFile("table", ".bdat");
+        this.file.toFile().deleteOnExit();
+        MappedTable.write(this.table, this.file);
+        this.mapped = MappedTable.open(this.file);
+        this.offHeap = OffHeapTable.from(this.table);
+        this.compressed = CompressedTable.from(this.table);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvCodec.write(this.table, Channels.newChannel(out), CsvCodec.COMMA);
+        this.csv = out.toByteArray();
+    }
+
+    /**
+     * A copy of the fixture, rebuilt before every invocation
+     */
+    @State(Scope.Thread)
+    public static class Scratch {
+        Table table;
+
+        @Setup(Level.Invocation)
+        public void setUp(TableBenchmark benchmark) {
+            this.table = new Table(Arrays.copyOf(benchmark.rows, benchmark.size));
+        }
+    }
+
+    /**
+     * A table shared by the threads of a benchmark, emptied before every iteration
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        ConcurrentTable table;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            this.table = new ConcurrentTable();
+        }
+    }
+
+    @Benchmark
+    public Table construct() {
+        return new Table(Arrays.copyOf(this.rows, this.size));
+    }
+
+    @Benchmark
+    public Table withCapacity() {
+        Table result = new Table(this.size);
+        for (Tuple row : this.rows) {
+            result.push(row);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Table push() {
+        Table result = new Table();
+        for (Tuple row : this.rows) {
+            result.push(row);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void pushPop() {
+        this.table.push(this.presentRow);
+        this.table.pop();
+    }
+
+    @Benchmark
+    public void insertRemove() {
+        this.table.insert(this.middle, 0, this.present);
+        this.table.remove(this.middle, 0);
+    }
+
+    @Benchmark
+    public void replace() {
+        this.table.replace(this.middle, 1, this.present);
+    }
+
+    @Benchmark
+    public void swap() {
+        this.table.swap(0, this.size - 1);
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return this.table.getValue(this.middle, 1);
+    }
+
+    @Benchmark
+    public int length() {
+        return this.table.length();
+    }
+
+    @Benchmark
+    public boolean isEmpty() {
+        return this.table.isEmpty();
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return this.table.equals(this.copy);
+    }
+
+    @Benchmark
+    public int hashCodeTable() {
+        return this.table.hashCode();
+    }
+
+    @Benchmark
+    public String toStringTable() {
+        return this.table.toString();
+    }
+
+    @Benchmark
+    public boolean containsValue() {
+        return this.table.contains(this.present);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return this.table.contains(this.absent);
+    }
+
+    @Benchmark
+    public boolean containsRow() {
+        return this.table.contains(this.presentRow);
+    }
+
+    @Benchmark
+    public int[] indexOf() {
+        return this.table.indexOf(this.present);
+    }
+
+    @Benchmark
+    public boolean isSubsetOf() {
+        return this.half.isSubsetOf(this.table);
+    }
+
+    @Benchmark
+    public boolean isSupersetOf() {
+        return this.table.isSupersetOf(this.half);
+    }
+
+    @Benchmark
+    public boolean isDisjoint() {
+        return this.table.isDisjoint(this.other);
+    }
+
+    @Benchmark
+    public Object subtract() {
+        return this.table.subtract(this.half);
+    }
+
+    @Benchmark
+    public Object filter() {
+        return this.table.filter(this.predicate);
+    }
+
+    @Benchmark
+    public IntTuple rowsWhere() {
+        return this.table.rowsWhere(1, this.present);
+    }
+
+    @Benchmark
+    public IntTuple rowsWhereIndexed() {
+        return this.indexed.rowsWhere(1, this.present);
+    }
+
+    @Benchmark
+    public IntTuple range() {
+        return this.table.range(1, this.present, this.upper);
+    }
+
+    @Benchmark
+    public IntTuple rangeIndexed() {
+        return this.sorted.range(1, this.present, this.upper);
+    }
+
+    @Benchmark
+    public Table query() {
+        return this.table.query()
+                .filter(row -> this.predicate.test(row.getValue(0)))
+                .select(0, 1)
+                .filter(row -> this.predicate.test(row.getValue(1)))
+                .limit(this.middle)
+                .toTable();
+    }
+
+    @Benchmark
+    public Table where() {
+        return this.table.where(Expr.col(1).ge(this.present).and(Expr.col(0).ne(this.absent)));
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        ByteBuffer buffer = this.encoded.duplicate().clear();
+        BinaryCodec.write(this.table, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Table decode() throws IOException {
+        return BinaryCodec.readTable(this.encoded.duplicate());
+    }
+
+    @Benchmark
+    public MappedTable openMapped() throws IOException {
+        return MappedTable.open(this.file);
+    }
+
+    @Benchmark
+    public Object mappedGetValue() {
+        return this.mapped.getValue(this.middle, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void concurrentPush(Shared shared) {
+        shared.table.push(this.presentRow);
+    }
+
+    @Benchmark
+    public boolean compressedContains() {
+        return this.compressed.contains(this.present);
+    }
+
+    @Benchmark
+    public Object compressedFilter() {
+        return this.compressed.filter(this.predicate);
+    }
+
+    @Benchmark
+    public Table readCsv() throws IOException {
+        return CsvCodec.read(Channels.newChannel(new ByteArrayInputStream(this.csv)), CsvCodec.COMMA);
+    }
+
+    @Benchmark
+    public int writeCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.csv.length);
+        CsvCodec.write(this.table, Channels.newChannel(out), CsvCodec.COMMA);
+        return out.size();
+    }
+
+    @Benchmark
+    public Object offHeapGetValue() {
+        return this.offHeap.getValue(this.middle, 1);
+    }
+
+    @Benchmark
+    public OffHeapTable offHeapFrom() {
+        return OffHeapTable.from(this.table);
+    }
+
+    @Benchmark
+    public Table queryTopK() {
+        return this.table.query().sortBy(1).limit(10).toTable();
+    }
+
+    @Benchmark
+    public Table groupBy() {
+        return this.table.groupBy(0).aggregate(Aggregator.count(), Aggregator.sum(1), Aggregator.max(2));
+    }
+
+    @Benchmark
+    public Table hashJoin() {
+        return this.table.hashJoin(this.half, 1, 1);
+    }
+
+    @Benchmark
+    public Table mergeJoin() {
+        return this.table.mergeJoin(this.half, 1, 1);
+    }
+
+    @Benchmark
+    public void sortBy(Scratch scratch) {
+        scratch.table.sortBy(1);
+    }
+
+    @Benchmark
+    public void sortByColumns(Scratch scratch) {
+        scratch.table.sortBy(2, 1);
+    }
+
+    @Benchmark
+    public void createSortedIndex(Scratch scratch) {
+        scratch.table.createSortedIndex(1);
+    }
+
+    @Benchmark
+    public void createIndex(Scratch scratch) {
+        scratch.table.createIndex(1);
+    }
+
+    @Benchmark
+    public Object parallelFilter() {
+        return this.table.parallelFilter(this.predicate);
+    }
+
+    @Benchmark
+    public void iterator(Blackhole blackhole) {
+        for (Object row : this.table) {
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    public Table setValues(Scratch scratch) {
+        scratch.table.setValues((Object[]) this.rows);
+        return scratch.table;
+    }
+
+    @Benchmark
+    public Table ensureCapacity(Scratch scratch) {
+        scratch.table.ensureCapacity(2 * this.size);
+        return scratch.table;
+    }
+
+    @Benchmark
+    public Table trimToSize(Scratch scratch) {
+        scratch.table.push(this.presentRow);
+        scratch.table.trimToSize();
+        return scratch.table;
+    }
+
+    @Benchmark
+    public Table clear(Scratch scratch) {
+        scratch.table.clear();
+        return scratch.table;
+    }
+
+    @Benchmark
+    public Table slice(Scratch scratch) {
+        scratch.table.slice(this.size / 4, 3 * this.size / 4);
+        return scratch.table;
+    }
+
+    @Benchmark
+    public Table join(Scratch scratch) {
+        scratch.table.join(this.other);
+        return scratch.table;
+    }
+}
@@ -0,0 +1,384 @@
+package ch.mazluc.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Benchmarks every public method of {@link Tuple}, including the ones
+ * of the {@link Data} interface, across sizes and element types.
+ *
+ * <p>
+ * Benchmarks that would change the shared fixture either undo their change
+ * (a push is followed by a pop) or work on a {@link Scratch} copy that is
+ * rebuilt before every invocation.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TupleBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"INTEGER", "STRING", "MIXED"})
+    public ElementType type;
+
+    /**
+     * The values of {@link #tuple}
+     */
+    private Object[] values;
+
+    /**
+     * The fixture, holding {@link #size} distinct values
+     */
+    private Tuple tuple;
+
+    /**
+     * An indexed copy of {@link #tuple}
+     */
+    private Tuple indexed;
+
+    /**
+     * The first half of {@link #tuple}, sharing its values
+     */
+    private Tuple half;
+
+    /**
+     * A tuple of the same size sharing no value with {@link #tuple}
+     */
+    private Tuple other;
+
+    /**
+     * The ints from 0 to {@link #size}, unboxed
+     */
+    private IntTuple ints;
+
+    private Object present;
+    private Object absent;
+    private int middle;
+    private Predicate<Object> predicate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.values = this.type.values(0, this.size);
+        this.tuple = new Tuple(this.values);
+        this.indexed = new Tuple(this.values);
+        this.indexed.setIndexed(true);
+        this.indexed.indexOf(this.values[0]);
+        this.half = new Tuple(Arrays.copyOf(this.values, this.size / 2));
+        this.other = new Tuple(this.type.values(this.size, 2 * this.size));
+        this.middle = this.size / 2;
+        this.present = this.values[this.middle];
+        this.absent = this.type.value(-1);
+        this.predicate = value -> value.hashCode() % 2 == 0;
+        this.ints = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            this.ints.push(i);
+        }
+    }
+
+    /**
+     * A copy of the fixture, rebuilt before every invocation
+     */
+    @State(Scope.Thread)
+    public static class Scratch {
+        Tuple tuple;
+
+        @Setup(Level.Invocation)
+        public void setUp(TupleBenchmark benchmark) {
+            this.tuple = new Tuple(benchmark.values);
+        }
+    }
+
+    @Benchmark
+    public Tuple construct() {
+        return new Tuple(this.values);
+    }
+
+    @Benchmark
+    public Tuple withCapacity() {
+        Tuple result = Tuple.withCapacity(this.size);
+        for (Object value : this.values) {
+            result.push(value);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Tuple push() {
+        Tuple result = new Tuple();
+        for (Object value : this.values) {
+            result.push(value);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void pushPop() {
+        this.tuple.push(this.present);
+        this.tuple.pop();
+    }
+
+    @Benchmark
+    public void insertRemove() {
+        this.tuple.insert(this.middle, this.present);
+        this.tuple.remove(this.middle);
+    }
+
+    @Benchmark
+    public void replace() {
+        this.tuple.replace(this.middle, this.present);
+    }
+
+    @Benchmark
+    public void swap() {
+        this.tuple.swap(0, this.size - 1);
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return this.tuple.getValue(this.middle);
+    }
+
+    @Benchmark
+    public int length() {
+        return this.tuple.length();
+    }
+
+    @Benchmark
+    public boolean isEmpty() {
+        return this.tuple.isEmpty();
+    }
+
+    @Benchmark
+    public boolean isIndexed() {
+        return this.indexed.isIndexed();
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return this.tuple.equals(this.indexed);
+    }
+
+    @Benchmark
+    public int hashCodeTuple() {
+        return this.tuple.hashCode();
+    }
+
+    @Benchmark
+    public String toStringTuple() {
+        return this.tuple.toString();
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return this.tuple.contains(this.present);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return this.tuple.contains(this.absent);
+    }
+
+    @Benchmark
+    public boolean containsIndexed() {
+        return this.indexed.contains(this.present);
+    }
+
+    @Benchmark
+    public boolean containsType() {
+        return this.tuple.containsType(Boolean.class);
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return this.tuple.indexOf(this.present);
+    }
+
+    @Benchmark
+    public int indexOfIndexed() {
+        return this.indexed.indexOf(this.present);
+    }
+
+    @Benchmark
+    public Tuple getValuesOfType() {
+        return this.tuple.getValuesOfType(String.class);
+    }
+
+    @Benchmark
+    public boolean isSubsetOf() {
+        return this.half.isSubsetOf(this.tuple);
+    }
+
+    @Benchmark
+    public boolean isSupersetOf() {
+        return this.tuple.isSupersetOf(this.half);
+    }
+
+    @Benchmark
+    public boolean isStrictSubsetOf() {
+        return this.half.isStrictSubsetOf(this.tuple);
+    }
+
+    @Benchmark
+    public boolean isStrictSupersetOf() {
+        return this.tuple.isStrictSupersetOf(this.half);
+    }
+
+    @Benchmark
+    public boolean isDisjoint() {
+        return this.tuple.isDisjoint(this.other);
+    }
+
+    @Benchmark
+    public Object symmetricDifference() {
+        return this.tuple.symmetricDifference(this.half);
+    }
+
+    @Benchmark
+    public Object subtract() {
+        return this.tuple.subtract(this.half);
+    }
+
+    @Benchmark
+    public Object filter() {
+        return this.tuple.filter(this.predicate);
+    }
+
+    @Benchmark
+    public Selection selectInts() {
+        return this.ints.select(Comparison.LT, this.middle);
+    }
+
+    @Benchmark
+    public int indexOfInts() {
+        return this.ints.indexOf(this.middle);
+    }
+
+    @Benchmark
+    public long sumInts() {
+        return this.ints.sum();
+    }
+
+    @Benchmark
+    public void iterator(Blackhole blackhole) {
+        for (Object value : this.tuple) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public Tuple setValues(Scratch scratch) {
+        scratch.tuple.setValues(this.values);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple setIndexed(Scratch scratch) {
+        scratch.tuple.setIndexed(true);
+        scratch.tuple.contains(this.present);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple ensureCapacity(Scratch scratch) {
+        scratch.tuple.ensureCapacity(2 * this.size);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple trimToSize(Scratch scratch) {
+        scratch.tuple.push(this.present);
+        scratch.tuple.trimToSize();
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple clear(Scratch scratch) {
+        scratch.tuple.clear();
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple reverse(Scratch scratch) {
+        scratch.tuple.reverse();
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple slice(Scratch scratch) {
+        scratch.tuple.slice(this.size / 4, 3 * this.size / 4);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple split(Scratch scratch) {
+        Tuple second = new Tuple();
+        scratch.tuple.split(this.middle, second);
+        return second;
+    }
+
+    @Benchmark
+    public Tuple join(Scratch scratch) {
+        scratch.tuple.join(this.other);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple fill(Scratch scratch) {
+        scratch.tuple.fill(this.present, this.size);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple fillRandom(Scratch scratch) {
+        scratch.tuple.fillRandom(this.size);
+        return scratch.tuple;
+    }
+
+    @Benchmark
+    public Tuple fillRandomRange(Scratch scratch) {
+        scratch.tuple.fillRandom(-100, 100, this.size);
+        return scratch.tuple;
+    }
+}
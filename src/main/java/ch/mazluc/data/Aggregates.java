@@ -0,0 +1,212 @@
+package ch.mazluc.data;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The built-in {@link Aggregator}s, keeping their state in primitive fields.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class Aggregates {
+
+    private Aggregates() {}
+
+    static int checkColumn(int column) throws IllegalArgumentException {
+        if (column < 0) {
+            throw new IllegalArgumentException("Illegal column: " + column);
+        }
+        return column;
+    }
+
+    private static Object cell(Tuple row, int column) {
+        return column < row.length() ? row.getValue(column) : null;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Counts rows, in a single-slot array
+     */
+    static final class Count implements Aggregator<long[]> {
+
+        @Override
+        public long[] create() {
+            return new long[1];
+        }
+
+        @Override
+        public void add(long[] accumulator, Tuple row) {
+            accumulator[0]++;
+        }
+
+        @Override
+        public long[] merge(long[] accumulator, long[] other) {
+            accumulator[0] += other[0];
+            return accumulator;
+        }
+
+        @Override
+        public Object result(long[] accumulator) {
+            return accumulator[0];
+        }
+    }
+
+    /**
+     * Accumulator of sums, integral values kept apart
+     * so that they are summed exactly
+     */
+    static final class Total {
+        long integral;
+        double floating;
+        boolean isFloating;
+        long count;
+    }
+
+    /**
+     * Sums or averages the numbers of a column
+     */
+    static final class Sum implements Aggregator<Total> {
+
+        private final int column;
+        private final boolean average;
+
+        Sum(int column, boolean average) {
+            this.column = column;
+            this.average = average;
+        }
+
+        @Override
+        public Total create() {
+            return new Total();
+        }
+
+        @Override
+        public void add(Total accumulator, Tuple row) {
+            Object value = cell(row, this.column);
+            if (isIntegral(value)) {
+                accumulator.integral += ((Number) value).longValue();
+                accumulator.count++;
+            } else if (value instanceof Number number) {
+                accumulator.floating += number.doubleValue();
+                accumulator.isFloating = true;
+                accumulator.count++;
+            }
+        }
+
+        @Override
+        public Total merge(Total accumulator, Total other) {
+            accumulator.integral += other.integral;
+            accumulator.floating += other.floating;
+            accumulator.isFloating |= other.isFloating;
+            accumulator.count += other.count;
+            return accumulator;
+        }
+
+        @Override
+        public Object result(Total accumulator) {
+            if (this.average) {
+                return accumulator.count == 0
+                        ? Double.NaN
+                        : (accumulator.integral + accumulator.floating) / accumulator.count;
+            }
+            if (accumulator.isFloating) {
+                return accumulator.integral + accumulator.floating;
+            }
+            return accumulator.integral;
+        }
+    }
+
+    /**
+     * Accumulator of the least or greatest value seen
+     */
+    static final class Best {
+        Object value;
+    }
+
+    /**
+     * Finds the least or greatest value of a column
+     */
+    static final class Extreme implements Aggregator<Best> {
+
+        private final int column;
+
+        /**
+         * -1 to keep the least value, 1 the greatest
+         */
+        private final int sign;
+
+        Extreme(int column, int sign) {
+            this.column = column;
+            this.sign = sign;
+        }
+
+        @Override
+        public Best create() {
+            return new Best();
+        }
+
+        @Override
+        public void add(Best accumulator, Tuple row) {
+            this.offer(accumulator, cell(row, this.column));
+        }
+
+        @Override
+        public Best merge(Best accumulator, Best other) {
+            this.offer(accumulator, other.value);
+            return accumulator;
+        }
+
+        private void offer(Best accumulator, Object value) {
+            if (!(value instanceof Comparable)) {
+                return;
+            }
+            if (accumulator.value == null || compare(value, accumulator.value) * this.sign > 0) {
+                accumulator.value = value;
+            }
+        }
+
+        @Override
+        public Object result(Best accumulator) {
+            return accumulator.value == null ? Double.NaN : accumulator.value;
+        }
+
+        private static int compare(Object a, Object b) {
+            if (a instanceof Number x && b instanceof Number y) {
+                if (isIntegral(x) && isIntegral(y)) {
+                    return Long.compare(x.longValue(), y.longValue());
+                }
+                return Double.compare(x.doubleValue(), y.doubleValue());
+            }
+            if (a instanceof Number != b instanceof Number) {
+                return a instanceof Number ? -1 : 1;
+            }
+            return ColumnIndex.ORDER.compare(a, b);
+        }
+    }
+}
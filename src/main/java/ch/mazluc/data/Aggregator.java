@@ -0,0 +1,183 @@
+package ch.mazluc.data;
+
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * An aggregate function over the rows of a group, as computed by
+ * {@link GroupBy#aggregate(Aggregator...)}.
+ *
+ * <p>
+ * Rows are folded into a mutable accumulator. Groups are aggregated
+ * in parallel chunks, each with accumulators of its own, which are
+ * then merged: an aggregator never sees an accumulator from two
+ * threads at once, and needs no synchronization.
+ *
+ * <p>
+ * The built-in aggregators keep their state in primitive fields,
+ * so folding a row allocates nothing. Values other than numbers,
+ * and rows too short to have the column, are ignored by the numeric ones.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * Table totals = table.groupBy(0).aggregate(count(), sum(2), avg(2), max(3));
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @param <A> the type of the accumulator
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public interface Aggregator<A> {
+
+    /**
+     * Creates an empty accumulator
+     *
+     * @return the accumulator
+     */
+    A create();
+
+    /**
+     * Folds a row into an accumulator
+     *
+     * @param accumulator the accumulator
+     * @param row         the row
+     */
+    void add(A accumulator, Tuple row);
+
+    /**
+     * Merges two accumulators of the same group, the second
+     * one holding rows that follow the ones of the first
+     *
+     * @param accumulator the accumulator to merge into
+     * @param other       the accumulator to merge
+     * @return the merged accumulator
+     */
+    A merge(A accumulator, A other);
+
+    /**
+     * Returns the aggregate of an accumulator.
+     * Tuples hold no null values, so the result must not be null.
+     *
+     * @param accumulator the accumulator
+     * @return the aggregate
+     */
+    Object result(A accumulator);
+
+    /**
+     * Counts the rows of a group
+     *
+     * @return the aggregator, with a {@code Long} result
+     */
+    static Aggregator<long[]> count() {
+        return new Aggregates.Count();
+    }
+
+    /**
+     * Sums the numeric values of a column.
+     * The sum is a {@code Long} if all the values are integral,
+     * a {@code Double} otherwise.
+     *
+     * @param column the column
+     * @return the aggregator
+     */
+    static Aggregator<?> sum(int column) {
+        return new Aggregates.Sum(Aggregates.checkColumn(column), false);
+    }
+
+    /**
+     * Averages the numeric values of a column.
+     *
+     * @param column the column
+     * @return the aggregator, with a {@code Double} result, {@code NaN} for groups without numbers
+     */
+    static Aggregator<?> avg(int column) {
+        return new Aggregates.Sum(Aggregates.checkColumn(column), true);
+    }
+
+    /**
+     * Finds the least value of a column. Numbers are compared by value,
+     * across classes; other {@link Comparable} values in natural order,
+     * after the numbers, as in a {@linkplain Table#createSortedIndex(int) sorted index}.
+     *
+     * @param column the column
+     * @return the aggregator, with a {@code NaN} result for groups without comparable values
+     */
+    static Aggregator<?> min(int column) {
+        return new Aggregates.Extreme(Aggregates.checkColumn(column), -1);
+    }
+
+    /**
+     * Finds the greatest value of a column, compared as {@link #min(int)} does.
+     *
+     * @param column the column
+     * @return the aggregator, with a {@code NaN} result for groups without comparable values
+     */
+    static Aggregator<?> max(int column) {
+        return new Aggregates.Extreme(Aggregates.checkColumn(column), 1);
+    }
+
+    /**
+     * Creates an aggregator from its functions
+     *
+     * @param create the function creating an empty accumulator
+     * @param add    the function folding a row into an accumulator
+     * @param merge  the function merging two accumulators
+     * @param result the function returning the aggregate of an accumulator
+     * @param <A>    the type of the accumulator
+     * @return the aggregator
+     */
+    static <A> Aggregator<A> of(Supplier<A> create, BiConsumer<A, Tuple> add,
+                                BinaryOperator<A> merge, Function<A, ?> result) {
+        return new Aggregator<>() {
+            @Override
+            public A create() {
+                return create.get();
+            }
+
+            @Override
+            public void add(A accumulator, Tuple row) {
+                add.accept(accumulator, row);
+            }
+
+            @Override
+            public A merge(A accumulator, A other) {
+                return merge.apply(accumulator, other);
+            }
+
+            @Override
+            public Object result(A accumulator) {
+                return result.apply(accumulator);
+            }
+        };
+    }
+}
@@ -0,0 +1,645 @@
+package ch.mazluc.data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Compact, versioned binary encoding of {@link Tuple}s and {@link Table}s,
+ * read and written through {@link ByteBuffer}s and byte channels.
+ *
+ * <p>
+ * An encoded tuple or table starts with a header: the magic number
+ * {@code "BDat"}, the {@linkplain #VERSION format version} and a kind byte.
+ * A tuple follows as its length and its values, a table as its amount of rows
+ * and each row as a tuple. Each value is a type tag followed by the value:
+ * {@code Integer}s, {@code Long}s and lengths are variable-length integers
+ * (LEB128, signed ones zigzag-encoded), so that small values take a single byte;
+ * {@code Double}s take eight bytes, big-endian whatever the order of the buffer;
+ * strings are their UTF-8 length and bytes, and nested tuples are written in place.
+ * Values of the other primitive wrapper classes are supported too.
+ *
+ * <p>
+ * Values are encoded straight into the buffer, or into a single reused
+ * direct buffer flushed to the channel, and decoded straight out of it,
+ * without encoding the whole tuple or table to a byte array first.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * try (FileChannel channel = FileChannel.open(path, CREATE, WRITE)) {
+ *     BinaryCodec.write(table, channel);
+ * }
+ * try (FileChannel channel = FileChannel.open(path)) {
+ *     Table copy = BinaryCodec.readTable(channel);
+ * }
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class BinaryCodec {
+
+    /**
+     * The version of the format written, the only one read
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * {@code "BDat"} in ASCII
+     */
+    static final int MAGIC = 0x42446174;
+
+    private static final byte KIND_TUPLE = 1;
+    private static final byte KIND_TABLE = 2;
+
+    /**
+     * Kind of the files of {@link MappedTable}
+     */
+    static final byte KIND_MAPPED = 3;
+
+    // Type tags of the values
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte CHAR = 7;
+    private static final byte TRUE = 8;
+    private static final byte FALSE = 9;
+    private static final byte STRING = 10;
+    private static final byte TUPLE = 11;
+
+    /**
+     * Size of the buffer through which channels are read and written
+     */
+    private static final int CHANNEL_BUFFER = 1 << 16;
+
+    /**
+     * Longest encoding of a single value that is not a string or a tuple:
+     * a tag and a ten-byte variable-length long
+     */
+    private static final int MAX_SCALAR = 11;
+
+    private BinaryCodec() {}
+
+    /**
+     * Encodes a tuple into a buffer, from its position
+     *
+     * @param tuple the tuple
+     * @param out   the buffer
+     * @throws BufferOverflowException  if the buffer is too small,
+     *                                  its position is then left unchanged
+     * @throws IllegalArgumentException if a value of the tuple cannot be encoded
+     */
+    public static void write(Tuple tuple, ByteBuffer out) throws BufferOverflowException, IllegalArgumentException {
+        int start = out.position();
+        try {
+            Encoder encoder = new Encoder(out, null);
+            encoder.header(KIND_TUPLE);
+            encoder.tuple(tuple);
+        } catch (IOException e) {
+            // Only channels fail
+            throw new UncheckedIOException(e);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Encodes a table into a buffer, from its position
+     *
+     * @param table the table
+     * @param out   the buffer
+     * @throws BufferOverflowException  if the buffer is too small,
+     *                                  its position is then left unchanged
+     * @throws IllegalArgumentException if a value of the table cannot be encoded
+     */
+    public static void write(Table table, ByteBuffer out) throws BufferOverflowException, IllegalArgumentException {
+        int start = out.position();
+        try {
+            Encoder encoder = new Encoder(out, null);
+            encoder.header(KIND_TABLE);
+            encoder.table(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Encodes a tuple into a channel
+     *
+     * @param tuple   the tuple
+     * @param channel the channel
+     * @throws IOException              if the channel fails
+     * @throws IllegalArgumentException if a value of the tuple cannot be encoded
+     */
+    public static void write(Tuple tuple, WritableByteChannel channel) throws IOException, IllegalArgumentException {
+        Encoder encoder = new Encoder(ByteBuffer.allocateDirect(CHANNEL_BUFFER), channel);
+        encoder.header(KIND_TUPLE);
+        encoder.tuple(tuple);
+        encoder.flush();
+    }
+
+    /**
+     * Encodes a table into a channel
+     *
+     * @param table   the table
+     * @param channel the channel
+     * @throws IOException              if the channel fails
+     * @throws IllegalArgumentException if a value of the table cannot be encoded
+     */
+    public static void write(Table table, WritableByteChannel channel) throws IOException, IllegalArgumentException {
+        Encoder encoder = new Encoder(ByteBuffer.allocateDirect(CHANNEL_BUFFER), channel);
+        encoder.header(KIND_TABLE);
+        encoder.table(table);
+        encoder.flush();
+    }
+
+    /**
+     * Decodes a tuple from a buffer, from its position.
+     * The position is left after the tuple.
+     *
+     * @param in the buffer
+     * @return the tuple
+     * @throws IOException if the buffer holds no valid tuple of this version
+     */
+    public static Tuple readTuple(ByteBuffer in) throws IOException {
+        Decoder decoder = new Decoder(in, null);
+        decoder.header(KIND_TUPLE);
+        return decoder.tuple();
+    }
+
+    /**
+     * Decodes a table from a buffer, from its position.
+     * The position is left after the table.
+     *
+     * @param in the buffer
+     * @return the table
+     * @throws IOException if the buffer holds no valid table of this version
+     */
+    public static Table readTable(ByteBuffer in) throws IOException {
+        Decoder decoder = new Decoder(in, null);
+        decoder.header(KIND_TABLE);
+        return decoder.table();
+    }
+
+    /**
+     * Decodes a tuple from a channel.
+     * The channel is read ahead in blocks: bytes following the tuple may be consumed.
+     *
+     * @param channel the channel
+     * @return the tuple
+     * @throws IOException if the channel fails or holds no valid tuple of this version
+     */
+    public static Tuple readTuple(ReadableByteChannel channel) throws IOException {
+        Decoder decoder = new Decoder(ByteBuffer.allocateDirect(CHANNEL_BUFFER).limit(0), channel);
+        decoder.header(KIND_TUPLE);
+        return decoder.tuple();
+    }
+
+    /**
+     * Decodes a table from a channel.
+     * The channel is read ahead in blocks: bytes following the table may be consumed.
+     *
+     * @param channel the channel
+     * @return the table
+     * @throws IOException if the channel fails or holds no valid table of this version
+     */
+    public static Table readTable(ReadableByteChannel channel) throws IOException {
+        Decoder decoder = new Decoder(ByteBuffer.allocateDirect(CHANNEL_BUFFER).limit(0), channel);
+        decoder.header(KIND_TABLE);
+        return decoder.table();
+    }
+
+    /**
+     * Returns the amount of bytes the UTF-8 encoding of a string takes,
+     * unpaired surrogates being replaced by {@code '?'} as {@link String#getBytes} does
+     */
+    static int utf8Length(String s) {
+        int length = s.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Writes values to a buffer, flushing it to the channel when full, if there is one
+     */
+    static final class Encoder {
+
+        private final ByteBuffer buffer;
+        private final WritableByteChannel channel;
+        private final boolean littleEndian;
+
+        /**
+         * Amount of bytes flushed to the channel
+         */
+        private long flushed;
+
+        Encoder(ByteBuffer buffer, WritableByteChannel channel) {
+            this.buffer = buffer;
+            this.channel = channel;
+            this.littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        }
+
+        /**
+         * Makes room for the given amount of bytes, when writing to a channel.
+         * Buffers given by the caller overflow on the write that does not fit.
+         */
+        void ensure(int bytes) throws IOException {
+            if (this.channel != null && this.buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+        void flush() throws IOException {
+            this.buffer.flip();
+            this.flushed += this.buffer.remaining();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Returns the amount of bytes written, flushed or not
+         */
+        long written() {
+            return this.flushed + this.buffer.position();
+        }
+
+        void header(byte kind) throws IOException {
+            this.ensure(6);
+            this.putInt(MAGIC);
+            this.buffer.put((byte) VERSION);
+            this.buffer.put(kind);
+        }
+
+        void table(Table table) throws IOException {
+            int rows = table.length();
+            this.ensure(5);
+            this.varLong(rows);
+            for (int i = 0; i < rows; i++) {
+                this.tuple(table.row(i));
+            }
+        }
+
+        void tuple(Tuple tuple) throws IOException {
+            int length = tuple.length();
+            this.ensure(5);
+            this.varLong(length);
+            for (int i = 0; i < length; i++) {
+                this.value(tuple.getValue(i));
+            }
+        }
+
+        void value(Object value) throws IOException {
+            if (value instanceof String v) {
+                this.string(v);
+                return;
+            }
+            if (value instanceof Tuple v) {
+                this.ensure(1);
+                this.buffer.put(TUPLE);
+                this.tuple(v);
+                return;
+            }
+            this.ensure(MAX_SCALAR);
+            ByteBuffer out = this.buffer;
+            if (value instanceof Integer v) {
+                out.put(INT);
+                this.varLong(zigzag(v));
+            } else if (value instanceof Long v) {
+                out.put(LONG);
+                this.varLong(zigzag(v));
+            } else if (value instanceof Double v) {
+                out.put(DOUBLE);
+                this.putLong(Double.doubleToRawLongBits(v));
+            } else if (value instanceof Float v) {
+                out.put(FLOAT);
+                this.putInt(Float.floatToRawIntBits(v));
+            } else if (value instanceof Short v) {
+                out.put(SHORT);
+                out.put((byte) (v >> 8)).put((byte) (short) v);
+            } else if (value instanceof Byte v) {
+                out.put(BYTE).put(v);
+            } else if (value instanceof Character v) {
+                out.put(CHAR);
+                out.put((byte) (v >> 8)).put((byte) (char) v);
+            } else if (value instanceof Boolean v) {
+                out.put(v ? TRUE : FALSE);
+            } else {
+                throw new IllegalArgumentException("Cannot encode value of " + value.getClass());
+            }
+        }
+
+        private void string(String s) throws IOException {
+            int length = s.length();
+            this.ensure(6);
+            this.buffer.put(STRING);
+            this.varLong(utf8Length(s));
+            ByteBuffer out = this.buffer;
+            for (int i = 0; i < length; i++) {
+                if (out.remaining() < 4) {
+                    this.ensure(4);
+                }
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    out.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                            .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    out.put((byte) '?');
+                } else {
+                    out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+                }
+            }
+        }
+
+        private void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                this.buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            this.buffer.put((byte) value);
+        }
+
+        private void putInt(int value) {
+            this.buffer.putInt(this.littleEndian ? Integer.reverseBytes(value) : value);
+        }
+
+        private void putLong(long value) {
+            this.buffer.putLong(this.littleEndian ? Long.reverseBytes(value) : value);
+        }
+    }
+
+    /**
+     * Reads values from a buffer, refilling it from the channel when exhausted, if there is one
+     */
+    static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private final ReadableByteChannel channel;
+        private final boolean littleEndian;
+
+        /**
+         * Bytes of the strings not readable from a backing array, reused
+         */
+        private byte[] scratch = new byte[0];
+
+        Decoder(ByteBuffer buffer, ReadableByteChannel channel) {
+            this.buffer = buffer;
+            this.channel = channel;
+            this.littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        }
+
+        /**
+         * Makes the given amount of bytes, at most the capacity of the buffer, available
+         */
+        void require(int bytes) throws IOException {
+            if (this.buffer.remaining() >= bytes) {
+                return;
+            }
+            if (this.channel == null) {
+                throw new EOFException("Truncated input");
+            }
+            this.buffer.compact();
+            try {
+                while (this.buffer.position() < bytes) {
+                    if (this.channel.read(this.buffer) < 0) {
+                        throw new EOFException("Truncated input");
+                    }
+                }
+            } finally {
+                this.buffer.flip();
+            }
+        }
+
+        void header(byte kind) throws IOException {
+            this.require(6);
+            if (this.getInt() != MAGIC) {
+                throw new IOException("Not an encoded tuple or table");
+            }
+            int version = this.buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported format version " + version);
+            }
+            byte actual = this.buffer.get();
+            if (actual != kind) {
+                throw new IOException("Expected a " + (kind == KIND_TABLE ? "table" : "tuple"));
+            }
+        }
+
+        Table table() throws IOException {
+            int rows = this.length();
+            Table table = new Table(Math.min(rows, CHANNEL_BUFFER));
+            for (int i = 0; i < rows; i++) {
+                table.push(this.tuple());
+            }
+            return table;
+        }
+
+        Tuple tuple() throws IOException {
+            int length = this.length();
+            Object[] values = new Object[Math.min(length, CHANNEL_BUFFER)];
+            for (int i = 0; i < length; i++) {
+                if (i == values.length) {
+                    values = Arrays.copyOf(values, Capacity.grow(values.length, i + 1));
+                }
+                values[i] = this.value();
+            }
+            return Tuple.wrap(values, length);
+        }
+
+        Object value() throws IOException {
+            this.require(1);
+            byte tag = this.buffer.get();
+            switch (tag) {
+                case INT:
+                    long zigzagged = this.varLong();
+                    long value = unzigzag(zigzagged);
+                    if (value != (int) value) {
+                        throw new IOException("Malformed int");
+                    }
+                    return (int) value;
+                case LONG: return unzigzag(this.varLong());
+                case DOUBLE:
+                    this.require(8);
+                    return Double.longBitsToDouble(this.getLong());
+                case FLOAT:
+                    this.require(4);
+                    return Float.intBitsToFloat(this.getInt());
+                case SHORT:
+                    this.require(2);
+                    return (short) ((this.buffer.get() & 0xFF) << 8 | this.buffer.get() & 0xFF);
+                case BYTE:
+                    this.require(1);
+                    return this.buffer.get();
+                case CHAR:
+                    this.require(2);
+                    return (char) ((this.buffer.get() & 0xFF) << 8 | this.buffer.get() & 0xFF);
+                case TRUE: return true;
+                case FALSE: return false;
+                case STRING: return this.string();
+                case TUPLE: return this.tuple();
+                default: throw new IOException("Unknown value tag " + tag);
+            }
+        }
+
+        /**
+         * Skips a value without decoding it
+         */
+        void skip() throws IOException {
+            this.require(1);
+            byte tag = this.buffer.get();
+            switch (tag) {
+                case INT, LONG -> this.varLong();
+                case DOUBLE -> this.skip(8);
+                case FLOAT -> this.skip(4);
+                case SHORT, CHAR -> this.skip(2);
+                case BYTE -> this.skip(1);
+                case TRUE, FALSE -> { }
+                case STRING -> this.skip(this.length());
+                case TUPLE -> {
+                    for (int i = this.length(); i > 0; i--) {
+                        this.skip();
+                    }
+                }
+                default -> throw new IOException("Unknown value tag " + tag);
+            }
+        }
+
+        private void skip(int bytes) throws IOException {
+            for (int left = bytes; left > 0; ) {
+                this.require(Math.min(left, this.buffer.capacity()));
+                int n = Math.min(left, this.buffer.remaining());
+                this.buffer.position(this.buffer.position() + n);
+                left -= n;
+            }
+        }
+
+        private String string() throws IOException {
+            int length = this.length();
+            ByteBuffer in = this.buffer;
+            if (this.channel == null && length > in.remaining()) {
+                throw new IOException("Corrupt length " + length);
+            }
+            if (length <= in.capacity()) {
+                this.require(length);
+                if (in.hasArray()) {
+                    String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                    in.position(in.position() + length);
+                    return s;
+                }
+            }
+            // Longer than the buffer: copied out block by block, the scratch array
+            // growing with the bytes actually read rather than with the length decoded
+            for (int read = 0; read < length; ) {
+                this.require(Math.min(length - read, in.capacity()));
+                int n = Math.min(length - read, in.remaining());
+                if (this.scratch.length < read + n) {
+                    this.scratch = Arrays.copyOf(this.scratch,
+                            (int) Math.min(length, Math.max(read + n, 2L * this.scratch.length)));
+                }
+                in.get(this.scratch, read, n);
+                read += n;
+            }
+            return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int length() throws IOException {
+            long length = this.varLong();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Malformed length " + length);
+            }
+            return (int) length;
+        }
+
+        private long varLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                this.require(1);
+                byte b = this.buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+
+        private int getInt() {
+            int value = this.buffer.getInt();
+            return this.littleEndian ? Integer.reverseBytes(value) : value;
+        }
+
+        private long getLong() {
+            long value = this.buffer.getLong();
+            return this.littleEndian ? Long.reverseBytes(value) : value;
+        }
+    }
+}
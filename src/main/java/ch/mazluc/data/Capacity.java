@@ -0,0 +1,88 @@
+package ch.mazluc.data;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Capacity policy shared by the array-backed {@link Data} implementations.
+ * Backing arrays grow geometrically (by half of their current capacity),
+ * so that a sequence of appends costs amortized constant time.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class Capacity {
+
+    /**
+     * Capacity allocated on the first append to an empty backing array
+     */
+    static final int DEFAULT = 10;
+
+    /**
+     * Largest array size the JVM reliably allows
+     */
+    static final int MAX = Integer.MAX_VALUE - 8;
+
+    private Capacity() {}
+
+    /**
+     * Checks that a requested initial capacity is not negative.
+     *
+     * @param initialCapacity the requested capacity
+     * @return the capacity
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    static int checkInitial(int initialCapacity) throws IllegalArgumentException {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        return initialCapacity;
+    }
+
+    /**
+     * Computes the capacity a backing array should grow to.
+     *
+     * @param oldCapacity the current capacity
+     * @param minCapacity the capacity that is required at least
+     * @return the new capacity, never smaller than {@code minCapacity}
+     * @throws OutOfMemoryError if {@code minCapacity} overflows
+     */
+    static int grow(int oldCapacity, int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("Required capacity exceeds the maximum array size");
+        }
+        if (oldCapacity == 0) {
+            return Math.max(DEFAULT, minCapacity);
+        }
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if (newCapacity - minCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        if (newCapacity - MAX > 0) {
+            newCapacity = Math.max(minCapacity, MAX);
+        }
+        return newCapacity;
+    }
+}
@@ -0,0 +1,176 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Index over one column of a {@link Table}, mapping each value
+ * of the column to the ids of the rows holding it.
+ * The row ids of each value are kept in ascending order: appended rows
+ * are added in constant time, other rows by binary search.
+ * Rows too short to have the column are not indexed.
+ *
+ * <p>
+ * A hash index answers point lookups in constant time. A sorted index
+ * keeps the values in a red-black tree ({@link TreeMap}), answering point
+ * lookups in logarithmic time and range lookups in logarithmic time plus
+ * the size of the range. It only holds {@link Comparable} values, ordered
+ * by class name first and then by their natural order, so that values
+ * of different classes never have to be compared with each other.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class ColumnIndex {
+
+    /**
+     * The indexed column
+     */
+    final int column;
+
+    /**
+     * Whether the values are kept in order
+     */
+    final boolean sorted;
+
+    /**
+     * Maps each value of the column to the ids of its rows
+     */
+    private final Map<Object, IntTuple> rows;
+
+    /**
+     * Order of the values of a sorted index
+     */
+    @SuppressWarnings("unchecked")
+    static final Comparator<Object> ORDER = (a, b) -> {
+        Class<?> type = a.getClass();
+        if (type != b.getClass()) {
+            return type.getName().compareTo(b.getClass().getName());
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    };
+
+    ColumnIndex(int column, boolean sorted) {
+        this.column = column;
+        this.sorted = sorted;
+        this.rows = sorted ? new TreeMap<>(ORDER) : new HashMap<>();
+    }
+
+    /**
+     * Returns if a value can be held by the index
+     *
+     * @param value the value
+     * @return true if the index is a hash index, or the value is comparable
+     */
+    boolean accepts(Object value) {
+        return !this.sorted || value instanceof Comparable;
+    }
+
+    /**
+     * Adds a row to the index.
+     *
+     * @param id  the id of the row
+     * @param row the row
+     */
+    void add(int id, Tuple row) {
+        if (row.length() <= this.column) {
+            return;
+        }
+        Object value = row.getValue(this.column);
+        if (!this.accepts(value)) {
+            return;
+        }
+        IntTuple ids = this.rows.computeIfAbsent(value, k -> new IntTuple());
+        int length = ids.length();
+        if (length == 0 || ids.getInt(length - 1) < id) {
+            ids.push(id);
+            return;
+        }
+        int position = Arrays.binarySearch(ids.array(), 0, length, id);
+        if (position < 0) {
+            ids.insert(-position - 1, id);
+        }
+    }
+
+    /**
+     * Removes a row from the index.
+     *
+     * @param id  the id of the row
+     * @param row the row, holding the same values it was added with
+     */
+    void remove(int id, Tuple row) {
+        if (row.length() <= this.column) {
+            return;
+        }
+        Object value = row.getValue(this.column);
+        IntTuple ids = this.get(value);
+        if (ids == null) {
+            return;
+        }
+        int position = Arrays.binarySearch(ids.array(), 0, ids.length(), id);
+        if (position < 0) {
+            return;
+        }
+        ids.remove(position);
+        if (ids.isEmpty()) {
+            this.rows.remove(value);
+        }
+    }
+
+    /**
+     * Returns the ids of the rows holding the given value in the column.
+     * The returned tuple belongs to the index and must not be modified.
+     *
+     * @param value the value
+     * @return the row ids in ascending order, null if there are none
+     */
+    IntTuple get(Object value) {
+        return this.accepts(value) ? this.rows.get(value) : null;
+    }
+
+    /**
+     * Returns the values of a sorted index, in order,
+     * each with the ids of its rows
+     *
+     * @return the values
+     */
+    NavigableMap<Object, IntTuple> values() {
+        return (NavigableMap<Object, IntTuple>) this.rows;
+    }
+
+    /**
+     * Removes every row from the index
+     */
+    void clear() {
+        this.rows.clear();
+    }
+}
@@ -0,0 +1,137 @@
+package ch.mazluc.data;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The storage type of a column of a {@link ColumnarTable}.
+ * Numeric columns are stored unboxed, in the primitive tuple
+ * matching their type, while any other column falls back to
+ * a generic {@link Tuple}.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public enum ColumnType {
+
+    /**
+     * Column of {@code Integer} values, stored in an {@link IntTuple}
+     */
+    INT(Integer.class),
+
+    /**
+     * Column of {@code Long} values, stored in a {@link LongTuple}
+     */
+    LONG(Long.class),
+
+    /**
+     * Column of {@code Double} values, stored in a {@link DoubleTuple}
+     */
+    DOUBLE(Double.class),
+
+    /**
+     * Column of values of any type, stored in a {@link Tuple}
+     */
+    OBJECT(Object.class);
+
+    /**
+     * The exact class of the values a column of this type holds
+     */
+    private final Class<?> type;
+
+    ColumnType(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the type of column able to store the given value unboxed,
+     * or {@link #OBJECT} if there is none.
+     *
+     * @param value the value
+     * @return the column type of the value
+     */
+    public static ColumnType of(Object value) {
+        for (ColumnType columnType : values()) {
+            if (value.getClass() == columnType.type) {
+                return columnType;
+            }
+        }
+        return OBJECT;
+    }
+
+    /**
+     * Determines if a column of this type can store the given value
+     * without changing its class.
+     *
+     * @param value the value
+     * @return true if the value fits the column
+     */
+    public boolean accepts(Object value) {
+        return this == OBJECT || value.getClass() == this.type;
+    }
+
+    /**
+     * Returns if the column holds numbers stored unboxed
+     *
+     * @return true for the primitive column types
+     */
+    public boolean isPrimitive() {
+        return this != OBJECT;
+    }
+
+    /**
+     * Creates an empty column of this type.
+     *
+     * @param capacity the initial capacity of the column
+     * @return the column
+     */
+    Data newColumn(int capacity) {
+        return switch (this) {
+            case INT -> IntTuple.withCapacity(capacity);
+            case LONG -> LongTuple.withCapacity(capacity);
+            case DOUBLE -> DoubleTuple.withCapacity(capacity);
+            case OBJECT -> Tuple.withCapacity(capacity);
+        };
+    }
+
+    /**
+     * Returns the type of the given column.
+     *
+     * @param column a column created by {@link #newColumn(int)}
+     * @return its type
+     */
+    static ColumnType ofColumn(Data column) {
+        if (column instanceof IntTuple) {
+            return INT;
+        }
+        if (column instanceof LongTuple) {
+            return LONG;
+        }
+        if (column instanceof DoubleTuple) {
+            return DOUBLE;
+        }
+        return OBJECT;
+    }
+}
@@ -0,0 +1,902 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Represents a table stored column by column.
+ * Each column is kept in its own typed storage: numeric columns are
+ * unboxed in an {@link IntTuple}, {@link LongTuple} or {@link DoubleTuple},
+ * while columns of any other (or of mixed) type fall back to a {@link Tuple}.
+ * Scanning or aggregating a column therefore reads a single contiguous
+ * array, without touching the other columns nor materializing rows.
+ * It is an implementation of the {@link Data} interface,
+ * whose elements are the rows of the table.
+ *
+ * <p>
+ * All rows of a columnar table have the same length.
+ * The types of the columns are inferred from the first row pushed,
+ * unless they are given upfront, and a column falls back to
+ * {@link ColumnType#OBJECT} as soon as it receives a value of another type.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * ColumnarTable table = new ColumnarTable(ColumnType.INT, ColumnType.OBJECT);
+ * table.push(new Tuple(1, "a"));
+ * table.push(new Tuple(2, "b"));
+ * Number sum = table.sum(0); // 3, without boxing the column
+ * IntTuple rows = table.whereInt(0, v -> v > 1); // [1]
+ * Table rowMajor = table.toTable();
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public class ColumnarTable implements Data {
+
+    /**
+     * Message when an index is out of bounds
+     */
+    private static final String OUT_OF_BOUNDS = "Index out of bounds for length ";
+
+    /**
+     * Message when an object is not a columnar table
+     */
+    private static final String NOT_A_COLUMNAR_TABLE = "Object is not a columnar table";
+
+    /**
+     * Message when a numeric operation runs on an object column
+     */
+    private static final String NOT_NUMERIC = "Column is not numeric: ";
+
+    /**
+     * The columns of the table, all holding {@link #size} values
+     */
+    private Data[] columns;
+
+    /**
+     * The number of rows of the table
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty columnar table.
+     * The columns are defined by the first row pushed.
+     */
+    public ColumnarTable() {
+        this.columns = new Data[0];
+    }
+
+    /**
+     * Creates a new, empty columnar table with the given columns
+     *
+     * @param types the types of the columns
+     */
+    public ColumnarTable(ColumnType... types) {
+        this.columns = new Data[types.length];
+        for (int i = 0; i < types.length; i++) {
+            this.columns[i] = types[i].newColumn(0);
+        }
+    }
+
+    /**
+     * Creates a columnar copy of a table.
+     * Each column gets the narrowest type able to hold all of its values.
+     *
+     * @param table the table to convert
+     * @return the columnar table
+     * @throws IllegalArgumentException if the rows of the table have different lengths
+     */
+    public static ColumnarTable from(Table table) throws IllegalArgumentException {
+        ColumnarTable result = new ColumnarTable();
+        if (table.isEmpty()) {
+            return result;
+        }
+        ColumnType[] types = inferTypes(table);
+        int width = types.length;
+        result.columns = new Data[width];
+        for (int j = 0; j < width; j++) {
+            result.columns[j] = types[j].newColumn(table.length());
+        }
+        for (Object value : table) {
+            Tuple row = (Tuple) value;
+            for (int j = 0; j < width; j++) {
+                result.columns[j].push(row.getValue(j));
+            }
+            result.size++;
+        }
+        return result;
+    }
+
+    /**
+     * Returns, for each column of a non-empty table,
+     * the narrowest type able to hold all of its values.
+     *
+     * @param table the table
+     * @return the types of the columns
+     * @throws IllegalArgumentException if the rows of the table have different lengths
+     */
+    static ColumnType[] inferTypes(Table table) throws IllegalArgumentException {
+        int width = ((Tuple) table.iterator().next()).length();
+        ColumnType[] types = new ColumnType[width];
+        for (Object value : table) {
+            Tuple row = (Tuple) value;
+            checkWidth(row, width);
+            for (int j = 0; j < width; j++) {
+                Object cell = row.getValue(j);
+                if (types[j] == null) {
+                    types[j] = ColumnType.of(cell);
+                } else if (!types[j].accepts(cell)) {
+                    types[j] = ColumnType.OBJECT;
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Converts the table to a row-major {@link Table}
+     *
+     * @return the table
+     */
+    public Table toTable() {
+        Table table = new Table(this.size);
+        for (int i = 0; i < this.size; i++) {
+            table.push(this.getRow(i));
+        }
+        return table;
+    }
+
+    private static boolean isColumnarTable(Object o) {
+        return ColumnarTable.class == o.getClass();
+    }
+
+    static void checkWidth(Tuple row, int width) throws IllegalArgumentException {
+        if (row.length() != width) {
+            throw new IllegalArgumentException("Row has " + row.length() + " values, expected " + width);
+        }
+    }
+
+    /**
+     * Retrieves the number of rows of the table.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int length() {
+        return this.size;
+    }
+
+    /**
+     * Retrieves the number of columns of the table.
+     *
+     * @return the number of columns
+     */
+    public int width() {
+        return this.columns.length;
+    }
+
+    /**
+     * Checks if the table has no rows.
+     *
+     * @return true if the table is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the storage type of a column
+     *
+     * @param col the index of the column
+     * @return the type of the column
+     */
+    public ColumnType getColumnType(int col) throws IndexOutOfBoundsException {
+        return ColumnType.ofColumn(this.column(col));
+    }
+
+    private Data column(int col) throws IndexOutOfBoundsException {
+        if (col < 0 || col >= this.columns.length) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.columns.length);
+        }
+        return this.columns[col];
+    }
+
+    private void checkRow(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= this.size) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
+        }
+    }
+
+    /**
+     * Reads a cell of a column, boxing it if the column is primitive.
+     */
+    static Object cell(Data column, int row) {
+        if (column instanceof IntTuple c) {
+            return c.getInt(row);
+        }
+        if (column instanceof LongTuple c) {
+            return c.getLong(row);
+        }
+        if (column instanceof DoubleTuple c) {
+            return c.getDouble(row);
+        }
+        return ((Tuple) column).getValue(row);
+    }
+
+    /**
+     * Retrieves the value at the specified cell.
+     *
+     * @param row the index of the row
+     * @param col the index of the column
+     * @return the value at the specified cell
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(int row, int col) throws IndexOutOfBoundsException {
+        Data column = this.column(col);
+        this.checkRow(row);
+        return (T) cell(column, row);
+    }
+
+    /**
+     * Materializes a row of the table
+     *
+     * @param row the index of the row
+     * @return the values of the row
+     */
+    public Tuple getRow(int row) throws IndexOutOfBoundsException {
+        this.checkRow(row);
+        return new Tuple(this.rowValues(row));
+    }
+
+    private Object[] rowValues(int row) {
+        Object[] values = new Object[this.columns.length];
+        for (int j = 0; j < values.length; j++) {
+            values[j] = cell(this.columns[j], row);
+        }
+        return values;
+    }
+
+    /**
+     * Determines whether the table contains the specified value.
+     * A tuple is looked up as a whole row, any other value
+     * is looked up in every column.
+     *
+     * @param value the value to be checked if it is contained in the table
+     * @return true if the value is contained in the table, otherwise false
+     */
+    @Override
+    public <T> boolean contains(T value) {
+        if (value == null || this.isEmpty()) {
+            return false;
+        }
+        if (Tuple.isTuple(value)) {
+            Tuple row = (Tuple) value;
+            if (row.length() != this.columns.length) {
+                return false;
+            }
+            for (int i = 0; i < this.size; i++) {
+                if (this.rowEquals(i, row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int j = 0; j < this.columns.length; j++) {
+            if (this.indexOf(j, value) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean rowEquals(int row, Tuple tuple) {
+        for (int j = 0; j < this.columns.length; j++) {
+            if (!cell(this.columns[j], row).equals(tuple.getValue(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first row holding the given value in a column.
+     * Primitive columns are scanned without boxing.
+     *
+     * @param col   the index of the column
+     * @param value the value to search
+     * @return the index of the row, -1 if the value is not in the column
+     */
+    public <T> int indexOf(int col, T value) throws IndexOutOfBoundsException {
+        Data column = this.column(col);
+        if (value == null || !ColumnType.ofColumn(column).accepts(value)) {
+            return -1;
+        }
+        if (column instanceof IntTuple c) {
+            return c.indexOf((int) (Integer) value);
+        }
+        if (column instanceof LongTuple c) {
+            return c.indexOf((long) (Long) value);
+        }
+        if (column instanceof DoubleTuple c) {
+            return c.indexOf((double) (Double) value);
+        }
+        return ((Tuple) column).indexOf(value);
+    }
+
+    /**
+     * Pushes a row onto the table.
+     * A value other than a tuple is pushed as a row of one value.
+     *
+     * @param value the row to be pushed
+     * @throws IllegalArgumentException if the row does not have one value per column
+     */
+    @Override
+    public <T> void push(T value) throws IllegalArgumentException {
+        Tuple row = (value instanceof Tuple t) ? t : new Tuple(value);
+        if (this.size == 0 && this.columns.length == 0) {
+            this.columns = new Data[row.length()];
+            for (int j = 0; j < this.columns.length; j++) {
+                this.columns[j] = ColumnType.of(row.getValue(j)).newColumn(0);
+            }
+        }
+        checkWidth(row, this.columns.length);
+        for (int j = 0; j < this.columns.length; j++) {
+            Object cell = row.getValue(j);
+            this.fit(j, cell);
+            this.columns[j].push(cell);
+        }
+        this.size++;
+    }
+
+    /**
+     * Replaces the value at the specified cell.
+     *
+     * @param row   the index of the row
+     * @param col   the index of the column
+     * @param value the new value
+     */
+    public <T> void replace(int row, int col, T value) throws IndexOutOfBoundsException {
+        Data column = this.column(col);
+        this.checkRow(row);
+        if (value == null) {
+            return;
+        }
+        this.fit(col, value);
+        column = this.columns[col];
+        if (column instanceof IntTuple c) {
+            c.replace(row, (Integer) value);
+        } else if (column instanceof LongTuple c) {
+            c.replace(row, (Long) value);
+        } else if (column instanceof DoubleTuple c) {
+            c.replace(row, (Double) value);
+        } else {
+            ((Tuple) column).replace(row, value);
+        }
+    }
+
+    /**
+     * Makes sure that a column can store the given value,
+     * falling back to an object column if it cannot.
+     */
+    private void fit(int col, Object value) {
+        Data column = this.columns[col];
+        if (ColumnType.ofColumn(column).accepts(value)) {
+            return;
+        }
+        Tuple boxed = Tuple.withCapacity(this.size + 1);
+        for (int i = 0; i < this.size; i++) {
+            boxed.push(cell(column, i));
+        }
+        this.columns[col] = boxed;
+    }
+
+    /**
+     * Swaps the rows at the specified indices.
+     *
+     * @param index1 the index of the first row to be swapped
+     * @param index2 the index of the second row to be swapped
+     */
+    @Override
+    public void swap(int index1, int index2) throws IndexOutOfBoundsException {
+        if (index1 < 0 || index2 < 0 || index1 >= this.size || index2 >= this.size) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
+        }
+        for (Data column : this.columns) {
+            column.swap(index1, index2);
+        }
+    }
+
+    /**
+     * Removes the last row
+     */
+    @Override
+    public void pop() {
+        if (this.size == 0) {
+            return;
+        }
+        for (Data column : this.columns) {
+            column.pop();
+        }
+        this.size--;
+    }
+
+    /**
+     * Clears the table, keeping its columns
+     */
+    @Override
+    public void clear() {
+        for (Data column : this.columns) {
+            column.clear();
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Slice the table from a defined row to a defined row
+     *
+     * @param start the index to start
+     * @param end   the index to end
+     */
+    @Override
+    public void slice(int start, int end) throws IllegalArgumentException {
+        if (end > this.size) {
+            end = this.size;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        for (Data column : this.columns) {
+            column.slice(start, end);
+        }
+        this.size = end - start;
+    }
+
+    /**
+     * Joins the rows of two or more tables to this one.
+     * Both columnar and row-major tables can be joined.
+     *
+     * @param datas the tables to join
+     */
+    @Override
+    public void join(Object... datas) {
+        for (Object data : datas) {
+            if (data instanceof ColumnarTable table) {
+                int length = table.size;
+                for (int i = 0; i < length; i++) {
+                    this.push(table.getRow(i));
+                }
+            } else if (data instanceof Table table) {
+                for (Object row : table) {
+                    this.push(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the rows of the table by value.
+     */
+    private Set<List<Object>> rowSet() {
+        Set<List<Object>> rows = new HashSet<>((int) (this.size / .75f) + 1);
+        for (int i = 0; i < this.size; i++) {
+            rows.add(Arrays.asList(this.rowValues(i)));
+        }
+        return rows;
+    }
+
+    private static ColumnarTable cast(Object data) throws IllegalArgumentException {
+        if (!isColumnarTable(data)) {
+            throw new IllegalArgumentException(NOT_A_COLUMNAR_TABLE);
+        }
+        return (ColumnarTable) data;
+    }
+
+    /**
+     * Returns true if every row of this table is also a row of the given table
+     *
+     * @param data the table
+     * @return true if this table is a subset of the given table
+     */
+    @Override
+    public boolean isSubsetOf(Object data) throws IllegalArgumentException {
+        ColumnarTable table = cast(data);
+        Set<List<Object>> rows = table.rowSet();
+        for (int i = 0; i < this.size; i++) {
+            if (!rows.contains(Arrays.asList(this.rowValues(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if every row of the given table is also a row of this table
+     *
+     * @param data the table
+     * @return true if this table is a superset of the given table
+     */
+    @Override
+    public boolean isSupersetOf(Object data) throws IllegalArgumentException {
+        return cast(data).isSubsetOf(this);
+    }
+
+    /**
+     * Subtracts the rows of the given table from this table
+     *
+     * @param data the table
+     * @return a columnar table, with the same columns as this one,
+     *         holding the rows not contained in the given table
+     */
+    @Override
+    public Object subtract(Object data) throws IllegalArgumentException {
+        Set<List<Object>> rows = cast(data).rowSet();
+        ColumnarTable result = new ColumnarTable(this.columnTypes());
+        for (int i = 0; i < this.size; i++) {
+            Object[] values = this.rowValues(i);
+            if (!rows.contains(Arrays.asList(values))) {
+                result.push(new Tuple(values));
+            }
+        }
+        return result;
+    }
+
+    private ColumnType[] columnTypes() {
+        ColumnType[] types = new ColumnType[this.columns.length];
+        for (int j = 0; j < types.length; j++) {
+            types[j] = ColumnType.ofColumn(this.columns[j]);
+        }
+        return types;
+    }
+
+    /**
+     * Filters the values of the table using `Predicates`.
+     * Returns the values that match the predicate, row by row.
+     *
+     * @param predicate the predicate
+     * @return the filtered values, as a {@link Tuple}
+     */
+    @Override
+    public Object filter(Predicate<Object> predicate) {
+        Tuple result = new Tuple();
+        for (int i = 0; i < this.size; i++) {
+            for (Data column : this.columns) {
+                Object value = cell(column, i);
+                if (predicate.test(value)) {
+                    result.push(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if no value of the given table is contained in this table
+     *
+     * @param data the table
+     * @return true if this table is disjoint from the given table
+     */
+    @Override
+    public boolean isDisjoint(Object data) throws IllegalArgumentException {
+        ColumnarTable table = cast(data);
+        Set<Object> cells = new HashSet<>();
+        for (Data column : this.columns) {
+            for (int i = 0; i < this.size; i++) {
+                cells.add(cell(column, i));
+            }
+        }
+        for (Data column : table.columns) {
+            for (int i = 0; i < table.size; i++) {
+                if (cells.contains(cell(column, i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the rows whose value in a column matches a predicate.
+     *
+     * @param col       the index of the column
+     * @param predicate the predicate, tested on the (boxed) values of the column
+     * @return the indices of the matching rows
+     */
+    public IntTuple where(int col, Predicate<Object> predicate) throws IndexOutOfBoundsException {
+        Data column = this.column(col);
+        IntTuple rows = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            if (predicate.test(cell(column, i))) {
+                rows.push(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows whose value in an {@link ColumnType#INT} column
+     * matches a predicate, scanning the column without boxing it.
+     *
+     * @param col       the index of the column
+     * @param predicate the predicate
+     * @return the indices of the matching rows
+     * @throws IllegalArgumentException if the column is not an int column
+     */
+    public IntTuple whereInt(int col, IntPredicate predicate) throws IllegalArgumentException {
+        int[] values = ((IntTuple) this.typedColumn(col, ColumnType.INT)).array();
+        IntTuple rows = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            if (predicate.test(values[i])) {
+                rows.push(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows whose value in a {@link ColumnType#LONG} column
+     * matches a predicate, scanning the column without boxing it.
+     *
+     * @param col       the index of the column
+     * @param predicate the predicate
+     * @return the indices of the matching rows
+     * @throws IllegalArgumentException if the column is not a long column
+     */
+    public IntTuple whereLong(int col, LongPredicate predicate) throws IllegalArgumentException {
+        long[] values = ((LongTuple) this.typedColumn(col, ColumnType.LONG)).array();
+        IntTuple rows = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            if (predicate.test(values[i])) {
+                rows.push(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows whose value in a {@link ColumnType#DOUBLE} column
+     * matches a predicate, scanning the column without boxing it.
+     *
+     * @param col       the index of the column
+     * @param predicate the predicate
+     * @return the indices of the matching rows
+     * @throws IllegalArgumentException if the column is not a double column
+     */
+    public IntTuple whereDouble(int col, DoublePredicate predicate) throws IllegalArgumentException {
+        double[] values = ((DoubleTuple) this.typedColumn(col, ColumnType.DOUBLE)).array();
+        IntTuple rows = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            if (predicate.test(values[i])) {
+                rows.push(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows whose value in a numeric column satisfies a comparison
+     * with an operand, as a bitmap. The column is scanned without boxing it,
+     * on vectors of values when the vector API is available.
+     * Int and long columns take integral operands, int columns only
+     * those in the range of an {@code int}; double columns take any number.
+     *
+     * @param col     the index of the column
+     * @param op      the comparison
+     * @param operand the operand
+     * @return the matching rows
+     * @throws IllegalArgumentException if the column is not numeric,
+     *                                  or the operand does not fit it
+     */
+    public Selection select(int col, Comparison op, Number operand) throws IllegalArgumentException {
+        Data column = this.column(col);
+        if (!ColumnType.ofColumn(column).isPrimitive()) {
+            throw new IllegalArgumentException(NOT_NUMERIC + col);
+        }
+        if (column instanceof DoubleTuple c) {
+            return c.select(op, operand.doubleValue());
+        }
+        if (!(operand instanceof Integer || operand instanceof Long || operand instanceof Short || operand instanceof Byte)) {
+            throw new IllegalArgumentException("Operand is not integral: " + operand);
+        }
+        if (column instanceof IntTuple c) {
+            if (operand.longValue() != operand.intValue()) {
+                throw new IllegalArgumentException("Operand is not an int: " + operand);
+            }
+            return c.select(op, operand.intValue());
+        }
+        return ((LongTuple) column).select(op, operand.longValue());
+    }
+
+    private Data typedColumn(int col, ColumnType type) throws IllegalArgumentException {
+        Data column = this.column(col);
+        if (ColumnType.ofColumn(column) != type) {
+            throw new IllegalArgumentException("Column " + col + " is not of type " + type);
+        }
+        return column;
+    }
+
+    /**
+     * Sums a numeric column, without boxing its values.
+     *
+     * @param col the index of the column
+     * @return the sum, a {@code Long} for integral columns
+     *         and a {@code Double} for double columns
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public Number sum(int col) throws IllegalArgumentException {
+        Data column = this.column(col);
+        if (column instanceof IntTuple c) {
+            return c.sum();
+        }
+        if (column instanceof LongTuple c) {
+            return c.sum();
+        }
+        if (column instanceof DoubleTuple c) {
+            return c.sum();
+        }
+        throw new IllegalArgumentException(NOT_NUMERIC + col);
+    }
+
+    /**
+     * Returns the smallest value of a numeric column, without boxing its values.
+     *
+     * @param col the index of the column
+     * @return the smallest value
+     * @throws IllegalArgumentException if the column is not numeric
+     * @throws NoSuchElementException if the table is empty
+     */
+    public Number min(int col) throws IllegalArgumentException, NoSuchElementException {
+        Data column = this.column(col);
+        if (column instanceof IntTuple c) {
+            return c.min();
+        }
+        if (column instanceof LongTuple c) {
+            return c.min();
+        }
+        if (column instanceof DoubleTuple c) {
+            return c.min();
+        }
+        throw new IllegalArgumentException(NOT_NUMERIC + col);
+    }
+
+    /**
+     * Returns the largest value of a numeric column, without boxing its values.
+     *
+     * @param col the index of the column
+     * @return the largest value
+     * @throws IllegalArgumentException if the column is not numeric
+     * @throws NoSuchElementException if the table is empty
+     */
+    public Number max(int col) throws IllegalArgumentException, NoSuchElementException {
+        Data column = this.column(col);
+        if (column instanceof IntTuple c) {
+            return c.max();
+        }
+        if (column instanceof LongTuple c) {
+            return c.max();
+        }
+        if (column instanceof DoubleTuple c) {
+            return c.max();
+        }
+        throw new IllegalArgumentException(NOT_NUMERIC + col);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o == null || !isColumnarTable(o)) {
+            return false;
+        }
+        ColumnarTable table = (ColumnarTable) o;
+        if (this.size != table.size || this.columns.length != table.columns.length) {
+            return false;
+        }
+        for (int j = 0; j < this.columns.length; j++) {
+            for (int i = 0; i < this.size; i++) {
+                if (!Objects.equals(cell(this.columns[j], i), cell(table.columns[j], i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int i = 0; i < this.size; i++) {
+            hashCode += Arrays.hashCode(this.rowValues(i));
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < this.size; i++) out.append(Arrays.toString(this.rowValues(i))).append("\n");
+        return out.toString();
+    }
+
+    /**
+     * Returns a spliterator over the rows of the table, materializing
+     * each of them as a {@link Tuple}. It is {@code SIZED}, {@code SUBSIZED}
+     * and {@code ORDERED}: it splits the row ids in exact halves, so that
+     * parallel streams balance their work.
+     * The table must not be modified while the spliterator is used.
+     *
+     * @return a Spliterator.
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        return IntStream.range(0, this.size).<Object>mapToObj(this::getRow).spliterator();
+    }
+
+    /**
+     * Returns an iterator over the rows of the table,
+     * materializing each of them as a {@link Tuple}.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < size;
+            }
+
+            @Override
+            public Tuple next() throws NoSuchElementException {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                return getRow(currentIndex++);
+            }
+        };
+    }
+}
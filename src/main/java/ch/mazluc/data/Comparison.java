@@ -0,0 +1,127 @@
+package ch.mazluc.data;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A comparison between a value and an operand, as tested by
+ * {@link IntTuple#select(Comparison, int)} and the other column scans,
+ * and by the conditions of an {@link Expr}.
+ * Floating point values compare as with the Java operators:
+ * {@code NaN} is only different from everything.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public enum Comparison {
+
+    /**
+     * Equal to the operand
+     */
+    EQ("="),
+
+    /**
+     * Different from the operand
+     */
+    NE("!="),
+
+    /**
+     * Less than the operand
+     */
+    LT("<"),
+
+    /**
+     * Less than or equal to the operand
+     */
+    LE("<="),
+
+    /**
+     * Greater than the operand
+     */
+    GT(">"),
+
+    /**
+     * Greater than or equal to the operand
+     */
+    GE(">=");
+
+    private final String symbol;
+
+    Comparison(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Returns if the result of a {@code compare} method satisfies the comparison
+     */
+    boolean holds(int comparison) {
+        return switch (this) {
+            case EQ -> comparison == 0;
+            case NE -> comparison != 0;
+            case LT -> comparison < 0;
+            case LE -> comparison <= 0;
+            case GT -> comparison > 0;
+            case GE -> comparison >= 0;
+        };
+    }
+
+    /**
+     * Tests two integral values
+     */
+    boolean test(long value, long operand) {
+        return switch (this) {
+            case EQ -> value == operand;
+            case NE -> value != operand;
+            case LT -> value < operand;
+            case LE -> value <= operand;
+            case GT -> value > operand;
+            case GE -> value >= operand;
+        };
+    }
+
+    /**
+     * Tests two floating point values
+     */
+    boolean test(double value, double operand) {
+        return switch (this) {
+            case EQ -> value == operand;
+            case NE -> value != operand;
+            case LT -> value < operand;
+            case LE -> value <= operand;
+            case GT -> value > operand;
+            case GE -> value >= operand;
+        };
+    }
+
+    /**
+     * Returns the symbol of the comparison, like {@code <=}
+     *
+     * @return the symbol
+     */
+    @Override
+    public String toString() {
+        return this.symbol;
+    }
+}
@@ -0,0 +1,487 @@
+package ch.mazluc.data;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A read-only table stored by column, each column in the {@link ColumnEncoding}
+ * that makes it the smallest: low-cardinality columns as a dictionary of their
+ * distinct values and bit-packed codes, columns of long runs of equal values
+ * run-length encoded, and columns of integers, such as increasing identifiers
+ * or timestamps, as bit-packed differences between consecutive values.
+ * It is an implementation of the {@link Data} interface,
+ * whose elements are the rows of the table, decoded on demand.
+ *
+ * <p>
+ * Scans run on the encoded columns: {@link #select(int, Predicate)} and
+ * {@link #filter(Predicate)} test each distinct value of a dictionary or
+ * each run once, and {@link #contains(Object)} looks values up in the dictionaries
+ * and runs, or skips to the only block of a sorted delta-encoded column that may
+ * hold them.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * CompressedTable compressed = CompressedTable.from(table);
+ * Selection rows = compressed.rowsWhere(1, "active");
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class CompressedTable implements Data {
+
+    private static final String READ_ONLY = "CompressedTable is read-only";
+    private static final String NOT_A_COMPRESSED_TABLE = "Object is not a CompressedTable";
+
+    /**
+     * The types of the columns
+     */
+    private final ColumnType[] types;
+
+    /**
+     * The encoded columns
+     */
+    private final EncodedColumn[] columns;
+
+    /**
+     * The amount of rows
+     */
+    private final int size;
+
+    private CompressedTable(ColumnType[] types, EncodedColumn[] columns, int size) {
+        this.types = types;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Compresses a table, choosing the encoding of each column
+     * from the statistics of its values
+     *
+     * @param table the table, whose rows all have the same length
+     * @return the compressed table
+     * @throws IllegalArgumentException if the rows of the table have different lengths
+     */
+    public static CompressedTable from(Table table) throws IllegalArgumentException {
+        if (table.isEmpty()) {
+            return new CompressedTable(new ColumnType[0], new EncodedColumn[0], 0);
+        }
+        ColumnType[] types = ColumnarTable.inferTypes(table);
+        int size = table.length();
+        EncodedColumn[] columns = new EncodedColumn[types.length];
+        Object[] values = new Object[size];
+        for (int j = 0; j < types.length; j++) {
+            for (int i = 0; i < size; i++) {
+                values[i] = table.row(i).getValue(j);
+            }
+            columns[j] = EncodedColumn.encode(values, types[j]);
+        }
+        return new CompressedTable(types, columns, size);
+    }
+
+    private static CompressedTable cast(Object data) throws IllegalArgumentException {
+        if (!(data instanceof CompressedTable table)) {
+            throw new IllegalArgumentException(NOT_A_COMPRESSED_TABLE);
+        }
+        return table;
+    }
+
+    private void checkRow(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= this.size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+    }
+
+    /**
+     * Returns the amount of columns
+     *
+     * @return the amount of columns
+     */
+    public int width() {
+        return this.columns.length;
+    }
+
+    /**
+     * Returns the type of a column
+     *
+     * @param col the column
+     * @return its type
+     * @throws IndexOutOfBoundsException if the column is out of bounds
+     */
+    public ColumnType getColumnType(int col) throws IndexOutOfBoundsException {
+        return this.types[col];
+    }
+
+    /**
+     * Returns the encoding chosen for a column
+     *
+     * @param col the column
+     * @return its encoding
+     * @throws IndexOutOfBoundsException if the column is out of bounds
+     */
+    public ColumnEncoding getEncoding(int col) throws IndexOutOfBoundsException {
+        return this.columns[col].encoding();
+    }
+
+    /**
+     * Returns the estimated size of the encoded columns, in bytes
+     */
+    long encodedBytes() {
+        long bytes = 0;
+        for (EncodedColumn column : this.columns) {
+            bytes += column.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the amount of rows
+     *
+     * @return the amount of rows
+     */
+    @Override
+    public int length() {
+        return this.size;
+    }
+
+    /**
+     * Returns if the table has no rows
+     *
+     * @return true if the table is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Decodes a cell
+     *
+     * @param row the row
+     * @param col the column
+     * @param <T> the type of the value
+     * @return the value
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(int row, int col) throws IndexOutOfBoundsException {
+        this.checkRow(row);
+        return (T) this.columns[col].get(row);
+    }
+
+    /**
+     * Decodes a row
+     *
+     * @param row the row
+     * @return the row, a new tuple
+     * @throws IndexOutOfBoundsException if the row is out of bounds
+     */
+    public Tuple getRow(int row) throws IndexOutOfBoundsException {
+        this.checkRow(row);
+        Object[] values = new Object[this.columns.length];
+        for (int j = 0; j < values.length; j++) {
+            values[j] = this.columns[j].get(row);
+        }
+        return Tuple.wrap(values, values.length);
+    }
+
+    /**
+     * Decompresses the table to a row-major {@link Table}
+     *
+     * @return the table
+     */
+    public Table toTable() {
+        Table table = new Table(this.size);
+        for (int i = 0; i < this.size; i++) {
+            table.push(this.getRow(i));
+        }
+        return table;
+    }
+
+    /**
+     * Selects the rows whose value in a column matches a predicate,
+     * testing each distinct value of a dictionary and each run only once
+     *
+     * @param col       the column
+     * @param predicate the predicate
+     * @return the selected rows
+     * @throws IndexOutOfBoundsException if the column is out of bounds
+     */
+    public Selection select(int col, Predicate<Object> predicate) throws IndexOutOfBoundsException {
+        return this.columns[col].select(predicate);
+    }
+
+    /**
+     * Selects the rows holding a value in a column,
+     * comparing codes in dictionary columns
+     *
+     * @param col   the column
+     * @param value the value
+     * @return the selected rows
+     * @throws IndexOutOfBoundsException if the column is out of bounds
+     */
+    public Selection rowsWhere(int col, Object value) throws IndexOutOfBoundsException {
+        if (value == null) {
+            return Selection.empty(this.size);
+        }
+        return this.columns[col].equalTo(value);
+    }
+
+    /**
+     * Determines if the table contains a row, compared by value,
+     * or a value in any of its rows
+     *
+     * @param value the row or value
+     * @return true if it is contained
+     */
+    @Override
+    public <T> boolean contains(T value) {
+        if (value == null) {
+            return false;
+        }
+        if (Tuple.isTuple(value)) {
+            Tuple tuple = (Tuple) value;
+            if (tuple.length() != this.columns.length) {
+                return false;
+            }
+            if (tuple.length() == 0) {
+                return this.size > 0;
+            }
+            Selection candidates = this.rowsWhere(0, tuple.getValue(0));
+            for (int i = candidates.nextSelected(0); i >= 0; i = candidates.nextSelected(i + 1)) {
+                if (this.getRow(i).valueList().equals(tuple.valueList())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (EncodedColumn column : this.columns) {
+            if (column.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public <T> void push(T value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void swap(int index1, int index2) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void pop() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void slice(int start, int end) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void join(Object... datas) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Hashes the rows of the table by value
+     */
+    private Set<List<Object>> rowSet() {
+        Set<List<Object>> rows = new HashSet<>((int) (this.size / .75f) + 1);
+        for (int i = 0; i < this.size; i++) {
+            rows.add(this.getRow(i).valueList());
+        }
+        return rows;
+    }
+
+    /**
+     * Returns true if every row of this table is also a row of the given table
+     *
+     * @param data the compressed table
+     * @return true if this table is a subset of the given table
+     * @throws IllegalArgumentException if the object is not a compressed table
+     */
+    @Override
+    public boolean isSubsetOf(Object data) throws IllegalArgumentException {
+        Set<List<Object>> rows = cast(data).rowSet();
+        for (int i = 0; i < this.size; i++) {
+            if (!rows.contains(this.getRow(i).valueList())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if every row of the given table is also a row of this table
+     *
+     * @param data the compressed table
+     * @return true if this table is a superset of the given table
+     * @throws IllegalArgumentException if the object is not a compressed table
+     */
+    @Override
+    public boolean isSupersetOf(Object data) throws IllegalArgumentException {
+        return cast(data).isSubsetOf(this);
+    }
+
+    /**
+     * Returns the rows of this table not contained in the given one
+     *
+     * @param data the compressed table
+     * @return a {@link Table} of the remaining rows
+     * @throws IllegalArgumentException if the object is not a compressed table
+     */
+    @Override
+    public Object subtract(Object data) throws IllegalArgumentException {
+        Set<List<Object>> rows = cast(data).rowSet();
+        Table result = new Table();
+        for (int i = 0; i < this.size; i++) {
+            Tuple row = this.getRow(i);
+            if (!rows.contains(row.valueList())) {
+                result.push(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of the table that match the predicate, row by row.
+     * Each column is scanned on its encoded form first, and only the
+     * matching cells are decoded.
+     *
+     * @param predicate the predicate
+     * @return the values, as a {@link Tuple}
+     */
+    @Override
+    public Object filter(Predicate<Object> predicate) {
+        Selection[] selections = new Selection[this.columns.length];
+        for (int j = 0; j < selections.length; j++) {
+            selections[j] = this.columns[j].select(predicate);
+        }
+        Tuple result = new Tuple();
+        for (int i = 0; i < this.size; i++) {
+            for (int j = 0; j < selections.length; j++) {
+                if (selections[j].get(i)) {
+                    result.push(this.columns[j].get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if no value of the given table is contained in this table
+     *
+     * @param data the compressed table
+     * @return true if the tables are disjoint
+     * @throws IllegalArgumentException if the object is not a compressed table
+     */
+    @Override
+    public boolean isDisjoint(Object data) throws IllegalArgumentException {
+        CompressedTable table = cast(data);
+        for (int i = 0; i < table.size; i++) {
+            for (EncodedColumn other : table.columns) {
+                Object value = other.get(i);
+                for (EncodedColumn column : this.columns) {
+                    if (column.contains(value)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns an iterator decoding the rows in order
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < CompressedTable.this.size;
+            }
+
+            @Override
+            public Object next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return CompressedTable.this.getRow(this.next++);
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the rows, decoded on demand
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        return IntStream.range(0, this.size).<Object>mapToObj(this::getRow).spliterator();
+    }
+
+    /**
+     * Returns the rows of the table, one per line
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < this.size; i++) {
+            out.append(this.getRow(i)).append("\n");
+        }
+        return out.toString();
+    }
+}
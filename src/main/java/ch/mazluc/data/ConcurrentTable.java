@@ -0,0 +1,588 @@
+package ch.mazluc.data;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A thread-safe, append-only table, whose rows can be pushed
+ * from many threads at once without any lock.
+ * It is an implementation of the {@link Data} interface,
+ * whose elements are the rows of the table.
+ *
+ * <p>
+ * The rows are stored in segments of doubling sizes, allocated on demand,
+ * so that growing never copies the rows nor blocks readers.
+ * An append reserves its slots by atomically incrementing the tail,
+ * once per row or once per batch with {@link #pushAll(Tuple...)}, writes them,
+ * and then publishes them: the published rows are the longest prefix of
+ * written slots, advanced by whichever writer completes it. Threads never
+ * wait for each other, and {@link #length()} only counts fully written rows.
+ *
+ * <p>
+ * Reads of published rows are wait-free. Iterators, spliterators and scans
+ * are weakly consistent: they never fail because of concurrent updates, and
+ * see the rows published when they started, possibly some later ones.
+ * {@link #swap(int, int)} and {@link #replace(int, Tuple)} update single
+ * slots, and {@link #clear()} replaces all the rows at once: rows pushed
+ * concurrently with it may be kept or dropped. Rows cannot be popped or sliced.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * ConcurrentTable table = new ConcurrentTable();
+ * IntStream.range(0, 1000).parallel().forEach(i -> table.push(new Tuple(i, "row" + i)));
+ * Table snapshot = table.toTable();
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class ConcurrentTable implements Data {
+
+    private static final String APPEND_ONLY = "ConcurrentTable is append-only";
+    private static final String NOT_A_CONCURRENT_TABLE = "Object is not a ConcurrentTable";
+
+    /**
+     * Log2 of the size of the first segment; each next one is twice as large
+     */
+    private static final int FIRST_SHIFT = 5;
+    private static final int FIRST = 1 << FIRST_SHIFT;
+
+    /**
+     * Amount of segments, the last one being the largest array allowed
+     */
+    private static final int SEGMENTS = 26;
+
+    /**
+     * Amount of rows the segments hold
+     */
+    static final int MAX_ROWS = (int) (((long) FIRST << SEGMENTS) - FIRST);
+
+    /**
+     * The rows, replaced as a whole on clear
+     */
+    private final AtomicReference<Rows> rows = new AtomicReference<>(new Rows());
+
+    /**
+     * Serializes swaps, so that concurrent ones do not lose rows
+     */
+    private final Object swapLock = new Object();
+
+    /**
+     * Creates a new, empty table
+     */
+    public ConcurrentTable() {
+    }
+
+    /**
+     * Creates a table holding the given rows
+     *
+     * @param rows the rows
+     */
+    public ConcurrentTable(Tuple... rows) {
+        this.pushAll(rows);
+    }
+
+    /**
+     * The segments, the reserved tail and the published prefix
+     */
+    private static final class Rows {
+
+        private final AtomicReferenceArray<AtomicReferenceArray<Tuple>> segments = new AtomicReferenceArray<>(SEGMENTS);
+
+        /**
+         * Slots reserved by appends, written or not
+         */
+        private final AtomicInteger reserved = new AtomicInteger();
+
+        /**
+         * Length of the prefix of written slots
+         */
+        private final AtomicInteger published = new AtomicInteger();
+
+        private static int segment(int index) {
+            return 63 - Long.numberOfLeadingZeros(index + (long) FIRST) - FIRST_SHIFT;
+        }
+
+        private static int offset(int index, int segment) {
+            return (int) (index + (long) FIRST - ((long) FIRST << segment));
+        }
+
+        /**
+         * Returns a segment, allocating it if no thread has yet
+         */
+        private AtomicReferenceArray<Tuple> segmentAt(int segment) {
+            AtomicReferenceArray<Tuple> rows = this.segments.get(segment);
+            if (rows == null) {
+                rows = new AtomicReferenceArray<>(FIRST << segment);
+                if (!this.segments.compareAndSet(segment, null, rows)) {
+                    rows = this.segments.get(segment);
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * Reads a slot
+         *
+         * @return the row, or null if it is not written yet
+         */
+        Tuple get(int index) {
+            int segment = segment(index);
+            AtomicReferenceArray<Tuple> rows = this.segments.get(segment);
+            return rows == null ? null : rows.get(offset(index, segment));
+        }
+
+        void set(int index, Tuple row) {
+            int segment = segment(index);
+            this.segmentAt(segment).set(offset(index, segment), row);
+        }
+
+        /**
+         * Reserves slots at the tail
+         *
+         * @return the first of them
+         */
+        int reserve(int count) throws IllegalStateException {
+            int first = this.reserved.getAndAdd(count);
+            if (first < 0 || first > MAX_ROWS - count) {
+                // The slots are never written: later rows are never published
+                throw new IllegalStateException("ConcurrentTable is full");
+            }
+            return first;
+        }
+
+        /**
+         * Extends the published prefix over the written slots.
+         * A writer stops at the first slot not written yet, whose writer
+         * then extends the prefix past it, over the slots written before.
+         */
+        void publish() {
+            int reserved = this.reserved.get();
+            if (reserved < 0 || reserved > MAX_ROWS) {
+                reserved = MAX_ROWS;
+            }
+            int published = this.published.get();
+            while (published < reserved && this.get(published) != null) {
+                if (this.published.compareAndSet(published, published + 1)) {
+                    published++;
+                } else {
+                    published = this.published.get();
+                }
+            }
+        }
+    }
+
+    private static Tuple row(Object value) {
+        return (value instanceof Tuple t) ? t : new Tuple(value);
+    }
+
+    private static ConcurrentTable cast(Object data) throws IllegalArgumentException {
+        if (!(data instanceof ConcurrentTable table)) {
+            throw new IllegalArgumentException(NOT_A_CONCURRENT_TABLE);
+        }
+        return table;
+    }
+
+    /**
+     * Returns the amount of published rows
+     *
+     * @return the amount of rows
+     */
+    @Override
+    public int length() {
+        return this.rows.get().published.get();
+    }
+
+    /**
+     * Returns if no row is published
+     *
+     * @return true if the table is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.length() == 0;
+    }
+
+    /**
+     * Reads a published row, without waiting for concurrent writers
+     *
+     * @param row the row
+     * @return the row
+     * @throws IndexOutOfBoundsException if the row is not published
+     */
+    public Tuple getRow(int row) throws IndexOutOfBoundsException {
+        Rows rows = this.rows.get();
+        if (row < 0 || row >= rows.published.get()) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        return rows.get(row);
+    }
+
+    /**
+     * Reads a cell of a published row
+     *
+     * @param row the row
+     * @param col the column
+     * @param <T> the type of the value
+     * @return the value
+     * @throws IndexOutOfBoundsException if the row is not published or the column is out of bounds
+     */
+    public <T> T getValue(int row, int col) throws IndexOutOfBoundsException {
+        return this.getRow(row).getValue(col);
+    }
+
+    /**
+     * Appends a row. Single values are appended as rows of one value.
+     *
+     * @param value the row
+     * @throws IllegalStateException if the table is full
+     */
+    @Override
+    public <T> void push(T value) throws IllegalStateException {
+        Tuple row = row(value);
+        Rows rows = this.rows.get();
+        rows.set(rows.reserve(1), row);
+        rows.publish();
+    }
+
+    /**
+     * Appends rows, reserving their slots at once, so that they end up
+     * next to each other
+     *
+     * @param values the rows
+     * @throws NullPointerException  if a row is null
+     * @throws IllegalStateException if the table is full
+     */
+    public void pushAll(Tuple... values) throws NullPointerException, IllegalStateException {
+        for (Tuple value : values) {
+            Objects.requireNonNull(value);
+        }
+        if (values.length == 0) {
+            return;
+        }
+        Rows rows = this.rows.get();
+        int first = rows.reserve(values.length);
+        for (int i = 0; i < values.length; i++) {
+            rows.set(first + i, values[i]);
+        }
+        rows.publish();
+    }
+
+    /**
+     * Appends the rows of {@link Table}s and other {@link ConcurrentTable}s.
+     * The rows of each table are reserved at once.
+     *
+     * @param datas the tables
+     * @throws IllegalStateException if the table is full
+     */
+    @Override
+    public void join(Object... datas) throws IllegalStateException {
+        for (Object data : datas) {
+            if (data instanceof Table || data instanceof ConcurrentTable) {
+                Tuple[] values = ((Data) data).stream().toArray(Tuple[]::new);
+                this.pushAll(values);
+            }
+        }
+    }
+
+    /**
+     * Replaces a published row
+     *
+     * @param index the row
+     * @param value the new row
+     * @throws IndexOutOfBoundsException if the row is not published
+     * @throws NullPointerException      if the row is null
+     */
+    public void replace(int index, Tuple value) throws IndexOutOfBoundsException, NullPointerException {
+        Objects.requireNonNull(value);
+        Rows rows = this.rows.get();
+        if (index < 0 || index >= rows.published.get()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        rows.set(index, value);
+    }
+
+    /**
+     * Swaps two published rows. Readers may see either row
+     * at both places while they are swapped.
+     *
+     * @param index1 the first row
+     * @param index2 the second row
+     * @throws IndexOutOfBoundsException if a row is not published
+     */
+    @Override
+    public void swap(int index1, int index2) throws IndexOutOfBoundsException {
+        synchronized (this.swapLock) {
+            Tuple row1 = this.getRow(index1);
+            Tuple row2 = this.getRow(index2);
+            Rows rows = this.rows.get();
+            rows.set(index1, row2);
+            rows.set(index2, row1);
+        }
+    }
+
+    /**
+     * Unsupported: the rows can only be removed all at once, by {@link #clear()}
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void pop() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException(APPEND_ONLY);
+    }
+
+    /**
+     * Unsupported: the rows can only be removed all at once, by {@link #clear()}
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void slice(int start, int end) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException(APPEND_ONLY);
+    }
+
+    /**
+     * Removes all the rows, replacing them at once.
+     * Rows pushed concurrently may be kept or dropped.
+     */
+    @Override
+    public void clear() {
+        this.rows.set(new Rows());
+    }
+
+    /**
+     * Determines if the table contains a row, or a value in any of its rows
+     *
+     * @param value the row or value
+     * @return true if it is contained
+     */
+    @Override
+    public <T> boolean contains(T value) {
+        if (value == null) {
+            return false;
+        }
+        boolean tuple = Tuple.isTuple(value);
+        Rows rows = this.rows.get();
+        int length = rows.published.get();
+        for (int i = 0; i < length; i++) {
+            Tuple row = rows.get(i);
+            if (tuple ? row.equals(value) : row.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hashes the published rows
+     */
+    private Set<Tuple> rowSet() {
+        Rows rows = this.rows.get();
+        int length = rows.published.get();
+        Set<Tuple> set = new HashSet<>((int) (length / .75f) + 1);
+        for (int i = 0; i < length; i++) {
+            set.add(rows.get(i));
+        }
+        return set;
+    }
+
+    /**
+     * Returns true if every row of this table is also a row of the given table
+     *
+     * @param data the concurrent table
+     * @return true if this table is a subset of the given table
+     * @throws IllegalArgumentException if the object is not a concurrent table
+     */
+    @Override
+    public boolean isSubsetOf(Object data) throws IllegalArgumentException {
+        Set<Tuple> rows = cast(data).rowSet();
+        for (Object row : this) {
+            if (!rows.contains(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if every row of the given table is also a row of this table
+     *
+     * @param data the concurrent table
+     * @return true if this table is a superset of the given table
+     * @throws IllegalArgumentException if the object is not a concurrent table
+     */
+    @Override
+    public boolean isSupersetOf(Object data) throws IllegalArgumentException {
+        return cast(data).isSubsetOf(this);
+    }
+
+    /**
+     * Returns the rows of this table not contained in the given one
+     *
+     * @param data the concurrent table
+     * @return a {@link Table} of the remaining rows
+     * @throws IllegalArgumentException if the object is not a concurrent table
+     */
+    @Override
+    public Object subtract(Object data) throws IllegalArgumentException {
+        Set<Tuple> rows = cast(data).rowSet();
+        Table result = new Table();
+        for (Object row : this) {
+            if (!rows.contains(row)) {
+                result.push(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of the table that match the predicate, row by row
+     *
+     * @param predicate the predicate
+     * @return the values, as a {@link Tuple}
+     */
+    @Override
+    public Object filter(Predicate<Object> predicate) {
+        Tuple result = new Tuple();
+        for (Object row : this) {
+            Tuple tuple = (Tuple) row;
+            for (int j = 0; j < tuple.length(); j++) {
+                Object value = tuple.getValue(j);
+                if (predicate.test(value)) {
+                    result.push(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if no value of the given table is contained in this table
+     *
+     * @param data the concurrent table
+     * @return true if the tables are disjoint
+     * @throws IllegalArgumentException if the object is not a concurrent table
+     */
+    @Override
+    public boolean isDisjoint(Object data) throws IllegalArgumentException {
+        ConcurrentTable table = cast(data);
+        Set<Object> cells = new HashSet<>();
+        for (Object row : this) {
+            cells.addAll(((Tuple) row).valueList());
+        }
+        for (Object row : table) {
+            for (Object value : ((Tuple) row).valueList()) {
+                if (cells.contains(value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the published rows to a {@link Table}
+     *
+     * @return the table
+     */
+    public Table toTable() {
+        Rows rows = this.rows.get();
+        int length = rows.published.get();
+        Table table = new Table(length);
+        for (int i = 0; i < length; i++) {
+            table.push(rows.get(i));
+        }
+        return table;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the rows: it never throws
+     * {@link java.util.ConcurrentModificationException}, and returns the rows
+     * published before it reaches them, ignoring later clears
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        Rows rows = this.rows.get();
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < rows.published.get();
+            }
+
+            @Override
+            public Object next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return rows.get(this.next++);
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the rows published when it is created,
+     * splitting them by ranges
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        Rows rows = this.rows.get();
+        return IntStream.range(0, rows.published.get()).<Object>mapToObj(rows::get).spliterator();
+    }
+
+    /**
+     * Returns the published rows, one per line
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Object row : this) {
+            out.append(row).append("\n");
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,644 @@
+package ch.mazluc.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * This class reads and writes tables as delimited text, such as CSV or TSV,
+ * through byte channels.
+ *
+ * <p>
+ * Each line is a row and each field a value; fields holding the delimiter,
+ * quotes or line breaks are enclosed in double quotes, a quote in them being doubled.
+ * The text is parsed straight from a single reused buffer into the values of
+ * the rows, without reading lines into strings first: numeric fields never become
+ * strings. Given the types of the columns, each field is parsed to its column type
+ * and rows of another width are rejected. Otherwise the type of each field is
+ * inferred: unquoted integers become {@code Integer}s, or {@code Long}s when they do
+ * not fit, unquoted decimals {@code Double}s, and any other field a {@code String}.
+ * Empty lines are skipped.
+ *
+ * <p>
+ * A file can also be parsed in parallel, split in chunks at line boundaries.
+ * A quoted field holding line breaks may straddle two chunks: the chunk it starts in
+ * then ends inside it, and the file is parsed again sequentially.
+ * Written strings that could be read back as numbers are quoted, so that
+ * tables of numbers and strings read back equal; other values, such as nested
+ * tuples, are written as their {@link Object#toString()}.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * try (FileChannel channel = FileChannel.open(path, CREATE, WRITE)) {
+ *     CsvCodec.write(table, channel, CsvCodec.COMMA);
+ * }
+ * Table copy = CsvCodec.read(path, CsvCodec.COMMA, ColumnType.INT, ColumnType.OBJECT);
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class CsvCodec {
+
+    /**
+     * The delimiter of CSV
+     */
+    public static final char COMMA = ',';
+
+    /**
+     * The delimiter of TSV
+     */
+    public static final char TAB = '\t';
+
+    /**
+     * Size of the buffer through which channels are read and written
+     */
+    private static final int CHANNEL_BUFFER = 1 << 16;
+
+    /**
+     * Smallest amount of bytes of the chunks of a file parsed in parallel
+     */
+    static final long MIN_CHUNK = 1 << 20;
+
+    private CsvCodec() {}
+
+    /**
+     * Checks that a delimiter is a single byte in UTF-8, and not a quote or a line break
+     */
+    private static byte delimiter(char delimiter) throws IllegalArgumentException {
+        if (delimiter >= 0x80 || delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        return (byte) delimiter;
+    }
+
+    /**
+     * Parses the rows of a channel, passing each one to an action as soon as it is read
+     *
+     * @param channel   the channel
+     * @param delimiter the delimiter of the fields
+     * @param action    the action
+     * @param types     the types of the columns, none to infer the type of each field
+     * @throws IOException              if the channel fails
+     * @throws IllegalArgumentException if the delimiter is invalid, a row does not fit the
+     *                                  types or a quoted field is not terminated
+     */
+    public static void read(ReadableByteChannel channel, char delimiter, Consumer<? super Tuple> action, ColumnType... types)
+            throws IOException, IllegalArgumentException {
+        Parser parser = new Parser(channel, delimiter(delimiter), types.clone(), 0);
+        for (Tuple row = parser.next(); row != null; row = parser.next()) {
+            action.accept(row);
+        }
+    }
+
+    /**
+     * Parses the rows of a channel into a table
+     *
+     * @param channel   the channel
+     * @param delimiter the delimiter of the fields
+     * @param types     the types of the columns, none to infer the type of each field
+     * @return the table
+     * @throws IOException              if the channel fails
+     * @throws IllegalArgumentException if the delimiter is invalid, a row does not fit the
+     *                                  types or a quoted field is not terminated
+     */
+    public static Table read(ReadableByteChannel channel, char delimiter, ColumnType... types)
+            throws IOException, IllegalArgumentException {
+        Tuple[] rows = new Parser(channel, delimiter(delimiter), types.clone(), 0).rows();
+        return Table.wrap(rows, rows.length);
+    }
+
+    /**
+     * Parses the rows of a file into a table. Large files are split in chunks
+     * at line boundaries, parsed in parallel; if a chunk cannot be parsed, as when
+     * a quoted field holding a line break spans two chunks, the file is parsed
+     * again sequentially, so that the result does not depend on the size of the file.
+     *
+     * @param file      the file
+     * @param delimiter the delimiter of the fields
+     * @param types     the types of the columns, none to infer the type of each field
+     * @return the table
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the delimiter is invalid, a row does not fit the
+     *                                  types or a quoted field is not terminated
+     */
+    public static Table read(Path file, char delimiter, ColumnType... types) throws IOException, IllegalArgumentException {
+        byte separator = delimiter(delimiter);
+        ColumnType[] columns = types.clone();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = split(channel);
+            Tuple[][] chunks;
+            try {
+                chunks = IntStream.range(0, bounds.length - 1).parallel().mapToObj(k -> {
+                    try {
+                        return new Parser(new Range(channel, bounds[k], bounds[k + 1]), separator, columns, bounds[k]).rows();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).toArray(Tuple[][]::new);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IllegalArgumentException e) {
+                if (bounds.length == 2) {
+                    throw e;
+                }
+                // Chunks end at line breaks, so a chunk starting inside a quoted field
+                // follows one ending inside it, unterminated: every chunk after the first
+                // invalid one may be misaligned, and the file is parsed as a whole
+                Tuple[] rows = new Parser(new Range(channel, 0, channel.size()), separator, columns, 0).rows();
+                return Table.wrap(rows, rows.length);
+            }
+            int size = 0;
+            for (Tuple[] chunk : chunks) {
+                size = Math.addExact(size, chunk.length);
+            }
+            Tuple[] rows = new Tuple[size];
+            int offset = 0;
+            for (Tuple[] chunk : chunks) {
+                System.arraycopy(chunk, 0, rows, offset, chunk.length);
+                offset += chunk.length;
+            }
+            return Table.wrap(rows, rows.length);
+        }
+    }
+
+    /**
+     * Splits a file in chunks starting at the beginning of lines
+     *
+     * @return the offsets of the chunks, then the size of the file
+     */
+    static long[] split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, Math.min(size / MIN_CHUNK, 4L * ForkJoinPool.getCommonPoolParallelism()));
+        long[] bounds = new long[chunks + 1];
+        int count = 1;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        for (int k = 1; k < chunks; k++) {
+            long bound = lineStart(channel, buffer, Math.max(size * k / chunks, bounds[count - 1]), size);
+            if (bound > bounds[count - 1] && bound < size) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Returns the offset of the first line starting at or after an offset
+     */
+    private static long lineStart(FileChannel channel, ByteBuffer buffer, long offset, long size) throws IOException {
+        long position = offset - 1;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the rows of a table or any other {@link Data} of rows to a channel,
+     * one per line. Rows that are not {@link Tuple}s are written as a single field.
+     *
+     * @param data      the rows
+     * @param channel   the channel
+     * @param delimiter the delimiter of the fields
+     * @throws IOException              if the channel fails
+     * @throws IllegalArgumentException if the delimiter is invalid
+     */
+    public static void write(Data data, WritableByteChannel channel, char delimiter) throws IOException, IllegalArgumentException {
+        Printer printer = new Printer(channel, delimiter(delimiter));
+        for (Object row : data) {
+            printer.row(row);
+        }
+        printer.flush();
+    }
+
+    /**
+     * A part of a file, read without moving the position of its channel,
+     * so that several parts are read concurrently
+     */
+    private static final class Range implements ReadableByteChannel {
+
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        Range(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (this.position >= this.end) {
+                return -1;
+            }
+            int limit = dst.limit();
+            dst.limit(dst.position() + (int) Math.min(dst.remaining(), this.end - this.position));
+            int read;
+            try {
+                read = this.channel.read(dst, this.position);
+            } finally {
+                dst.limit(limit);
+            }
+            if (read > 0) {
+                this.position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // The file channel is shared by the parts
+        }
+    }
+
+    /**
+     * Parses rows from a channel through a reused buffer.
+     * The bytes of the current field are gathered in a reused array.
+     */
+    static final class Parser {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHANNEL_BUFFER).limit(0);
+        private final byte delimiter;
+        private final ColumnType[] types;
+
+        /**
+         * Offset of the start of the channel, and amount of bytes read from it,
+         * to report the offset of invalid rows
+         */
+        private final long base;
+        private long read;
+        private boolean exhausted;
+
+        private byte[] field = new byte[64];
+        private int length;
+        private Object[] values = new Object[16];
+
+        /**
+         * The value of the last integral field parsed
+         */
+        private long number;
+
+        Parser(ReadableByteChannel channel, byte delimiter, ColumnType[] types, long base) {
+            this.channel = channel;
+            this.delimiter = delimiter;
+            this.types = types;
+            this.base = base;
+        }
+
+        private boolean fill() throws IOException {
+            if (this.exhausted) {
+                return false;
+            }
+            this.buffer.clear();
+            int count;
+            do {
+                count = this.channel.read(this.buffer);
+            } while (count == 0);
+            this.buffer.flip();
+            if (count < 0) {
+                this.exhausted = true;
+                return false;
+            }
+            this.read += count;
+            return true;
+        }
+
+        private int read() throws IOException {
+            if (!this.buffer.hasRemaining() && !this.fill()) {
+                return -1;
+            }
+            return this.buffer.get() & 0xFF;
+        }
+
+        private int peek() throws IOException {
+            if (!this.buffer.hasRemaining() && !this.fill()) {
+                return -1;
+            }
+            return this.buffer.get(this.buffer.position()) & 0xFF;
+        }
+
+        private void append(int b) {
+            if (this.length == this.field.length) {
+                this.field = Arrays.copyOf(this.field, Capacity.grow(this.length, this.length + 1));
+            }
+            this.field[this.length++] = (byte) b;
+        }
+
+        private IllegalArgumentException invalid(long offset, String reason) {
+            return new IllegalArgumentException("Invalid row at byte " + offset + ": " + reason);
+        }
+
+        /**
+         * Parses all the remaining rows
+         */
+        Tuple[] rows() throws IOException, IllegalArgumentException {
+            Tuple[] rows = new Tuple[0];
+            int size = 0;
+            for (Tuple row = this.next(); row != null; row = this.next()) {
+                if (size == rows.length) {
+                    rows = Arrays.copyOf(rows, Capacity.grow(size, size + 1));
+                }
+                rows[size++] = row;
+            }
+            return size == rows.length ? rows : Arrays.copyOf(rows, size);
+        }
+
+        /**
+         * Parses the next row
+         *
+         * @return the row, or null at the end of the channel
+         */
+        Tuple next() throws IOException, IllegalArgumentException {
+            int b = this.read();
+            while (b == '\r' || b == '\n') {
+                b = this.read();
+            }
+            if (b < 0) {
+                return null;
+            }
+            long start = this.base + this.read - this.buffer.remaining() - 1;
+            int count = 0;
+            while (true) {
+                this.length = 0;
+                boolean quoted = b == '"';
+                if (quoted) {
+                    while (true) {
+                        b = this.read();
+                        if (b < 0) {
+                            throw this.invalid(start, "unterminated quoted field");
+                        }
+                        if (b == '"') {
+                            if (this.peek() != '"') {
+                                b = this.read();
+                                break;
+                            }
+                            this.read();
+                        }
+                        this.append(b);
+                    }
+                    if (b >= 0 && b != this.delimiter && b != '\r' && b != '\n') {
+                        throw this.invalid(start, "unexpected character after a quoted field");
+                    }
+                } else {
+                    while (b >= 0 && b != this.delimiter && b != '\r' && b != '\n') {
+                        this.append(b);
+                        b = this.read();
+                    }
+                }
+                if (this.types.length > 0 && count == this.types.length) {
+                    throw this.invalid(start, "more than " + this.types.length + " fields");
+                }
+                if (count == this.values.length) {
+                    this.values = Arrays.copyOf(this.values, 2 * count);
+                }
+                this.values[count] = this.value(count, quoted, start);
+                count++;
+                if (b != this.delimiter) {
+                    break;
+                }
+                b = this.read();
+            }
+            if (this.types.length > 0 && count < this.types.length) {
+                throw this.invalid(start, count + " fields instead of " + this.types.length);
+            }
+            return Tuple.wrap(Arrays.copyOf(this.values, count), count);
+        }
+
+        /**
+         * Converts the current field to the type of its column, or to the inferred type
+         */
+        private Object value(int col, boolean quoted, long start) throws IllegalArgumentException {
+            if (this.types.length == 0) {
+                if (!quoted && this.length > 0 && numeric(this.field[0]) && numeric(this.field[this.length - 1])) {
+                    if (this.integral()) {
+                        return (int) this.number == this.number ? (Object) (int) this.number : (Object) this.number;
+                    }
+                    Double decimal = this.decimal();
+                    if (decimal != null) {
+                        return decimal;
+                    }
+                }
+                return this.string();
+            }
+            ColumnType type = this.types[col];
+            Object value = switch (type) {
+                case INT -> this.integral() && (int) this.number == this.number ? (Object) (int) this.number : null;
+                case LONG -> this.integral() ? (Object) this.number : null;
+                case DOUBLE -> this.decimal();
+                case OBJECT -> this.string();
+            };
+            if (value == null) {
+                throw this.invalid(start, "field " + col + " \"" + this.string() + "\" is not of type " + type);
+            }
+            return value;
+        }
+
+        private static boolean numeric(byte b) {
+            return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+        }
+
+        /**
+         * Parses the current field as a long into {@link #number}
+         *
+         * @return false if it is not a long
+         */
+        private boolean integral() {
+            int i = 0;
+            boolean negative = false;
+            if (this.length > 0 && (this.field[0] == '-' || this.field[0] == '+')) {
+                negative = this.field[0] == '-';
+                i = 1;
+            }
+            if (i == this.length) {
+                return false;
+            }
+            // Accumulated negatively, as Long.MIN_VALUE has no positive counterpart
+            long result = 0;
+            for (; i < this.length; i++) {
+                int digit = this.field[i] - '0';
+                if (digit < 0 || digit > 9 || result < (Long.MIN_VALUE + digit) / 10) {
+                    return false;
+                }
+                result = result * 10 - digit;
+            }
+            if (!negative) {
+                if (result == Long.MIN_VALUE) {
+                    return false;
+                }
+                result = -result;
+            }
+            this.number = result;
+            return true;
+        }
+
+        /**
+         * Parses the current field as a double
+         *
+         * @return the double, or null if it is not one
+         */
+        private Double decimal() {
+            try {
+                return Double.parseDouble(new String(this.field, 0, this.length, StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private String string() {
+            return new String(this.field, 0, this.length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Prints rows to a channel through a reused buffer
+     */
+    static final class Printer {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHANNEL_BUFFER);
+        private final byte delimiter;
+
+        Printer(WritableByteChannel channel, byte delimiter) {
+            this.channel = channel;
+            this.delimiter = delimiter;
+        }
+
+        void row(Object row) throws IOException {
+            if (row instanceof Tuple tuple) {
+                for (int j = 0; j < tuple.length(); j++) {
+                    if (j > 0) {
+                        this.put(this.delimiter);
+                    }
+                    this.field(tuple.getValue(j));
+                }
+            } else {
+                this.field(row);
+            }
+            this.put((byte) '\n');
+        }
+
+        private void field(Object value) throws IOException {
+            String text = value.toString();
+            if (value instanceof Number || value instanceof Boolean || !this.needsQuotes(text)) {
+                this.text(text);
+            } else {
+                this.put((byte) '"');
+                this.text(text.replace("\"", "\"\""));
+                this.put((byte) '"');
+            }
+        }
+
+        /**
+         * Returns if a string must be quoted to be read back as the same string.
+         * Empty strings are quoted, so that a row of a single one is not an empty line.
+         */
+        private boolean needsQuotes(String text) {
+            if (text.isEmpty() || text.charAt(0) < 0x80 && Parser.numeric((byte) text.charAt(0))) {
+                return true;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == this.delimiter || c == '"' || c == '\r' || c == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void text(String text) throws IOException {
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(i) >= 0x80) {
+                    this.bytes(text.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+            for (int i = 0; i < length; i++) {
+                this.put((byte) text.charAt(i));
+            }
+        }
+
+        private void bytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!this.buffer.hasRemaining()) {
+                    this.flush();
+                }
+                int count = Math.min(this.buffer.remaining(), bytes.length - offset);
+                this.buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            if (!this.buffer.hasRemaining()) {
+                this.flush();
+            }
+            this.buffer.put(b);
+        }
+
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ch.mazluc.data;
 
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 /*
  * MIT License
  *
@@ -151,4 +153,23 @@ public interface Data extends Iterable<Object> {
      * @return true if this tuple is disjoint from the given tuple
      */
     boolean isDisjoint(Object data);
+
+    /**
+     * Returns a sequential stream over the elements of the collection
+     *
+     * @return the stream
+     */
+    default Stream<Object> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the elements of the collection.
+     * The collection must not be modified while the stream is used.
+     *
+     * @return the stream
+     */
+    default Stream<Object> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,545 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A read-only column of a {@link CompressedTable}, in one of the
+ * {@link ColumnEncoding}s. Lookups and scans run on the encoded form:
+ * a dictionary column tests each distinct value once and then compares codes,
+ * a run-length column tests each run once, and a sorted delta column
+ * skips to the block that may hold a value.
+ *
+ * <p>
+ * {@link #encode(Object[], ColumnType)} picks the encoding with the smallest
+ * estimated size, from the amount of runs and distinct values of the column
+ * and the range of the differences between consecutive integers.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+abstract class EncodedColumn {
+
+    /**
+     * Estimated size of a reference and of the smallest object it points to,
+     * the cost of a cell holding an object of its own
+     */
+    private static final int OBJECT_BYTES = 20;
+
+    /**
+     * The amount of rows
+     */
+    final int length;
+
+    EncodedColumn(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Encodes the values of a column, all accepted by its type
+     *
+     * @param values the values
+     * @param type   the type of the column
+     * @return the column, in the smallest of the encodings
+     */
+    static EncodedColumn encode(Object[] values, ColumnType type) {
+        int n = values.length;
+        int width = switch (type) {
+            case INT -> Integer.BYTES;
+            case LONG, DOUBLE -> Long.BYTES;
+            case OBJECT -> OBJECT_BYTES;
+        };
+        int runs = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || !values[i].equals(values[i - 1])) {
+                runs++;
+            }
+        }
+        // Distinct values are only counted up to half of the rows: past that, codes save little
+        Map<Object, Integer> codes = new HashMap<>();
+        for (int i = 0; i < n && codes.size() <= n / 2; i++) {
+            codes.putIfAbsent(values[i], codes.size());
+        }
+        ColumnEncoding best = ColumnEncoding.PLAIN;
+        long bestBytes = (long) n * width;
+        long runBytes = (long) runs * (width + Integer.BYTES);
+        if (runBytes < bestBytes) {
+            best = ColumnEncoding.RUN_LENGTH;
+            bestBytes = runBytes;
+        }
+        if (codes.size() <= n / 2) {
+            long dictionaryBytes = (long) codes.size() * width + packedBytes(n, bits(codes.size() - 1));
+            if (dictionaryBytes < bestBytes) {
+                best = ColumnEncoding.DICTIONARY;
+                bestBytes = dictionaryBytes;
+            }
+        }
+        Delta delta = null;
+        if (n > 0 && (type == ColumnType.INT || type == ColumnType.LONG)) {
+            delta = new Delta(values, type == ColumnType.INT);
+            if (delta.bytes() < bestBytes) {
+                best = ColumnEncoding.DELTA;
+            }
+        }
+        return switch (best) {
+            case PLAIN -> new Plain(values, type);
+            case DICTIONARY -> new Dictionary(values, codes);
+            case RUN_LENGTH -> new RunLength(values, runs);
+            case DELTA -> delta;
+        };
+    }
+
+    /**
+     * Returns the amount of bits needed for values up to the given one, taken as unsigned
+     */
+    static int bits(long max) {
+        return 64 - Long.numberOfLeadingZeros(max);
+    }
+
+    private static long packedBytes(int length, int bits) {
+        return (((long) length * bits + 63) >>> 6) * Long.BYTES;
+    }
+
+    /**
+     * Stores a value at an index of an array of values of the given amount of bits
+     */
+    static void pack(long[] words, int index, int bits, long value) {
+        if (bits == 0) {
+            return;
+        }
+        long bit = (long) index * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        words[word] |= value << shift;
+        if (shift + bits > 64) {
+            words[word + 1] |= value >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Reads the value at an index of an array of values of the given amount of bits
+     */
+    static long unpack(long[] words, int index, int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        long bit = (long) index * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = words[word] >>> shift;
+        if (shift + bits > 64) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return bits == 64 ? value : value & ((1L << bits) - 1);
+    }
+
+    /**
+     * Selects the rows from start, inclusive, to end, exclusive
+     */
+    private static void selectRange(long[] words, int start, int end) {
+        for (int i = start; i < end; ) {
+            int word = i >>> 6;
+            int to = Math.min(end, (word + 1) << 6);
+            long mask = -1L >>> (64 - (to - i)) << (i & 63);
+            words[word] |= mask;
+            i = to;
+        }
+    }
+
+    /**
+     * Returns the encoding of the column
+     */
+    abstract ColumnEncoding encoding();
+
+    /**
+     * Returns the estimated size of the column, in bytes
+     */
+    abstract long bytes();
+
+    /**
+     * Decodes the value of a row, checked to be in bounds
+     */
+    abstract Object get(int row);
+
+    /**
+     * Returns if a value is in the column
+     */
+    abstract boolean contains(Object value);
+
+    /**
+     * Selects the rows whose value matches a predicate
+     */
+    abstract Selection select(Predicate<Object> predicate);
+
+    /**
+     * Selects the rows holding a value
+     */
+    Selection equalTo(Object value) {
+        return this.select(value::equals);
+    }
+
+    /**
+     * The values stored as is, in a primitive tuple for numeric columns
+     */
+    static final class Plain extends EncodedColumn {
+
+        private final Data values;
+        private final ColumnType type;
+        private final int width;
+
+        Plain(Object[] values, ColumnType type) {
+            super(values.length);
+            this.values = type.newColumn(values.length);
+            for (Object value : values) {
+                this.values.push(value);
+            }
+            this.type = type;
+            this.width = type == ColumnType.INT ? Integer.BYTES : type == ColumnType.OBJECT ? OBJECT_BYTES : Long.BYTES;
+        }
+
+        @Override
+        ColumnEncoding encoding() {
+            return ColumnEncoding.PLAIN;
+        }
+
+        @Override
+        long bytes() {
+            return (long) this.length * this.width;
+        }
+
+        @Override
+        Object get(int row) {
+            return ColumnarTable.cell(this.values, row);
+        }
+
+        @Override
+        boolean contains(Object value) {
+            // Primitive tuples widen numbers: the other encodings compare them with equals
+            return this.type.accepts(value) && this.values.contains(value);
+        }
+
+        @Override
+        Selection select(Predicate<Object> predicate) {
+            Selection selection = Selection.empty(this.length);
+            long[] words = selection.bits();
+            for (int i = 0; i < this.length; i++) {
+                if (predicate.test(this.get(i))) {
+                    words[i >>> 6] |= 1L << i;
+                }
+            }
+            return selection;
+        }
+    }
+
+    /**
+     * The distinct values in order of appearance, and the bit-packed code of each row
+     */
+    static final class Dictionary extends EncodedColumn {
+
+        private final Object[] dictionary;
+        private final long[] codes;
+        private final int bits;
+
+        Dictionary(Object[] values, Map<Object, Integer> codes) {
+            super(values.length);
+            this.dictionary = new Object[codes.size()];
+            codes.forEach((value, code) -> this.dictionary[code] = value);
+            this.bits = bits(this.dictionary.length - 1);
+            this.codes = new long[(int) (packedBytes(values.length, this.bits) / Long.BYTES)];
+            for (int i = 0; i < values.length; i++) {
+                pack(this.codes, i, this.bits, codes.get(values[i]));
+            }
+        }
+
+        @Override
+        ColumnEncoding encoding() {
+            return ColumnEncoding.DICTIONARY;
+        }
+
+        @Override
+        long bytes() {
+            return (long) this.dictionary.length * OBJECT_BYTES + (long) this.codes.length * Long.BYTES;
+        }
+
+        @Override
+        Object get(int row) {
+            return this.dictionary[(int) unpack(this.codes, row, this.bits)];
+        }
+
+        private int code(Object value) {
+            for (int code = 0; code < this.dictionary.length; code++) {
+                if (this.dictionary[code].equals(value)) {
+                    return code;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Every value of the dictionary is in at least one row
+         */
+        @Override
+        boolean contains(Object value) {
+            return this.code(value) >= 0;
+        }
+
+        @Override
+        Selection select(Predicate<Object> predicate) {
+            boolean[] matches = new boolean[this.dictionary.length];
+            boolean any = false;
+            for (int code = 0; code < matches.length; code++) {
+                matches[code] = predicate.test(this.dictionary[code]);
+                any |= matches[code];
+            }
+            Selection selection = Selection.empty(this.length);
+            if (any) {
+                long[] words = selection.bits();
+                for (int i = 0; i < this.length; i++) {
+                    if (matches[(int) unpack(this.codes, i, this.bits)]) {
+                        words[i >>> 6] |= 1L << i;
+                    }
+                }
+            }
+            return selection;
+        }
+
+        @Override
+        Selection equalTo(Object value) {
+            Selection selection = Selection.empty(this.length);
+            int code = this.code(value);
+            if (code >= 0) {
+                long[] words = selection.bits();
+                for (int i = 0; i < this.length; i++) {
+                    if (unpack(this.codes, i, this.bits) == code) {
+                        words[i >>> 6] |= 1L << i;
+                    }
+                }
+            }
+            return selection;
+        }
+    }
+
+    /**
+     * The value of each run of equal values, and the row where the run ends
+     */
+    static final class RunLength extends EncodedColumn {
+
+        private final Object[] values;
+
+        /**
+         * The end of each run, exclusive, increasing
+         */
+        private final int[] ends;
+
+        RunLength(Object[] values, int runs) {
+            super(values.length);
+            this.values = new Object[runs];
+            this.ends = new int[runs];
+            int run = -1;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || !values[i].equals(values[i - 1])) {
+                    this.values[++run] = values[i];
+                }
+                this.ends[run] = i + 1;
+            }
+        }
+
+        @Override
+        ColumnEncoding encoding() {
+            return ColumnEncoding.RUN_LENGTH;
+        }
+
+        @Override
+        long bytes() {
+            return (long) this.values.length * (OBJECT_BYTES + Integer.BYTES);
+        }
+
+        @Override
+        Object get(int row) {
+            int run = Arrays.binarySearch(this.ends, row);
+            return this.values[run >= 0 ? run + 1 : -run - 1];
+        }
+
+        @Override
+        boolean contains(Object value) {
+            for (Object run : this.values) {
+                if (run.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Selection select(Predicate<Object> predicate) {
+            Selection selection = Selection.empty(this.length);
+            long[] words = selection.bits();
+            for (int run = 0; run < this.values.length; run++) {
+                if (predicate.test(this.values[run])) {
+                    selectRange(words, run == 0 ? 0 : this.ends[run - 1], this.ends[run]);
+                }
+            }
+            return selection;
+        }
+    }
+
+    /**
+     * Integers as the bit-packed differences between consecutive values, minus the
+     * smallest difference, with the absolute value of every {@value #ANCHOR}th row
+     * to decode a row from the closest anchor before it.
+     * Differences wrap around, so that any longs are encoded exactly.
+     */
+    static final class Delta extends EncodedColumn {
+
+        /**
+         * Amount of rows between two absolute values
+         */
+        static final int ANCHOR = 128;
+
+        private final boolean ints;
+        private final long[] anchors;
+        private final long minDelta;
+        private final int bits;
+        private final long[] deltas;
+
+        /**
+         * If the values never decrease, so that lookups can skip to a single block
+         */
+        private final boolean sorted;
+
+        Delta(Object[] values, boolean ints) {
+            super(values.length);
+            this.ints = ints;
+            long[] longs = new long[values.length];
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = ((Number) values[i]).longValue();
+            }
+            long minDelta = Long.MAX_VALUE;
+            long maxDelta = Long.MIN_VALUE;
+            boolean sorted = true;
+            for (int i = 1; i < longs.length; i++) {
+                long delta = longs[i] - longs[i - 1];
+                minDelta = Math.min(minDelta, delta);
+                maxDelta = Math.max(maxDelta, delta);
+                sorted &= longs[i] >= longs[i - 1];
+            }
+            this.minDelta = longs.length > 1 ? minDelta : 0;
+            this.bits = longs.length > 1 ? bits(maxDelta - minDelta) : 0;
+            this.sorted = sorted;
+            this.anchors = new long[(longs.length + ANCHOR - 1) / ANCHOR];
+            this.deltas = new long[(int) (packedBytes(longs.length, this.bits) / Long.BYTES)];
+            for (int i = 0; i < longs.length; i++) {
+                if (i % ANCHOR == 0) {
+                    this.anchors[i / ANCHOR] = longs[i];
+                } else {
+                    pack(this.deltas, i, this.bits, longs[i] - longs[i - 1] - this.minDelta);
+                }
+            }
+        }
+
+        @Override
+        ColumnEncoding encoding() {
+            return ColumnEncoding.DELTA;
+        }
+
+        @Override
+        long bytes() {
+            return (long) (this.anchors.length + this.deltas.length) * Long.BYTES;
+        }
+
+        private Object box(long value) {
+            return this.ints ? (Object) (int) value : (Object) value;
+        }
+
+        /**
+         * Decodes the value of a row from the previous one
+         */
+        private long next(long previous, int row) {
+            return row % ANCHOR == 0
+                    ? this.anchors[row / ANCHOR]
+                    : previous + this.minDelta + unpack(this.deltas, row, this.bits);
+        }
+
+        @Override
+        Object get(int row) {
+            int anchor = row - row % ANCHOR;
+            long value = this.anchors[anchor / ANCHOR];
+            for (int i = anchor + 1; i <= row; i++) {
+                value = this.next(value, i);
+            }
+            return this.box(value);
+        }
+
+        @Override
+        boolean contains(Object value) {
+            if (!(this.ints ? value instanceof Integer : value instanceof Long)) {
+                return false;
+            }
+            long target = ((Number) value).longValue();
+            int from = 0;
+            int to = this.length;
+            if (this.sorted) {
+                // The last block starting at or before the value is the only one that may hold it
+                int block = Arrays.binarySearch(this.anchors, target);
+                if (block >= 0) {
+                    return true;
+                }
+                block = -block - 2;
+                if (block < 0) {
+                    return false;
+                }
+                from = block * ANCHOR;
+                to = Math.min(this.length, from + ANCHOR);
+            }
+            long current = 0;
+            for (int i = from; i < to; i++) {
+                current = i == from ? this.anchors[i / ANCHOR] : this.next(current, i);
+                if (current == target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Selection select(Predicate<Object> predicate) {
+            Selection selection = Selection.empty(this.length);
+            long[] words = selection.bits();
+            long value = 0;
+            for (int i = 0; i < this.length; i++) {
+                value = this.next(value, i);
+                if (predicate.test(this.box(value))) {
+                    words[i >>> 6] |= 1L << i;
+                }
+            }
+            return selection;
+        }
+    }
+}
@@ -0,0 +1,1128 @@
+package ch.mazluc.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * An expression over a row of a {@link Table}, or over a single value,
+ * that can be compiled into a predicate.
+ *
+ * <p>
+ * Expressions are built from column references, literals, comparisons,
+ * {@code and}/{@code or}/{@code not}, arithmetic and {@code in}-lists.
+ * {@link #toPredicate()} composes the whole tree into a single method handle,
+ * each node specialized for its operator and for the types of its operands:
+ * when the type of a column is declared, through {@link #col(int, ColumnType)},
+ * its values are unboxed once and compared or computed on as primitives,
+ * literals are bound as constants, and arithmetic on literals is folded.
+ * Columns of undeclared type are compared by value at run time: numbers
+ * numerically, across classes, other values by equality or natural order.
+ * The handle is then bound as a constant into a hidden class of its own,
+ * so that the JIT compiles each expression into its own method, whose
+ * call sites only ever see that expression.
+ *
+ * <p>
+ * A comparison or {@code in}-list reading a column a row is too short to have,
+ * or holding a value of another type than declared for it, is false for that row;
+ * the same holds for a value of undeclared type that is not a number where
+ * arithmetic needs one, or for a column read as a condition that is not a boolean.
+ * {@code and}, {@code or} and {@code not} then combine those results as usual:
+ * {@code col(0).eq(1).or(col(1).eq("x"))} matches a row holding only {@code 1}.
+ * Integral division by zero throws {@link ArithmeticException}.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * Expr condition = Expr.col(0, ColumnType.INT).times(2).gt(10)
+ *         .and(Expr.col(1).in("red", "blue"));
+ * Table matching = table.where(condition);
+ * Tuple positive = tuple.filter(Expr.value(ColumnType.DOUBLE).gt(0.0));
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public abstract class Expr {
+
+    /**
+     * The type an expression evaluates to
+     */
+    enum Type { LONG, DOUBLE, OBJECT, BOOLEAN }
+
+    /**
+     * Arithmetic operators
+     */
+    private enum Arithmetic {
+        PLUS("+"), MINUS("-"), TIMES("*"), DIV("/");
+
+        private final String symbol;
+
+        Arithmetic(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType LONG_TYPE = MethodType.methodType(long.class, Object.class);
+    private static final MethodType DOUBLE_TYPE = MethodType.methodType(double.class, Object.class);
+    private static final MethodType OBJECT_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodHandle CELL = find("cell", Object.class, int.class, Object.class);
+    private static final MethodHandle APPLICABLE = find("applicable", boolean.class, int.class, Class.class, Object.class);
+    private static final MethodHandle UNBOX_INT = find("unboxInt", long.class, Object.class);
+    private static final MethodHandle UNBOX_LONG = find("unboxLong", long.class, Object.class);
+    private static final MethodHandle UNBOX_DOUBLE = find("unboxDouble", double.class, Object.class);
+    private static final MethodHandle UNBOX_BOOLEAN = find("unboxBoolean", boolean.class, Object.class);
+    private static final MethodHandle TO_DOUBLE = find("toDouble", double.class, Object.class);
+    private static final MethodHandle NOT = find("not", boolean.class, boolean.class);
+    private static final MethodHandle OBJECT_EQUALS = find("objectEquals", boolean.class, Object.class, Object.class);
+    private static final MethodHandle OBJECT_COMPARE = find("objectCompare", boolean.class, Comparison.class, Object.class, Object.class);
+    private static final MethodHandle OBJECT_ARITHMETIC = find("objectArithmetic", Object.class, Arithmetic.class, Object.class, Object.class);
+    private static final MethodHandle IN_LONGS = find("inLongs", boolean.class, long[].class, long.class);
+    private static final MethodHandle IN_DOUBLES = find("inDoubles", boolean.class, double[].class, double.class);
+    private static final MethodHandle IN_SET = find("inSet", boolean.class, Set.class, Object.class);
+    private static final MethodHandle IN_NUMBERS = find("inNumbers", boolean.class, Set.class, Object[].class, Object.class);
+
+    /**
+     * Comparisons and arithmetic on primitives, indexed by operator
+     */
+    private static final MethodHandle[] LONG_COMPARISONS = operators(Comparison.values(), boolean.class, long.class);
+    private static final MethodHandle[] DOUBLE_COMPARISONS = operators(Comparison.values(), boolean.class, double.class);
+    private static final MethodHandle[] LONG_ARITHMETIC = operators(Arithmetic.values(), long.class, long.class);
+    private static final MethodHandle[] DOUBLE_ARITHMETIC = operators(Arithmetic.values(), double.class, double.class);
+
+    /**
+     * The bytes of {@link Compiled}, defined again as a hidden class for every compiled expression
+     */
+    private static final byte[] TEMPLATE = template();
+
+    Expr() {}
+
+    private static MethodHandle find(String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findStatic(Expr.class, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Finds the binary operator methods named after the constants of an enum,
+     * such as {@code ltLong} or {@code plusDouble}
+     */
+    private static MethodHandle[] operators(Enum<?>[] operators, Class<?> returnType, Class<?> operandType) {
+        MethodHandle[] handles = new MethodHandle[operators.length];
+        String suffix = operandType == long.class ? "Long" : "Double";
+        for (Enum<?> operator : operators) {
+            handles[operator.ordinal()] = find(operator.name().toLowerCase(Locale.ROOT) + suffix,
+                    returnType, operandType, operandType);
+        }
+        return handles;
+    }
+
+    private static byte[] template() {
+        try (InputStream in = Expr.class.getResourceAsStream("Expr$Compiled.class")) {
+            if (in == null) {
+                throw new ExceptionInInitializerError("Expr$Compiled.class not found");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Returns a handle ignoring its input and returning a constant
+     */
+    private static MethodHandle constant(Class<?> type, Object value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(type, value), 0, Object.class);
+    }
+
+    /**
+     * Applies a binary operator to the results of two handles on the same input
+     */
+    private static MethodHandle combine(MethodHandle operator, MethodHandle left, MethodHandle right) {
+        MethodHandle both = MethodHandles.filterArguments(operator, 0, left, right);
+        return MethodHandles.permuteArguments(both,
+                MethodType.methodType(operator.type().returnType(), Object.class), 0, 0);
+    }
+
+    /**
+     * Returns the type the expression evaluates to
+     */
+    abstract Type type();
+
+    /**
+     * Compiles an expression of type {@link Type#LONG} to a {@code (Object)long} handle
+     */
+    MethodHandle compileLong() {
+        throw new IllegalStateException(this + " is not integral");
+    }
+
+    /**
+     * Compiles a numeric expression to a {@code (Object)double} handle
+     */
+    MethodHandle compileDouble() {
+        if (this.type() == Type.LONG) {
+            return MethodHandles.explicitCastArguments(this.compileLong(), DOUBLE_TYPE);
+        }
+        throw new IllegalStateException(this + " is not numeric");
+    }
+
+    /**
+     * Compiles the expression to a {@code (Object)Object} handle, boxing its value
+     */
+    MethodHandle compileObject() {
+        MethodHandle handle = switch (this.type()) {
+            case LONG -> this.compileLong();
+            case DOUBLE -> this.compileDouble();
+            default -> this.compileBoolean();
+        };
+        return MethodHandles.explicitCastArguments(handle, OBJECT_TYPE);
+    }
+
+    /**
+     * Compiles a condition to a {@code (Object)boolean} handle
+     */
+    MethodHandle compileBoolean() {
+        throw new IllegalStateException(this + " is not a condition");
+    }
+
+    /**
+     * Collects the columns the expression reads and the class their values must have,
+     * as {@code [column, class]} pairs, the column being -1 for the tested value.
+     * Conditions guard their own reads, and collect nothing.
+     *
+     * @param requirements the pairs
+     * @param required     the class the value of the expression must have where it is used
+     */
+    void require(Set<List<Object>> requirements, Class<?> required) {
+    }
+
+    /**
+     * Guards the handle of a condition so that it is false, without being evaluated,
+     * on an input missing a column it reads or holding a value of another class
+     *
+     * @param handle   the {@code (Object)boolean} handle
+     * @param required the class the values of the operands must have
+     * @param operands the operands read by the condition
+     */
+    private static MethodHandle guard(MethodHandle handle, Class<?> required, Expr... operands) {
+        Set<List<Object>> requirements = new LinkedHashSet<>();
+        for (Expr operand : operands) {
+            operand.require(requirements, required);
+        }
+        MethodHandle mismatch = constant(boolean.class, false);
+        List<List<Object>> guards = new ArrayList<>(requirements);
+        // The first requirement ends up outermost, tested first
+        for (int i = guards.size() - 1; i >= 0; i--) {
+            MethodHandle guard = MethodHandles.insertArguments(APPLICABLE, 0, guards.get(i).get(0), guards.get(i).get(1));
+            handle = MethodHandles.guardWithTest(guard, handle, mismatch);
+        }
+        return handle;
+    }
+
+    /**
+     * Compiles the expression into a predicate, to be tested on rows
+     * if it references columns, on single values if it references {@link #value()}:
+     * a condition on values can be passed to {@link Data#filter(Predicate)}.
+     * Each call defines a new class, to be reused for all the rows it tests.
+     *
+     * @return the predicate
+     * @throws IllegalStateException if the expression is not a condition
+     */
+    public Predicate<Object> toPredicate() throws IllegalStateException {
+        return this.define(this.compileBoolean());
+    }
+
+    /**
+     * Defines a copy of {@link Compiled} holding the handle, and instantiates it
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate<Object> define(MethodHandle handle) {
+        try {
+            MethodHandles.Lookup lookup = LOOKUP.defineHiddenClassWithClassData(TEMPLATE, handle, true);
+            return (Predicate<Object>) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define the predicate of " + this, e);
+        }
+    }
+
+    /**
+     * The template of compiled predicates: it is never used itself, its bytes are
+     * defined again as a hidden class for each expression, with the handle of the
+     * expression as class data. As the handle is a static final constant of its
+     * own class, the JIT inlines the whole expression into {@link #test(Object)}.
+     */
+    static final class Compiled implements Predicate<Object> {
+
+        private static final MethodHandle HANDLE;
+
+        static {
+            try {
+                HANDLE = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public boolean test(Object input) {
+            try {
+                return (boolean) HANDLE.invokeExact(input);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+    }
+
+    /**
+     * References a column of the row, of undeclared type
+     *
+     * @param column the column
+     * @return the expression
+     * @throws IllegalArgumentException if the column is negative
+     */
+    public static Expr col(int column) throws IllegalArgumentException {
+        return col(column, null);
+    }
+
+    /**
+     * References a column of the row holding values of a known type:
+     * {@code Integer}, {@code Long} or {@code Double} values for the
+     * numeric types, anything for {@link ColumnType#OBJECT}
+     *
+     * @param column the column
+     * @param type   the type of the values of the column
+     * @return the expression
+     * @throws IllegalArgumentException if the column is negative
+     */
+    public static Expr col(int column, ColumnType type) throws IllegalArgumentException {
+        if (column < 0) {
+            throw new IllegalArgumentException("Illegal column: " + column);
+        }
+        return new Reference(column, type);
+    }
+
+    /**
+     * References the value tested, when filtering the values of a tuple
+     *
+     * @return the expression
+     */
+    public static Expr value() {
+        return new Reference(-1, null);
+    }
+
+    /**
+     * References the value tested, when filtering the values of a tuple,
+     * holding values of a known type
+     *
+     * @param type the type of the values
+     * @return the expression
+     */
+    public static Expr value(ColumnType type) {
+        return new Reference(-1, type);
+    }
+
+    /**
+     * Creates a constant
+     *
+     * @param value the value
+     * @return the expression
+     * @throws NullPointerException if the value is null
+     */
+    public static Expr lit(Object value) throws NullPointerException {
+        if (value == null) {
+            throw new NullPointerException("Literals cannot be null");
+        }
+        return value instanceof Expr e ? e : new Literal(value);
+    }
+
+    /**
+     * Tests if the expression is equal to another expression or a literal
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr eq(Object other) {
+        return new Compare(Comparison.EQ, this, lit(other));
+    }
+
+    /**
+     * Tests if the expression is not equal to another expression or a literal
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr ne(Object other) {
+        return new Compare(Comparison.NE, this, lit(other));
+    }
+
+    /**
+     * Tests if the expression is less than another expression or a literal
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr lt(Object other) {
+        return new Compare(Comparison.LT, this, lit(other));
+    }
+
+    /**
+     * Tests if the expression is less than or equal to another expression or a literal
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr le(Object other) {
+        return new Compare(Comparison.LE, this, lit(other));
+    }
+
+    /**
+     * Tests if the expression is greater than another expression or a literal
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr gt(Object other) {
+        return new Compare(Comparison.GT, this, lit(other));
+    }
+
+    /**
+     * Tests if the expression is greater than or equal to another expression or a literal
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr ge(Object other) {
+        return new Compare(Comparison.GE, this, lit(other));
+    }
+
+    /**
+     * Tests if both conditions hold, evaluating the other one only if needed
+     *
+     * @param other the other condition
+     * @return the expression
+     */
+    public Expr and(Expr other) {
+        return new Logic(true, this, other);
+    }
+
+    /**
+     * Tests if either condition holds, evaluating the other one only if needed
+     *
+     * @param other the other condition
+     * @return the expression
+     */
+    public Expr or(Expr other) {
+        return new Logic(false, this, other);
+    }
+
+    /**
+     * Negates the condition
+     *
+     * @return the expression
+     */
+    public Expr not() {
+        return new Not(this);
+    }
+
+    /**
+     * Adds another expression or a literal; integral operands give integral results
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr plus(Object other) {
+        return Arith.of(Arithmetic.PLUS, this, lit(other));
+    }
+
+    /**
+     * Subtracts another expression or a literal; integral operands give integral results
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr minus(Object other) {
+        return Arith.of(Arithmetic.MINUS, this, lit(other));
+    }
+
+    /**
+     * Multiplies by another expression or a literal; integral operands give integral results
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr times(Object other) {
+        return Arith.of(Arithmetic.TIMES, this, lit(other));
+    }
+
+    /**
+     * Divides by another expression or a literal; integral operands give integral results,
+     * an integral division by zero throwing {@link ArithmeticException} when evaluated
+     *
+     * @param other the expression or literal
+     * @return the expression
+     */
+    public Expr div(Object other) {
+        return Arith.of(Arithmetic.DIV, this, lit(other));
+    }
+
+    /**
+     * Tests if the expression is equal to one of the given values
+     *
+     * @param values the values
+     * @return the expression
+     */
+    public Expr in(Object... values) {
+        return new In(this, values.clone());
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isNumeric(Type type) {
+        return type == Type.LONG || type == Type.DOUBLE;
+    }
+
+    /**
+     * Compares two values of unknown type: numbers by value,
+     * other comparable values of the same class in natural order
+     *
+     * @return the comparison, or null if the values are not comparable
+     */
+    private static Integer compare(Object a, Object b) {
+        if (a instanceof Number x && b instanceof Number y) {
+            if (isIntegral(x) && isIntegral(y)) {
+                return Long.compare(x.longValue(), y.longValue());
+            }
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ColumnIndex.ORDER.compare(a, b);
+        }
+        return null;
+    }
+
+    // The methods composed into the handles of the expressions
+
+    /**
+     * Returns if the input has a column holding a value of the given class,
+     * or is itself of that class for a negative column
+     */
+    private static boolean applicable(int column, Class<?> type, Object input) {
+        Object value = input;
+        if (column >= 0) {
+            if (!(input instanceof Tuple row) || column >= row.length()) {
+                return false;
+            }
+            value = row.getValue(column);
+        }
+        return type.isInstance(value);
+    }
+
+    private static Object cell(int column, Object row) {
+        return ((Tuple) row).getValue(column);
+    }
+
+    private static long unboxInt(Object value) {
+        return (Integer) value;
+    }
+
+    private static long unboxLong(Object value) {
+        return (Long) value;
+    }
+
+    private static double unboxDouble(Object value) {
+        return (Double) value;
+    }
+
+    private static boolean unboxBoolean(Object value) {
+        return (Boolean) value;
+    }
+
+    private static double toDouble(Object value) {
+        return ((Number) value).doubleValue();
+    }
+
+    private static boolean not(boolean value) {
+        return !value;
+    }
+
+    private static boolean eqLong(long a, long b) {
+        return a == b;
+    }
+
+    private static boolean neLong(long a, long b) {
+        return a != b;
+    }
+
+    private static boolean ltLong(long a, long b) {
+        return a < b;
+    }
+
+    private static boolean leLong(long a, long b) {
+        return a <= b;
+    }
+
+    private static boolean gtLong(long a, long b) {
+        return a > b;
+    }
+
+    private static boolean geLong(long a, long b) {
+        return a >= b;
+    }
+
+    private static boolean eqDouble(double a, double b) {
+        return a == b;
+    }
+
+    private static boolean neDouble(double a, double b) {
+        return a != b;
+    }
+
+    private static boolean ltDouble(double a, double b) {
+        return a < b;
+    }
+
+    private static boolean leDouble(double a, double b) {
+        return a <= b;
+    }
+
+    private static boolean gtDouble(double a, double b) {
+        return a > b;
+    }
+
+    private static boolean geDouble(double a, double b) {
+        return a >= b;
+    }
+
+    private static long plusLong(long a, long b) {
+        return a + b;
+    }
+
+    private static long minusLong(long a, long b) {
+        return a - b;
+    }
+
+    private static long timesLong(long a, long b) {
+        return a * b;
+    }
+
+    private static long divLong(long a, long b) {
+        return a / b;
+    }
+
+    private static double plusDouble(double a, double b) {
+        return a + b;
+    }
+
+    private static double minusDouble(double a, double b) {
+        return a - b;
+    }
+
+    private static double timesDouble(double a, double b) {
+        return a * b;
+    }
+
+    private static double divDouble(double a, double b) {
+        return a / b;
+    }
+
+    /**
+     * Tests values of unknown type for equality, numbers by value across classes
+     */
+    private static boolean objectEquals(Object x, Object y) {
+        Integer comparison = x instanceof Number && y instanceof Number ? compare(x, y) : null;
+        return comparison != null ? comparison == 0 : x.equals(y);
+    }
+
+    private static boolean objectCompare(Comparison op, Object x, Object y) {
+        Integer comparison = compare(x, y);
+        return comparison != null && op.holds(comparison);
+    }
+
+    /**
+     * Computes on numbers of unknown type: integral if both are
+     */
+    private static Object objectArithmetic(Arithmetic op, Object a, Object b) {
+        Number x = (Number) a;
+        Number y = (Number) b;
+        if (isIntegral(x) && isIntegral(y)) {
+            long l = x.longValue();
+            long r = y.longValue();
+            return switch (op) {
+                case PLUS -> l + r;
+                case MINUS -> l - r;
+                case TIMES -> l * r;
+                case DIV -> l / r;
+            };
+        }
+        double l = x.doubleValue();
+        double r = y.doubleValue();
+        return switch (op) {
+            case PLUS -> l + r;
+            case MINUS -> l - r;
+            case TIMES -> l * r;
+            case DIV -> l / r;
+        };
+    }
+
+    private static boolean inLongs(long[] keys, long value) {
+        return Arrays.binarySearch(keys, value) >= 0;
+    }
+
+    /**
+     * Searches keys holding no NaN and no -0.0, so that values match as by
+     * {@code ==}: NaN matches nothing, and adding 0.0 turns -0.0 into 0.0
+     */
+    private static boolean inDoubles(double[] keys, double value) {
+        return Arrays.binarySearch(keys, value + 0.0) >= 0;
+    }
+
+    private static boolean inSet(Set<Object> keys, Object value) {
+        return keys.contains(value);
+    }
+
+    /**
+     * Tests membership matching numbers by value across classes
+     */
+    private static boolean inNumbers(Set<Object> keys, Object[] values, Object value) {
+        if (keys.contains(value)) {
+            return true;
+        }
+        if (value instanceof Number) {
+            for (Object key : values) {
+                if (key instanceof Number) {
+                    Integer comparison = compare(value, key);
+                    if (comparison != null && comparison == 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A column of the row, or the tested value itself
+     */
+    private static final class Reference extends Expr {
+
+        private final int column;
+        private final ColumnType type;
+
+        Reference(int column, ColumnType type) {
+            this.column = column;
+            this.type = type;
+        }
+
+        @Override
+        Type type() {
+            if (this.type == null || this.type == ColumnType.OBJECT) {
+                return Type.OBJECT;
+            }
+            return this.type == ColumnType.DOUBLE ? Type.DOUBLE : Type.LONG;
+        }
+
+        private MethodHandle cell() {
+            return this.column < 0
+                    ? MethodHandles.identity(Object.class)
+                    : MethodHandles.insertArguments(CELL, 0, this.column);
+        }
+
+        @Override
+        MethodHandle compileLong() {
+            if (this.type == ColumnType.INT) {
+                return MethodHandles.filterReturnValue(this.cell(), UNBOX_INT);
+            }
+            if (this.type == ColumnType.LONG) {
+                return MethodHandles.filterReturnValue(this.cell(), UNBOX_LONG);
+            }
+            return super.compileLong();
+        }
+
+        @Override
+        MethodHandle compileDouble() {
+            if (this.type == ColumnType.DOUBLE) {
+                return MethodHandles.filterReturnValue(this.cell(), UNBOX_DOUBLE);
+            }
+            return super.compileDouble();
+        }
+
+        @Override
+        MethodHandle compileObject() {
+            return this.cell();
+        }
+
+        @Override
+        MethodHandle compileBoolean() {
+            if (this.type() != Type.OBJECT) {
+                return super.compileBoolean();
+            }
+            return guard(MethodHandles.filterReturnValue(this.cell(), UNBOX_BOOLEAN), Boolean.class, this);
+        }
+
+        @Override
+        void require(Set<List<Object>> requirements, Class<?> required) {
+            Class<?> type = switch (this.type()) {
+                case LONG -> this.type == ColumnType.INT ? Integer.class : Long.class;
+                case DOUBLE -> Double.class;
+                default -> required;
+            };
+            if (this.column >= 0 || type != Object.class) {
+                requirements.add(List.of(this.column, type));
+            }
+        }
+
+        @Override
+        public String toString() {
+            String name = this.column < 0 ? "value" : "col(" + this.column + ")";
+            return this.type == null ? name : name + ":" + this.type;
+        }
+    }
+
+    private static final class Literal extends Expr {
+
+        private final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Type type() {
+            if (isIntegral(this.value)) {
+                return Type.LONG;
+            }
+            if (this.value instanceof Double || this.value instanceof Float) {
+                return Type.DOUBLE;
+            }
+            return this.value instanceof Boolean ? Type.BOOLEAN : Type.OBJECT;
+        }
+
+        long longValue() {
+            return ((Number) this.value).longValue();
+        }
+
+        @Override
+        MethodHandle compileLong() {
+            return constant(long.class, this.longValue());
+        }
+
+        @Override
+        MethodHandle compileDouble() {
+            return constant(double.class, ((Number) this.value).doubleValue());
+        }
+
+        @Override
+        MethodHandle compileObject() {
+            return constant(Object.class, this.value);
+        }
+
+        @Override
+        MethodHandle compileBoolean() {
+            if (this.type() != Type.BOOLEAN) {
+                return super.compileBoolean();
+            }
+            return constant(boolean.class, this.value);
+        }
+
+        @Override
+        public String toString() {
+            return this.value instanceof String ? "'" + this.value + "'" : String.valueOf(this.value);
+        }
+    }
+
+    private static final class Compare extends Expr {
+
+        private final Comparison op;
+        private final Expr left;
+        private final Expr right;
+
+        Compare(Comparison op, Expr left, Expr right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Type type() {
+            return Type.BOOLEAN;
+        }
+
+        @Override
+        MethodHandle compileBoolean() {
+            return guard(this.compare(), Object.class, this.left, this.right);
+        }
+
+        private MethodHandle compare() {
+            Type l = this.left.type();
+            Type r = this.right.type();
+            if (l == Type.LONG && r == Type.LONG) {
+                return combine(LONG_COMPARISONS[this.op.ordinal()], this.left.compileLong(), this.right.compileLong());
+            }
+            if (isNumeric(l) && isNumeric(r)) {
+                return combine(DOUBLE_COMPARISONS[this.op.ordinal()], this.left.compileDouble(), this.right.compileDouble());
+            }
+            MethodHandle a = this.left.compileObject();
+            MethodHandle b = this.right.compileObject();
+            return switch (this.op) {
+                case EQ -> combine(OBJECT_EQUALS, a, b);
+                case NE -> MethodHandles.filterReturnValue(combine(OBJECT_EQUALS, a, b), NOT);
+                default -> combine(MethodHandles.insertArguments(OBJECT_COMPARE, 0, this.op), a, b);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return this.left + " " + this.op + " " + this.right;
+        }
+    }
+
+    private static final class Logic extends Expr {
+
+        private final boolean and;
+        private final Expr left;
+        private final Expr right;
+
+        Logic(boolean and, Expr left, Expr right) {
+            this.and = and;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Type type() {
+            return Type.BOOLEAN;
+        }
+
+        @Override
+        MethodHandle compileBoolean() {
+            MethodHandle a = this.left.compileBoolean();
+            MethodHandle b = this.right.compileBoolean();
+            return this.and
+                    ? MethodHandles.guardWithTest(a, b, constant(boolean.class, false))
+                    : MethodHandles.guardWithTest(a, constant(boolean.class, true), b);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + this.left + (this.and ? " and " : " or ") + this.right + ")";
+        }
+    }
+
+    private static final class Not extends Expr {
+
+        private final Expr operand;
+
+        Not(Expr operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Type type() {
+            return Type.BOOLEAN;
+        }
+
+        @Override
+        MethodHandle compileBoolean() {
+            return MethodHandles.filterReturnValue(this.operand.compileBoolean(), NOT);
+        }
+
+        @Override
+        public String toString() {
+            return "not " + this.operand;
+        }
+    }
+
+    private static final class Arith extends Expr {
+
+        private final Arithmetic op;
+        private final Expr left;
+        private final Expr right;
+
+        private Arith(Arithmetic op, Expr left, Expr right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * Creates an arithmetic expression, folding it if both operands are numeric literals.
+         * An integral division by zero is not folded, so that it throws when evaluated,
+         * as it would on the values of a column.
+         */
+        static Expr of(Arithmetic op, Expr left, Expr right) {
+            Arith arith = new Arith(op, left, right);
+            if (!(left instanceof Literal) || !(right instanceof Literal literal) || !isNumeric(arith.type())) {
+                return arith;
+            }
+            try {
+                if (arith.type() == Type.LONG) {
+                    if (op == Arithmetic.DIV && literal.longValue() == 0) {
+                        return arith;
+                    }
+                    return new Literal((long) arith.compileLong().invokeExact((Object) null));
+                }
+                return new Literal((double) arith.compileDouble().invokeExact((Object) null));
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot fold " + arith, e);
+            }
+        }
+
+        @Override
+        Type type() {
+            Type l = this.left.type();
+            Type r = this.right.type();
+            if (!isNumeric(l) || !isNumeric(r)) {
+                return Type.OBJECT;
+            }
+            return l == Type.LONG && r == Type.LONG ? Type.LONG : Type.DOUBLE;
+        }
+
+        @Override
+        MethodHandle compileLong() {
+            if (this.type() != Type.LONG) {
+                return super.compileLong();
+            }
+            return combine(LONG_ARITHMETIC[this.op.ordinal()], this.left.compileLong(), this.right.compileLong());
+        }
+
+        @Override
+        MethodHandle compileDouble() {
+            return switch (this.type()) {
+                case LONG -> super.compileDouble();
+                case DOUBLE -> combine(DOUBLE_ARITHMETIC[this.op.ordinal()], this.left.compileDouble(), this.right.compileDouble());
+                default -> MethodHandles.filterReturnValue(this.compileObject(), TO_DOUBLE);
+            };
+        }
+
+        @Override
+        MethodHandle compileObject() {
+            if (this.type() != Type.OBJECT) {
+                return super.compileObject();
+            }
+            for (Expr operand : List.of(this.left, this.right)) {
+                if (operand instanceof Literal && !isNumeric(operand.type())) {
+                    throw new IllegalStateException(operand + " is not numeric");
+                }
+            }
+            // Operands of undeclared type: integral if both values are
+            return combine(MethodHandles.insertArguments(OBJECT_ARITHMETIC, 0, this.op),
+                    this.left.compileObject(), this.right.compileObject());
+        }
+
+        @Override
+        void require(Set<List<Object>> requirements, Class<?> required) {
+            this.left.require(requirements, Number.class);
+            this.right.require(requirements, Number.class);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + this.left + " " + this.op.symbol + " " + this.right + ")";
+        }
+    }
+
+    private static final class In extends Expr {
+
+        private final Expr operand;
+        private final Object[] values;
+
+        In(Expr operand, Object[] values) {
+            this.operand = operand;
+            this.values = values;
+        }
+
+        @Override
+        Type type() {
+            return Type.BOOLEAN;
+        }
+
+        @Override
+        MethodHandle compileBoolean() {
+            return guard(this.membership(), Object.class, this.operand);
+        }
+
+        private MethodHandle membership() {
+            Type type = this.operand.type();
+            if (type == Type.LONG && Arrays.stream(this.values).allMatch(Expr::isIntegral)) {
+                long[] keys = Arrays.stream(this.values).mapToLong(v -> ((Number) v).longValue()).sorted().toArray();
+                return MethodHandles.filterArguments(MethodHandles.insertArguments(IN_LONGS, 0, (Object) keys),
+                        0, this.operand.compileLong());
+            }
+            if (isNumeric(type) && Arrays.stream(this.values).allMatch(v -> v instanceof Number)) {
+                // Matched as by eq: NaN never matches, -0.0 matches 0.0
+                double[] keys = Arrays.stream(this.values)
+                        .mapToDouble(v -> ((Number) v).doubleValue())
+                        .filter(v -> !Double.isNaN(v))
+                        .map(v -> v + 0.0)
+                        .sorted().toArray();
+                return MethodHandles.filterArguments(MethodHandles.insertArguments(IN_DOUBLES, 0, (Object) keys),
+                        0, this.operand.compileDouble());
+            }
+            Set<Object> keys = new HashSet<>(Arrays.asList(this.values));
+            MethodHandle membership = Arrays.stream(this.values).noneMatch(v -> v instanceof Number)
+                    ? MethodHandles.insertArguments(IN_SET, 0, keys)
+                    : MethodHandles.insertArguments(IN_NUMBERS, 0, keys, this.values);
+            return MethodHandles.filterArguments(membership, 0, this.operand.compileObject());
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner values = new StringJoiner(", ", "[", "]");
+            for (Object value : this.values) {
+                values.add(lit(value).toString());
+            }
+            return this.operand + " in " + values;
+        }
+    }
+}
@@ -0,0 +1,557 @@
+package ch.mazluc.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Sorts rows that may not fit in the heap.
+ * The rows are read in runs that fit a memory budget; each run is
+ * sorted in memory and spilled to a temporary file, its rows encoded
+ * as by {@link BinaryCodec}. The runs are then merged back, k ways at
+ * once, into an iterator that streams the sorted rows while reading
+ * the files, so that only one row per run is held in memory. Beyond
+ * {@value #MAX_FAN_IN} runs, groups of them are first merged into
+ * longer runs, so that the files open at once stay bounded.
+ * Input that fits the budget is sorted in memory, without spilling.
+ *
+ * <p>
+ * The sort is stable: rows the comparator considers equal keep
+ * their input order.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * ExternalSort sort = new ExternalSort(0, 2);
+ * sort.setMemoryBudget(256L << 20);
+ * sort.setTempDirectory(Path.of("/scratch"));
+ * try (ExternalSort.Rows rows = sort.sort(table.iterator())) {
+ *     while (rows.hasNext()) {
+ *         Tuple row = rows.next();
+ *     }
+ * }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Rows can hold values of the primitive wrapper classes,
+ * strings and nested tuples.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public class ExternalSort {
+
+    /**
+     * Default memory budget of the runs, in bytes
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /**
+     * Bounds of the buffer of each file being read or written
+     */
+    private static final int MIN_BUFFER = 8 << 10;
+    private static final int MAX_BUFFER = 1 << 20;
+
+    /**
+     * Most runs merged at once: more runs are first merged in groups,
+     * bounding the files open and the buffers allocated at any time
+     */
+    static final int MAX_FAN_IN = 64;
+
+    /**
+     * Estimated heap footprint of a row, without its values
+     */
+    private static final int ROW_OVERHEAD = 48;
+
+    /**
+     * The order of the rows
+     */
+    private final Comparator<? super Tuple> comparator;
+
+    /**
+     * Memory the rows of a run may take, in bytes
+     */
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /**
+     * Directory of the run files, null for the default temporary directory
+     */
+    private Path tempDirectory;
+
+    /**
+     * Whether rows equal to the previous one are dropped
+     */
+    private boolean distinct;
+
+    /**
+     * Creates a sort in the order of the given comparator
+     *
+     * @param comparator the order of the rows
+     */
+    public ExternalSort(Comparator<? super Tuple> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Creates a sort by the values of the given columns, in natural order,
+     * ordering rows as {@link Table#sortBy(int...)} does
+     *
+     * @param columns the columns to sort by, most significant first
+     * @throws IllegalArgumentException if no column is given, or one is negative
+     */
+    public ExternalSort(int... columns) throws IllegalArgumentException {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No column to sort by");
+        }
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("Illegal column: " + column);
+            }
+        }
+        this.comparator = RowSorter.byColumns(null, false, columns.clone());
+    }
+
+    /**
+     * Sets the memory the rows of a run may take, in bytes.
+     * The footprint of the rows is estimated from their values.
+     * Defaults to {@link #DEFAULT_MEMORY_BUDGET}.
+     *
+     * @param memoryBudget the budget, in bytes
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public void setMemoryBudget(long memoryBudget) throws IllegalArgumentException {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Illegal memory budget: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the memory the rows of a run may take, in bytes
+     *
+     * @return the budget
+     */
+    public long getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Sets the directory the runs are spilled to.
+     * Defaults to the temporary directory of the JVM.
+     *
+     * @param tempDirectory the directory, null for the default one
+     */
+    public void setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Returns the directory the runs are spilled to
+     *
+     * @return the directory, null for the default one
+     */
+    public Path getTempDirectory() {
+        return this.tempDirectory;
+    }
+
+    /**
+     * Sets whether rows the comparator considers equal to the
+     * previous sorted row are dropped, keeping the first of them
+     *
+     * @param distinct true to drop duplicate rows
+     */
+    public void setDistinct(boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    /**
+     * Returns if duplicate rows are dropped
+     *
+     * @return true if duplicate rows are dropped
+     */
+    public boolean isDistinct() {
+        return this.distinct;
+    }
+
+    /**
+     * Sorts the given rows. The input is read fully, and spilled to disk
+     * as needed, before this method returns; the sorted rows are then read
+     * back while iterating. Values other than tuples are taken as rows of
+     * one value, as {@link Table#push(Object)} does.
+     *
+     * @param rows the rows
+     * @return the sorted rows, to be closed once no longer needed
+     * @throws UncheckedIOException if a run cannot be spilled
+     * @throws IllegalArgumentException if a row holds a value that cannot be spilled
+     */
+    public Rows sort(Iterator<?> rows) throws UncheckedIOException {
+        List<Path> files = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        Tuple[] run = new Tuple[16];
+        int size = 0;
+        long used = 0;
+        // The buffer of the run files written, allocated once
+        ByteBuffer buffer = null;
+        try {
+            while (rows.hasNext()) {
+                Object value = rows.next();
+                if (value == null) {
+                    continue;
+                }
+                Tuple row = value instanceof Tuple t ? t : new Tuple(value);
+                long footprint = footprint(row);
+                if (size > 0 && used + footprint > this.memoryBudget) {
+                    if (buffer == null) {
+                        buffer = ByteBuffer.allocateDirect(MAX_BUFFER);
+                    }
+                    files.add(this.spill(run, size, buffer));
+                    counts.add(size);
+                    Arrays.fill(run, 0, size, null);
+                    size = 0;
+                    used = 0;
+                }
+                if (size == run.length) {
+                    run = Arrays.copyOf(run, Capacity.grow(run.length, size + 1));
+                }
+                run[size++] = row;
+                used += footprint;
+            }
+            if (files.isEmpty()) {
+                Arrays.parallelSort(run, 0, size, this.comparator);
+                return new Rows(this, List.of(), Arrays.asList(run).subList(0, size).iterator());
+            }
+            if (size > 0) {
+                files.add(this.spill(run, size, buffer));
+                counts.add(size);
+            }
+            // Released before merging
+            run = null;
+            this.reduce(files, counts, buffer);
+            return new Rows(this, files, new Merge(this.comparator, files, counts, this.bufferSize(files.size())));
+        } catch (IOException e) {
+            delete(files);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            delete(files);
+            throw e;
+        }
+    }
+
+    /**
+     * Sorts a run and writes it to a new temporary file
+     *
+     * @return the file
+     */
+    private Path spill(Tuple[] run, int size, ByteBuffer buffer) throws IOException {
+        Arrays.parallelSort(run, 0, size, this.comparator);
+        return this.write(Arrays.asList(run).subList(0, size).iterator(), buffer);
+    }
+
+    /**
+     * Merges the runs in groups of consecutive ones until at most
+     * {@link #MAX_FAN_IN} are left, each pass replacing the files of a group
+     * by the file of their merge. Merging consecutive runs keeps the sort stable.
+     * The lists always hold the files left, to be deleted on failure.
+     */
+    private void reduce(List<Path> files, List<Integer> counts, ByteBuffer buffer) throws IOException {
+        int bufferSize = this.bufferSize(MAX_FAN_IN);
+        while (files.size() > MAX_FAN_IN) {
+            for (int left = files.size(); left > 0; ) {
+                int group = Math.min(MAX_FAN_IN, left);
+                left -= group;
+                List<Path> merged = files.subList(0, group);
+                List<Integer> mergedCounts = counts.subList(0, group);
+                Merge merge = new Merge(this.comparator, merged, mergedCounts, bufferSize);
+                Path file;
+                try {
+                    file = this.write(merge, buffer);
+                } finally {
+                    merge.close();
+                }
+                int count = 0;
+                for (int c : mergedCounts) {
+                    count += c;
+                }
+                delete(merged);
+                merged.clear();
+                mergedCounts.clear();
+                files.add(file);
+                counts.add(count);
+            }
+        }
+    }
+
+    /**
+     * Writes rows to a new temporary file, through the given buffer
+     *
+     * @return the file
+     */
+    private Path write(Iterator<Tuple> rows, ByteBuffer buffer) throws IOException {
+        Path file = this.tempDirectory == null
+                ? Files.createTempFile("bdata-run", ".bin")
+                : Files.createTempFile(this.tempDirectory, "bdata-run", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            BinaryCodec.Encoder out = new BinaryCodec.Encoder(buffer.clear(), channel);
+            while (rows.hasNext()) {
+                out.tuple(rows.next());
+            }
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Splits the memory budget among the readers of the runs, at most {@link #MAX_FAN_IN}
+     */
+    private int bufferSize(int runs) {
+        long share = this.memoryBudget / (Math.min(runs, MAX_FAN_IN) + 1);
+        return (int) Math.max(MIN_BUFFER, Math.min(MAX_BUFFER, share));
+    }
+
+    /**
+     * Estimates the heap footprint of a row, in bytes
+     */
+    private static long footprint(Tuple row) {
+        long bytes = ROW_OVERHEAD + 8L * row.length();
+        for (int i = 0; i < row.length(); i++) {
+            Object value = row.getValue(i);
+            if (value instanceof String s) {
+                bytes += 40 + s.length();
+            } else if (value instanceof Tuple t) {
+                bytes += footprint(t);
+            } else {
+                bytes += 24;
+            }
+        }
+        return bytes;
+    }
+
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left to the cleanup of the temporary directory
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * The sorted rows of an {@link ExternalSort}.
+     * The run files are deleted once the rows have all been read,
+     * or when the iterator is closed.
+     *
+     * @author Luca Mazza
+     * @version 1.0
+     */
+    public static final class Rows implements Iterator<Tuple>, AutoCloseable {
+
+        private final Comparator<? super Tuple> comparator;
+        private final boolean distinct;
+        private final List<Path> files;
+        private final Iterator<Tuple> rows;
+        private Tuple next;
+        private Tuple last;
+        private boolean closed;
+
+        private Rows(ExternalSort sort, List<Path> files, Iterator<Tuple> rows) {
+            this.comparator = sort.comparator;
+            this.distinct = sort.distinct;
+            this.files = files;
+            this.rows = rows;
+        }
+
+        /**
+         * Returns true if there are rows left
+         *
+         * @return true if there are rows left
+         * @throws UncheckedIOException if a run cannot be read
+         */
+        @Override
+        public boolean hasNext() throws UncheckedIOException {
+            while (this.next == null && !this.closed) {
+                if (!this.rows.hasNext()) {
+                    this.close();
+                    break;
+                }
+                Tuple row = this.rows.next();
+                if (!this.distinct || this.last == null || this.comparator.compare(this.last, row) != 0) {
+                    this.next = row;
+                }
+            }
+            return this.next != null;
+        }
+
+        /**
+         * Returns the next sorted row
+         *
+         * @return the row
+         * @throws UncheckedIOException if a run cannot be read
+         */
+        @Override
+        public Tuple next() throws UncheckedIOException {
+            if (!this.hasNext()) { throw new NoSuchElementException(); }
+            this.last = this.next;
+            this.next = null;
+            return this.last;
+        }
+
+        /**
+         * Stops the iteration, deleting the run files
+         */
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            if (this.rows instanceof Merge merge) {
+                merge.close();
+            }
+            delete(this.files);
+        }
+    }
+
+    /**
+     * K-way merge of sorted run files, through a heap holding
+     * the next row of each run. Ties go to the earlier run,
+     * which keeps the sort stable.
+     */
+    private static final class Merge implements Iterator<Tuple> {
+
+        private final PriorityQueue<Run> heap;
+        private final List<Run> runs = new ArrayList<>();
+
+        Merge(Comparator<? super Tuple> comparator, List<Path> files, List<Integer> counts, int bufferSize) throws IOException {
+            Comparator<Run> order = (a, b) -> {
+                int result = comparator.compare(a.row, b.row);
+                return result != 0 ? result : Integer.compare(a.id, b.id);
+            };
+            this.heap = new PriorityQueue<>(files.size(), order);
+            try {
+                for (int i = 0; i < files.size(); i++) {
+                    Run run = new Run(i, files.get(i), counts.get(i), bufferSize);
+                    this.runs.add(run);
+                    if (run.advance()) {
+                        this.heap.add(run);
+                    }
+                }
+            } catch (IOException e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.heap.isEmpty();
+        }
+
+        @Override
+        public Tuple next() throws UncheckedIOException {
+            Run run = this.heap.poll();
+            if (run == null) { throw new NoSuchElementException(); }
+            Tuple row = run.row;
+            try {
+                if (run.advance()) {
+                    this.heap.add(run);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return row;
+        }
+
+        void close() {
+            this.heap.clear();
+            for (Run run : this.runs) {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * A sorted run file being read
+     */
+    private static final class Run {
+
+        private final int id;
+        private final FileChannel channel;
+        private final BinaryCodec.Decoder in;
+        private int remaining;
+        private Tuple row;
+
+        Run(int id, Path file, int count, int bufferSize) throws IOException {
+            this.id = id;
+            this.channel = FileChannel.open(file);
+            this.in = new BinaryCodec.Decoder(ByteBuffer.allocateDirect(bufferSize).limit(0), this.channel);
+            this.remaining = count;
+        }
+
+        /**
+         * Reads the next row of the run
+         *
+         * @return false if the run is over
+         */
+        boolean advance() throws IOException {
+            if (this.remaining == 0) {
+                this.row = null;
+                this.close();
+                return false;
+            }
+            this.remaining--;
+            this.row = this.in.tuple();
+            return true;
+        }
+
+        void close() {
+            try {
+                this.channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to read
+            }
+        }
+    }
+}
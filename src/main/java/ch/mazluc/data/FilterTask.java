@@ -0,0 +1,184 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * <p>
+ * Fork-join evaluation of a predicate over the values of a range of rows.
+ * The range is split in halves down to a grain size; each leaf tests the
+ * values of its rows once, collecting the matching ones in a buffer of its
+ * own. The buffers are then copied, in row order, into a single array sized
+ * to the total number of matches.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class FilterTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Smallest amount of rows a leaf task is given
+     */
+    private static final int MIN_GRAIN = 1 << 10;
+
+    /**
+     * Leaf tasks per worker, to even out rows of different lengths
+     */
+    private static final int LEAVES_PER_THREAD = 4;
+
+    private static final Object[] EMPTY = {};
+
+    private final Tuple[] rows;
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final Predicate<Object> predicate;
+
+    /**
+     * The halves of the range, null for leaf tasks
+     */
+    private FilterTask left;
+    private FilterTask right;
+
+    /**
+     * The matching values of a leaf task, in row order
+     */
+    private Object[] matches = EMPTY;
+
+    /**
+     * The number of matching values in the range
+     */
+    private int count;
+
+    private FilterTask(Tuple[] rows, int from, int to, int grain, Predicate<Object> predicate) {
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Filters the values of the rows in the given range on the calling thread.
+     *
+     * @param rows      the rows
+     * @param from      the first row, included
+     * @param to        the last row, excluded
+     * @param predicate the predicate
+     * @return the matching values, in row order
+     */
+    static Tuple sequential(Tuple[] rows, int from, int to, Predicate<Object> predicate) {
+        FilterTask task = new FilterTask(rows, from, to, Integer.MAX_VALUE, predicate);
+        task.compute();
+        return task.result();
+    }
+
+    /**
+     * Filters the values of the rows in the given range in the common
+     * fork-join pool.
+     *
+     * @param rows      the rows
+     * @param from      the first row, included
+     * @param to        the last row, excluded
+     * @param predicate the predicate, which must be safe to call concurrently
+     * @return the matching values, in row order
+     */
+    static Tuple parallel(Tuple[] rows, int from, int to, Predicate<Object> predicate) {
+        int leaves = ForkJoinPool.getCommonPoolParallelism() * LEAVES_PER_THREAD;
+        int grain = Math.max(MIN_GRAIN, (to - from) / leaves);
+        FilterTask task = new FilterTask(rows, from, to, grain, predicate);
+        ForkJoinPool.commonPool().invoke(task);
+        return task.result();
+    }
+
+    @Override
+    protected void compute() {
+        if (this.to - this.from <= this.grain) {
+            this.filterRows();
+            return;
+        }
+        int middle = (this.from + this.to) >>> 1;
+        this.left = new FilterTask(this.rows, this.from, middle, this.grain, this.predicate);
+        this.right = new FilterTask(this.rows, middle, this.to, this.grain, this.predicate);
+        invokeAll(this.left, this.right);
+        this.count = this.left.count + this.right.count;
+    }
+
+    /**
+     * Tests every value of the rows of a leaf task once.
+     */
+    private void filterRows() {
+        Object[] buffer = this.matches;
+        int n = 0;
+        for (int i = this.from; i < this.to; i++) {
+            Tuple row = this.rows[i];
+            for (int j = 0, length = row.length(); j < length; j++) {
+                Object value = row.getValue(j);
+                if (this.predicate.test(value)) {
+                    if (n == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, Capacity.grow(buffer.length, n + 1));
+                    }
+                    buffer[n++] = value;
+                }
+            }
+        }
+        this.matches = buffer;
+        this.count = n;
+    }
+
+    /**
+     * Gathers the matches of all the leaves in a single tuple.
+     */
+    private Tuple result() {
+        if (this.left == null) {
+            return Tuple.wrap(this.matches, this.count);
+        }
+        Object[] values = new Object[this.count];
+        this.copyTo(values, 0);
+        return Tuple.wrap(values, this.count);
+    }
+
+    /**
+     * Copies the matches of the range in the given array, in row order.
+     *
+     * @param dest the array
+     * @param at   the index of the first match in the array
+     * @return the index following the last match
+     */
+    private int copyTo(Object[] dest, int at) {
+        if (this.left == null) {
+            System.arraycopy(this.matches, 0, dest, at, this.count);
+            return at + this.count;
+        }
+        return this.right.copyTo(dest, this.left.copyTo(dest, at));
+    }
+}
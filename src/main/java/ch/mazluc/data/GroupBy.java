@@ -0,0 +1,169 @@
+package ch.mazluc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The rows of a {@link Table} grouped by their value in a column,
+ * as returned by {@link Table#groupBy(int)}.
+ *
+ * <p>
+ * Aggregation splits the rows in chunks. Each chunk folds its rows into
+ * a hash map of its own, from the values of the column to the accumulators
+ * of their group, so that threads share no state while aggregating.
+ * The partial aggregates of the chunks are then merged in chunk order.
+ * Tables shorter than their {@linkplain Table#setParallelThreshold(int)
+ * parallel threshold} are aggregated in a single chunk, on the calling thread.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class GroupBy {
+
+    /**
+     * Chunks of rows per worker
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Table table;
+    private final int column;
+
+    GroupBy(Table table, int column) {
+        this.table = table;
+        this.column = column;
+    }
+
+    /**
+     * Aggregates the groups, returning a table with a row per group:
+     * the value of the group, followed by the result of each aggregator.
+     * The groups are in the order of their first row.
+     * Rows too short to have the column belong to no group.
+     *
+     * @param aggregators the aggregators
+     * @return the aggregated table
+     * @throws IllegalArgumentException if an aggregator returns null
+     */
+    @SuppressWarnings("unchecked")
+    public Table aggregate(Aggregator<?>... aggregators) throws IllegalArgumentException {
+        Aggregator<Object>[] functions = (Aggregator<Object>[]) aggregators.clone();
+        int length = this.table.length();
+        boolean parallel = length >= this.table.getParallelThreshold();
+        int chunks = parallel
+                ? Math.max(1, Math.min(length, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD))
+                : 1;
+        List<Map<Object, Group>> partials = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            partials.add(null);
+        }
+        IntStream range = IntStream.range(0, chunks);
+        (parallel ? range.parallel() : range).forEach(c -> partials.set(c,
+                this.fold(functions, (int) ((long) length * c / chunks), (int) ((long) length * (c + 1) / chunks))));
+        Map<Object, Group> groups = partials.get(0);
+        for (int c = 1; c < chunks; c++) {
+            for (Map.Entry<Object, Group> entry : partials.get(c).entrySet()) {
+                Group other = entry.getValue();
+                Group group = groups.putIfAbsent(entry.getKey(), other);
+                if (group != null) {
+                    for (int i = 0; i < functions.length; i++) {
+                        group.accumulators[i] = functions[i].merge(group.accumulators[i], other.accumulators[i]);
+                    }
+                }
+            }
+        }
+        Group[] ordered = groups.values().toArray(new Group[0]);
+        Arrays.sort(ordered, (a, b) -> Integer.compare(a.first, b.first));
+        Tuple[] rows = new Tuple[ordered.length];
+        for (int g = 0; g < ordered.length; g++) {
+            Object[] values = new Object[functions.length + 1];
+            values[0] = ordered[g].key;
+            for (int i = 0; i < functions.length; i++) {
+                values[i + 1] = functions[i].result(ordered[g].accumulators[i]);
+                if (values[i + 1] == null) {
+                    throw new IllegalArgumentException("Aggregator " + i + " returned null");
+                }
+            }
+            rows[g] = Tuple.wrap(values, values.length);
+        }
+        return Table.wrap(rows, rows.length);
+    }
+
+    /**
+     * Folds a range of rows into the partial aggregates of their groups
+     */
+    private Map<Object, Group> fold(Aggregator<Object>[] functions, int from, int to) {
+        Map<Object, Group> groups = new HashMap<>();
+        Group last = null;
+        for (int i = from; i < to; i++) {
+            Tuple row = this.table.row(i);
+            if (this.column >= row.length()) {
+                continue;
+            }
+            Object key = row.getValue(this.column);
+            // Runs of equal keys skip the lookup
+            Group group = last != null && last.key.equals(key) ? last : groups.get(key);
+            if (group == null) {
+                group = new Group(key, i, functions);
+                groups.put(key, group);
+            }
+            for (int a = 0; a < functions.length; a++) {
+                functions[a].add(group.accumulators[a], row);
+            }
+            last = group;
+        }
+        return groups;
+    }
+
+    /**
+     * The partial aggregates of a group
+     */
+    private static final class Group {
+
+        private final Object key;
+
+        /**
+         * The first row of the group
+         */
+        private final int first;
+
+        private final Object[] accumulators;
+
+        Group(Object key, int first, Aggregator<Object>[] functions) {
+            this.key = key;
+            this.first = first;
+            this.accumulators = new Object[functions.length];
+            for (int i = 0; i < functions.length; i++) {
+                this.accumulators[i] = functions[i].create();
+            }
+        }
+    }
+}
@@ -0,0 +1,727 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static java.lang.System.arraycopy;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * This class represents a tuple of {@code int} values.
+ * It is the primitive specialization of {@link Tuple}: values
+ * are stored unboxed in a {@code int[]}, so numeric workloads
+ * neither allocate a Integer per value nor chase pointers to read them.
+ * Implements the {@link Data} interface
+ *
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * IntTuple tuple = new IntTuple(1, 2, 3); // create a tuple
+ * tuple.push(4); // add a value, without boxing it
+ * long sum = tuple.sum(); // aggregate, without boxing
+ * Tuple boxed = tuple.toTuple(); // convert to a generic tuple
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public class IntTuple implements Data {
+
+    /**
+     * Message when an object is not an IntTuple
+     */
+    private static final String NOT_A_TUPLE = "Object is not an IntTuple";
+
+    /**
+     * Message when a value cannot be stored as an {@code int}
+     */
+    private static final String INCOMPATIBLE_VALUE = "Value is not an int: ";
+
+    /**
+     * Below this length a linear scan is cheaper than sorting
+     * the values of a tuple for membership checks.
+     */
+    private static final int SEARCH_THRESHOLD = 16;
+
+    /**
+     * Shared backing array of empty tuples.
+     * Replaced by a real array on the first append.
+     */
+    private static final int[] EMPTY = {};
+
+    /**
+     * The values of the tuple.
+     * Only the first {@link #size} slots are in use, the remaining
+     * ones are spare capacity for further appends.
+     */
+    private int[] values;
+
+    /**
+     * The number of values in the tuple
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty IntTuple
+     */
+    public IntTuple() {
+        this.values = EMPTY;
+    }
+
+    /**
+     * Creates a new IntTuple holding a copy of the given values
+     *
+     * @param values the values of the tuple
+     */
+    public IntTuple(int... values) {
+        this.values = values.length == 0 ? EMPTY : Arrays.copyOf(values, values.length);
+        this.size = values.length;
+    }
+
+    /**
+     * Creates a new, empty tuple able to hold the given amount
+     * of values before its backing array has to grow.
+     *
+     * @param initialCapacity the initial capacity of the tuple
+     * @return an empty tuple
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public static IntTuple withCapacity(int initialCapacity) throws IllegalArgumentException {
+        IntTuple tuple = new IntTuple();
+        if (Capacity.checkInitial(initialCapacity) > 0) {
+            tuple.values = new int[initialCapacity];
+        }
+        return tuple;
+    }
+
+    /**
+     * Creates a new IntTuple from the values of a generic tuple
+     *
+     * @param tuple the tuple to convert
+     * @return the unboxed copy of the tuple
+     * @throws IllegalArgumentException if a value cannot be stored as an {@code int}
+     */
+    public static IntTuple from(Tuple tuple) throws IllegalArgumentException {
+        IntTuple result = withCapacity(tuple.length());
+        for (int i = 0; i < tuple.length(); i++) {
+            result.values[i] = unbox(tuple.getValue(i));
+        }
+        result.size = tuple.length();
+        return result;
+    }
+
+    /**
+     * Determines if the given object is an instance of IntTuple.
+     *
+     * @param obj the object to be checked
+     * @return  true if the object is an instance of IntTuple, false otherwise
+     */
+    static boolean isIntTuple(Object obj) {
+        return obj.getClass() == IntTuple.class;
+    }
+
+    /**
+     * Determines if the given value can be stored as an {@code int}
+     * without loss, i.e. if it is a boxed {@code Integer}, {@code Short} or {@code Byte}.
+     *
+     * @param value the value
+     * @return true if the value can be unboxed
+     */
+    static boolean accepts(Object value) {
+        return value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Unboxes a value, widening it if needed.
+     *
+     * @param value the value
+     * @return the unboxed value
+     * @throws IllegalArgumentException if the value cannot be stored as an {@code int}
+     */
+    private static int unbox(Object value) throws IllegalArgumentException {
+        if (!accepts(value)) {
+            throw new IllegalArgumentException(INCOMPATIBLE_VALUE + value);
+        }
+        return ((Number) value).intValue();
+    }
+
+    /**
+     * Returns the length of the tuple
+     *
+     * @return the length of the tuple
+     */
+    @Override
+    public int length() {
+        return this.size;
+    }
+
+    /**
+     * Returns if the tuple is empty
+     *
+     * @return if the tuple is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns if the tuple is equal to another
+     *
+     * @param obj the tuple to compare
+     * @return if the tuple is equal to another
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || !isIntTuple(obj)) {
+            return false;
+        }
+        IntTuple tuple = (IntTuple) obj;
+        if (this.size != tuple.size) {
+            return false;
+        }
+        return Kernels.INSTANCE.equals(this.values, tuple.values, this.size);
+    }
+
+    /**
+     * Returns the hash code of the tuple.
+     * Equal to the hash code of the generic tuple holding the same values.
+     *
+     * @return the hash code of the tuple
+     */
+    @Override
+    public int hashCode() {
+        if (this.size == 0) {
+            return 0;
+        }
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++) {
+            hashCode = 31 * hashCode + Integer.hashCode(this.values[i]);
+        }
+        return hashCode;
+    }
+
+
+    /**
+     * Determines whether the given value is contained within the tuple.
+     * Only boxed {@code int} values (or narrower) can be contained.
+     *
+     * @param value the value to check for containment
+     * @return true if the value is contained, false otherwise
+     */
+    @Override
+    public <T> boolean contains(T value) {
+        return value != null && accepts(value) && this.indexOf(((Number) value).intValue()) != -1;
+    }
+
+    /**
+     * Determines whether the given value is contained within the tuple,
+     * without boxing it.
+     *
+     * @param value the value to check for containment
+     * @return true if the value is contained, false otherwise
+     */
+    public boolean contains(int value) {
+        return this.indexOf(value) != -1;
+    }
+
+    /**
+     * Returns the index of a specified value
+     *
+     * @param value the value to search
+     * @return the index of the value, -1 if it is not contained
+     */
+    public int indexOf(int value) {
+        return Kernels.INSTANCE.indexOf(this.values, this.size, value);
+    }
+
+    /**
+     * Increases the capacity of the tuple, if necessary, so that
+     * it can hold at least the given amount of values without
+     * reallocating its backing array.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > this.values.length) {
+            this.values = Arrays.copyOf(this.values, Capacity.grow(this.values.length, minCapacity));
+        }
+    }
+
+    /**
+     * Trims the capacity of the tuple down to its length,
+     * releasing the spare slots of the backing array.
+     */
+    public void trimToSize() {
+        if (this.size < this.values.length) {
+            this.values = this.size == 0 ? EMPTY : Arrays.copyOf(this.values, this.size);
+        }
+    }
+
+    /**
+     * Appends a boxed value to the tuple.
+     * Null values are ignored, as in {@link Tuple}.
+     *
+     * @param value the value to append
+     * @throws IllegalArgumentException if the value cannot be stored as an {@code int}
+     */
+    @Override
+    public <T> void push(T value) throws IllegalArgumentException {
+        if (value == null) {
+            return;
+        }
+        this.push(unbox(value));
+    }
+
+    /**
+     * Appends a value to the tuple, without boxing it
+     *
+     * @param value the value to append
+     */
+    public void push(int value) {
+        this.ensureCapacity(this.size + 1);
+        this.values[this.size++] = value;
+    }
+
+    /**
+     * Inserts a new value at the specified index
+     *
+     * @param index index to insert the value into
+     * @param value value to insert
+     */
+    public void insert(int index, int value) throws IndexOutOfBoundsException {
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+        this.ensureCapacity(this.size + 1);
+        arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.values[index] = value;
+        this.size++;
+    }
+
+    /**
+     * Replaces the value at the specified index
+     *
+     * @param index the index of the value
+     * @param value the new value
+     */
+    public void replace(int index, int value) throws IndexOutOfBoundsException {
+        this.checkIndex(index);
+        this.values[index] = value;
+    }
+
+    /**
+     * Swaps the elements at the specified indices in the array.
+     *
+     * @param index1 the index of the first element to be swapped
+     * @param index2 the index of the second element to be swapped
+     */
+    @Override
+    public void swap(int index1, int index2) throws IndexOutOfBoundsException {
+        if (index1 < 0 || index2 < 0 || index1 >= this.size || index2 >= this.size) {
+            throw new IndexOutOfBoundsException("Index out of bounds for length " + this.size);
+        }
+        int temp = this.values[index1];
+        this.values[index1] = this.values[index2];
+        this.values[index2] = temp;
+    }
+
+    /**
+     * Returns the value at the specified index of the tuple, unboxed
+     *
+     * @param index the index of the value
+     * @return the value at the specified index
+     */
+    public int getInt(int index) throws IndexOutOfBoundsException {
+        this.checkIndex(index);
+        return this.values[index];
+    }
+
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+    }
+
+    /**
+     * Removes the last value of the tuple
+     */
+    @Override
+    public void pop() {
+        if (this.size == 0) {
+            return;
+        }
+        this.size--;
+    }
+
+    /**
+     * Removes the element at the specified index
+     *
+     * @param index the index of the element to be removed
+     */
+    public void remove(int index) throws IndexOutOfBoundsException {
+        if (this.size == 0) {
+            return;
+        }
+        this.checkIndex(index);
+        arraycopy(this.values, index + 1, this.values, index, this.size - 1 - index);
+        this.size--;
+    }
+
+    /**
+     * Clears the tuple, making it of length 0.
+     * The capacity of the tuple is kept, see {@link #trimToSize()}
+     */
+    @Override
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Returns the sum of the values of the tuple,
+     * accumulated in a {@code long} so that it cannot overflow
+     *
+     * @return the sum of the values, 0 if the tuple is empty
+     */
+    public long sum() {
+        return Kernels.INSTANCE.sum(this.values, this.size);
+    }
+
+    /**
+     * Returns the smallest value of the tuple
+     *
+     * @return the smallest value
+     * @throws NoSuchElementException if the tuple is empty
+     */
+    public int min() throws NoSuchElementException {
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        return Kernels.INSTANCE.min(this.values, this.size);
+    }
+
+    /**
+     * Returns the largest value of the tuple
+     *
+     * @return the largest value
+     * @throws NoSuchElementException if the tuple is empty
+     */
+    public int max() throws NoSuchElementException {
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        return Kernels.INSTANCE.max(this.values, this.size);
+    }
+
+    /**
+     * Returns the positions of the values satisfying a comparison with an operand,
+     * as a bitmap instead of a new tuple.
+     * The comparison runs on vectors of values when the vector API is available.
+     *
+     * @param op      the comparison
+     * @param operand the operand
+     * @return the positions of the matching values
+     */
+    public Selection select(Comparison op, int operand) {
+        Selection selection = Selection.empty(this.size);
+        Kernels.INSTANCE.select(this.values, this.size, op, operand, selection.bits());
+        return selection;
+    }
+
+    /**
+     * Returns a copy of the values of the tuple
+     *
+     * @return the values of the tuple
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    /**
+     * Returns the backing array of the tuple, without copying it.
+     * Only the first {@link #length()} slots are meaningful.
+     * Used by column scans within the package.
+     *
+     * @return the backing array
+     */
+    int[] array() {
+        return this.values;
+    }
+
+    /**
+     * Converts the tuple to a generic tuple, boxing every value
+     *
+     * @return the generic tuple
+     */
+    public Tuple toTuple() {
+        Tuple tuple = Tuple.withCapacity(this.size);
+        for (int i = 0; i < this.size; i++) {
+            tuple.push(this.values[i]);
+        }
+        return tuple;
+    }
+
+    /**
+     * Returns the string representation of the tuple
+     *
+     * @return the string representation of the tuple
+     */
+    @Override
+    public String toString() {
+        if (this.size == 0) {
+            return "[]";
+        }
+        return Arrays.toString(this.toArray());
+    }
+
+    /**
+     * Slices the tuple from a defined start to a defined end
+     *
+     * @param start the first index
+     * @param end   the last index
+     */
+    @Override
+    public void slice(int start, int end) throws IllegalArgumentException {
+        if (end > this.size) {
+            end = this.size;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        arraycopy(this.values, start, this.values, 0, end - start);
+        this.size = end - start;
+    }
+
+    /**
+     * Joins two or more tuples into this one.
+     * Objects other than IntTuple are skipped.
+     *
+     * @param datas the tuples to join
+     */
+    @Override
+    public void join(Object... datas) {
+        for (Object data : datas) {
+            if (!isIntTuple(data)) {
+                continue;
+            }
+            IntTuple tmp = (IntTuple) data;
+            int length = tmp.size;
+            this.ensureCapacity(this.size + length);
+            arraycopy(tmp.values, 0, this.values, this.size, length);
+            this.size += length;
+        }
+    }
+
+    /**
+     * Returns a membership test over the values of the tuple,
+     * to be used by operations that look up many values at once.
+     * Long tuples are sorted once and binary searched.
+     */
+    private IntPredicate membership() {
+        if (this.size < SEARCH_THRESHOLD) {
+            return this::contains;
+        }
+        int[] sorted = this.toArray();
+        Arrays.sort(sorted);
+        return value -> Arrays.binarySearch(sorted, value) >= 0;
+    }
+
+    private static IntTuple cast(Object data) throws IllegalArgumentException {
+        if (!isIntTuple(data)) {
+            throw new IllegalArgumentException(NOT_A_TUPLE);
+        }
+        return (IntTuple) data;
+    }
+
+    /**
+     * Determines if this tuple is a subset of the given tuple.
+     *
+     * @param data the tuple to check against
+     * @return true if this tuple is a subset of the given tuple, false otherwise
+     */
+    @Override
+    public boolean isSubsetOf(Object data) throws IllegalArgumentException {
+        IntTuple tmp = cast(data);
+        if (this.size > tmp.size) {
+            return false;
+        }
+        IntPredicate contained = tmp.membership();
+        for (int i = 0; i < this.size; i++) {
+            if (!contained.test(this.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if this tuple is a superset of the given tuple.
+     *
+     * @param data the tuple to check against
+     * @return true if this tuple is a superset of the given tuple, false otherwise
+     */
+    @Override
+    public boolean isSupersetOf(Object data) throws IllegalArgumentException {
+        return cast(data).isSubsetOf(this);
+    }
+
+    /**
+     * Subtracts the given tuple from this tuple
+     *
+     * @param data the tuple
+     * @return the values of this tuple not contained in the given one
+     */
+    @Override
+    public Object subtract(Object data) throws IllegalArgumentException {
+        IntPredicate contained = cast(data).membership();
+        return this.filterInt(value -> !contained.test(value));
+    }
+
+    /**
+     * Returns the symmetric difference between this tuple and the given tuple
+     *
+     * @param data the tuple
+     * @return the symmetric difference
+     */
+    public Object symmetricDifference(Object data) throws IllegalArgumentException {
+        IntTuple tmp = cast(data);
+        IntTuple result = (IntTuple) this.subtract(tmp);
+        result.join(tmp.subtract(this));
+        return result;
+    }
+
+    /**
+     * Checks if this tuple shares no value with the given tuple.
+     *
+     * @param data the tuple to check for disjointness
+     * @return true if the tuples are disjoint, false otherwise
+     */
+    @Override
+    public boolean isDisjoint(Object data) throws IllegalArgumentException {
+        IntTuple tmp = cast(data);
+        IntPredicate contained = this.membership();
+        for (int i = 0; i < tmp.size; i++) {
+            if (contained.test(tmp.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Filters the values of the tuple, boxing each of them
+     * to test it against the predicate.
+     * Prefer {@link #filterInt(IntPredicate)} where possible.
+     *
+     * @param predicate the predicate used to filter the values
+     * @return the filtered IntTuple
+     */
+    @Override
+    public Object filter(Predicate<Object> predicate) {
+        return this.filterInt(predicate::test);
+    }
+
+    /**
+     * Filters the values of the tuple, without boxing them.
+     *
+     * @param predicate the predicate used to filter the values
+     * @return the filtered IntTuple
+     */
+    public IntTuple filterInt(IntPredicate predicate) {
+        IntTuple result = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            if (predicate.test(this.values[i])) {
+                result.push(this.values[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a stream over the values of the tuple, without boxing
+     * or copying them. Its spliterator is {@code SIZED}, {@code SUBSIZED}
+     * and {@code ORDERED}, so the stream parallelizes evenly.
+     * The tuple must not be modified while the stream is used.
+     *
+     * @return the stream
+     */
+    public IntStream intStream() {
+        return Arrays.stream(this.values, 0, this.size);
+    }
+
+    /**
+     * Returns a spliterator over the values of the tuple, boxing them.
+     * Like the one of {@link #intStream()}, it splits in exact halves.
+     *
+     * @return a Spliterator.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<Object> spliterator() {
+        Spliterator<? extends Object> values = Spliterators.spliterator(this.values, 0, this.size,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return (Spliterator<Object>) values;
+    }
+
+    /**
+     * Returns an iterator over the values of the tuple, boxing them.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < size;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                return values[currentIndex++];
+            }
+        };
+    }
+}
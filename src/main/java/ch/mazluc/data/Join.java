@@ -0,0 +1,374 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Relational joins between two {@link Table}s on the values of a column of each.
+ *
+ * <p>
+ * A hash join builds a hash table over the smaller table, from the values
+ * of its column to its rows, and probes it with the rows of the other table.
+ * Large tables are built in parallel: their rows are first partitioned by
+ * the hash of their value, then each partition is built on its own thread,
+ * without any locking. The probe runs in parallel as well, each thread
+ * collecting the matching pairs of a chunk of rows.
+ *
+ * <p>
+ * A merge join sorts the rows of both tables by the values of their column,
+ * unless they are sorted already, and walks them side by side. Values match
+ * when they are equal in natural order, as in a sorted index.
+ *
+ * <p>
+ * Either way, the matching pairs of rows are packed as (left row, right row)
+ * in a {@code long}, and put in the order of the left table, then of the right one,
+ * before the rows of the result are built.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class Join {
+
+    /**
+     * Chunks of rows per worker in parallel phases
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final Tuple[] NO_ROWS = {};
+
+    private Join() {}
+
+    /**
+     * Joins two tables through a hash table over the smaller one.
+     *
+     * @param left        the left table
+     * @param leftColumn  the column of the left table
+     * @param right       the right table
+     * @param rightColumn the column of the right table
+     * @param type        the kind of join
+     * @param parallel    whether to build and probe in parallel
+     * @return the joined table
+     */
+    static Table hash(Table left, int leftColumn, Table right, int rightColumn, JoinType type, boolean parallel) {
+        boolean buildLeft = left.length() < right.length();
+        Table build = buildLeft ? left : right;
+        Table probe = buildLeft ? right : left;
+        int probeColumn = buildLeft ? rightColumn : leftColumn;
+        HashTable table = HashTable.build(build, buildLeft ? leftColumn : rightColumn, parallel);
+        int chunks = chunks(probe.length(), parallel);
+        if (type == JoinType.SEMI || type == JoinType.ANTI) {
+            boolean[] matched = new boolean[left.length()];
+            range(chunks, parallel).forEach(c -> {
+                for (int i = start(probe, c, chunks); i < start(probe, c + 1, chunks); i++) {
+                    IntTuple rows = table.get(key(probe.row(i), probeColumn));
+                    if (rows == null) {
+                        continue;
+                    }
+                    if (buildLeft) {
+                        for (int j = 0; j < rows.length(); j++) {
+                            matched[rows.getInt(j)] = true;
+                        }
+                    } else {
+                        matched[i] = true;
+                    }
+                }
+            });
+            return select(left, matched, type == JoinType.SEMI);
+        }
+        LongTuple[] found = new LongTuple[chunks];
+        range(chunks, parallel).forEach(c -> {
+            LongTuple pairs = new LongTuple();
+            for (int i = start(probe, c, chunks); i < start(probe, c + 1, chunks); i++) {
+                IntTuple rows = table.get(key(probe.row(i), probeColumn));
+                if (rows == null) {
+                    continue;
+                }
+                for (int j = 0; j < rows.length(); j++) {
+                    pairs.push(buildLeft ? pair(rows.getInt(j), i) : pair(i, rows.getInt(j)));
+                }
+            }
+            found[c] = pairs;
+        });
+        LongTuple pairs = new LongTuple();
+        pairs.join((Object[]) found);
+        if (buildLeft) {
+            Arrays.parallelSort(pairs.array(), 0, pairs.length());
+        }
+        return combine(left, right, pairs, type == JoinType.LEFT);
+    }
+
+    /**
+     * Joins two tables by walking their rows in the order of their values.
+     *
+     * @param left        the left table
+     * @param leftColumn  the column of the left table
+     * @param right       the right table
+     * @param rightColumn the column of the right table
+     * @param type        the kind of join
+     * @return the joined table
+     */
+    static Table merge(Table left, int leftColumn, Table right, int rightColumn, JoinType type) {
+        Keyed[] leftKeys = sortedKeys(left, leftColumn);
+        Keyed[] rightKeys = sortedKeys(right, rightColumn);
+        boolean[] matched = new boolean[left.length()];
+        LongTuple pairs = new LongTuple();
+        boolean pairUp = type == JoinType.INNER || type == JoinType.LEFT;
+        int i = 0;
+        int j = 0;
+        while (i < leftKeys.length && j < rightKeys.length) {
+            int order = ColumnIndex.ORDER.compare(leftKeys[i].key, rightKeys[j].key);
+            if (order < 0) {
+                i++;
+            } else if (order > 0) {
+                j++;
+            } else {
+                int leftEnd = groupEnd(leftKeys, i);
+                int rightEnd = groupEnd(rightKeys, j);
+                for (int a = i; a < leftEnd; a++) {
+                    matched[leftKeys[a].row] = true;
+                    for (int b = j; pairUp && b < rightEnd; b++) {
+                        pairs.push(pair(leftKeys[a].row, rightKeys[b].row));
+                    }
+                }
+                i = leftEnd;
+                j = rightEnd;
+            }
+        }
+        if (!pairUp) {
+            return select(left, matched, type == JoinType.SEMI);
+        }
+        Arrays.parallelSort(pairs.array(), 0, pairs.length());
+        return combine(left, right, pairs, type == JoinType.LEFT);
+    }
+
+    /**
+     * Builds the rows of an inner or left join from the matching pairs,
+     * in the order of the left table.
+     */
+    private static Table combine(Table left, Table right, LongTuple pairs, boolean keepUnmatched) {
+        long[] found = pairs.array();
+        int count = pairs.length();
+        Tuple[] rows = new Tuple[keepUnmatched ? count + left.length() : count];
+        int size = 0;
+        int next = 0;
+        for (int k = 0; k < count; k++) {
+            int l = (int) (found[k] >>> 32);
+            while (keepUnmatched && next < l) {
+                rows[size++] = left.row(next++);
+            }
+            next = l + 1;
+            rows[size++] = Tuple.concat(left.row(l), right.row((int) found[k]));
+        }
+        while (keepUnmatched && next < left.length()) {
+            rows[size++] = left.row(next++);
+        }
+        return Table.wrap(rows, size);
+    }
+
+    /**
+     * Selects the rows of a table that matched, or did not match
+     */
+    private static Table select(Table table, boolean[] matched, boolean keep) {
+        int count = 0;
+        for (boolean m : matched) {
+            if (m == keep) {
+                count++;
+            }
+        }
+        Tuple[] rows = count == 0 ? NO_ROWS : new Tuple[count];
+        int size = 0;
+        for (int i = 0; i < matched.length; i++) {
+            if (matched[i] == keep) {
+                rows[size++] = table.row(i);
+            }
+        }
+        return Table.wrap(rows, size);
+    }
+
+    /**
+     * Returns the rows with a comparable value in the column,
+     * in the order of their values, then of the table
+     */
+    private static Keyed[] sortedKeys(Table table, int column) {
+        Keyed[] keys = new Keyed[table.length()];
+        int size = 0;
+        boolean sorted = true;
+        for (int i = 0; i < table.length(); i++) {
+            Object key = key(table.row(i), column);
+            if (key instanceof Comparable) {
+                keys[size] = new Keyed(key, i);
+                sorted &= size == 0 || ColumnIndex.ORDER.compare(keys[size - 1].key, key) <= 0;
+                size++;
+            }
+        }
+        if (size < keys.length) {
+            keys = Arrays.copyOf(keys, size);
+        }
+        if (!sorted) {
+            Arrays.parallelSort(keys, Keyed.ORDER);
+        }
+        return keys;
+    }
+
+    private static int groupEnd(Keyed[] keys, int start) {
+        int end = start + 1;
+        while (end < keys.length && ColumnIndex.ORDER.compare(keys[start].key, keys[end].key) == 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private static Object key(Tuple row, int column) {
+        return column < row.length() ? row.getValue(column) : null;
+    }
+
+    private static long pair(int left, int right) {
+        return (long) left << 32 | right;
+    }
+
+    private static int chunks(int rows, boolean parallel) {
+        return parallel ? Math.max(1, Math.min(rows, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD)) : 1;
+    }
+
+    private static int start(Table table, int chunk, int chunks) {
+        return (int) ((long) table.length() * chunk / chunks);
+    }
+
+    private static IntStream range(int chunks, boolean parallel) {
+        IntStream range = IntStream.range(0, chunks);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * A row with the value it is joined on
+     */
+    private record Keyed(Object key, int row) {
+        static final Comparator<Keyed> ORDER = (a, b) -> ColumnIndex.ORDER.compare(a.key, b.key);
+    }
+
+    /**
+     * Hash table from the values of a column to the ascending ids
+     * of the rows holding them, split in partitions by hash
+     */
+    private static final class HashTable {
+
+        private final Map<Object, IntTuple>[] partitions;
+        private final int shift;
+
+        @SuppressWarnings("unchecked")
+        private HashTable(int bits) {
+            this.partitions = (Map<Object, IntTuple>[]) new Map<?, ?>[1 << bits];
+            this.shift = 32 - bits;
+        }
+
+        /**
+         * Builds the hash table of a column of a table
+         */
+        static HashTable build(Table table, int column, boolean parallel) {
+            int bits = 0;
+            if (parallel) {
+                while (1 << bits < ForkJoinPool.getCommonPoolParallelism()) {
+                    bits++;
+                }
+            }
+            HashTable result = new HashTable(bits);
+            int partitions = result.partitions.length;
+            if (partitions == 1) {
+                result.partitions[0] = fill(table, column, 0, table.length(), null);
+                return result;
+            }
+            // Count the rows of each partition in each chunk, then scatter
+            // the row ids so that every partition lists its rows in order
+            int length = table.length();
+            int chunks = chunks(length, true);
+            int[] partitionOf = new int[length];
+            int[][] counts = new int[chunks][partitions + 1];
+            range(chunks, true).forEach(c -> {
+                for (int i = start(table, c, chunks); i < start(table, c + 1, chunks); i++) {
+                    Object key = key(table.row(i), column);
+                    partitionOf[i] = key == null ? partitions : result.partition(key);
+                    counts[c][partitionOf[i]]++;
+                }
+            });
+            int[] bounds = new int[partitions + 1];
+            int[][] offsets = new int[chunks][partitions];
+            int offset = 0;
+            for (int p = 0; p < partitions; p++) {
+                bounds[p] = offset;
+                for (int c = 0; c < chunks; c++) {
+                    offsets[c][p] = offset;
+                    offset += counts[c][p];
+                }
+            }
+            bounds[partitions] = offset;
+            int[] ids = new int[offset];
+            range(chunks, true).forEach(c -> {
+                int[] at = offsets[c];
+                for (int i = start(table, c, chunks); i < start(table, c + 1, chunks); i++) {
+                    if (partitionOf[i] < partitions) {
+                        ids[at[partitionOf[i]]++] = i;
+                    }
+                }
+            });
+            range(partitions, true).forEach(p ->
+                    result.partitions[p] = fill(table, column, bounds[p], bounds[p + 1], ids));
+            return result;
+        }
+
+        /**
+         * Builds the map of one partition from a range of row ids,
+         * or of rows if no ids are given
+         */
+        private static Map<Object, IntTuple> fill(Table table, int column, int from, int to, int[] ids) {
+            Map<Object, IntTuple> map = new HashMap<>((int) ((to - from) / .75f) + 1);
+            for (int k = from; k < to; k++) {
+                int id = ids == null ? k : ids[k];
+                Object key = key(table.row(id), column);
+                if (key != null) {
+                    map.computeIfAbsent(key, v -> new IntTuple()).push(id);
+                }
+            }
+            return map;
+        }
+
+        private int partition(Object key) {
+            return (key.hashCode() * 0x9E3779B9) >>> this.shift;
+        }
+
+        IntTuple get(Object key) {
+            if (key == null) {
+                return null;
+            }
+            return this.partitions[this.partitions.length == 1 ? 0 : this.partition(key)].get(key);
+        }
+    }
+}
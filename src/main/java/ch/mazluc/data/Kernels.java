@@ -0,0 +1,132 @@
+package ch.mazluc.data;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The scan kernels over the backing arrays of primitive tuples and columns:
+ * comparison filters filling {@link Selection} bitmaps, searches, reductions
+ * and equality. Each kernel reads the first {@code length} slots of its arrays.
+ *
+ * <p>
+ * {@link #INSTANCE} is the vectorized implementation when the
+ * {@code jdk.incubator.vector} module is in the boot layer
+ * (run with {@code --add-modules jdk.incubator.vector}),
+ * and the scalar one otherwise. Both give the same results;
+ * double sums may only differ in rounding, the vectorized one
+ * accumulating lane by lane.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+interface Kernels {
+
+    /**
+     * System property disabling the vectorized kernels when set to {@code false}
+     */
+    String VECTOR_PROPERTY = "ch.mazluc.data.vector";
+
+    /**
+     * The kernels used by the tuples and columns
+     */
+    Kernels INSTANCE = load();
+
+    private static Kernels load() {
+        if (Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name: the class links against the module
+                return (Kernels) Class.forName("ch.mazluc.data.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar kernels
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    /**
+     * Sets the bits of the values satisfying a comparison
+     */
+    void select(int[] values, int length, Comparison op, int operand, long[] bits);
+
+    void select(long[] values, int length, Comparison op, long operand, long[] bits);
+
+    void select(double[] values, int length, Comparison op, double operand, long[] bits);
+
+    /**
+     * Returns the index of the first value equal to another, -1 if there is none
+     */
+    int indexOf(int[] values, int length, int value);
+
+    int indexOf(long[] values, int length, long value);
+
+    /**
+     * Returns the index of the first value equal to another the way
+     * {@link Double#equals(Object)} compares them, -1 if there is none
+     */
+    int indexOf(double[] values, int length, double value);
+
+    /**
+     * Returns the sum of the values, accumulated in a {@code long}
+     */
+    long sum(int[] values, int length);
+
+    long sum(long[] values, int length);
+
+    double sum(double[] values, int length);
+
+    /**
+     * Returns the smallest value, as {@link Math#min(int, int)} does.
+     * The length is at least one.
+     */
+    int min(int[] values, int length);
+
+    long min(long[] values, int length);
+
+    double min(double[] values, int length);
+
+    /**
+     * Returns the largest value, as {@link Math#max(int, int)} does.
+     * The length is at least one.
+     */
+    int max(int[] values, int length);
+
+    long max(long[] values, int length);
+
+    double max(double[] values, int length);
+
+    /**
+     * Returns if the first values of two arrays are equal
+     */
+    boolean equals(int[] a, int[] b, int length);
+
+    boolean equals(long[] a, long[] b, int length);
+
+    /**
+     * Returns if the first values of two arrays are equal the way
+     * {@link Double#equals(Object)} compares them
+     */
+    boolean equals(double[] a, double[] b, int length);
+}
@@ -0,0 +1,530 @@
+package ch.mazluc.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A read-only table decoding its rows on demand from a file
+ * mapped in memory, instead of rebuilding every {@link Tuple} on the heap.
+ * Opening a table only maps the file and checks its header: the pages
+ * are read by the operating system when first touched, and are shared
+ * through the page cache by every process mapping the same file.
+ * Implements the {@link Data} interface; its mutators throw
+ * {@link UnsupportedOperationException}.
+ *
+ * <p>
+ * The file, written by {@link #write(Table, Path)}, holds a header,
+ * the rows encoded as by {@link BinaryCodec}, then a directory of the
+ * offsets of the rows: {@link #getValue(int, int)} seeks the row through
+ * the directory, skips the cells before the requested one and decodes it alone.
+ * Files are limited to 2 GiB, the size of a single mapping.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * MappedTable.write(table, path); // once
+ * MappedTable mapped = MappedTable.open(path); // at every start
+ * String name = mapped.getValue(42, 1);
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class MappedTable implements Data {
+
+    /**
+     * Message when a mutator is called
+     */
+    private static final String READ_ONLY = "MappedTable is read-only";
+
+    /**
+     * Message when an object is not a mapped table
+     */
+    private static final String NOT_A_TABLE = "Object is not a MappedTable";
+
+    /**
+     * Size of the header: magic number, version, kind, padding,
+     * amount of rows and offset of the directory
+     */
+    private static final int HEADER = 24;
+
+    /**
+     * The mapped file
+     */
+    private final ByteBuffer map;
+
+    /**
+     * The amount of rows
+     */
+    private final int size;
+
+    /**
+     * The offset of the directory: {@code size + 1} longs, the offsets
+     * of the rows then the end of the last one
+     */
+    private final int directory;
+
+    private MappedTable(ByteBuffer map, int size, int directory) {
+        this.map = map;
+        this.size = size;
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a table to a file readable by {@link #open(Path)},
+     * replacing the file if it exists
+     *
+     * @param table the table
+     * @param path  the file
+     * @throws IOException              if the file cannot be written, or would exceed 2 GiB
+     * @throws IllegalArgumentException if a value of the table cannot be encoded
+     */
+    public static void write(Table table, Path path) throws IOException, IllegalArgumentException {
+        int rows = table.length();
+        // The directory alone, aligned after the header, must fit the limit
+        long directorySize = 8L * (rows + 1);
+        if (HEADER + directorySize > Integer.MAX_VALUE) {
+            throw new IOException("Mapped tables are limited to 2 GiB");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER);
+            BinaryCodec.Encoder encoder = new BinaryCodec.Encoder(ByteBuffer.allocateDirect(1 << 16), channel);
+            ByteBuffer offsets = ByteBuffer.allocateDirect((int) directorySize);
+            for (int i = 0; i < rows; i++) {
+                offsets.putLong(HEADER + encoder.written());
+                encoder.tuple(table.row(i));
+                if (HEADER + encoder.written() + 7 + directorySize > Integer.MAX_VALUE) {
+                    throw new IOException("Mapped tables are limited to 2 GiB");
+                }
+            }
+            encoder.flush();
+            long end = HEADER + encoder.written();
+            offsets.putLong(end);
+            // Aligned, so that the directory reads never straddle two pages
+            long directory = (end + 7) & ~7L;
+            offsets.flip();
+            while (offsets.hasRemaining()) {
+                channel.write(offsets, directory + offsets.position());
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(BinaryCodec.MAGIC).put((byte) BinaryCodec.VERSION).put(BinaryCodec.KIND_MAPPED)
+                    .putShort((short) 0).putLong(rows).putLong(directory).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } catch (IOException | RuntimeException e) {
+            // No partial file is left behind
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file written by {@link #write(Table, Path)}.
+     * The file is mapped read-only: it must not be modified while the table is used.
+     *
+     * @param path the file
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a table file of this version
+     */
+    public static MappedTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER) {
+                throw new IOException("Not a mapped table file: " + path);
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Mapped tables are limited to 2 GiB");
+            }
+            // The mapping stays valid once the channel is closed
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (map.getInt(0) != BinaryCodec.MAGIC || map.get(5) != BinaryCodec.KIND_MAPPED) {
+                throw new IOException("Not a mapped table file: " + path);
+            }
+            int version = map.get(4) & 0xFF;
+            if (version != BinaryCodec.VERSION) {
+                throw new IOException("Unsupported format version " + version);
+            }
+            long rows = map.getLong(8);
+            long directory = map.getLong(16);
+            // Checked so that neither the cast nor the size of the directory overflows
+            if (rows < 0 || rows > Integer.MAX_VALUE || directory < HEADER || directory > fileSize
+                    || (fileSize - directory) / 8 < rows + 1) {
+                throw new IOException("Corrupted mapped table file: " + path);
+            }
+            return new MappedTable(map, (int) rows, (int) directory);
+        }
+    }
+
+    private static MappedTable cast(Object data) throws IllegalArgumentException {
+        if (!(data instanceof MappedTable table)) {
+            throw new IllegalArgumentException(NOT_A_TABLE);
+        }
+        return table;
+    }
+
+    /**
+     * Returns a decoder positioned at the start of a row
+     */
+    private BinaryCodec.Decoder row(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= this.size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        int offset = (int) this.map.getLong(this.directory + 8 * row);
+        return new BinaryCodec.Decoder(this.map.duplicate().position(offset), null);
+    }
+
+    /**
+     * Returns the amount of rows of the table
+     *
+     * @return the amount of rows
+     */
+    @Override
+    public int length() {
+        return this.size;
+    }
+
+    /**
+     * Returns if the table has no rows
+     *
+     * @return true if the table is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the amount of values of a row, without decoding them
+     *
+     * @param row the row
+     * @return the amount of values
+     * @throws IndexOutOfBoundsException if the row is out of bounds
+     */
+    public int rowLength(int row) throws IndexOutOfBoundsException {
+        try {
+            return this.row(row).length();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a value, skipping the values before it in its row
+     *
+     * @param row the row
+     * @param col the column
+     * @param <T> the type of the value
+     * @return the value
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     * @throws UncheckedIOException      if the file is corrupted
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(int row, int col) throws IndexOutOfBoundsException {
+        try {
+            BinaryCodec.Decoder decoder = this.row(row);
+            int length = decoder.length();
+            if (col < 0 || col >= length) {
+                throw new IndexOutOfBoundsException(col);
+            }
+            for (int j = 0; j < col; j++) {
+                decoder.skip();
+            }
+            return (T) decoder.value();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a row
+     *
+     * @param row the row
+     * @return the row, a new tuple
+     * @throws IndexOutOfBoundsException if the row is out of bounds
+     * @throws UncheckedIOException      if the file is corrupted
+     */
+    public Tuple getRow(int row) throws IndexOutOfBoundsException {
+        try {
+            return this.row(row).tuple();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the whole table
+     *
+     * @return a table holding the rows
+     */
+    public Table toTable() {
+        Table table = new Table(this.size);
+        for (Object row : this) {
+            table.push(row);
+        }
+        return table;
+    }
+
+    /**
+     * Determines if the table contains a row, compared by value,
+     * or a value in any of its rows
+     *
+     * @param value the row or value
+     * @return true if it is contained
+     */
+    @Override
+    public <T> boolean contains(T value) {
+        if (value == null) {
+            return false;
+        }
+        if (Tuple.isTuple(value)) {
+            List<Object> values = ((Tuple) value).valueList();
+            for (Object row : this) {
+                if (((Tuple) row).valueList().equals(values)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Object row : this) {
+            if (((Tuple) row).contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public <T> void push(T value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void swap(int index1, int index2) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void pop() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void slice(int start, int end) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void join(Object... datas) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Hashes the rows of the table by value
+     */
+    private Set<List<Object>> rowSet() {
+        Set<List<Object>> rows = new HashSet<>((int) (this.size / .75f) + 1);
+        for (Object row : this) {
+            rows.add(((Tuple) row).valueList());
+        }
+        return rows;
+    }
+
+    /**
+     * Returns true if every row of this table is also a row of the given table
+     *
+     * @param data the mapped table
+     * @return true if this table is a subset of the given table
+     * @throws IllegalArgumentException if the object is not a mapped table
+     */
+    @Override
+    public boolean isSubsetOf(Object data) throws IllegalArgumentException {
+        Set<List<Object>> rows = cast(data).rowSet();
+        for (Object row : this) {
+            if (!rows.contains(((Tuple) row).valueList())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if every row of the given table is also a row of this table
+     *
+     * @param data the mapped table
+     * @return true if this table is a superset of the given table
+     * @throws IllegalArgumentException if the object is not a mapped table
+     */
+    @Override
+    public boolean isSupersetOf(Object data) throws IllegalArgumentException {
+        return cast(data).isSubsetOf(this);
+    }
+
+    /**
+     * Returns the rows of this table not contained in the given one
+     *
+     * @param data the mapped table
+     * @return a {@link Table} of the remaining rows
+     * @throws IllegalArgumentException if the object is not a mapped table
+     */
+    @Override
+    public Object subtract(Object data) throws IllegalArgumentException {
+        Set<List<Object>> rows = cast(data).rowSet();
+        Table result = new Table();
+        for (Object row : this) {
+            if (!rows.contains(((Tuple) row).valueList())) {
+                result.push(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of the table that match the predicate, row by row
+     *
+     * @param predicate the predicate
+     * @return the values, as a {@link Tuple}
+     */
+    @Override
+    public Object filter(Predicate<Object> predicate) {
+        Tuple result = new Tuple();
+        for (Object row : this) {
+            Tuple tuple = (Tuple) row;
+            for (int j = 0; j < tuple.length(); j++) {
+                Object value = tuple.getValue(j);
+                if (predicate.test(value)) {
+                    result.push(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if no value of the given table is contained in this table
+     *
+     * @param data the mapped table
+     * @return true if the tables are disjoint
+     * @throws IllegalArgumentException if the object is not a mapped table
+     */
+    @Override
+    public boolean isDisjoint(Object data) throws IllegalArgumentException {
+        MappedTable table = cast(data);
+        Set<Object> cells = new HashSet<>();
+        for (Object row : this) {
+            cells.addAll(((Tuple) row).valueList());
+        }
+        for (Object row : table) {
+            for (Object value : ((Tuple) row).valueList()) {
+                if (cells.contains(value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns an iterator decoding the rows in order, with a single
+     * decoder walking the mapped rows
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private final BinaryCodec.Decoder decoder = MappedTable.this.size == 0 ? null : MappedTable.this.row(0);
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < MappedTable.this.size;
+            }
+
+            @Override
+            public Object next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.next++;
+                try {
+                    return this.decoder.tuple();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the rows, decoded on demand.
+     * It splits by row ranges, so that parallel streams decode the rows in parallel.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        return IntStream.range(0, this.size).<Object>mapToObj(this::getRow).spliterator();
+    }
+
+    /**
+     * Returns the rows of the table, one per line
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Object row : this) {
+            out.append(row).append("\n");
+        }
+        return out.toString();
+    }
+}
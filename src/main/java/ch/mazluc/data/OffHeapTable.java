@@ -0,0 +1,810 @@
+package ch.mazluc.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A table stored outside of the Java heap, in direct {@link ByteBuffer}s.
+ * Numeric columns are stored unboxed at a fixed width; the values of
+ * {@link ColumnType#OBJECT} columns, such as strings, are encoded as by
+ * {@link BinaryCodec} in a separate heap of variable-length values,
+ * the column holding their references. Both are allocated in chunks,
+ * so that the garbage collector only sees a few objects per chunk of
+ * {@value #CHUNK_ROWS} rows, whatever the amount of cells,
+ * and growing the table never copies it.
+ * It is an implementation of the {@link Data} interface,
+ * whose elements are the rows of the table, decoded on demand.
+ *
+ * <p>
+ * The columns are typed upfront and every row must fit them:
+ * {@link #getInt(int, int)}, {@link #getLong(int, int)}, {@link #getDouble(int, int)}
+ * and {@link #getString(int, int)} read cells without boxing the numeric ones.
+ * {@link #close()} releases the buffers: the table can no longer be used,
+ * and the memory is returned once the buffers are collected.
+ * Values of popped or overwritten rows stay in the value heap until the table
+ * is {@linkplain #clear() cleared}.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * try (OffHeapTable table = new OffHeapTable(ColumnType.LONG, ColumnType.OBJECT)) {
+ *     table.push(new Tuple(1L, "a"));
+ *     long id = table.getLong(0, 0);
+ *     String name = table.getString(0, 1);
+ * }
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class OffHeapTable implements Data, AutoCloseable {
+
+    /**
+     * Amount of rows of each chunk of the columns
+     */
+    static final int CHUNK_ROWS = 1 << 16;
+
+    /**
+     * Size of the chunks of the value heap
+     */
+    private static final int HEAP_CHUNK = 1 << 20;
+
+    private static final String CLOSED = "OffHeapTable is closed";
+    private static final String NOT_AN_OFF_HEAP_TABLE = "Object is not an OffHeapTable";
+
+    /**
+     * The types of the columns
+     */
+    private final ColumnType[] types;
+
+    /**
+     * The width in bytes of the cells of each column
+     */
+    private final int[] widths;
+
+    /**
+     * The chunks of each column; null once closed
+     */
+    private ByteBuffer[][] columns;
+
+    /**
+     * The chunks of the value heap, the last one being filled
+     */
+    private List<ByteBuffer> heap = new ArrayList<>();
+
+    /**
+     * The amount of rows
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty table with the given columns
+     *
+     * @param types the types of the columns
+     */
+    public OffHeapTable(ColumnType... types) {
+        this.types = types.clone();
+        this.widths = new int[types.length];
+        for (int j = 0; j < types.length; j++) {
+            this.widths[j] = types[j] == ColumnType.INT ? Integer.BYTES : Long.BYTES;
+        }
+        this.columns = new ByteBuffer[types.length][0];
+    }
+
+    /**
+     * Creates an off-heap copy of a table.
+     * Each column gets the narrowest type able to hold all of its values.
+     *
+     * @param table the table to copy
+     * @return the off-heap table
+     * @throws IllegalArgumentException if the rows of the table have different lengths,
+     *                                  or a value cannot be encoded
+     */
+    public static OffHeapTable from(Table table) throws IllegalArgumentException {
+        if (table.isEmpty()) {
+            return new OffHeapTable();
+        }
+        OffHeapTable result = new OffHeapTable(ColumnarTable.inferTypes(table));
+        for (Object row : table) {
+            result.push(row);
+        }
+        return result;
+    }
+
+    private ByteBuffer[][] columns() throws IllegalStateException {
+        if (this.columns == null) {
+            throw new IllegalStateException(CLOSED);
+        }
+        return this.columns;
+    }
+
+    private void checkRow(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= this.size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+    }
+
+    /**
+     * Returns the chunk holding a cell, checking the bounds
+     */
+    private ByteBuffer chunk(int row, int col) throws IndexOutOfBoundsException, IllegalStateException {
+        ByteBuffer[][] columns = this.columns();
+        this.checkRow(row);
+        return columns[col][row / CHUNK_ROWS];
+    }
+
+    private int typed(int col, ColumnType type) throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (this.types[col] != type) {
+            throw new IllegalArgumentException("Column " + col + " is not of type " + type);
+        }
+        return col;
+    }
+
+    /**
+     * Returns the amount of columns
+     *
+     * @return the amount of columns
+     * @throws IllegalStateException if the table is closed
+     */
+    public int width() throws IllegalStateException {
+        this.columns();
+        return this.types.length;
+    }
+
+    /**
+     * Returns the type of a column
+     *
+     * @param col the column
+     * @return its type
+     * @throws IndexOutOfBoundsException if the column is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    public ColumnType getColumnType(int col) throws IndexOutOfBoundsException, IllegalStateException {
+        this.columns();
+        return this.types[col];
+    }
+
+    /**
+     * Returns the amount of rows
+     *
+     * @return the amount of rows
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public int length() throws IllegalStateException {
+        this.columns();
+        return this.size;
+    }
+
+    /**
+     * Returns if the table has no rows
+     *
+     * @return true if the table is empty
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public boolean isEmpty() throws IllegalStateException {
+        this.columns();
+        return this.size == 0;
+    }
+
+    /**
+     * Reads a cell of an {@link ColumnType#INT} column
+     *
+     * @param row the row
+     * @param col the column
+     * @return the value
+     * @throws IllegalArgumentException  if the column is not an int column
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    public int getInt(int row, int col) throws IllegalArgumentException, IndexOutOfBoundsException, IllegalStateException {
+        return this.chunk(row, this.typed(col, ColumnType.INT)).getInt((row % CHUNK_ROWS) * Integer.BYTES);
+    }
+
+    /**
+     * Reads a cell of a {@link ColumnType#LONG} column
+     *
+     * @param row the row
+     * @param col the column
+     * @return the value
+     * @throws IllegalArgumentException  if the column is not a long column
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    public long getLong(int row, int col) throws IllegalArgumentException, IndexOutOfBoundsException, IllegalStateException {
+        return this.chunk(row, this.typed(col, ColumnType.LONG)).getLong((row % CHUNK_ROWS) * Long.BYTES);
+    }
+
+    /**
+     * Reads a cell of a {@link ColumnType#DOUBLE} column
+     *
+     * @param row the row
+     * @param col the column
+     * @return the value
+     * @throws IllegalArgumentException  if the column is not a double column
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    public double getDouble(int row, int col) throws IllegalArgumentException, IndexOutOfBoundsException, IllegalStateException {
+        return this.chunk(row, this.typed(col, ColumnType.DOUBLE)).getDouble((row % CHUNK_ROWS) * Double.BYTES);
+    }
+
+    /**
+     * Reads a string of an {@link ColumnType#OBJECT} column
+     *
+     * @param row the row
+     * @param col the column
+     * @return the string
+     * @throws IllegalArgumentException  if the column is not an object column
+     * @throws ClassCastException        if the value is not a string
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    public String getString(int row, int col) throws IllegalArgumentException, IndexOutOfBoundsException, IllegalStateException {
+        return (String) this.object(row, this.typed(col, ColumnType.OBJECT));
+    }
+
+    /**
+     * Reads a cell, boxing numeric values
+     *
+     * @param row the row
+     * @param col the column
+     * @param <T> the type of the value
+     * @return the value
+     * @throws IndexOutOfBoundsException if the row or column is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(int row, int col) throws IndexOutOfBoundsException, IllegalStateException {
+        ByteBuffer chunk = this.chunk(row, col);
+        int slot = row % CHUNK_ROWS;
+        return (T) switch (this.types[col]) {
+            case INT -> (Object) chunk.getInt(slot * Integer.BYTES);
+            case LONG -> (Object) chunk.getLong(slot * Long.BYTES);
+            case DOUBLE -> (Object) chunk.getDouble(slot * Double.BYTES);
+            case OBJECT -> this.object(row, col);
+        };
+    }
+
+    /**
+     * Decodes a row
+     *
+     * @param row the row
+     * @return the row, a new tuple
+     * @throws IndexOutOfBoundsException if the row is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    public Tuple getRow(int row) throws IndexOutOfBoundsException, IllegalStateException {
+        this.columns();
+        Object[] values = new Object[this.types.length];
+        for (int j = 0; j < values.length; j++) {
+            values[j] = this.getValue(row, j);
+        }
+        return Tuple.wrap(values, values.length);
+    }
+
+    /**
+     * Decodes the value referenced by a cell of an object column
+     */
+    private Object object(int row, int col) {
+        long reference = this.chunk(row, col).getLong((row % CHUNK_ROWS) * Long.BYTES);
+        ByteBuffer chunk = this.heap.get((int) (reference >>> 32)).duplicate();
+        chunk.position((int) reference);
+        try {
+            return new BinaryCodec.Decoder(chunk, null).value();
+        } catch (IOException e) {
+            // The heap only holds values encoded by this table
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes a value in the heap
+     *
+     * @return its reference: the index of its chunk, then its offset in the chunk
+     */
+    private long store(Object value) throws IllegalArgumentException {
+        int chunkSize = HEAP_CHUNK;
+        while (true) {
+            if (!this.heap.isEmpty()) {
+                ByteBuffer last = this.heap.get(this.heap.size() - 1);
+                int offset = last.position();
+                try {
+                    new BinaryCodec.Encoder(last, null).value(value);
+                    return (long) (this.heap.size() - 1) << 32 | offset;
+                } catch (BufferOverflowException e) {
+                    last.position(offset);
+                    if (offset == 0) {
+                        // Even a whole chunk is too small
+                        chunkSize = Math.multiplyExact(last.capacity(), 2);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (offset == 0) {
+                    this.heap.remove(this.heap.size() - 1);
+                }
+            }
+            this.heap.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+    }
+
+    /**
+     * Writes a cell; the value has been checked to fit the column
+     */
+    private void set(int row, int col, Object value) {
+        ByteBuffer chunk = this.columns[col][row / CHUNK_ROWS];
+        int slot = row % CHUNK_ROWS;
+        switch (this.types[col]) {
+            case INT -> chunk.putInt(slot * Integer.BYTES, (Integer) value);
+            case LONG -> chunk.putLong(slot * Long.BYTES, (Long) value);
+            case DOUBLE -> chunk.putDouble(slot * Double.BYTES, (Double) value);
+            case OBJECT -> chunk.putLong(slot * Long.BYTES, this.store(value));
+        }
+    }
+
+    private Tuple fit(Object value) throws IllegalArgumentException {
+        Tuple row = (value instanceof Tuple t) ? t : new Tuple(value);
+        ColumnarTable.checkWidth(row, this.types.length);
+        for (int j = 0; j < this.types.length; j++) {
+            if (!this.types[j].accepts(row.getValue(j))) {
+                throw new IllegalArgumentException("Value " + row.getValue(j) + " does not fit column " + j
+                        + " of type " + this.types[j]);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Appends a row. Single values are appended as rows of one value.
+     *
+     * @param value the row
+     * @throws IllegalArgumentException if the row does not fit the columns,
+     *                                  or a value cannot be encoded
+     * @throws IllegalStateException    if the table is closed
+     */
+    @Override
+    public <T> void push(T value) throws IllegalArgumentException, IllegalStateException {
+        ByteBuffer[][] columns = this.columns();
+        Tuple row = this.fit(value);
+        int chunk = this.size / CHUNK_ROWS;
+        if (this.types.length > 0 && chunk == columns[0].length) {
+            for (int j = 0; j < columns.length; j++) {
+                columns[j] = Arrays.copyOf(columns[j], chunk + 1);
+                columns[j][chunk] = ByteBuffer.allocateDirect(CHUNK_ROWS * this.widths[j]).order(ByteOrder.nativeOrder());
+            }
+        }
+        for (int j = 0; j < this.types.length; j++) {
+            this.set(this.size, j, row.getValue(j));
+        }
+        this.size++;
+    }
+
+    /**
+     * Replaces a row
+     *
+     * @param index the row
+     * @param value the new row
+     * @throws IndexOutOfBoundsException if the row is out of bounds
+     * @throws IllegalArgumentException  if the row does not fit the columns
+     * @throws IllegalStateException     if the table is closed
+     */
+    public void replace(int index, Tuple value) throws IndexOutOfBoundsException, IllegalArgumentException, IllegalStateException {
+        this.columns();
+        this.checkRow(index);
+        Tuple row = this.fit(value);
+        for (int j = 0; j < this.types.length; j++) {
+            this.set(index, j, row.getValue(j));
+        }
+    }
+
+    /**
+     * Swaps two rows, moving their fixed-width cells only
+     *
+     * @param index1 the first row
+     * @param index2 the second row
+     * @throws IndexOutOfBoundsException if a row is out of bounds
+     * @throws IllegalStateException     if the table is closed
+     */
+    @Override
+    public void swap(int index1, int index2) throws IndexOutOfBoundsException, IllegalStateException {
+        ByteBuffer[][] columns = this.columns();
+        this.checkRow(index1);
+        this.checkRow(index2);
+        for (int j = 0; j < columns.length; j++) {
+            ByteBuffer a = columns[j][index1 / CHUNK_ROWS];
+            ByteBuffer b = columns[j][index2 / CHUNK_ROWS];
+            int i1 = (index1 % CHUNK_ROWS) * this.widths[j];
+            int i2 = (index2 % CHUNK_ROWS) * this.widths[j];
+            if (this.widths[j] == Integer.BYTES) {
+                int tmp = a.getInt(i1);
+                a.putInt(i1, b.getInt(i2));
+                b.putInt(i2, tmp);
+            } else {
+                long tmp = a.getLong(i1);
+                a.putLong(i1, b.getLong(i2));
+                b.putLong(i2, tmp);
+            }
+        }
+    }
+
+    /**
+     * Removes the last row, if any
+     *
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public void pop() throws IllegalStateException {
+        this.columns();
+        if (this.size > 0) {
+            this.size--;
+        }
+    }
+
+    /**
+     * Removes all the rows, releasing every chunk but the first ones
+     *
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public void clear() throws IllegalStateException {
+        ByteBuffer[][] columns = this.columns();
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = Arrays.copyOf(columns[j], Math.min(1, columns[j].length));
+        }
+        if (!this.heap.isEmpty()) {
+            ByteBuffer first = this.heap.get(0).clear();
+            this.heap = new ArrayList<>(List.of(first));
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Keeps only the rows from start, inclusive, to end, exclusive,
+     * the bounds being clamped to the rows of the table
+     *
+     * @param start the first row kept
+     * @param end   the end of the rows kept
+     * @throws IllegalArgumentException if start is greater than end, once clamped
+     * @throws IllegalStateException    if the table is closed
+     */
+    @Override
+    public void slice(int start, int end) throws IllegalArgumentException, IllegalStateException {
+        ByteBuffer[][] columns = this.columns();
+        if (end > this.size) {
+            end = this.size;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        if (start > 0) {
+            for (int j = 0; j < columns.length; j++) {
+                int width = this.widths[j];
+                for (int i = start; i < end; i++) {
+                    ByteBuffer from = columns[j][i / CHUNK_ROWS];
+                    ByteBuffer to = columns[j][(i - start) / CHUNK_ROWS];
+                    int target = ((i - start) % CHUNK_ROWS) * width;
+                    if (width == Integer.BYTES) {
+                        to.putInt(target, from.getInt((i % CHUNK_ROWS) * width));
+                    } else {
+                        to.putLong(target, from.getLong((i % CHUNK_ROWS) * width));
+                    }
+                }
+            }
+        }
+        this.size = end - start;
+    }
+
+    /**
+     * Appends the rows of other tables: {@link Table}s, {@link OffHeapTable}s
+     * or any other {@link Data} of rows
+     *
+     * @param datas the tables
+     * @throws IllegalArgumentException if a row does not fit the columns
+     * @throws IllegalStateException    if the table is closed
+     */
+    @Override
+    public void join(Object... datas) throws IllegalArgumentException, IllegalStateException {
+        this.columns();
+        for (Object data : datas) {
+            if (data instanceof OffHeapTable table) {
+                // Counted upfront, as the table may be this one
+                int length = table.length();
+                for (int i = 0; i < length; i++) {
+                    this.push(table.getRow(i));
+                }
+            } else if (data instanceof Data rows) {
+                for (Object row : rows) {
+                    this.push(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if the table contains a row, compared by value,
+     * or a value in any of its rows
+     *
+     * @param value the row or value
+     * @return true if it is contained
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public <T> boolean contains(T value) throws IllegalStateException {
+        this.columns();
+        if (value == null) {
+            return false;
+        }
+        if (Tuple.isTuple(value)) {
+            List<Object> values = ((Tuple) value).valueList();
+            for (int i = 0; i < this.size; i++) {
+                if (this.getRow(i).valueList().equals(values)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int j = 0; j < this.types.length; j++) {
+            if (this.types[j] == ColumnType.OBJECT || this.types[j].accepts(value)) {
+                for (int i = 0; i < this.size; i++) {
+                    if (value.equals(this.getValue(i, j))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static OffHeapTable cast(Object data) throws IllegalArgumentException {
+        if (!(data instanceof OffHeapTable table)) {
+            throw new IllegalArgumentException(NOT_AN_OFF_HEAP_TABLE);
+        }
+        return table;
+    }
+
+    /**
+     * Hashes the rows of the table by value
+     */
+    private Set<List<Object>> rowSet() throws IllegalStateException {
+        this.columns();
+        Set<List<Object>> rows = new HashSet<>((int) (this.size / .75f) + 1);
+        for (int i = 0; i < this.size; i++) {
+            rows.add(this.getRow(i).valueList());
+        }
+        return rows;
+    }
+
+    /**
+     * Returns true if every row of this table is also a row of the given table
+     *
+     * @param data the off-heap table
+     * @return true if this table is a subset of the given table
+     * @throws IllegalArgumentException if the object is not an off-heap table
+     * @throws IllegalStateException    if either table is closed
+     */
+    @Override
+    public boolean isSubsetOf(Object data) throws IllegalArgumentException, IllegalStateException {
+        this.columns();
+        Set<List<Object>> rows = cast(data).rowSet();
+        for (int i = 0; i < this.size; i++) {
+            if (!rows.contains(this.getRow(i).valueList())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if every row of the given table is also a row of this table
+     *
+     * @param data the off-heap table
+     * @return true if this table is a superset of the given table
+     * @throws IllegalArgumentException if the object is not an off-heap table
+     * @throws IllegalStateException    if either table is closed
+     */
+    @Override
+    public boolean isSupersetOf(Object data) throws IllegalArgumentException, IllegalStateException {
+        this.columns();
+        return cast(data).isSubsetOf(this);
+    }
+
+    /**
+     * Returns the rows of this table not contained in the given one
+     *
+     * @param data the off-heap table
+     * @return an off-heap table of the remaining rows, with the same columns
+     * @throws IllegalArgumentException if the object is not an off-heap table
+     * @throws IllegalStateException    if either table is closed
+     */
+    @Override
+    public Object subtract(Object data) throws IllegalArgumentException, IllegalStateException {
+        this.columns();
+        Set<List<Object>> rows = cast(data).rowSet();
+        OffHeapTable result = new OffHeapTable(this.types);
+        for (int i = 0; i < this.size; i++) {
+            Tuple row = this.getRow(i);
+            if (!rows.contains(row.valueList())) {
+                result.push(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of the table that match the predicate, row by row
+     *
+     * @param predicate the predicate
+     * @return the values, as a {@link Tuple}
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public Object filter(Predicate<Object> predicate) throws IllegalStateException {
+        this.columns();
+        Tuple result = new Tuple();
+        for (int i = 0; i < this.size; i++) {
+            for (int j = 0; j < this.types.length; j++) {
+                Object value = this.getValue(i, j);
+                if (predicate.test(value)) {
+                    result.push(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if no value of the given table is contained in this table
+     *
+     * @param data the off-heap table
+     * @return true if the tables are disjoint
+     * @throws IllegalArgumentException if the object is not an off-heap table
+     * @throws IllegalStateException    if either table is closed
+     */
+    @Override
+    public boolean isDisjoint(Object data) throws IllegalArgumentException, IllegalStateException {
+        this.columns();
+        OffHeapTable table = cast(data);
+        table.columns();
+        Set<Object> cells = new HashSet<>();
+        for (int i = 0; i < this.size; i++) {
+            cells.addAll(this.getRow(i).valueList());
+        }
+        for (int i = 0; i < table.size; i++) {
+            for (Object value : table.getRow(i).valueList()) {
+                if (cells.contains(value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the table to a row-major {@link Table}
+     *
+     * @return the table
+     * @throws IllegalStateException if the table is closed
+     */
+    public Table toTable() throws IllegalStateException {
+        this.columns();
+        Table table = new Table(this.size);
+        for (int i = 0; i < this.size; i++) {
+            table.push(this.getRow(i));
+        }
+        return table;
+    }
+
+    /**
+     * Releases the buffers of the table. Further uses of the table throw
+     * {@link IllegalStateException}; closing it again has no effect.
+     */
+    @Override
+    public void close() {
+        this.columns = null;
+        this.heap = List.of();
+    }
+
+    /**
+     * Returns an iterator decoding the rows in order
+     *
+     * @return the iterator
+     * @throws IllegalStateException if the table is closed, also when the iterator
+     *                               is used after the table is closed
+     */
+    @Override
+    public Iterator<Object> iterator() throws IllegalStateException {
+        this.columns();
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                OffHeapTable.this.columns();
+                return this.next < OffHeapTable.this.size;
+            }
+
+            @Override
+            public Object next() {
+                OffHeapTable.this.columns();
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return OffHeapTable.this.getRow(this.next++);
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the rows, decoded on demand.
+     * The table must not be modified while the spliterator is used.
+     *
+     * @return the spliterator
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public Spliterator<Object> spliterator() throws IllegalStateException {
+        this.columns();
+        return IntStream.range(0, this.size).<Object>mapToObj(this::getRow).spliterator();
+    }
+
+    /**
+     * Returns the rows of the table, one per line
+     *
+     * @return the string
+     * @throws IllegalStateException if the table is closed
+     */
+    @Override
+    public String toString() throws IllegalStateException {
+        this.columns();
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < this.size; i++) {
+            out.append(this.getRow(i)).append("\n");
+        }
+        return out.toString();
+    }
+}
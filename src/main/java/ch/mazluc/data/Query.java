@@ -0,0 +1,652 @@
+package ch.mazluc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * A lazy query over the rows of a {@link Table}, as returned by {@link Table#query()}.
+ *
+ * <p>
+ * Stages are only recorded as they are added; nothing runs until the query
+ * is executed by {@link #toTable()} or {@link #count()}. Execution then
+ * compiles the stages into pipelines, each of which takes every row through
+ * all of its operators in a single pass, without intermediate tables.
+ * A pipeline ends where all of its rows are needed at once, at a sort.
+ * While compiling:
+ * <ul>
+ * <li>consecutive filters are fused into one operator,
+ * consecutive projections into one, and consecutive limits into one;</li>
+ * <li>leading {@link #where(int, Object)} stages on an
+ * {@linkplain Table#createIndex(int) indexed} column read the matching rows
+ * from the index instead of scanning the table;</li>
+ * <li>a sort followed by a limit keeps only the first rows while sorting (top-k);</li>
+ * <li>a limit stops reading rows as soon as it is reached.</li>
+ * </ul>
+ * The resulting plan is described by {@link #explain()}.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * Table top = table.query()
+ *         .filter(row -> row.length() > 2)
+ *         .where(1, "red")
+ *         .sortBy(2)
+ *         .select(0, 2)
+ *         .limit(10)
+ *         .toTable();
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class Query {
+
+    private final Table table;
+
+    /**
+     * The stages of the query, in order
+     */
+    private final List<Stage> stages = new ArrayList<>();
+
+    Query(Table table) {
+        this.table = table;
+    }
+
+    /**
+     * Keeps the rows matching a predicate
+     *
+     * @param predicate the predicate
+     * @return this query
+     */
+    public Query filter(Predicate<? super Tuple> predicate) {
+        return this.add(new Stage(Kind.FILTER, "Filter", predicate, null, null, 0, null));
+    }
+
+    /**
+     * Keeps the rows matching a condition, compiled when the stage is added
+     *
+     * @param condition the condition on the columns of the rows
+     * @return this query
+     * @throws IllegalStateException if the expression is not a condition
+     */
+    public Query filter(Expr condition) throws IllegalStateException {
+        Predicate<Object> predicate = condition.toPredicate();
+        return this.add(new Stage(Kind.FILTER, "Filter(" + condition + ")", predicate::test, null, null, 0, null));
+    }
+
+    /**
+     * Keeps the rows holding a value in a column
+     *
+     * @param column the column
+     * @param value  the value
+     * @return this query
+     * @throws IllegalArgumentException if the column is negative
+     */
+    public Query where(int column, Object value) throws IllegalArgumentException {
+        checkColumn(column);
+        Predicate<Tuple> predicate = row -> column < row.length() && row.getValue(column).equals(value);
+        return this.add(new Stage(Kind.WHERE, "Where(" + column + " = " + value + ")",
+                predicate, new int[]{column}, null, 0, value));
+    }
+
+    /**
+     * Keeps only the given columns of the rows, in the given order
+     *
+     * @param columns the columns
+     * @return this query
+     * @throws IllegalArgumentException if a column is negative
+     */
+    public Query select(int... columns) throws IllegalArgumentException {
+        for (int column : columns) {
+            checkColumn(column);
+        }
+        return this.add(new Stage(Kind.SELECT, null, null, columns.clone(), null, 0, null));
+    }
+
+    /**
+     * Replaces the rows by the result of a function,
+     * which must not return null
+     *
+     * @param mapper the function
+     * @return this query
+     */
+    public Query map(UnaryOperator<Tuple> mapper) {
+        return this.add(new Stage(Kind.MAP, "Map", null, null, null, 0, mapper));
+    }
+
+    /**
+     * Keeps the first rows only
+     *
+     * @param limit the number of rows to keep
+     * @return this query
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public Query limit(long limit) throws IllegalArgumentException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Illegal limit: " + limit);
+        }
+        return this.add(new Stage(Kind.LIMIT, null, null, null, null, limit, null));
+    }
+
+    /**
+     * Drops the rows holding the same values as a previous row
+     *
+     * @return this query
+     */
+    public Query distinct() {
+        return this.add(new Stage(Kind.DISTINCT, "Distinct", null, null, null, 0, null));
+    }
+
+    /**
+     * Sorts the rows by their values in the given columns,
+     * as {@link Table#sortBy(int...)} does
+     *
+     * @param columns the columns to sort by, most significant first
+     * @return this query
+     * @throws IllegalArgumentException if no column is given, or one is negative
+     */
+    public Query sortBy(int... columns) throws IllegalArgumentException {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No column to sort by");
+        }
+        for (int column : columns) {
+            checkColumn(column);
+        }
+        return this.add(new Stage(Kind.SORT, "by columns " + Arrays.toString(columns), null, null,
+                RowSorter.byColumns(null, false, columns.clone()), 0, null));
+    }
+
+    /**
+     * Sorts the rows in the order of a comparator, keeping
+     * the order of the rows it considers equal
+     *
+     * @param comparator the order of the rows
+     * @return this query
+     */
+    public Query sortBy(Comparator<? super Tuple> comparator) {
+        return this.add(new Stage(Kind.SORT, "by comparator", null, null, comparator, 0, null));
+    }
+
+    /**
+     * Executes the query
+     *
+     * @return a new table holding the resulting rows
+     */
+    public Table toTable() {
+        Collect collect = new Collect();
+        this.run(collect);
+        Tuple[] rows = collect.rows();
+        return Table.wrap(rows, rows.length);
+    }
+
+    /**
+     * Executes the query, counting the resulting rows without collecting them
+     *
+     * @return the number of rows
+     */
+    public long count() {
+        long[] count = new long[1];
+        this.run(row -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Describes the plan the query is executed with:
+     * one line per pipeline, listing its source and its operators
+     *
+     * @return the plan
+     */
+    public String explain() {
+        StringBuilder out = new StringBuilder();
+        List<Pipeline> pipelines = this.plan();
+        for (int p = 0; p < pipelines.size(); p++) {
+            Pipeline pipeline = pipelines.get(p);
+            StringJoiner line = new StringJoiner(" -> ");
+            line.add(pipeline.source());
+            for (Operator operator : pipeline.operators) {
+                line.add(operator.description);
+            }
+            if (pipeline.breaker != null) {
+                line.add(pipeline.breaker.description());
+            }
+            out.append("Pipeline ").append(p + 1).append(": ").append(line).append("\n");
+        }
+        return out.toString();
+    }
+
+    private Query add(Stage stage) {
+        this.stages.add(stage);
+        return this;
+    }
+
+    private static void checkColumn(int column) throws IllegalArgumentException {
+        if (column < 0) {
+            throw new IllegalArgumentException("Illegal column: " + column);
+        }
+    }
+
+    /**
+     * Runs the pipelines of the query, feeding the rows of the last one to a sink
+     */
+    private void run(Sink sink) {
+        Tuple[] rows = null;
+        for (Pipeline pipeline : this.plan()) {
+            Sink head = pipeline.breaker == null ? sink : pipeline.breaker;
+            for (int i = pipeline.operators.size() - 1; i >= 0; i--) {
+                head = pipeline.operators.get(i).wrap(head);
+            }
+            if (rows != null) {
+                for (Tuple row : rows) {
+                    if (!head.accept(row)) {
+                        break;
+                    }
+                }
+            } else if (pipeline.index != null) {
+                IntTuple ids = this.table.rowsWhere(pipeline.index.columns[0], pipeline.index.value);
+                for (int i = 0; i < ids.length() && head.accept(this.table.row(ids.getInt(i))); i++) {
+                    // Rows are pushed by the condition
+                }
+            } else {
+                for (int i = 0; i < this.table.length() && head.accept(this.table.row(i)); i++) {
+                    // Rows are pushed by the condition
+                }
+            }
+            if (pipeline.breaker != null) {
+                rows = pipeline.breaker.rows();
+            }
+        }
+    }
+
+    /**
+     * Compiles the stages of the query into pipelines
+     */
+    private List<Pipeline> plan() {
+        List<Pipeline> pipelines = new ArrayList<>();
+        Pipeline pipeline = new Pipeline(this.table.length());
+        int s = 0;
+        if (!this.stages.isEmpty() && this.stages.get(0).kind == Kind.WHERE
+                && this.table.hasIndex(this.stages.get(0).columns[0])) {
+            pipeline.index = this.stages.get(0);
+            s++;
+        }
+        for (; s < this.stages.size(); s++) {
+            Stage stage = this.stages.get(s);
+            Operator last = pipeline.operators.isEmpty() ? null : pipeline.operators.get(pipeline.operators.size() - 1);
+            switch (stage.kind) {
+                case FILTER, WHERE -> {
+                    if (last instanceof Filter filter) {
+                        filter.fuse(stage);
+                    } else {
+                        pipeline.operators.add(new Filter(stage));
+                    }
+                }
+                case SELECT -> {
+                    if (last instanceof Project project) {
+                        project.compose(stage.columns);
+                    } else {
+                        pipeline.operators.add(new Project(stage.columns));
+                    }
+                }
+                case LIMIT -> {
+                    if (last instanceof Limit limit) {
+                        limit.restrict(stage.limit);
+                    } else {
+                        pipeline.operators.add(new Limit(stage.limit));
+                    }
+                }
+                case MAP -> pipeline.operators.add(new Mapper(stage.mapper()));
+                case DISTINCT -> pipeline.operators.add(new Distinct());
+                case SORT -> {
+                    long limit = -1;
+                    while (s + 1 < this.stages.size() && this.stages.get(s + 1).kind == Kind.LIMIT) {
+                        long next = this.stages.get(++s).limit;
+                        limit = limit < 0 ? next : Math.min(limit, next);
+                    }
+                    pipeline.breaker = limit < 0 ? new Sort(stage) : new TopK(stage, limit);
+                    pipelines.add(pipeline);
+                    pipeline = new Pipeline(-1);
+                }
+            }
+        }
+        pipelines.add(pipeline);
+        return pipelines;
+    }
+
+    private enum Kind { FILTER, WHERE, SELECT, MAP, LIMIT, DISTINCT, SORT }
+
+    /**
+     * A stage of the query, as added
+     */
+    private record Stage(Kind kind, String description, Predicate<? super Tuple> predicate, int[] columns,
+                         Comparator<? super Tuple> comparator, long limit, Object value) {
+
+        @SuppressWarnings("unchecked")
+        UnaryOperator<Tuple> mapper() {
+            return (UnaryOperator<Tuple>) this.value;
+        }
+    }
+
+    /**
+     * A consumer of rows
+     */
+    private interface Sink {
+
+        /**
+         * Accepts a row
+         *
+         * @param row the row
+         * @return false if no more rows are wanted
+         */
+        boolean accept(Tuple row);
+    }
+
+    /**
+     * A sequence of operators run in a single pass, possibly
+     * ending with a breaker that gathers all of the rows
+     */
+    private static final class Pipeline {
+
+        /**
+         * Number of rows of the scanned table, -1 if the
+         * pipeline reads the rows of the previous one
+         */
+        private final int scanned;
+        private final List<Operator> operators = new ArrayList<>();
+        private Stage index;
+        private Breaker breaker;
+
+        Pipeline(int scanned) {
+            this.scanned = scanned;
+        }
+
+        String source() {
+            if (this.scanned < 0) {
+                return "Read(previous pipeline)";
+            }
+            if (this.index != null) {
+                return "IndexLookup(" + this.index.columns[0] + " = " + this.index.value + ")";
+            }
+            return "Scan(" + this.scanned + " rows)";
+        }
+    }
+
+    /**
+     * An operator of a pipeline, passing rows on to the next sink
+     */
+    private abstract static class Operator {
+
+        protected String description;
+
+        Operator(String description) {
+            this.description = description;
+        }
+
+        abstract Sink wrap(Sink next);
+    }
+
+    private static final class Filter extends Operator {
+
+        private Predicate<? super Tuple> predicate;
+        private int fused = 1;
+
+        Filter(Stage stage) {
+            super(stage.description);
+            this.predicate = stage.predicate;
+        }
+
+        @SuppressWarnings("unchecked")
+        void fuse(Stage stage) {
+            this.predicate = ((Predicate<Tuple>) this.predicate).and(stage.predicate);
+            this.fused++;
+            this.description = "Filter(" + this.fused + " fused)";
+        }
+
+        @Override
+        Sink wrap(Sink next) {
+            Predicate<? super Tuple> test = this.predicate;
+            return row -> !test.test(row) || next.accept(row);
+        }
+    }
+
+    private static final class Project extends Operator {
+
+        private int[] columns;
+
+        Project(int[] columns) {
+            super(null);
+            this.columns = columns;
+            this.describe();
+        }
+
+        /**
+         * Composes a projection of the output of this one into it
+         */
+        void compose(int[] next) {
+            int[] composed = new int[next.length];
+            for (int i = 0; i < next.length; i++) {
+                if (next[i] >= this.columns.length) {
+                    throw new IllegalArgumentException("Column " + next[i] + " is not selected");
+                }
+                composed[i] = this.columns[next[i]];
+            }
+            this.columns = composed;
+            this.describe();
+        }
+
+        private void describe() {
+            this.description = "Project" + Arrays.toString(this.columns);
+        }
+
+        @Override
+        Sink wrap(Sink next) {
+            int[] selected = this.columns;
+            return row -> {
+                Object[] values = new Object[selected.length];
+                for (int i = 0; i < selected.length; i++) {
+                    values[i] = row.getValue(selected[i]);
+                }
+                return next.accept(Tuple.wrap(values, values.length));
+            };
+        }
+    }
+
+    private static final class Mapper extends Operator {
+
+        private final UnaryOperator<Tuple> mapper;
+
+        Mapper(UnaryOperator<Tuple> mapper) {
+            super("Map");
+            this.mapper = mapper;
+        }
+
+        @Override
+        Sink wrap(Sink next) {
+            return row -> next.accept(this.mapper.apply(row));
+        }
+    }
+
+    private static final class Limit extends Operator {
+
+        private long limit;
+
+        Limit(long limit) {
+            super("Limit(" + limit + ")");
+            this.limit = limit;
+        }
+
+        void restrict(long limit) {
+            this.limit = Math.min(this.limit, limit);
+            this.description = "Limit(" + this.limit + ")";
+        }
+
+        @Override
+        Sink wrap(Sink next) {
+            long max = this.limit;
+            long[] passed = new long[1];
+            return row -> passed[0] < max && next.accept(row) && ++passed[0] < max;
+        }
+    }
+
+    private static final class Distinct extends Operator {
+
+        Distinct() {
+            super("Distinct");
+        }
+
+        @Override
+        Sink wrap(Sink next) {
+            Set<List<Object>> seen = new HashSet<>();
+            return row -> !seen.add(row.valueList()) || next.accept(row);
+        }
+    }
+
+    /**
+     * The end of a pipeline, gathering all of its rows
+     */
+    private interface Breaker extends Sink {
+
+        String description();
+
+        /**
+         * Returns the rows gathered, to be read by the next pipeline
+         */
+        Tuple[] rows();
+    }
+
+    /**
+     * Gathers rows in a growing array
+     */
+    private static class Collect implements Sink {
+
+        private Tuple[] rows = new Tuple[0];
+        private int size;
+
+        @Override
+        public boolean accept(Tuple row) {
+            if (this.size == this.rows.length) {
+                this.rows = Arrays.copyOf(this.rows, Capacity.grow(this.rows.length, this.size + 1));
+            }
+            this.rows[this.size++] = row;
+            return true;
+        }
+
+        Tuple[] rows() {
+            return this.size == this.rows.length ? this.rows : Arrays.copyOf(this.rows, this.size);
+        }
+    }
+
+    private static final class Sort extends Collect implements Breaker {
+
+        private final Stage stage;
+
+        Sort(Stage stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public String description() {
+            return "Sort(" + this.stage.description + ")";
+        }
+
+        @Override
+        public Tuple[] rows() {
+            Tuple[] rows = super.rows();
+            Arrays.parallelSort(rows, this.stage.comparator);
+            return rows;
+        }
+    }
+
+    /**
+     * Keeps the first rows in sorted order through a bounded heap
+     * holding the greatest of them at its top. Rows arriving earlier
+     * win ties, as in a stable sort.
+     */
+    private static final class TopK implements Breaker {
+
+        private final Stage stage;
+        private final long limit;
+        private final PriorityQueue<Ranked> heap;
+        private long arrived;
+
+        TopK(Stage stage, long limit) {
+            this.stage = stage;
+            this.limit = limit;
+            Comparator<Ranked> order = (a, b) -> {
+                int result = stage.comparator.compare(a.row, b.row);
+                return result != 0 ? result : Long.compare(a.rank, b.rank);
+            };
+            this.heap = new PriorityQueue<>(order.reversed());
+        }
+
+        @Override
+        public String description() {
+            return "TopK(" + this.limit + ", " + this.stage.description + ")";
+        }
+
+        @Override
+        public boolean accept(Tuple row) {
+            if (this.limit == 0) {
+                return false;
+            }
+            Ranked ranked = new Ranked(row, this.arrived++);
+            if (this.heap.size() < this.limit) {
+                this.heap.add(ranked);
+            } else if (this.heap.comparator().compare(ranked, this.heap.peek()) > 0) {
+                this.heap.poll();
+                this.heap.add(ranked);
+            }
+            return true;
+        }
+
+        @Override
+        public Tuple[] rows() {
+            Ranked[] ranked = this.heap.toArray(new Ranked[0]);
+            Arrays.sort(ranked, this.heap.comparator().reversed());
+            Tuple[] rows = new Tuple[ranked.length];
+            for (int i = 0; i < ranked.length; i++) {
+                rows[i] = ranked[i].row;
+            }
+            return rows;
+        }
+
+        private record Ranked(Tuple row, long rank) {}
+    }
+}
@@ -0,0 +1,173 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * Stable parallel sort of the rows of a {@link Table} by their values
+ * in one or more columns, built on {@link Arrays#parallelSort(Object[], int, int, Comparator)}.
+ *
+ * <p>
+ * Sorting a single column of {@code Integer}, {@code Long} or {@code Double}
+ * values in natural order takes a faster path: the values are extracted
+ * once as {@code long} keys preserving their order, the keys are sorted, and
+ * the rows are then put in the order of their keys (decorate-sort-undecorate).
+ * {@code Integer} keys are packed with the index of their row in a single
+ * {@code long}, so that a parallel sort of primitives is stable too.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class RowSorter {
+
+    private RowSorter() {}
+
+    /**
+     * Sorts a range of rows by their values in the given columns.
+     *
+     * @param rows         the rows
+     * @param from         the first row, included
+     * @param to           the last row, excluded
+     * @param comparator   the order of the values, null for their natural order
+     * @param missingFirst whether rows missing a value sort before the others
+     * @param columns      the columns to sort by, most significant first
+     */
+    static void sort(Tuple[] rows, int from, int to, Comparator<Object> comparator, boolean missingFirst, int[] columns) {
+        if (to - from < 2) {
+            return;
+        }
+        if (comparator == null && columns.length == 1 && sortByKeys(rows, from, to, columns[0])) {
+            return;
+        }
+        Arrays.parallelSort(rows, from, to, byColumns(comparator, missingFirst, columns));
+    }
+
+    /**
+     * Returns the order of rows by their values in the given columns.
+     * A row too short to have a column, or holding a value that is
+     * not {@link Comparable} while sorting in natural order, misses
+     * the value of that column.
+     *
+     * @param comparator   the order of the values, null for their natural order
+     * @param missingFirst whether rows missing a value sort before the others
+     * @param columns      the columns to sort by, most significant first
+     * @return the order
+     */
+    static Comparator<Tuple> byColumns(Comparator<Object> comparator, boolean missingFirst, int[] columns) {
+        Comparator<Object> order = comparator == null ? ColumnIndex.ORDER : comparator;
+        int missing = missingFirst ? -1 : 1;
+        return (a, b) -> {
+            for (int column : columns) {
+                Object x = cell(a, column, comparator == null);
+                Object y = cell(b, column, comparator == null);
+                if (x == null || y == null) {
+                    if (x != y) {
+                        return x == null ? missing : -missing;
+                    }
+                    continue;
+                }
+                int result = order.compare(x, y);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private static Object cell(Tuple row, int column, boolean natural) {
+        if (column >= row.length()) {
+            return null;
+        }
+        Object value = row.getValue(column);
+        return natural && !(value instanceof Comparable) ? null : value;
+    }
+
+    /**
+     * Sorts the rows by a column holding values of a single primitive
+     * wrapper class, through order-preserving {@code long} keys.
+     *
+     * @return false, leaving the rows untouched, if the column holds
+     *         other values or misses some
+     */
+    private static boolean sortByKeys(Tuple[] rows, int from, int to, int column) {
+        Class<?> type = cellClass(rows[from], column);
+        if (type != Integer.class && type != Long.class && type != Double.class) {
+            return false;
+        }
+        int length = to - from;
+        for (int i = from + 1; i < to; i++) {
+            if (cellClass(rows[i], column) != type) {
+                return false;
+            }
+        }
+        Tuple[] sorted = new Tuple[length];
+        if (type == Integer.class) {
+            long[] keys = new long[length];
+            for (int i = 0; i < length; i++) {
+                keys[i] = (long) (int) (Integer) rows[from + i].getValue(column) << 32 | i;
+            }
+            Arrays.parallelSort(keys);
+            for (int i = 0; i < length; i++) {
+                sorted[i] = rows[from + (int) keys[i]];
+            }
+        } else {
+            Keyed[] keys = new Keyed[length];
+            for (int i = 0; i < length; i++) {
+                Tuple row = rows[from + i];
+                Object value = row.getValue(column);
+                keys[i] = new Keyed(type == Long.class ? (Long) value : key((Double) value), row);
+            }
+            Arrays.parallelSort(keys, Keyed.ORDER);
+            for (int i = 0; i < length; i++) {
+                sorted[i] = keys[i].row;
+            }
+        }
+        System.arraycopy(sorted, 0, rows, from, length);
+        return true;
+    }
+
+    private static Class<?> cellClass(Tuple row, int column) {
+        return column < row.length() ? row.getValue(column).getClass() : null;
+    }
+
+    /**
+     * Maps a double to a long of the same order as {@link Double#compare(double, double)}
+     */
+    private static long key(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ (bits >> 63 & Long.MAX_VALUE);
+    }
+
+    /**
+     * A row decorated with the sort key of its value
+     */
+    private record Keyed(long key, Tuple row) {
+        static final Comparator<Keyed> ORDER = Comparator.comparingLong(Keyed::key);
+    }
+}
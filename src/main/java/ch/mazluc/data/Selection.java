@@ -0,0 +1,258 @@
+package ch.mazluc.data;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The set of positions of a column, or of a primitive tuple,
+ * whose values matched a scan, stored as a bitmap.
+ *
+ * <p>
+ * Scans such as {@link IntTuple#select(Comparison, int)} and
+ * {@link ColumnarTable#select(int, Comparison, Number)} return selections
+ * instead of copying the matching values: selections of the same length
+ * combine with {@link #and(Selection)}, {@link #or(Selection)} and {@link #not()}
+ * sixty-four positions at a time, and the positions are only materialized
+ * by {@link #toIntTuple()} or iterated with {@link #nextSelected(int)}.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * {@code
+ * IntTuple ages = new IntTuple(18, 42, 7, 65);
+ * Selection adults = ages.select(Comparison.GE, 18).and(ages.select(Comparison.LT, 65));
+ * adults.toIntTuple(); // [0, 1]
+ * }
+ * </pre>
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+public final class Selection {
+
+    /**
+     * The bits, position {@code i} being bit {@code i % 64} of word {@code i / 64}.
+     * Bits past the length are always clear.
+     */
+    private final long[] words;
+
+    /**
+     * The amount of positions
+     */
+    private final int length;
+
+    Selection(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Creates an empty selection over the given amount of positions
+     */
+    static Selection empty(int length) {
+        return new Selection(new long[words(length)], length);
+    }
+
+    /**
+     * Returns the amount of words needed for a bitmap of the given length
+     */
+    static int words(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /**
+     * Returns the bits, for the scans filling them
+     */
+    long[] bits() {
+        return this.words;
+    }
+
+    /**
+     * Returns the amount of positions of the selection,
+     * the length of the scanned column
+     *
+     * @return the amount of positions
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns if a position is selected
+     *
+     * @param index the position
+     * @return true if it is selected
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public boolean get(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (this.words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the amount of selected positions
+     *
+     * @return the amount of selected positions
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : this.words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first selected position from the given one, inclusive
+     *
+     * @param from the first position to consider
+     * @return the selected position, -1 if there is none
+     */
+    public int nextSelected(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= this.length) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = this.words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == this.words.length) {
+                return -1;
+            }
+            word = this.words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the positions selected by both selections
+     *
+     * @param other the other selection
+     * @return the intersection
+     * @throws IllegalArgumentException if the selections have different lengths
+     */
+    public Selection and(Selection other) throws IllegalArgumentException {
+        long[] result = this.sameLength(other);
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= other.words[i];
+        }
+        return new Selection(result, this.length);
+    }
+
+    /**
+     * Returns the positions selected by either selection
+     *
+     * @param other the other selection
+     * @return the union
+     * @throws IllegalArgumentException if the selections have different lengths
+     */
+    public Selection or(Selection other) throws IllegalArgumentException {
+        long[] result = this.sameLength(other);
+        for (int i = 0; i < result.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new Selection(result, this.length);
+    }
+
+    /**
+     * Returns the positions not selected
+     *
+     * @return the complement
+     */
+    public Selection not() {
+        long[] result = new long[this.words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ~this.words[i];
+        }
+        if ((this.length & 63) != 0) {
+            result[result.length - 1] &= (1L << this.length) - 1;
+        }
+        return new Selection(result, this.length);
+    }
+
+    private long[] sameLength(Selection other) throws IllegalArgumentException {
+        if (other.length != this.length) {
+            throw new IllegalArgumentException("Selections of different lengths: " + this.length + ", " + other.length);
+        }
+        return this.words.clone();
+    }
+
+    /**
+     * Returns the selected positions, in ascending order
+     *
+     * @return the selected positions
+     */
+    public IntTuple toIntTuple() {
+        IntTuple positions = IntTuple.withCapacity(this.cardinality());
+        for (int w = 0; w < this.words.length; w++) {
+            for (long word = this.words[w]; word != 0; word &= word - 1) {
+                positions.push((w << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns if another object is a selection of the same positions
+     *
+     * @param obj the object to compare
+     * @return true if it is an equal selection
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Selection other && other.length == this.length && Arrays.equals(other.words, this.words);
+    }
+
+    /**
+     * Returns the hash code of the selection
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * this.length + Arrays.hashCode(this.words);
+    }
+
+    /**
+     * Returns the selected positions, as {@code [0, 4, 5]}
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        StringJoiner positions = new StringJoiner(", ", "[", "]");
+        for (int i = this.nextSelected(0); i != -1; i = this.nextSelected(i + 1)) {
+            positions.add(Integer.toString(i));
+        }
+        return positions.toString();
+    }
+}
@@ -1,7 +1,13 @@
 package ch.mazluc.data;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Predicate;
 
 import static java.lang.System.arraycopy;
@@ -68,15 +74,75 @@ public class Table implements Data{
     private static final String NOT_A_TABLE = "Object is not a table";
 
     /**
-     * The values of the table
+     * Shared backing array of empty tables.
+     * Replaced by a real array on the first append.
+     */
+    private static final Tuple[] EMPTY = {};
+
+    /**
+     * Shared array of tables without indexes
+     */
+    private static final ColumnIndex[] NO_INDEXES = {};
+
+    /**
+     * Default amount of rows from which {@link #parallelFilter(Predicate)}
+     * splits the work across threads
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * The values of the table.
+     * Only the {@link #size} slots starting at {@link #offset} are in use,
+     * the remaining ones are spare capacity for further appends.
      */
     private Tuple[] values;
 
+    /**
+     * The number of rows of the table
+     */
+    private int size;
+
+    /**
+     * Index of the first row of the table within {@link #values}.
+     * Always 0, unless the array is {@link #shared}.
+     */
+    private int offset;
+
+    /**
+     * Whether {@link #values} may be read by another table, this being
+     * or having been viewed through {@link #sliceView(int, int)}.
+     * A shared array is never written to: the first mutation copies
+     * the rows of the table to an array of its own.
+     */
+    private boolean shared;
+
+    /**
+     * Amount of rows from which {@link #parallelFilter(Predicate)}
+     * splits the work across threads
+     */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * The hash indexes of the table, one per indexed column
+     */
+    private ColumnIndex[] indexes = NO_INDEXES;
+
     /**
      * Creates a new, empty table
      */
     public Table(){
-        this.values = new Tuple[0];
+        this.values = EMPTY;
+    }
+
+    /**
+     * Creates a new, empty table able to hold the given amount
+     * of rows before its backing array has to grow.
+     *
+     * @param initialCapacity the initial capacity of the table
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public Table(int initialCapacity) throws IllegalArgumentException {
+        this.values = Capacity.checkInitial(initialCapacity) == 0 ? EMPTY : new Tuple[initialCapacity];
     }
 
     /**
@@ -84,7 +150,26 @@ public class Table implements Data{
      * @param values the values
      */
     public Table(Tuple... values){
-        this.values = values;
+        this.values = values.length == 0 ? EMPTY : Arrays.copyOf(values, values.length);
+        this.size = values.length;
+    }
+
+    /**
+     * Creates a table backed by the given array, without copying it.
+     * The first {@code size} slots of the array must not be null,
+     * and the array must not be used anywhere else afterwards.
+     *
+     * @param rows the array
+     * @param size the number of rows in the array
+     * @return the table
+     */
+    static Table wrap(Tuple[] rows, int size) {
+        Table table = new Table();
+        if (size > 0) {
+            table.values = rows;
+            table.size = size;
+        }
+        return table;
     }
 
     private static boolean isTable(Object o) {
@@ -98,7 +183,7 @@ public class Table implements Data{
      */
     @Override
     public int length() {
-        return this.values.length;
+        return this.size;
     }
 
     /**
@@ -108,7 +193,7 @@ public class Table implements Data{
      */
     @Override
     public boolean isEmpty() {
-        return this.values.length == 0;
+        return this.size == 0;
     }
 
     @Override
@@ -123,7 +208,7 @@ public class Table implements Data{
                 return false;
             }
             for (int i = 0; i < this.length(); i++) {
-                if (!this.values[i].equals(table.values[i])) {
+                if (!this.values[this.offset + i].equals(table.values[table.offset + i])) {
                     return false;
                 }
             }
@@ -134,8 +219,8 @@ public class Table implements Data{
     @Override
     public int hashCode() {
         int hashCode = 0;
-        for (Tuple value : this.values) {
-            hashCode += value.hashCode();
+        for (int i = 0; i < this.size; i++) {
+            hashCode += this.values[this.offset + i].hashCode();
         }
         return hashCode;
     }
@@ -150,15 +235,15 @@ public class Table implements Data{
     public <T> boolean contains(T value) {
         if (this.isEmpty()) { return false; }
         if (Tuple.isTuple(value)) {
-            for (Tuple tuple : this.values) {
-                if (tuple.equals(value)) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.values[this.offset + i].equals(value)) {
                     return true;
                 }
             }
             return false;
         }
-        for (Tuple tuple : this.values) {
-            if (tuple.contains(value)) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.values[this.offset + i].contains(value)) {
                 return true;
             }
         }
@@ -173,6 +258,7 @@ public class Table implements Data{
     @SafeVarargs
     public final <T> void setValues(T... values) {
         this.clear();
+        this.ensureCapacity(values.length);
         for (T value : values) {
             if (value == null) {
                 continue;
@@ -188,15 +274,58 @@ public class Table implements Data{
      */
     @Override
     public <T> void push(T value) throws IllegalArgumentException {
-        if (this.values.length == 0) {
-            this.values = new Tuple[1];
-            this.values[0] = (value instanceof Tuple t) ? t : new Tuple(value);
-            return;
+        this.unshare();
+        this.ensureCapacity(this.size + 1);
+        this.values[this.size] = (value instanceof Tuple t) ? t : new Tuple(value);
+        this.indexRow(this.size++, 0);
+    }
+
+    /**
+     * Increases the capacity of the table, if necessary, so that
+     * it can hold at least the given amount of rows without
+     * reallocating its backing array.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (this.shared) {
+            this.copyValues(Math.max(this.size, minCapacity));
+        } else if (minCapacity > this.values.length) {
+            this.values = Arrays.copyOf(this.values, Capacity.grow(this.values.length, minCapacity));
+        }
+    }
+
+    /**
+     * Trims the capacity of the table down to its length,
+     * releasing the spare slots of the backing array.
+     */
+    public void trimToSize() {
+        if (this.shared || this.size < this.values.length) {
+            this.copyValues(this.size);
+        }
+    }
+
+    /**
+     * Gives the table an array of its own before it is written to,
+     * if its current one is shared with views.
+     */
+    private void unshare() {
+        if (this.shared) {
+            this.copyValues(this.size);
         }
-        Tuple[] tmp = new Tuple[this.length() + 1];
-        arraycopy(this.values, 0, tmp, 0, this.length());
-        tmp[tmp.length - 1] = (value instanceof Tuple t) ? t : new Tuple(value);
-        this.values = tmp;
+    }
+
+    /**
+     * Moves the rows of the table to a new, unshared array.
+     *
+     * @param capacity the capacity of the new array, at least {@link #size}
+     */
+    private void copyValues(int capacity) {
+        Tuple[] newValues = capacity == 0 ? EMPTY : new Tuple[capacity];
+        arraycopy(this.values, this.offset, newValues, 0, this.size);
+        this.values = newValues;
+        this.offset = 0;
+        this.shared = false;
     }
 
     /**
@@ -207,10 +336,12 @@ public class Table implements Data{
      * @param value value to insert
      */
     public <T> void insert(int row, int col, T value) throws IndexOutOfBoundsException {
-        if (row < 0 || row >= this.values.length || col < 0 || col >= this.values[row].length()) {
-            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.values.length);
+        if (row < 0 || row >= this.size || col < 0 || col >= this.values[this.offset + row].length()) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
         }
-        this.values[row].insert(col, value);
+        this.unindexRow(row, col);
+        this.values[this.offset + row].insert(col, value);
+        this.indexRow(row, col);
     }
 
     /**
@@ -221,10 +352,12 @@ public class Table implements Data{
      * @param value the value to replace the element with
      */
     public <T> void replace(int row, int col, T value) throws IndexOutOfBoundsException {
-        if (row < 0 || row >= this.values.length || col < 0 || col >= this.values[row].length()) {
-            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.values.length);
+        if (row < 0 || row >= this.size || col < 0 || col >= this.values[this.offset + row].length()) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
         }
-        this.values[row].replace(col, value);
+        this.unindexRow(row, col);
+        this.values[this.offset + row].replace(col, value);
+        this.indexRow(row, col);
     }
 
     /**
@@ -235,12 +368,20 @@ public class Table implements Data{
      */
     @Override
     public void swap(int index1, int index2) throws IndexOutOfBoundsException {
-        if (index1 < 0 || index2 < 0 || index1 >= this.values.length || index2 >= this.values.length) {
-            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.values.length);
+        if (index1 < 0 || index2 < 0 || index1 >= this.size || index2 >= this.size) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
         }
+        if (index1 == index2) {
+            return;
+        }
+        this.unshare();
+        this.unindexRow(index1, 0);
+        this.unindexRow(index2, 0);
         Tuple temp = this.values[index1];
         this.values[index1] = this.values[index2];
         this.values[index2] = temp;
+        this.indexRow(index1, 0);
+        this.indexRow(index2, 0);
     }
 
     /**
@@ -251,10 +392,10 @@ public class Table implements Data{
      * @return the value at the specified index
      */
     public <T> T getValue(int row, int col) throws IndexOutOfBoundsException {
-        if (row < 0 || row >= this.values.length || col < 0 || col >= this.values[row].length()) {
-            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.values.length);
+        if (row < 0 || row >= this.size || col < 0 || col >= this.values[this.offset + row].length()) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
         }
-        return this.values[row].getValue(col);
+        return this.values[this.offset + row].getValue(col);
     }
 
     /**
@@ -265,9 +406,9 @@ public class Table implements Data{
      */
     public <T> int[] indexOf(T value) {
         int[] coordinates = new int[2];
-        for (int i = 0; i < this.values.length; i++) {
-            for (int j = 0; j < this.values[i].length(); j++) {
-                if (this.values[i].getValue(j).equals(value)) {
+        for (int i = 0; i < this.size; i++) {
+            for (int j = 0; j < this.values[this.offset + i].length(); j++) {
+                if (this.values[this.offset + i].getValue(j).equals(value)) {
                     coordinates[0] = i;
                     coordinates[1] = j;
                     return coordinates;
@@ -277,17 +418,530 @@ public class Table implements Data{
         return coordinates;
     }
 
+    /**
+     * Starts a lazy query over the rows of the table.
+     * The query reads the table when it is executed,
+     * so it sees the changes made to the table until then.
+     *
+     * @return the query
+     */
+    public Query query() {
+        return new Query(this);
+    }
+
+    /**
+     * Groups the rows of the table by their value in a column,
+     * to be aggregated through {@link GroupBy#aggregate(Aggregator...)}.
+     * Tables longer than the {@linkplain #setParallelThreshold(int) parallel threshold}
+     * are aggregated in parallel, so they must not be modified meanwhile.
+     *
+     * @param column the column to group by
+     * @return the grouped rows
+     * @throws IllegalArgumentException if the column is negative
+     */
+    public GroupBy groupBy(int column) throws IllegalArgumentException {
+        return new GroupBy(this, Aggregates.checkColumn(column));
+    }
+
+    /**
+     * Joins this table with another on the values of a column of each,
+     * through a hash table, returning the pairs of matching rows concatenated.
+     *
+     * @param other       the table to join with
+     * @param column      the column of this table
+     * @param otherColumn the column of the other table
+     * @return the joined table
+     * @see #hashJoin(Table, int, int, JoinType)
+     */
+    public Table hashJoin(Table other, int column, int otherColumn) throws IllegalArgumentException {
+        return this.hashJoin(other, column, otherColumn, JoinType.INNER);
+    }
+
+    /**
+     * Joins this table, on the left, with another, on the right, on the
+     * values of a column of each. Values match when they are equal.
+     *
+     * <p>
+     * A hash table is built over the smaller table and probed with the rows
+     * of the larger one. Tables longer than the {@linkplain #setParallelThreshold(int)
+     * parallel threshold} are built and probed in parallel, so the columns
+     * must not be modified meanwhile.
+     *
+     * <p>
+     * Inner and left joins return the matching rows concatenated, in a new row,
+     * ordered by the row of this table and then by the row of the other one.
+     * Since tuples hold no null values, rows of this table without a match are
+     * returned on their own by a left join. Semi and anti joins return rows
+     * of this table, in order; as with {@link #slice(int, int)}, they are shared.
+     * Rows too short to have the column never match.
+     *
+     * @param other       the table to join with
+     * @param column      the column of this table
+     * @param otherColumn the column of the other table
+     * @param type        the kind of join
+     * @return the joined table
+     * @throws IllegalArgumentException if a column is negative
+     */
+    public Table hashJoin(Table other, int column, int otherColumn, JoinType type) throws IllegalArgumentException {
+        checkJoinColumns(column, otherColumn);
+        boolean parallel = Math.max(this.size, other.size) >= this.parallelThreshold;
+        return Join.hash(this, column, other, otherColumn, type, parallel);
+    }
+
+    /**
+     * Joins this table with another on the values of a column of each,
+     * by sorting and merging them, returning the pairs of matching rows concatenated.
+     *
+     * @param other       the table to join with
+     * @param column      the column of this table
+     * @param otherColumn the column of the other table
+     * @return the joined table
+     * @see #mergeJoin(Table, int, int, JoinType)
+     */
+    public Table mergeJoin(Table other, int column, int otherColumn) throws IllegalArgumentException {
+        return this.mergeJoin(other, column, otherColumn, JoinType.INNER);
+    }
+
+    /**
+     * Joins this table, on the left, with another, on the right, on the
+     * values of a column of each, returning the same rows as
+     * {@link #hashJoin(Table, int, int, JoinType)}.
+     *
+     * <p>
+     * The rows of both tables are sorted by their value, unless they
+     * are in order already, and walked side by side. Only {@link Comparable}
+     * values match, when they are of the same class and equal in natural
+     * order, as in a {@linkplain #createSortedIndex(int) sorted index}.
+     * Preferable over a hash join when the tables are sorted by their columns.
+     *
+     * @param other       the table to join with
+     * @param column      the column of this table
+     * @param otherColumn the column of the other table
+     * @param type        the kind of join
+     * @return the joined table
+     * @throws IllegalArgumentException if a column is negative
+     */
+    public Table mergeJoin(Table other, int column, int otherColumn, JoinType type) throws IllegalArgumentException {
+        checkJoinColumns(column, otherColumn);
+        return Join.merge(this, column, other, otherColumn, type);
+    }
+
+    private static void checkJoinColumns(int column, int otherColumn) throws IllegalArgumentException {
+        if (column < 0 || otherColumn < 0) {
+            throw new IllegalArgumentException("Illegal column: " + Math.min(column, otherColumn));
+        }
+    }
+
+    /**
+     * Returns a row of the table, without bounds checks
+     *
+     * @param index the index of the row
+     * @return the row
+     */
+    Tuple row(int index) {
+        return this.values[this.offset + index];
+    }
+
+    /**
+     * Sorts the rows of the table by their values in the given columns,
+     * in natural order. Rows with equal values keep their relative order.
+     * Values of different classes are ordered by class name; rows too
+     * short to have a column, or holding a value that is not {@link Comparable},
+     * sort after the others.
+     *
+     * @param columns the columns to sort by, most significant first
+     * @throws IllegalArgumentException if no column is given, or one is negative
+     */
+    public void sortBy(int... columns) throws IllegalArgumentException {
+        this.sortBy(null, false, columns);
+    }
+
+    /**
+     * Sorts the rows of the table by their values in the given columns.
+     * Rows with equal values keep their relative order.
+     * The sort runs in parallel on large tables.
+     *
+     * <p>
+     * Tuples hold no null values: a row too short to have a column misses
+     * its value, and sorts before or after the rows that have it.
+     *
+     * @param comparator   the order of the values, null for their natural order
+     * @param missingFirst true if rows missing a value sort before the others
+     * @param columns      the columns to sort by, most significant first
+     * @param <T> the type of the values
+     * @throws IllegalArgumentException if no column is given, or one is negative
+     * @throws ClassCastException if the comparator cannot compare some values of the columns
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void sortBy(Comparator<? super T> comparator, boolean missingFirst, int... columns) throws IllegalArgumentException {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No column to sort by");
+        }
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("Illegal column: " + column);
+            }
+        }
+        this.unshare();
+        RowSorter.sort(this.values, 0, this.size, (Comparator<Object>) comparator, missingFirst, columns.clone());
+        this.rebuildIndexes();
+    }
+
+    /**
+     * Sorts the rows of the table in the order of the given comparator.
+     * Rows the comparator considers equal keep their relative order.
+     * The sort runs in parallel on large tables.
+     *
+     * @param comparator the order of the rows
+     */
+    public void sortBy(Comparator<? super Tuple> comparator) {
+        this.unshare();
+        Arrays.parallelSort(this.values, 0, this.size, comparator);
+        this.rebuildIndexes();
+    }
+
+    /**
+     * Creates a hash index on a column of the table, from the values
+     * of the column to the rows holding them.
+     * Lookups through {@link #rowsWhere(int, Object)} and {@link #indexOf(int, Object)}
+     * then take constant time instead of scanning the table.
+     *
+     * <p>
+     * The index is kept up to date by every method of the table that changes
+     * its rows, at the cost of some work per change. Values changed directly
+     * on a row, rather than through the table, are not seen by the index:
+     * the index has to be created again after such changes.
+     * Indexes are not carried over to the tables returned by this one,
+     * such as views and filtered tables.
+     * Creating an index on a column that is already indexed,
+     * by either kind of index, has no effect.
+     *
+     * @param column the column to index
+     * @throws IndexOutOfBoundsException if the column is negative
+     */
+    public void createIndex(int column) throws IndexOutOfBoundsException {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + column);
+        }
+        if (!this.hasIndex(column)) {
+            this.addIndex(this.buildIndex(column, false));
+        }
+    }
+
+    /**
+     * Creates a sorted index on a column of the table, keeping the
+     * values of the column in order, each with the rows holding it.
+     * Range lookups through {@link #range(int, Object, Object)}, {@link #floor(int, Object)},
+     * {@link #ceiling(int, Object)} and {@link #iterator(int)} then take logarithmic
+     * time plus the size of their result, instead of scanning the table.
+     * Point lookups take logarithmic time.
+     *
+     * <p>
+     * Only {@link Comparable} values are indexed. Values of different
+     * classes are not compared with each other: they are ordered by
+     * class name, and a range only spans values of the class of its bounds.
+     * The index is kept up to date like the ones of {@link #createIndex(int)},
+     * and replaces the hash index on the column, if there is one.
+     *
+     * @param column the column to index
+     * @throws IndexOutOfBoundsException if the column is negative
+     */
+    public void createSortedIndex(int column) throws IndexOutOfBoundsException {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + column);
+        }
+        ColumnIndex index = this.index(column);
+        if (index != null && index.sorted) {
+            return;
+        }
+        this.dropIndex(column);
+        this.addIndex(this.buildIndex(column, true));
+    }
+
+    /**
+     * Returns the rows whose value in a column lies between two bounds,
+     * both included, ordered by value and then by row.
+     * Uses the sorted index on the column if there is one, otherwise
+     * sorts the values of the column first.
+     *
+     * @param column the column
+     * @param from   the lower bound
+     * @param to     the upper bound
+     * @return the indices of the rows
+     * @throws IllegalArgumentException if the bounds are not comparable values of the same class
+     */
+    public <T> IntTuple range(int column, T from, T to) throws IllegalArgumentException {
+        if (!(from instanceof Comparable) || !(to instanceof Comparable) || from.getClass() != to.getClass()) {
+            throw new IllegalArgumentException("Bounds are not comparable values of the same class");
+        }
+        IntTuple rows = new IntTuple();
+        if (ColumnIndex.ORDER.compare(from, to) > 0) {
+            return rows;
+        }
+        for (IntTuple ids : this.sortedIndex(column).values().subMap(from, true, to, true).values()) {
+            rows.join(ids);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the greatest value of a column less than or equal to
+     * the given one, among the values of the same class.
+     * Uses the sorted index on the column if there is one, otherwise
+     * sorts the values of the column first.
+     *
+     * @param column the column
+     * @param value  the value
+     * @return the greatest value, null if there is none
+     * @throws IllegalArgumentException if the value is not comparable
+     */
+    public <T> T floor(int column, T value) throws IllegalArgumentException {
+        return this.sameClass(value, this.sortedIndex(column).values().floorKey(comparable(value)));
+    }
+
+    /**
+     * Returns the least value of a column greater than or equal to
+     * the given one, among the values of the same class.
+     * Uses the sorted index on the column if there is one, otherwise
+     * sorts the values of the column first.
+     *
+     * @param column the column
+     * @param value  the value
+     * @return the least value, null if there is none
+     * @throws IllegalArgumentException if the value is not comparable
+     */
+    public <T> T ceiling(int column, T value) throws IllegalArgumentException {
+        return this.sameClass(value, this.sortedIndex(column).values().ceilingKey(comparable(value)));
+    }
+
+    /**
+     * Returns an iterator over the rows of the table in the order of
+     * their values in a column, rows with equal values in table order.
+     * Rows without a comparable value in the column are skipped.
+     * Uses the sorted index on the column if there is one, otherwise
+     * sorts the values of the column first.
+     * The table must not be modified while the iterator is used.
+     *
+     * @param column the column
+     * @return an Iterator.
+     */
+    public Iterator<Object> iterator(int column) {
+        Iterator<IntTuple> groups = this.sortedIndex(column).values().values().iterator();
+        return new Iterator<>() {
+            private IntTuple group = new IntTuple();
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (currentIndex == group.length() && groups.hasNext()) {
+                    group = groups.next();
+                    currentIndex = 0;
+                }
+                return currentIndex < group.length();
+            }
+
+            @Override
+            public Tuple next() throws NoSuchElementException {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                return values[offset + group.getInt(currentIndex++)];
+            }
+        };
+    }
+
+    private static <T> T comparable(T value) throws IllegalArgumentException {
+        if (!(value instanceof Comparable)) {
+            throw new IllegalArgumentException("Value is not comparable: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns a key found in a sorted index if it is
+     * of the same class as the value it was looked up with
+     *
+     * @param value the value looked up
+     * @param key   the key found
+     * @return the key, null if it is of another class
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T sameClass(T value, Object key) {
+        return key != null && key.getClass() == value.getClass() ? (T) key : null;
+    }
+
+    /**
+     * Drops the hash index on a column of the table, if there is one
+     *
+     * @param column the indexed column
+     */
+    public void dropIndex(int column) {
+        for (int i = 0; i < this.indexes.length; i++) {
+            if (this.indexes[i].column == column) {
+                ColumnIndex[] newIndexes = this.indexes.length == 1 ? NO_INDEXES : new ColumnIndex[this.indexes.length - 1];
+                arraycopy(this.indexes, 0, newIndexes, 0, i);
+                arraycopy(this.indexes, i + 1, newIndexes, i, this.indexes.length - i - 1);
+                this.indexes = newIndexes;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns if a column of the table has a hash index
+     *
+     * @param column the column
+     * @return true if the column is indexed
+     */
+    public boolean hasIndex(int column) {
+        return this.index(column) != null;
+    }
+
+    /**
+     * Returns the rows holding the given value in a column.
+     * Uses the index on the column if there is one,
+     * otherwise scans the rows.
+     *
+     * @param column the column
+     * @param value  the value
+     * @return the indices of the rows, in ascending order
+     */
+    public <T> IntTuple rowsWhere(int column, T value) {
+        ColumnIndex index = this.index(column);
+        if (index != null && index.accepts(value)) {
+            IntTuple rows = index.get(value);
+            return rows == null ? new IntTuple() : new IntTuple(rows.toArray());
+        }
+        IntTuple rows = new IntTuple();
+        for (int i = 0; i < this.size; i++) {
+            Tuple row = this.values[this.offset + i];
+            if (column < row.length() && row.getValue(column).equals(value)) {
+                rows.push(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the first row holding the given value in a column.
+     * Uses the index on the column if there is one,
+     * otherwise scans the rows.
+     *
+     * @param column the column
+     * @param value  the value
+     * @return the index of the row, -1 if no row holds the value
+     */
+    public <T> int indexOf(int column, T value) {
+        ColumnIndex index = this.index(column);
+        if (index != null && index.accepts(value)) {
+            IntTuple rows = index.get(value);
+            return rows == null ? -1 : rows.getInt(0);
+        }
+        for (int i = 0; i < this.size; i++) {
+            Tuple row = this.values[this.offset + i];
+            if (column < row.length() && row.getValue(column).equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the hash index on a column
+     *
+     * @param column the column
+     * @return the index, null if the column is not indexed
+     */
+    private ColumnIndex index(int column) {
+        for (ColumnIndex index : this.indexes) {
+            if (index.column == column) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the sorted index on a column, building a temporary
+     * one if the column has no sorted index
+     *
+     * @param column the column
+     * @return the index
+     */
+    private ColumnIndex sortedIndex(int column) {
+        ColumnIndex index = this.index(column);
+        return index != null && index.sorted ? index : this.buildIndex(column, true);
+    }
+
+    /**
+     * Builds an index over the current rows of the table
+     *
+     * @param column the column to index
+     * @param sorted whether the index is sorted
+     * @return the index
+     */
+    private ColumnIndex buildIndex(int column, boolean sorted) {
+        ColumnIndex index = new ColumnIndex(column, sorted);
+        for (int i = 0; i < this.size; i++) {
+            index.add(i, this.values[this.offset + i]);
+        }
+        return index;
+    }
+
+    private void addIndex(ColumnIndex index) {
+        this.indexes = Arrays.copyOf(this.indexes, this.indexes.length + 1);
+        this.indexes[this.indexes.length - 1] = index;
+    }
+
+    /**
+     * Adds a row to the indexes on the columns from the given one on
+     *
+     * @param row    the index of the row
+     * @param column the first column whose index is updated
+     */
+    private void indexRow(int row, int column) {
+        for (ColumnIndex index : this.indexes) {
+            if (index.column >= column) {
+                index.add(row, this.values[this.offset + row]);
+            }
+        }
+    }
+
+    /**
+     * Removes a row from the indexes on the columns from the given one on,
+     * before the row is changed
+     *
+     * @param row    the index of the row
+     * @param column the first column whose index is updated
+     */
+    private void unindexRow(int row, int column) {
+        for (ColumnIndex index : this.indexes) {
+            if (index.column >= column) {
+                index.remove(row, this.values[this.offset + row]);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the indexes of the table, after its rows have moved
+     */
+    private void rebuildIndexes() {
+        for (int i = 0; i < this.indexes.length; i++) {
+            this.indexes[i] = this.buildIndex(this.indexes[i].column, this.indexes[i].sorted);
+        }
+    }
+
     /**
      * Removes the value at the last index
      */
     @Override
     public void pop() {
-        if (this.values.length == 0) {
+        if (this.size == 0) {
             return;
         }
-        Tuple[] newValues = new Tuple[this.values.length - 1];
-        arraycopy(this.values, 0, newValues, 0, this.values.length - 1);
-        this.values = newValues;
+        this.unindexRow(this.size - 1, 0);
+        this.size--;
+        if (!this.shared) {
+            this.values[this.size] = null;
+        }
     }
 
     /**
@@ -297,18 +951,31 @@ public class Table implements Data{
      * @param col the index of the element to be removed
      */
     public void remove(int row, int col) throws IndexOutOfBoundsException {
-        if (row < 0 || row >= this.values.length || col < 0 || col >= this.values[row].length()) {
-            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.values.length);
+        if (row < 0 || row >= this.size || col < 0 || col >= this.values[this.offset + row].length()) {
+            throw new IndexOutOfBoundsException(OUT_OF_BOUNDS + this.size);
         }
-        this.values[row].remove(col);
+        this.unindexRow(row, col);
+        this.values[this.offset + row].remove(col);
+        this.indexRow(row, col);
     }
 
     /**
-     * Clears the table
+     * Clears the table.
+     * The capacity of the table is kept, see {@link #trimToSize()}
      */
     @Override
     public void clear() {
-        this.values = new Tuple[0];
+        if (this.shared) {
+            this.values = EMPTY;
+            this.offset = 0;
+            this.shared = false;
+        } else {
+            Arrays.fill(this.values, 0, this.size, null);
+        }
+        this.size = 0;
+        for (ColumnIndex index : this.indexes) {
+            index.clear();
+        }
     }
 
     /**
@@ -318,16 +985,72 @@ public class Table implements Data{
      * @param end   the index to end
      */
     @Override
-    public void slice(int start, int end) {
-        if (end > this.values.length) {
-            end = this.values.length;
+    public void slice(int start, int end) throws IllegalArgumentException {
+        if (end > this.size) {
+            end = this.size;
         }
         if (start < 0) {
             start = 0;
         }
-        Tuple[] newValues = new Tuple[end - start];
-        arraycopy(this.values, start, newValues, 0, newValues.length);
-        this.values = newValues;
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        int length = end - start;
+        if (start == 0) {
+            for (int i = end; i < this.size; i++) {
+                this.unindexRow(i, 0);
+            }
+        }
+        if (this.shared) {
+            this.offset += start;
+        } else {
+            arraycopy(this.values, start, this.values, 0, length);
+            Arrays.fill(this.values, length, this.size, null);
+        }
+        this.size = length;
+        if (start > 0) {
+            // Every kept row has moved
+            this.rebuildIndexes();
+        }
+    }
+
+    /**
+     * Returns a view of the rows from a defined start to a defined end,
+     * without copying them.
+     *
+     * <p>
+     * The view and this table share their backing array, until either of
+     * them is mutated: the first mutation copies the rows of the mutated
+     * table to an array of its own (copy-on-write), so neither ever sees
+     * rows pushed, swapped or removed by the other. As with {@link #slice(int, int)},
+     * the rows themselves are shared, so changes to their values through
+     * {@link #insert}, {@link #replace} or {@link #remove} are seen by both.
+     * Slicing a view, or popping from it, never copies.
+     *
+     * @param start the index to start
+     * @param end   the index to end, excluded
+     * @return the view
+     */
+    public Table sliceView(int start, int end) throws IllegalArgumentException {
+        if (end > this.size) {
+            end = this.size;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        Table view = new Table();
+        if (start == end) {
+            return view;
+        }
+        this.shared = true;
+        view.values = this.values;
+        view.offset = this.offset + start;
+        view.size = end - start;
+        view.shared = true;
+        return view;
     }
 
     /**
@@ -339,8 +1062,13 @@ public class Table implements Data{
     public void join(Object... datas) {
         for (Object data : datas) {
             if (!isTable(data)) { continue; }
-            for (Tuple value : ((Table) data).values) {
-                this.push(value);
+            Table table = (Table) data;
+            int length = table.size;
+            this.unshare();
+            this.ensureCapacity(this.size + length);
+            arraycopy(table.values, table.offset, this.values, this.size, length);
+            for (int i = 0; i < length; i++) {
+                this.indexRow(this.size++, 0);
             }
         }
     }
@@ -358,9 +1086,10 @@ public class Table implements Data{
         if (this.length() > table.length()) {
             return false;
         }
+        Set<Tuple> rows = this.rowSet();
         int count = 0;
-        for (int i = 0; i < table.length(); i++) {
-            if (this.contains(table.values[i])) {
+        for (int i = 0; i < table.size; i++) {
+            if (rows.contains(table.values[table.offset + i])) {
                 count++;
             }
         }
@@ -391,11 +1120,13 @@ public class Table implements Data{
     @Override
     public Object subtract(Object data) {
         if (!isTable(data)) { throw new IllegalArgumentException(NOT_A_TABLE); }
-        Table tmp = new Table();
         Table table = (Table) data;
-        for (Tuple value : this.values) {
-            if (!table.contains(value)) {
-                tmp.push(value);
+        Set<Tuple> rows = table.rowSet();
+        Table tmp = new Table(this.size);
+        for (int i = 0; i < this.size; i++) {
+            Tuple value = this.values[this.offset + i];
+            if (!rows.contains(value)) {
+                tmp.values[tmp.size++] = value;
             }
         }
         return tmp;
@@ -410,13 +1141,74 @@ public class Table implements Data{
      */
     @Override
     public Object filter(Predicate<Object> predicate) {
-        Tuple result = new Tuple();
-        for (Tuple value : this.values) {
-            if(!((Tuple)value.filter(predicate)).isEmpty()) {
-                result.join(value.filter(predicate));
+        return FilterTask.sequential(this.values, this.offset, this.offset + this.size, predicate);
+    }
+
+    /**
+     * Returns a table of the rows matching a condition, compiled once for the whole scan.
+     * The rows are shared with this table, not copied.
+     *
+     * @param condition the condition on the columns of the rows
+     * @return the matching rows, in order
+     * @throws IllegalStateException if the expression is not a condition
+     */
+    public Table where(Expr condition) throws IllegalStateException {
+        Predicate<Object> predicate = condition.toPredicate();
+        Tuple[] matching = new Tuple[Math.min(this.size, 16)];
+        int n = 0;
+        for (int i = 0; i < this.size; i++) {
+            Tuple row = this.values[this.offset + i];
+            if (predicate.test(row)) {
+                if (n == matching.length) {
+                    matching = Arrays.copyOf(matching, Capacity.grow(matching.length, n + 1));
+                }
+                matching[n++] = row;
             }
         }
-        return result;
+        return wrap(matching, n);
+    }
+
+    /**
+     * Returns the Tuples containing the values that match the predicate,
+     * like {@link #filter(Predicate)}, testing the rows in parallel
+     * in the common fork-join pool.
+     * Tables shorter than the {@linkplain #setParallelThreshold(int) parallel threshold}
+     * are filtered on the calling thread.
+     * The values are in the same order {@link #filter(Predicate)} returns them.
+     *
+     * @param predicate the predicate, which must be safe to call from several threads
+     * @return the filtered table
+     */
+    public Tuple parallelFilter(Predicate<Object> predicate) {
+        if (this.size < this.parallelThreshold) {
+            return FilterTask.sequential(this.values, this.offset, this.offset + this.size, predicate);
+        }
+        return FilterTask.parallel(this.values, this.offset, this.offset + this.size, predicate);
+    }
+
+    /**
+     * Sets the amount of rows from which {@link #parallelFilter(Predicate)}
+     * splits the work across threads.
+     * Defaults to {@link #DEFAULT_PARALLEL_THRESHOLD}.
+     *
+     * @param parallelThreshold the threshold, at least 1
+     * @throws IllegalArgumentException if the threshold is less than 1
+     */
+    public void setParallelThreshold(int parallelThreshold) throws IllegalArgumentException {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Illegal threshold: " + parallelThreshold);
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns the amount of rows from which {@link #parallelFilter(Predicate)}
+     * splits the work across threads
+     *
+     * @return the threshold
+     */
+    public int getParallelThreshold() {
+        return this.parallelThreshold;
     }
 
     /**
@@ -431,9 +1223,13 @@ public class Table implements Data{
     public boolean isDisjoint(Object data) {
         if (!isTable(data)) { throw new IllegalArgumentException(NOT_A_TABLE); }
         Table table = (Table) data;
-        for (Tuple value : table.values) {
+        Set<Tuple> rows = this.rowSet();
+        Set<Object> cells = this.valueSet();
+        for (int j = 0; j < table.size; j++) {
+            Tuple value = table.values[table.offset + j];
             for (int i = 0; i < value.length(); i++) {
-                if (this.contains(value.getValue(i))) {
+                Object cell = value.getValue(i);
+                if (Tuple.isTuple(cell) ? rows.contains(cell) : cells.contains(cell)) {
                     return false;
                 }
             }
@@ -441,13 +1237,57 @@ public class Table implements Data{
         return true;
     }
 
+    /**
+     * Hashes the rows of the table, so that many rows
+     * can be looked up against it in linear time overall.
+     *
+     * @return the set of rows of the table
+     */
+    private Set<Tuple> rowSet() {
+        Set<Tuple> rows = new HashSet<>((int) (this.size / .75f) + 1);
+        for (int i = 0; i < this.size; i++) {
+            rows.add(this.values[this.offset + i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Hashes every value of every row of the table.
+     *
+     * @return the set of values of the table
+     */
+    private Set<Object> valueSet() {
+        Set<Object> cells = new HashSet<>();
+        for (int i = 0; i < this.size; i++) {
+            Tuple value = this.values[this.offset + i];
+            for (int j = 0; j < value.length(); j++) {
+                cells.add(value.getValue(j));
+            }
+        }
+        return cells;
+    }
+
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
-        for (Object value : this.values) out.append(value).append("\n");
+        for (int i = 0; i < this.size; i++) out.append(this.values[this.offset + i]).append("\n");
         return out.toString();
     }
 
+    /**
+     * Returns a spliterator over the rows of the table, reading the backing
+     * array directly. It is {@code SIZED}, {@code SUBSIZED} and {@code ORDERED}:
+     * it splits in exact halves, so that parallel streams balance their work.
+     * The table must not be modified while the spliterator is used.
+     *
+     * @return a Spliterator.
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        return Spliterators.spliterator(this.values, this.offset, this.offset + this.size,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
     /**
      * Returns an iterator over elements of type {@code T}.
      *
@@ -460,13 +1300,13 @@ public class Table implements Data{
 
             @Override
             public boolean hasNext() {
-                return currentIndex < length() && values[currentIndex] != null;
+                return currentIndex < size && values[offset + currentIndex] != null;
             }
 
             @Override
             public Tuple next() throws NoSuchElementException {
                 if (!hasNext()) { throw new NoSuchElementException(); }
-                return values[currentIndex++];
+                return values[offset + currentIndex++];
             }
         };
     }
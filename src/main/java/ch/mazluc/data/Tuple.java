@@ -1,9 +1,16 @@
 package ch.mazluc.data;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -72,15 +79,61 @@ public class Tuple implements Data {
      */
     private static final Random random = new Random();
 
+    /**
+     * Shared backing array of empty tuples.
+     * Replaced by a real array on the first append.
+     */
+    private static final Object[] EMPTY = {};
+
     /**
      * The values of the tuple.
      * Values are stored in an array of Objects, as they can be of any type.
      *
      * <p>
      * The values of the tuple can be accessed by index.
+     * Only the {@link #size} slots starting at {@link #offset} are in use,
+     * the remaining ones are spare capacity for further appends and are
+     * always null, unless the array is {@link #shared}.
      */
     private Object[] values;
 
+    /**
+     * The number of values in the tuple
+     */
+    private int size;
+
+    /**
+     * Index of the first value of the tuple within {@link #values}.
+     * Always 0, unless the array is {@link #shared}.
+     */
+    private int offset;
+
+    /**
+     * Whether {@link #values} may be read by another tuple, this being
+     * or having been viewed through {@link #sliceView(int, int)}.
+     * A shared array is never written to: the first mutation copies
+     * the values of the tuple to an array of its own.
+     */
+    private boolean shared;
+
+    /**
+     * Below this length a linear scan is cheaper than hashing
+     * the values of a tuple for membership checks.
+     */
+    private static final int HASH_THRESHOLD = 16;
+
+    /**
+     * Whether lookups go through the hash {@link #index}
+     */
+    private boolean indexed;
+
+    /**
+     * Maps each value of the tuple to the index of its first occurrence.
+     * Built lazily on the first lookup, when the tuple is {@link #indexed},
+     * and dropped by mutations that move values around.
+     */
+    private Map<Object, Integer> index;
+
     /**
      * Creates a new instance of a Tuple.
      *
@@ -88,7 +141,7 @@ public class Tuple implements Data {
      * Instantiates an empty array of values, with a length of 0.
      */
     public Tuple() {
-        this.values = new Object[0];
+        this.values = EMPTY;
     }
 
     /**
@@ -100,14 +153,79 @@ public class Tuple implements Data {
      */
     public Tuple(Object... values) {
         if (values.length == 0) {
-            this.values = new Object[0];
+            this.values = EMPTY;
             return;
         }
         this.values = new Object[values.length];
         arraycopy(values, 0, this.values, 0, values.length);
+        this.size = values.length;
         this.clearNulls();
     }
 
+    /**
+     * Creates a new, empty tuple able to hold the given amount
+     * of values before its backing array has to grow.
+     *
+     * <p>
+     * This is a factory rather than a constructor, as {@code new Tuple(10)}
+     * already creates a tuple containing the value {@code 10}.
+     *
+     * @param initialCapacity the initial capacity of the tuple
+     * @return an empty tuple
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public static Tuple withCapacity(int initialCapacity) throws IllegalArgumentException {
+        Tuple tuple = new Tuple();
+        if (Capacity.checkInitial(initialCapacity) > 0) {
+            tuple.values = new Object[initialCapacity];
+        }
+        return tuple;
+    }
+
+    /**
+     * Creates a tuple backed by the given array, without copying it.
+     * The first {@code size} slots of the array must not be null,
+     * and the array must not be used anywhere else afterwards.
+     *
+     * @param values the array
+     * @param size   the number of values in the array
+     * @return the tuple
+     */
+    static Tuple wrap(Object[] values, int size) {
+        Tuple tuple = new Tuple();
+        if (size > 0) {
+            tuple.values = values;
+            tuple.size = size;
+        }
+        return tuple;
+    }
+
+    /**
+     * Creates a tuple holding the values of a tuple followed
+     * by the values of another.
+     *
+     * @param first  the first tuple
+     * @param second the second tuple
+     * @return the new tuple
+     */
+    static Tuple concat(Tuple first, Tuple second) {
+        int length = first.size + second.size;
+        Object[] values = new Object[length];
+        arraycopy(first.values, first.offset, values, 0, first.size);
+        arraycopy(second.values, second.offset, values, first.size, second.size);
+        return wrap(values, length);
+    }
+
+    /**
+     * Returns a copy of the values of the tuple as a list,
+     * equal to the list of another tuple holding equal values.
+     *
+     * @return the values
+     */
+    List<Object> valueList() {
+        return Arrays.asList(Arrays.copyOfRange(this.values, this.offset, this.offset + this.size));
+    }
+
     /**
      * Determines if the given object is an instance of Tuple.
      *
@@ -126,7 +244,7 @@ public class Tuple implements Data {
      */
     @Override
     public int length() {
-        return this.values.length;
+        return this.size;
     }
 
     /**
@@ -137,7 +255,7 @@ public class Tuple implements Data {
      */
     @Override
     public boolean isEmpty(){
-        return this.values.length == 0;
+        return this.size == 0;
     }
 
     /**
@@ -154,11 +272,11 @@ public class Tuple implements Data {
         }
         Tuple tuple = (Tuple) obj;
         assert tuple != null;
-        if(this.values.length != tuple.values.length){
+        if(this.size != tuple.size){
             return false;
         }
-        for (int i = 0; i < this.values.length; i++) {
-            if (this.values[i] != tuple.values[i]){
+        for (int i = 0; i < this.size; i++) {
+            if (this.values[this.offset + i] != tuple.values[tuple.offset + i]){
                 return false;
             }
         }
@@ -185,7 +303,8 @@ public class Tuple implements Data {
      * 
      */
     public boolean containsType(Class<?> type) {
-        for (Object value : this.values) {
+        for (int i = 0; i < this.size; i++) {
+            Object value = this.values[this.offset + i];
             if (value == null) {
                 return false;
             }
@@ -203,14 +322,96 @@ public class Tuple implements Data {
      * 
      */
     public void setValues(Object... values){
+        this.index = null;
+        this.offset = 0;
+        this.shared = false;
         if (values.length == 0) {
-            this.values = new Object[0];
+            this.values = EMPTY;
+            this.size = 0;
             return;
         }
-        this.values = values;
+        this.values = Arrays.copyOf(values, values.length);
+        this.size = values.length;
         this.clearNulls();
     }
 
+    /**
+     * Enables or disables the hash index of the tuple.
+     *
+     * <p>
+     * An indexed tuple answers {@link #indexOf(Object)} and
+     * {@link #contains(Object)} in constant time, at the cost of
+     * a hash map kept next to the values. The index is built on the
+     * first lookup; appends keep it up to date, while mutations that
+     * move values around drop it, to be rebuilt on the next lookup.
+     * Values should not be mutated while they are in an indexed tuple.
+     *
+     * @param indexed true to look values up through the index
+     */
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+        if (!indexed) {
+            this.index = null;
+        }
+    }
+
+    /**
+     * Returns if lookups go through the hash index
+     *
+     * @return if the tuple is indexed
+     */
+    public boolean isIndexed() {
+        return this.indexed;
+    }
+
+    /**
+     * Increases the capacity of the tuple, if necessary, so that
+     * it can hold at least the given amount of values without
+     * reallocating its backing array.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (this.shared) {
+            this.copyValues(Math.max(this.size, minCapacity));
+        } else if (minCapacity > this.values.length) {
+            this.values = Arrays.copyOf(this.values, Capacity.grow(this.values.length, minCapacity));
+        }
+    }
+
+    /**
+     * Trims the capacity of the tuple down to its length,
+     * releasing the spare slots of the backing array.
+     */
+    public void trimToSize() {
+        if (this.shared || this.size < this.values.length) {
+            this.copyValues(this.size);
+        }
+    }
+
+    /**
+     * Gives the tuple an array of its own before it is written to,
+     * if its current one is shared with views.
+     */
+    private void unshare() {
+        if (this.shared) {
+            this.copyValues(this.size);
+        }
+    }
+
+    /**
+     * Moves the values of the tuple to a new, unshared array.
+     *
+     * @param capacity the capacity of the new array, at least {@link #size}
+     */
+    private void copyValues(int capacity) {
+        Object[] newValues = capacity == 0 ? EMPTY : new Object[capacity];
+        arraycopy(this.values, this.offset, newValues, 0, this.size);
+        this.values = newValues;
+        this.offset = 0;
+        this.shared = false;
+    }
+
     /**
      * Appends a value of T type to the tuple
      *
@@ -222,11 +423,12 @@ public class Tuple implements Data {
         if (value == null) {
             return;
         }
-        Object[] newValues = new Object[this.values.length + 1];
-        arraycopy(this.values, 0, newValues, 0, this.values.length);
-        newValues[this.values.length] = value;
-        this.values = newValues;
-        this.clearNulls();
+        this.unshare();
+        this.ensureCapacity(this.size + 1);
+        this.values[this.size++] = value;
+        if (this.index != null) {
+            this.index.putIfAbsent(value, this.size - 1);
+        }
     }
 
     /**
@@ -240,12 +442,15 @@ public class Tuple implements Data {
         if (value == null) {
             return;
         }
-        Object[] newValues = new Object[this.values.length + 1];
-        arraycopy(this.values, 0, newValues, 0, index);
-        newValues[index] = value;
-        arraycopy(this.values, index, newValues, index + 1, this.values.length - index);
-        this.values = newValues;
-        this.clearNulls();
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+        this.unshare();
+        this.ensureCapacity(this.size + 1);
+        arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.values[index] = value;
+        this.size++;
+        this.index = null;
     }
 
     /**
@@ -259,11 +464,12 @@ public class Tuple implements Data {
         if (value == null) {
             return;
         }
-        if (index < 0 || index >= this.values.length) {
-            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.values.length);
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
         }
+        this.unshare();
         this.values[index] = value;
-        this.clearNulls();
+        this.index = null;
     }
 
     /**
@@ -275,12 +481,14 @@ public class Tuple implements Data {
      */
     @Override
     public void swap(int index1, int index2) throws IndexOutOfBoundsException {
-        if (index1 < 0 || index2 < 0 || index1 >= this.values.length || index2 >= this.values.length) {
-            throw new IndexOutOfBoundsException("Index out of bounds for length " + this.values.length);
+        if (index1 < 0 || index2 < 0 || index1 >= this.size || index2 >= this.size) {
+            throw new IndexOutOfBoundsException("Index out of bounds for length " + this.size);
         }
+        this.unshare();
         Object temp = this.values[index1];
         this.values[index1] = this.values[index2];
         this.values[index2] = temp;
+        this.index = null;
     }
 
     /**
@@ -293,10 +501,10 @@ public class Tuple implements Data {
      */
     @SuppressWarnings("unchecked")
     public <T> T getValue(int index) throws IndexOutOfBoundsException {
-        if (index < 0 || index >= this.values.length) {
-            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.values.length);
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
         }
-        return (T) this.values[index];
+        return (T) this.values[this.offset + index];
     }
 
     /**
@@ -310,15 +518,9 @@ public class Tuple implements Data {
         if (!containsType(type)) {
             return tuple;
         }
-        Tuple copy = new Tuple(this.values); // Create a copy of the original tuple
-        for (int i = 0; i < copy.length(); i++) {
-            if (copy.getValue(i) == null) {
-                copy.remove(i);
-            }
-        }
-        for (Object value : copy) {
-            if (value.getClass() == type) {
-                tuple.push(value);
+        for (int i = 0; i < this.size; i++) {
+            if (this.values[this.offset + i].getClass() == type) {
+                tuple.push(this.values[this.offset + i]);
             }
         }
         return tuple;
@@ -331,17 +533,21 @@ public class Tuple implements Data {
      * @return the index of the value
      */
     public <T> int indexOf(T value) {
-        for (int i = 0; i < this.values.length; i++) {
-            if (value instanceof String && this.values[i].equals(value.toString())) {
+        if (this.indexed) {
+            Integer i = this.index().get(value);
+            return i == null ? -1 : i;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (value instanceof String && this.values[this.offset + i].equals(value.toString())) {
                 return i;
             }
-            if (value instanceof Tuple && this.values[i].equals(value)) {
+            if (value instanceof Tuple && this.values[this.offset + i].equals(value)) {
                 return i;
             }
-            if (this.values[i] != null && this.values[i].equals(value)) {
+            if (this.values[this.offset + i] != null && this.values[this.offset + i].equals(value)) {
                 return i;
             }
-            if (this.values[i] == value) {
+            if (this.values[this.offset + i] == value) {
                 return i;
             }
         }
@@ -353,13 +559,16 @@ public class Tuple implements Data {
      */
     @Override
     public void pop() {
-        if (this.values.length == 0) {
+        if (this.size == 0) {
             return;
         }
-        Object[] newValues = new Object[this.values.length - 1];
-        arraycopy(this.values, 0, newValues, 0, this.values.length - 1);
-        this.values = newValues;
-        this.clearNulls();
+        if (this.index != null) {
+            this.index.remove(this.values[this.offset + this.size - 1], this.size - 1);
+        }
+        this.size--;
+        if (!this.shared) {
+            this.values[this.size] = null;
+        }
     }
 
     /**
@@ -369,42 +578,99 @@ public class Tuple implements Data {
      * 
      */
     public void remove(int index) throws IndexOutOfBoundsException {
-        if (this.values.length == 0) {
+        if (this.size == 0) {
             return;
         }
-        if (index < 0 || index >= this.values.length) {
+        if (index < 0 || index >= this.size) {
             throw new IndexOutOfBoundsException();
         }
-        Object[] newValues = new Object[this.values.length - 1];
-        arraycopy(this.values, 0, newValues, 0, index);
-        if (this.values.length - 1 - index >= 0)
-            arraycopy(this.values, index + 1, newValues, index, this.values.length - 1 - index);
-        this.values = newValues;
-        this.clearNulls();
+        this.unshare();
+        arraycopy(this.values, index + 1, this.values, index, this.size - 1 - index);
+        this.values[--this.size] = null;
+        this.index = null;
     }
 
     /**
-     * Clears the tuple, making it of length 0
+     * Clears the tuple, making it of length 0.
+     * The capacity of the tuple is kept, see {@link #trimToSize()}
      *
      * 
      */
     @Override
     public void clear() {
-        this.values = new Object[0];
+        if (this.shared) {
+            this.values = EMPTY;
+            this.offset = 0;
+            this.shared = false;
+        } else {
+            Arrays.fill(this.values, 0, this.size, null);
+        }
+        this.size = 0;
+        this.index = null;
+    }
+
+    /**
+     * Returns the hash index of the tuple, building it if needed.
+     *
+     * @return the value to first index map
+     */
+    private Map<Object, Integer> index() {
+        if (this.index == null) {
+            Map<Object, Integer> map = new HashMap<>(Math.max(16, (int) (this.size / .75f) + 1));
+            for (int i = 0; i < this.size; i++) {
+                map.putIfAbsent(this.values[this.offset + i], i);
+            }
+            this.index = map;
+        }
+        return this.index;
+    }
+
+    /**
+     * Returns a membership test over the values of the tuple,
+     * to be used by operations that look up many values at once.
+     * Uses the index if the tuple is indexed, otherwise hashes the
+     * values once, unless the tuple is short enough to be scanned.
+     *
+     * @return a predicate testing if a value is contained in the tuple
+     */
+    private Predicate<Object> membership() {
+        if (this.indexed) {
+            return this.index()::containsKey;
+        }
+        if (this.size < HASH_THRESHOLD) {
+            return this::contains;
+        }
+        Set<Object> set = new HashSet<>((int) (this.size / .75f) + 1);
+        for (int i = 0; i < this.size; i++) {
+            set.add(this.values[this.offset + i]);
+        }
+        return set::contains;
     }
 
     /**
      * Clears T null values from the array.
+     *
+     * <p>
+     * Compacts the values in place, in a single pass, keeping their order.
+     * Only needed after the values have been replaced in bulk,
+     * as every other mutator refuses null values.
      */
     private void clearNulls() {
-        if (this.values.length == 0) {
+        int i = 0;
+        while (i < this.size && this.values[i] != null) {
+            i++;
+        }
+        if (i == this.size) {
             return;
         }
-        for (int i = 0; i < this.values.length; i++) {
-            if (this.values[i] == null) {
-                this.remove(i);
+        int kept = i;
+        for (i++; i < this.size; i++) {
+            if (this.values[i] != null) {
+                this.values[kept++] = this.values[i];
             }
         }
+        Arrays.fill(this.values, kept, this.size, null);
+        this.size = kept;
     }
 
     /**
@@ -415,10 +681,10 @@ public class Tuple implements Data {
      */
     @Override
     public String toString() {
-        if (this.values.length == 0) {
+        if (this.size == 0) {
             return "[]";
         }
-        return Arrays.toString(this.values);
+        return Arrays.toString(Arrays.copyOfRange(this.values, this.offset, this.offset + this.size));
     }
 
     /**
@@ -429,10 +695,14 @@ public class Tuple implements Data {
      */
     @Override
     public int hashCode() {
-        if (this.values.length == 0) {
+        if (this.size == 0) {
             return 0;
         }
-        return Arrays.hashCode(this.values);
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++) {
+            hashCode = 31 * hashCode + this.values[this.offset + i].hashCode();
+        }
+        return hashCode;
     }
 
     /**
@@ -441,14 +711,16 @@ public class Tuple implements Data {
      * 
      */
     public void reverse() {
-        if (this.values.length == 0 || this.values.length == 1) {
+        if (this.size == 0 || this.size == 1) {
             return;
         }
-        Object[] newValues = new Object[this.values.length];
-        for (int i = 0; i < this.values.length; i++) {
-            newValues[i] = this.values[this.values.length - i - 1];
+        this.unshare();
+        for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+            Object tmp = this.values[i];
+            this.values[i] = this.values[j];
+            this.values[j] = tmp;
         }
-        this.setValues(newValues);
+        this.index = null;
     }
 
     /**
@@ -459,16 +731,80 @@ public class Tuple implements Data {
      * 
      */
     @Override
-    public void slice(int start, int end) {
-        if (end > this.values.length) {
-            end = this.values.length;
+    public void slice(int start, int end) throws IllegalArgumentException {
+        if (end > this.size) {
+            end = this.size;
         }
         if (start < 0) {
             start = 0;
         }
-        Object[] newValues = new Object[end - start];
-        arraycopy(this.values, start, newValues, 0, newValues.length);
-        this.setValues(newValues);
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        int length = end - start;
+        if (this.shared) {
+            this.offset += start;
+        } else {
+            arraycopy(this.values, start, this.values, 0, length);
+            Arrays.fill(this.values, length, this.size, null);
+        }
+        this.size = length;
+        this.index = null;
+    }
+
+    /**
+     * Returns a view of the values from a defined start to a defined end,
+     * without copying them.
+     *
+     * <p>
+     * The view and this tuple share their backing array, until either of
+     * them is mutated: the first mutation copies the values of the mutated
+     * tuple to an array of its own (copy-on-write), so neither ever sees the
+     * changes of the other. Slicing a view, or popping from it, never copies.
+     *
+     * @param start the first index
+     * @param end   the last index, excluded
+     * @return the view
+     */
+    public Tuple sliceView(int start, int end) throws IllegalArgumentException {
+        if (end > this.size) {
+            end = this.size;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        if (start > end) {
+            throw new IllegalArgumentException(start + " > " + end);
+        }
+        Tuple view = new Tuple();
+        if (start == end) {
+            return view;
+        }
+        this.shared = true;
+        view.values = this.values;
+        view.offset = this.offset + start;
+        view.size = end - start;
+        view.shared = true;
+        view.indexed = this.indexed;
+        return view;
+    }
+
+    /**
+     * Splits the tuple at the specified index, without copying it.
+     * This tuple is left unchanged.
+     * See {@link #sliceView(int, int)} for how views share values.
+     *
+     * @param index the index to split
+     * @return the views of the values before and from the index
+     */
+    public Tuple[] splitView(int index) {
+        if (index > this.size) {
+            index = this.size;
+        }
+        if (index < 0) {
+            index = 0;
+        }
+        return new Tuple[]{this.sliceView(0, index), this.sliceView(index, this.size)};
     }
 
     /**
@@ -481,19 +817,19 @@ public class Tuple implements Data {
      */
     public void split(int index, Object data) throws IllegalArgumentException {
         if (!isTuple(data)){ throw new IllegalArgumentException(NOT_A_TUPLE); }
-        if (index > this.values.length) {
-            index = this.values.length;
+        if (index > this.size) {
+            index = this.size;
         }
         if (index < 0) {
             index = 0;
         }
         Tuple tmp = (Tuple) data;
-        Object[] newValues = new Object[index];
-        Object[] newValues2 = new Object[this.values.length - index];
-        arraycopy(this.values, index, newValues2, 0, this.values.length - index);
-        tmp.setValues(newValues2);
-        arraycopy(this.values, 0, newValues, 0, index);
-        this.setValues(newValues);
+        tmp.setValues(Arrays.copyOfRange(this.values, this.offset + index, this.offset + this.size));
+        if (!this.shared) {
+            Arrays.fill(this.values, index, this.size, null);
+        }
+        this.size = index;
+        this.index = null;
     }
 
     /**
@@ -509,9 +845,16 @@ public class Tuple implements Data {
                 continue;
             }
             Tuple tmp = (Tuple) data;
-            for (int i = 0; i < tmp.length(); i++) {
-                this.push(tmp.getValue(i));
+            int length = tmp.size;
+            this.unshare();
+            this.ensureCapacity(this.size + length);
+            arraycopy(tmp.values, tmp.offset, this.values, this.size, length);
+            if (this.index != null) {
+                for (int i = 0; i < length; i++) {
+                    this.index.putIfAbsent(this.values[this.size + i], this.size + i);
+                }
             }
+            this.size += length;
         }
     }
 
@@ -523,6 +866,7 @@ public class Tuple implements Data {
     public <T> void fill(T value, int amount) {
         if (amount < 0) { amount = 0; }
         if (amount == 0 || value == null) { return; }
+        this.ensureCapacity(this.size + amount);
         for (int i = 0; i < amount; i++) {
             this.push(value);
         }
@@ -534,22 +878,24 @@ public class Tuple implements Data {
      * @param amount the amount of random values to generate
      */
     public void fillRandom(int amount) {
-        if (amount < 0 || amount > this.values.length) {
+        if (amount < 0 || amount > this.size) {
             amount = 0;
         }
         if (amount == 0) {
             return;
         }
+        this.unshare();
         for (int i = 0; i < amount; i++) {
             this.values[i] = random.nextInt(100);
         }
+        this.index = null;
     }
 
     /**
      * Fills the values array with random integers between 0 and 99 (inclusive).
      */
     public void fillRandom(int min, int max, int amount) {
-        if (amount < 0 || amount > this.values.length) {
+        if (amount < 0 || amount > this.size) {
             amount = 0;
         }
         if (amount == 0) {
@@ -560,10 +906,12 @@ public class Tuple implements Data {
             min = max;
             max = tmp;
         }
+        this.unshare();
         for (int i = 0; i < amount; i++) {
 
             this.values[i] = random.nextInt(max - min + 1) + min;
         }
+        this.index = null;
     }
 
     /**
@@ -578,9 +926,9 @@ public class Tuple implements Data {
         if (this.length() > ((Tuple) data).length()) {
             return false;
         }
-        Tuple tmp = (Tuple) data;
-        for (int i = 0; i < this.length(); i++) {
-            if (!tmp.contains(this.getValue(i))) {
+        Predicate<Object> contained = ((Tuple) data).membership();
+        for (int i = 0; i < this.size; i++) {
+            if (!contained.test(this.values[this.offset + i])) {
                 return false;
             }
         }
@@ -618,8 +966,9 @@ public class Tuple implements Data {
         }
         int consecutive = 0;
         Tuple tmp = (Tuple) data;
-        for (int i = 0; i < tmp.length(); i++) {
-            if (this.contains(tmp.getValue(i))) {
+        Predicate<Object> contained = this.membership();
+        for (int i = 0; i < tmp.size; i++) {
+            if (contained.test(tmp.values[tmp.offset + i])) {
                 consecutive++;
             } else {
                 consecutive = 0;
@@ -641,10 +990,10 @@ public class Tuple implements Data {
         if (this.length() > ((Tuple) data).length()) {
             return false;
         }
-        Tuple tmp = (Tuple) data;
+        Predicate<Object> contained = ((Tuple) data).membership();
         int consecutive = 0;
-        for (int i = 0; i < this.length(); i++) {
-            if (tmp.contains(this.getValue(i))){
+        for (int i = 0; i < this.size; i++) {
+            if (contained.test(this.values[this.offset + i])){
                 consecutive++;
             } else {
                 consecutive = 0;
@@ -666,8 +1015,9 @@ public class Tuple implements Data {
             return false;
         }
         Tuple tmp = (Tuple) data;
-        for (int i = 0; i < tmp.length(); i++) {
-            if (this.contains(tmp.getValue(i))){
+        Predicate<Object> contained = this.membership();
+        for (int i = 0; i < tmp.size; i++) {
+            if (contained.test(tmp.values[tmp.offset + i])){
                 return false;
             }
         }
@@ -686,14 +1036,16 @@ public class Tuple implements Data {
         if (!isTuple(data)){ throw new IllegalArgumentException(NOT_A_TUPLE); }
         Tuple tuple = (Tuple) data;
         Tuple result = new Tuple();
-        for (int i = 0; i < this.length(); i++) {
-            if (!tuple.contains(this.getValue(i))) {
-                result.push(this.getValue(i));
+        Predicate<Object> inOther = tuple.membership();
+        for (int i = 0; i < this.size; i++) {
+            if (!inOther.test(this.values[this.offset + i])) {
+                result.push(this.values[this.offset + i]);
             }
         }
-        for (int i = 0; i < tuple.length(); i++) {
-            if (!this.contains(tuple.getValue(i))) {
-                result.push(tuple.getValue(i));
+        Predicate<Object> inThis = this.membership();
+        for (int i = 0; i < tuple.size; i++) {
+            if (!inThis.test(tuple.values[tuple.offset + i])) {
+                result.push(tuple.values[tuple.offset + i]);
             }
         }
         return result;
@@ -708,11 +1060,11 @@ public class Tuple implements Data {
     @Override
     public Object subtract(Object data) throws IllegalArgumentException {
         if (!isTuple(data)){ throw new IllegalArgumentException(NOT_A_TUPLE); }
-        Tuple tmp = (Tuple) data;
+        Predicate<Object> contained = ((Tuple) data).membership();
         Tuple result = new Tuple();
-        for (int i = 0; i < this.length(); i++) {
-            if (!tmp.contains(this.getValue(i))){
-                result.push(this.getValue(i));
+        for (int i = 0; i < this.size; i++) {
+            if (!contained.test(this.values[this.offset + i])){
+                result.push(this.values[this.offset + i]);
             }
         }
         return result;
@@ -740,6 +1092,40 @@ public class Tuple implements Data {
         return result;
     }
 
+    /**
+     * Filters the elements of the tuple matching a condition on {@link Expr#value()},
+     * compiled once for the whole scan
+     *
+     * @param condition the condition
+     * @return the matching elements, in order
+     * @throws IllegalStateException if the expression is not a condition
+     */
+    public Tuple filter(Expr condition) throws IllegalStateException {
+        Predicate<Object> predicate = condition.toPredicate();
+        Tuple result = new Tuple();
+        for (int i = 0; i < this.size; i++) {
+            Object value = this.values[this.offset + i];
+            if (predicate.test(value)) {
+                result.push(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a spliterator over the values of the tuple, reading the backing
+     * array directly. It is {@code SIZED}, {@code SUBSIZED} and {@code ORDERED}:
+     * it splits in exact halves, so that parallel streams balance their work.
+     * The tuple must not be modified while the spliterator is used.
+     *
+     * @return a Spliterator.
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        return Spliterators.spliterator(this.values, this.offset, this.offset + this.size,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
     /**
      * Returns an iterator over elements of type {@code T}.
      *
@@ -752,13 +1138,13 @@ public class Tuple implements Data {
 
             @Override
             public boolean hasNext() {
-                return currentIndex < length() && values[currentIndex] != null;
+                return currentIndex < size && values[offset + currentIndex] != null;
             }
 
             @Override
             public Object next() {
                 if (!hasNext()) { throw new NoSuchElementException(); }
-                return values[currentIndex++];
+                return values[offset + currentIndex++];
             }
         };
     }
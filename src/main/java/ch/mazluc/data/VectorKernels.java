@@ -0,0 +1,368 @@
+package ch.mazluc.data;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Luca Mazza
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * <p>
+ * The {@link Kernels} on the {@code jdk.incubator.vector} API, processing
+ * as many values per instruction as the preferred vector shape of the
+ * platform holds, then the values left over one at a time.
+ * Comparison masks are written to the selection bitmaps a whole vector at a time:
+ * lane counts divide 64, so the lanes of a vector never straddle two words.
+ *
+ * <p>
+ * Only loaded by {@link Kernels#INSTANCE} when the module is in the boot layer.
+ *
+ * <p>
+ * See Repo for more: <a href="https://github.com/lucamazzza/BData">GitHub</a>
+ *
+ * @author Luca Mazza
+ * @version 1.0
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Amount of long vectors an int vector widens to
+     */
+    private static final int WIDENING = Math.max(1, INTS.length() / LONGS.length());
+
+    private static VectorOperators.Comparison operator(Comparison op) {
+        return switch (op) {
+            case EQ -> VectorOperators.EQ;
+            case NE -> VectorOperators.NE;
+            case LT -> VectorOperators.LT;
+            case LE -> VectorOperators.LE;
+            case GT -> VectorOperators.GT;
+            case GE -> VectorOperators.GE;
+        };
+    }
+
+    @Override
+    public void select(int[] values, int length, Comparison op, int operand, long[] bits) {
+        VectorOperators.Comparison test = operator(op);
+        int bound = INTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            bits[i >>> 6] |= IntVector.fromArray(INTS, values, i).compare(test, operand).toLong() << i;
+        }
+        for (; i < length; i++) {
+            if (op.test(values[i], operand)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void select(long[] values, int length, Comparison op, long operand, long[] bits) {
+        VectorOperators.Comparison test = operator(op);
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            bits[i >>> 6] |= LongVector.fromArray(LONGS, values, i).compare(test, operand).toLong() << i;
+        }
+        for (; i < length; i++) {
+            if (op.test(values[i], operand)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void select(double[] values, int length, Comparison op, double operand, long[] bits) {
+        VectorOperators.Comparison test = operator(op);
+        int bound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            bits[i >>> 6] |= DoubleVector.fromArray(DOUBLES, values, i).compare(test, operand).toLong() << i;
+        }
+        for (; i < length; i++) {
+            if (op.test(values[i], operand)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public int indexOf(int[] values, int length, int value) {
+        int bound = INTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            VectorMask<Integer> found = IntVector.fromArray(INTS, values, i).eq(value);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        for (; i < length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOf(long[] values, int length, long value) {
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            VectorMask<Long> found = LongVector.fromArray(LONGS, values, i).eq(value);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        for (; i < length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOf(double[] values, int length, double value) {
+        long bits = Double.doubleToLongBits(value);
+        int i = 0;
+        // == agrees with Double.equals but for NaN and signed zeros
+        if (value == value && value != 0) {
+            int bound = DOUBLES.loopBound(length);
+            for (; i < bound; i += DOUBLES.length()) {
+                VectorMask<Double> found = DoubleVector.fromArray(DOUBLES, values, i).eq(value);
+                if (found.anyTrue()) {
+                    return i + found.firstTrue();
+                }
+            }
+        }
+        for (; i < length; i++) {
+            if (Double.doubleToLongBits(values[i]) == bits) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long sum(int[] values, int length) {
+        LongVector sums = LongVector.zero(LONGS);
+        int bound = INTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            IntVector vector = IntVector.fromArray(INTS, values, i);
+            for (int part = 0; part < WIDENING; part++) {
+                sums = sums.add((LongVector) vector.convertShape(VectorOperators.I2L, LONGS, part));
+            }
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] values, int length) {
+        LongVector sums = LongVector.zero(LONGS);
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            sums = sums.add(LongVector.fromArray(LONGS, values, i));
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sum(double[] values, int length) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int bound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            sums = sums.add(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int min(int[] values, int length) {
+        IntVector mins = IntVector.broadcast(INTS, values[0]);
+        int bound = INTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            mins = mins.min(IntVector.fromArray(INTS, values, i));
+        }
+        int min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public long min(long[] values, int length) {
+        LongVector mins = LongVector.broadcast(LONGS, values[0]);
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            mins = mins.min(LongVector.fromArray(LONGS, values, i));
+        }
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double min(double[] values, int length) {
+        DoubleVector mins = DoubleVector.broadcast(DOUBLES, values[0]);
+        int bound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            mins = mins.min(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] values, int length) {
+        IntVector maxs = IntVector.broadcast(INTS, values[0]);
+        int bound = INTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            maxs = maxs.max(IntVector.fromArray(INTS, values, i));
+        }
+        int max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long max(long[] values, int length) {
+        LongVector maxs = LongVector.broadcast(LONGS, values[0]);
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            maxs = maxs.max(LongVector.fromArray(LONGS, values, i));
+        }
+        long max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double max(double[] values, int length) {
+        DoubleVector maxs = DoubleVector.broadcast(DOUBLES, values[0]);
+        int bound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            maxs = maxs.max(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public boolean equals(int[] a, int[] b, int length) {
+        int bound = INTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            if (IntVector.fromArray(INTS, a, i).compare(VectorOperators.NE, IntVector.fromArray(INTS, b, i)).anyTrue()) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(long[] a, long[] b, int length) {
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            if (LongVector.fromArray(LONGS, a, i).compare(VectorOperators.NE, LongVector.fromArray(LONGS, b, i)).anyTrue()) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(double[] a, double[] b, int length) {
+        int bound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            // Identical bits are equal; different bits may still be NaNs of different payloads
+            if (DoubleVector.fromArray(DOUBLES, a, i).viewAsIntegralLanes()
+                    .compare(VectorOperators.NE, DoubleVector.fromArray(DOUBLES, b, i).viewAsIntegralLanes())
+                    .anyTrue()) {
+                for (int j = i; j < i + DOUBLES.length(); j++) {
+                    if (Double.doubleToLongBits(a[j]) != Double.doubleToLongBits(b[j])) {
+                        return false;
+                    }
+                }
+            }
+        }
+        for (; i < length; i++) {
+            if (Double.doubleToLongBits(a[i]) != Double.doubleToLongBits(b[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,127 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    @TempDir
+    Path tempDirectory;
+
+    private static Tuple sample() {
+        return new Tuple(0, -1, Integer.MIN_VALUE, 42L, Long.MAX_VALUE, 1.5, Double.NaN, -0.0f,
+                (short) -7, (byte) 3, 'x', true, false, "", "héllo wörld €", "😀",
+                new Tuple(1, "nested", new Tuple()));
+    }
+
+    private static void assertSameValues(Tuple expected, Tuple actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.getValue(i).getClass(), actual.getValue(i).getClass());
+        }
+    }
+
+    @Test
+    void tuple() throws IOException {
+        for (ByteBuffer buffer : new ByteBuffer[]{
+                ByteBuffer.allocate(256),
+                ByteBuffer.allocateDirect(256),
+                ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN)}) {
+            BinaryCodec.write(sample(), buffer);
+            buffer.flip();
+            assertSameValues(sample(), BinaryCodec.readTuple(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinaryCodec.write(new Tuple(1, 2, 3), buffer);
+        assertEquals(13, buffer.position());
+    }
+
+    @Test
+    void table() throws IOException {
+        Table table = new Table();
+        for (int i = 0; i < 1000; i++) {
+            table.push(new Tuple(i, "row" + i, i * 0.25, (long) i << 40));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        BinaryCodec.write(table, buffer);
+        buffer.flip();
+        assertEquals(table.toString(), BinaryCodec.readTable(buffer).toString());
+        buffer.clear();
+        BinaryCodec.write(new Table(), buffer);
+        buffer.flip();
+        assertEquals(0, BinaryCodec.readTable(buffer).length());
+    }
+
+    @Test
+    void channel() throws IOException {
+        Table table = new Table();
+        String big = "ab€".repeat(50_000);
+        for (int i = 0; i < 20_000; i++) {
+            table.push(new Tuple(i, "row" + i, i % 1000 == 0 ? big : "x"));
+        }
+        Path file = this.tempDirectory.resolve("table.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            BinaryCodec.write(table, channel);
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertEquals(table.toString(), BinaryCodec.readTable(channel).toString());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.write(sample(), Channels.newChannel(bytes));
+        assertSameValues(sample(), BinaryCodec.readTuple(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))));
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        BinaryCodec.write(sample(), buffer);
+        assertEquals(buffer.position(), bytes.size());
+    }
+
+    @Test
+    void invalid() throws IOException {
+        ByteBuffer small = ByteBuffer.allocate(8);
+        small.position(2);
+        assertThrows(BufferOverflowException.class, () -> BinaryCodec.write(sample(), small));
+        assertEquals(2, small.position());
+        ByteBuffer exact = ByteBuffer.allocate(13);
+        BinaryCodec.write(new Tuple(1, 2, 3), exact);
+        assertFalse(exact.hasRemaining());
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.write(new Tuple(new Object()), ByteBuffer.allocate(64)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        BinaryCodec.write(sample(), buffer);
+        buffer.flip();
+        assertThrows(IOException.class, () -> BinaryCodec.readTable(buffer.duplicate()));
+        assertThrows(EOFException.class, () -> BinaryCodec.readTuple(buffer.duplicate().limit(buffer.limit() - 1)));
+        ByteBuffer newer = ByteBuffer.allocate(buffer.limit()).put(buffer.duplicate()).flip();
+        newer.put(4, (byte) (BinaryCodec.VERSION + 1));
+        IOException version = assertThrows(IOException.class, () -> BinaryCodec.readTuple(newer));
+        assertTrue(version.getMessage().contains("version"));
+        assertThrows(IOException.class, () -> BinaryCodec.readTuple(ByteBuffer.wrap("not a tuple".getBytes())));
+        byte[] truncated = new byte[buffer.limit() - 3];
+        buffer.duplicate().get(truncated);
+        assertThrows(EOFException.class, () -> BinaryCodec.readTuple(Channels.newChannel(new ByteArrayInputStream(truncated))));
+
+        // A single string claiming Integer.MAX_VALUE bytes, followed by a few
+        ByteBuffer hostile = ByteBuffer.allocate(64).putInt(BinaryCodec.MAGIC).put((byte) BinaryCodec.VERSION).put((byte) 1)
+                .put((byte) 1).put((byte) 10).put(new byte[] {-1, -1, -1, -1, 7}).put("abc".getBytes()).flip();
+        IOException length = assertThrows(IOException.class, () -> BinaryCodec.readTuple(hostile.duplicate()));
+        assertTrue(length.getMessage().contains("length"));
+        byte[] hostileBytes = new byte[hostile.limit()];
+        hostile.duplicate().get(hostileBytes);
+        assertThrows(EOFException.class, () -> BinaryCodec.readTuple(Channels.newChannel(new ByteArrayInputStream(hostileBytes))));
+    }
+}
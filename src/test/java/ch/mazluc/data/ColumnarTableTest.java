@@ -0,0 +1,178 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTableTest {
+
+    private static Table sample() {
+        return new Table(
+                new Tuple(0, 10L, 1.5, "a"),
+                new Tuple(1, 20L, 2.5, "b"),
+                new Tuple(2, 30L, 3.5, "c")
+        );
+    }
+
+    @Test
+    void from() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        assertEquals(3, table.length());
+        assertEquals(4, table.width());
+        assertEquals(ColumnType.INT, table.getColumnType(0));
+        assertEquals(ColumnType.LONG, table.getColumnType(1));
+        assertEquals(ColumnType.DOUBLE, table.getColumnType(2));
+        assertEquals(ColumnType.OBJECT, table.getColumnType(3));
+        assertEquals(20L, (long) table.getValue(1, 1));
+        assertEquals("c", table.getValue(2, 3));
+        assertThrows(IllegalArgumentException.class, () -> ColumnarTable.from(new Table(new Tuple(1), new Tuple(1, 2))));
+        assertTrue(ColumnarTable.from(new Table()).isEmpty());
+    }
+
+    @Test
+    void toTable() {
+        Table table = ColumnarTable.from(sample()).toTable();
+        assertEquals(sample().toString(), table.toString());
+        assertEquals(Long.class, table.getValue(0, 1).getClass());
+    }
+
+    @Test
+    void push() {
+        ColumnarTable table = new ColumnarTable();
+        table.push(new Tuple(1, "x"));
+        table.push(new Tuple(2, "y"));
+        assertEquals(ColumnType.INT, table.getColumnType(0));
+        table.push(new Tuple(3L, "z"));
+        assertEquals(ColumnType.OBJECT, table.getColumnType(0));
+        assertEquals(1, (int) table.getValue(0, 0));
+        assertEquals(3L, (long) table.getValue(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.push(new Tuple(1)));
+        assertEquals(3, table.length());
+    }
+
+    @Test
+    void schema() {
+        ColumnarTable table = new ColumnarTable(ColumnType.DOUBLE, ColumnType.OBJECT);
+        table.push(new Tuple(1.0, true));
+        assertEquals(ColumnType.DOUBLE, table.getColumnType(0));
+        table.replace(0, 0, 2.0);
+        assertEquals(2.0, (double) table.getValue(0, 0));
+        table.replace(0, 0, "two");
+        assertEquals(ColumnType.OBJECT, table.getColumnType(0));
+        assertEquals("two", table.getValue(0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getValue(1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getValue(0, 2));
+    }
+
+    @Test
+    void contains() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        assertTrue(table.contains(2));
+        assertTrue(table.contains(30L));
+        assertTrue(table.contains("b"));
+        assertFalse(table.contains(30));
+        assertTrue(table.contains(new Tuple(1, 20L, 2.5, "b")));
+        assertFalse(table.contains(new Tuple(1, 20L, 2.5)));
+        assertEquals(2, table.indexOf(2, 3.5));
+        assertEquals(-1, table.indexOf(2, 3));
+    }
+
+    @Test
+    void swapPopSlice() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        table.swap(0, 2);
+        assertEquals("c", table.getValue(0, 3));
+        assertEquals(0, (int) table.getValue(2, 0));
+        table.pop();
+        assertEquals(2, table.length());
+        table.push(new Tuple(5, 50L, 5.5, "e"));
+        table.slice(1, 3);
+        assertEquals("[1, 20, 2.5, b]\n[5, 50, 5.5, e]\n", table.toString());
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertEquals(4, table.width());
+    }
+
+    @Test
+    void join() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        table.join(sample(), ColumnarTable.from(sample()), new Tuple(1));
+        assertEquals(9, table.length());
+        assertEquals(ColumnType.INT, table.getColumnType(0));
+    }
+
+    @Test
+    void setOperations() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        ColumnarTable first = ColumnarTable.from(new Table(new Tuple(0, 10L, 1.5, "a")));
+        assertTrue(first.isSubsetOf(table));
+        assertTrue(table.isSupersetOf(first));
+        assertFalse(table.isSubsetOf(first));
+        ColumnarTable rest = (ColumnarTable) table.subtract(first);
+        assertEquals(2, rest.length());
+        assertEquals(ColumnType.LONG, rest.getColumnType(1));
+        assertTrue(rest.isDisjoint(first));
+        assertFalse(table.isDisjoint(first));
+        assertTrue(ColumnarTable.from(new Table(new Tuple(9, "z"))).isDisjoint(table));
+        assertThrows(IllegalArgumentException.class, () -> table.isSubsetOf(sample()));
+    }
+
+    @Test
+    void filter() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        assertEquals("[a, b, c]", table.filter(v -> v instanceof String).toString());
+        assertEquals("[10, 20, 30]", table.filter(v -> v instanceof Long).toString());
+        assertEquals("[1, 2]", table.whereInt(0, v -> v > 0).toString());
+        assertEquals("[2]", table.whereLong(1, v -> v > 20).toString());
+        assertEquals("[0, 1]", table.whereDouble(2, v -> v < 3).toString());
+        assertEquals("[1]", table.where(3, "b"::equals).toString());
+        assertThrows(IllegalArgumentException.class, () -> table.whereInt(1, v -> true));
+    }
+
+    @Test
+    void select() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        assertEquals("[1, 2]", table.select(0, Comparison.GT, 0).toString());
+        assertEquals("[0, 1]", table.select(1, Comparison.LT, 30).toString());
+        assertEquals("[2]", table.select(2, Comparison.GE, 3).toString());
+        assertEquals("[1]", table.select(0, Comparison.GT, 0).and(table.select(2, Comparison.LT, 3.0)).toString());
+        assertThrows(IllegalArgumentException.class, () -> table.select(3, Comparison.EQ, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.select(0, Comparison.EQ, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> table.select(0, Comparison.EQ, 1L << 40));
+    }
+
+    @Test
+    void aggregates() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        assertEquals(3L, table.sum(0));
+        assertEquals(60L, table.sum(1));
+        assertEquals(7.5, table.sum(2));
+        assertEquals(0, table.min(0));
+        assertEquals(30L, table.max(1));
+        assertThrows(IllegalArgumentException.class, () -> table.sum(3));
+    }
+
+    @Test
+    void equalsAndIterator() {
+        assertEquals(ColumnarTable.from(sample()), ColumnarTable.from(sample()));
+        assertEquals(ColumnarTable.from(sample()).hashCode(), ColumnarTable.from(sample()).hashCode());
+        int rows = 0;
+        for (Object row : ColumnarTable.from(sample())) {
+            assertEquals(4, ((Tuple) row).length());
+            rows++;
+        }
+        assertEquals(3, rows);
+    }
+
+    @Test
+    void stream() {
+        ColumnarTable table = ColumnarTable.from(sample());
+        Spliterator<Object> spliterator = table.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(table.length(), spliterator.getExactSizeIfKnown());
+        assertEquals(table.length(), table.parallelStream().count());
+        assertEquals(table.getRow(0).toString(), table.stream().findFirst().orElseThrow().toString());
+    }
+}
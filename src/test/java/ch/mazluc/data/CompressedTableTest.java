@@ -0,0 +1,159 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTableTest {
+
+    private static final String[] STATUS = {"active", "inactive", "pending"};
+
+    /**
+     * Increasing ids, a low-cardinality status, long runs of regions,
+     * random-looking scores and distinct names
+     */
+    private static Table sample(int rows) {
+        Table table = new Table();
+        for (int i = 0; i < rows; i++) {
+            table.push(new Tuple(1_000_000_000_000L + 3L * i, STATUS[i * 7 % 3], "region" + i / 1000,
+                    (i * 2_654_435_761L) % 1_000_003 * 0.5, "name" + i));
+        }
+        return table;
+    }
+
+    @Test
+    void encodings() {
+        CompressedTable table = CompressedTable.from(sample(10_000));
+        assertEquals(5, table.width());
+        assertEquals(ColumnEncoding.DELTA, table.getEncoding(0));
+        assertEquals(ColumnEncoding.DICTIONARY, table.getEncoding(1));
+        assertEquals(ColumnEncoding.RUN_LENGTH, table.getEncoding(2));
+        assertEquals(ColumnEncoding.PLAIN, table.getEncoding(3));
+        assertEquals(ColumnEncoding.PLAIN, table.getEncoding(4));
+        assertEquals(ColumnType.LONG, table.getColumnType(0));
+        assertEquals(ColumnType.DOUBLE, table.getColumnType(3));
+        Table ints = new Table();
+        for (int i = 0; i < 1000; i++) {
+            ints.push(new Tuple(i * 0x9E3779B9));
+        }
+        assertEquals(ColumnEncoding.PLAIN, CompressedTable.from(ints).getEncoding(0));
+    }
+
+    @Test
+    void size() {
+        Table table = new Table();
+        for (int i = 0; i < 10_000; i++) {
+            table.push(new Tuple(1_700_000_000_000L + i * 1000L + i % 7, STATUS[i % 3], i / 500));
+        }
+        CompressedTable compressed = CompressedTable.from(table);
+        long plain = 10_000L * (8 + 20 + 4);
+        assertTrue(compressed.encodedBytes() * 5 < plain, compressed.encodedBytes() + " bytes");
+    }
+
+    @Test
+    void decode() {
+        Table source = sample(5000);
+        CompressedTable table = CompressedTable.from(source);
+        assertEquals(5000, table.length());
+        assertFalse(table.isEmpty());
+        for (int i = 0; i < 5000; i += 37) {
+            assertEquals(source.row(i).valueList(), table.getRow(i).valueList());
+        }
+        assertEquals(1_000_000_000_000L + 3L * 4999, (long) table.getValue(4999, 0));
+        assertEquals("region4", table.getValue(4999, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getValue(5000, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getRow(-1));
+        Table copy = table.toTable();
+        assertEquals(5000, copy.length());
+        assertEquals(source.row(4321).valueList(), copy.row(4321).valueList());
+        List<Object> rows = new ArrayList<>();
+        table.forEach(rows::add);
+        assertEquals(source.row(128).valueList(), ((Tuple) rows.get(128)).valueList());
+        assertEquals(5000, table.parallelStream().count());
+        assertTrue(table.toString().startsWith("[1000000000000, active, region0, 0.0, name0]\n"));
+    }
+
+    @Test
+    void extremeLongs() {
+        Table table = new Table();
+        long[] values = {Long.MIN_VALUE, Long.MAX_VALUE, 0, -1, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (int i = 0; i < 300; i++) {
+            table.push(new Tuple(values[i % values.length] - i % 2));
+        }
+        CompressedTable compressed = CompressedTable.from(table);
+        for (int i = 0; i < 300; i++) {
+            assertEquals((long) table.getValue(i, 0), (long) compressed.getValue(i, 0));
+        }
+    }
+
+    @Test
+    void select() {
+        Table source = sample(3000);
+        CompressedTable table = CompressedTable.from(source);
+        for (int j = 0; j < table.width(); j++) {
+            Selection selection = table.select(j, value -> value.hashCode() % 3 == 0);
+            for (int i = 0; i < 3000; i++) {
+                assertEquals(source.row(i).getValue(j).hashCode() % 3 == 0, selection.get(i));
+            }
+        }
+        Selection pending = table.rowsWhere(1, "pending");
+        assertEquals(1000, pending.cardinality());
+        assertTrue(pending.get(2));
+        assertEquals(1000, table.rowsWhere(2, "region1").cardinality());
+        assertEquals(1000, table.rowsWhere(2, "region1").nextSelected(0));
+        assertEquals(1, table.rowsWhere(0, 1_000_000_000_300L).cardinality());
+        assertEquals(0, table.rowsWhere(1, "missing").cardinality());
+        assertEquals(0, table.rowsWhere(1, null).cardinality());
+    }
+
+    @Test
+    void contains() {
+        Table source = sample(3000);
+        CompressedTable table = CompressedTable.from(source);
+        assertTrue(table.contains("inactive"));
+        assertTrue(table.contains("region2"));
+        assertTrue(table.contains(1_000_000_000_000L + 3L * 2999));
+        assertTrue(table.contains(1_000_000_000_000L + 3L * 128));
+        assertFalse(table.contains(1_000_000_000_001L));
+        assertFalse(table.contains(999_999_999_999L));
+        assertFalse(table.contains(1_000_000_000_000L + 3L * 3000));
+        assertFalse(table.contains(0));
+        assertFalse(table.contains(null));
+        assertTrue(table.contains(source.row(1234)));
+        assertFalse(table.contains(new Tuple(1_000_000_000_000L, "active")));
+        Tuple row = source.row(1234);
+        assertFalse(table.contains(new Tuple(row.getValue(0), row.getValue(1), row.getValue(2), row.getValue(3), "other")));
+        Table unsorted = new Table();
+        for (int i = 0; i < 1000; i++) {
+            unsorted.push(new Tuple((long) (i % 2 == 0 ? i : 2000 - i)));
+        }
+        CompressedTable delta = CompressedTable.from(unsorted);
+        assertEquals(ColumnEncoding.DELTA, delta.getEncoding(0));
+        assertTrue(delta.contains(1999L));
+        assertFalse(delta.contains(1000L));
+    }
+
+    @Test
+    void dataOperations() {
+        CompressedTable table = CompressedTable.from(sample(100));
+        CompressedTable half = CompressedTable.from(sample(50));
+        assertTrue(half.isSubsetOf(table));
+        assertTrue(table.isSupersetOf(half));
+        assertFalse(table.isSubsetOf(half));
+        assertEquals(50, ((Table) table.subtract(half)).length());
+        assertFalse(table.isDisjoint(half));
+        assertTrue(table.isDisjoint(CompressedTable.from(new Table(new Tuple(-1)))));
+        assertEquals(List.of("name7", "name70", "name79"), ((Tuple) table.filter(value -> value.toString().matches("name7(0|9)?"))).valueList());
+        assertEquals(33, ((Tuple) table.filter("pending"::equals)).length());
+        assertThrows(IllegalArgumentException.class, () -> table.isSubsetOf(new Table()));
+        assertThrows(UnsupportedOperationException.class, () -> table.push(new Tuple(1)));
+        assertThrows(UnsupportedOperationException.class, table::clear);
+        assertThrows(UnsupportedOperationException.class, () -> table.slice(0, 1));
+        CompressedTable empty = CompressedTable.from(new Table());
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.width());
+    }
+}
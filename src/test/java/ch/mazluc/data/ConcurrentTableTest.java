@@ -0,0 +1,161 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTableTest {
+
+    @Test
+    void pushAndRead() {
+        ConcurrentTable table = new ConcurrentTable();
+        assertTrue(table.isEmpty());
+        for (int i = 0; i < 1000; i++) {
+            table.push(new Tuple(i, "row" + i));
+        }
+        table.push("single");
+        assertEquals(1001, table.length());
+        assertEquals(999, (int) table.getValue(999, 0));
+        assertEquals("row31", table.getValue(31, 1));
+        assertEquals("row32", table.getValue(32, 1));
+        assertEquals("single", table.getValue(1000, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getRow(1001));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getRow(-1));
+        table.pushAll(new Tuple(1), new Tuple(2));
+        assertEquals(1003, table.length());
+        assertEquals(2, (int) table.getValue(1002, 0));
+        assertThrows(NullPointerException.class, () -> table.pushAll(new Tuple(3), null));
+        assertEquals(1003, table.length());
+    }
+
+    @Test
+    void concurrentPush() throws InterruptedException {
+        ConcurrentTable table = new ConcurrentTable();
+        int threads = 8;
+        int rows = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int producer = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < rows; i++) {
+                    if (i % 100 == 0) {
+                        table.pushAll(new Tuple(producer, i), new Tuple(producer, i + 1));
+                        i++;
+                    } else {
+                        table.push(new Tuple(producer, i));
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        int seen = 0;
+        while (seen < threads * rows) {
+            int length = table.length();
+            assertTrue(length >= seen);
+            for (int i = seen; i < length; i++) {
+                assertNotNull(table.getRow(i));
+            }
+            seen = length;
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        assertEquals(threads * rows, table.length());
+        Set<Long> keys = new HashSet<>();
+        int[] last = new int[threads];
+        for (Object row : table) {
+            Tuple tuple = (Tuple) row;
+            int producer = tuple.getValue(0);
+            int i = tuple.getValue(1);
+            assertTrue(keys.add((long) producer * rows + i));
+            assertTrue(i == 0 || i > last[producer]);
+            last[producer] = i;
+        }
+        assertEquals(threads * rows, keys.size());
+    }
+
+    @Test
+    void parallelStreamPush() {
+        ConcurrentTable table = new ConcurrentTable();
+        IntStream.range(0, 100_000).parallel().forEach(i -> table.push(new Tuple(i)));
+        assertEquals(100_000, table.length());
+        assertEquals(100_000, table.parallelStream().map(row -> ((Tuple) row).getValue(0)).distinct().count());
+    }
+
+    @Test
+    void weaklyConsistentIteration() {
+        ConcurrentTable table = new ConcurrentTable(new Tuple(0), new Tuple(1));
+        Iterator<Object> iterator = table.iterator();
+        assertEquals(0, (int) ((Tuple) iterator.next()).getValue(0));
+        table.push(new Tuple(2));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertEquals(1, (int) ((Tuple) iterator.next()).getValue(0));
+        assertEquals(2, (int) ((Tuple) iterator.next()).getValue(0));
+        assertFalse(iterator.hasNext());
+        table.push(new Tuple(3));
+        assertEquals(1, table.length());
+        assertEquals(1, table.stream().count());
+    }
+
+    @Test
+    void modify() {
+        Tuple a = new Tuple(1, "a");
+        Tuple b = new Tuple(2, "b");
+        ConcurrentTable table = new ConcurrentTable(a, b);
+        table.swap(0, 1);
+        assertSame(b, table.getRow(0));
+        assertSame(a, table.getRow(1));
+        table.replace(1, new Tuple(3, "c"));
+        assertEquals("c", table.getValue(1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.replace(2, a));
+        assertThrows(NullPointerException.class, () -> table.replace(0, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.swap(0, 2));
+        assertThrows(UnsupportedOperationException.class, table::pop);
+        assertThrows(UnsupportedOperationException.class, () -> table.slice(0, 1));
+        table.join(new Table(new Tuple(4), new Tuple(5)), new ConcurrentTable(new Tuple(6)), "ignored");
+        assertEquals(5, table.length());
+        assertEquals(6, (int) table.getValue(4, 0));
+        Table copy = table.toTable();
+        assertEquals(5, copy.length());
+        assertSame(b, copy.row(0));
+    }
+
+    @Test
+    void dataOperations() {
+        Tuple a = new Tuple(1, "a");
+        Tuple b = new Tuple(2, "b");
+        Tuple c = new Tuple(3, "c");
+        ConcurrentTable table = new ConcurrentTable(a, b, c);
+        ConcurrentTable half = new ConcurrentTable(a, b);
+        assertTrue(table.contains(b));
+        assertTrue(table.contains("c"));
+        assertFalse(table.contains("d"));
+        assertFalse(table.contains(null));
+        assertTrue(half.isSubsetOf(table));
+        assertTrue(table.isSupersetOf(half));
+        assertFalse(table.isSubsetOf(half));
+        assertEquals(new Table(c), table.subtract(half));
+        assertFalse(table.isDisjoint(half));
+        assertTrue(table.isDisjoint(new ConcurrentTable(new Tuple(4))));
+        assertEquals(List.of("a", "b", "c"), ((Tuple) table.filter(value -> value instanceof String)).valueList());
+        assertThrows(IllegalArgumentException.class, () -> table.isSubsetOf(new Table()));
+        assertEquals("[1, a]\n[2, b]\n[3, c]\n", table.toString());
+    }
+}
@@ -0,0 +1,147 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvCodecTest {
+
+    @TempDir
+    Path tempDirectory;
+
+    private static Table read(String text, char delimiter, ColumnType... types) throws IOException {
+        return CsvCodec.read(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), delimiter, types);
+    }
+
+    private static String write(Data data, char delimiter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvCodec.write(data, Channels.newChannel(out), delimiter);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void inferTypes() throws IOException {
+        Table table = read("1,5000000000,2.5,text,-7\n\n-3,x,.5,,+4\r\n", CsvCodec.COMMA);
+        assertEquals(2, table.length());
+        assertEquals(List.of(1, 5000000000L, 2.5, "text", -7), table.row(0).valueList());
+        assertEquals(List.of(-3, "x", .5, "", 4), table.row(1).valueList());
+        assertEquals(List.of("12a", "-", "9223372036854775808", "1d"),
+                read("12a,-,\"9223372036854775808\",1d", CsvCodec.COMMA).row(0).valueList());
+        assertEquals(9.223372036854775808E18, (double) read("9223372036854775808", CsvCodec.COMMA).getValue(0, 0));
+    }
+
+    @Test
+    void types() throws IOException {
+        Table table = read("1\t2\t3\t4\n", CsvCodec.TAB, ColumnType.INT, ColumnType.LONG, ColumnType.DOUBLE, ColumnType.OBJECT);
+        assertEquals(List.of(1, 2L, 3.0, "4"), table.row(0).valueList());
+        assertThrows(IllegalArgumentException.class, () -> read("5000000000\n", CsvCodec.TAB, ColumnType.INT));
+        assertThrows(IllegalArgumentException.class, () -> read("a\n", CsvCodec.TAB, ColumnType.DOUBLE));
+        assertThrows(IllegalArgumentException.class, () -> read("1\t2\n", CsvCodec.TAB, ColumnType.INT));
+        assertThrows(IllegalArgumentException.class, () -> read("1\n", CsvCodec.TAB, ColumnType.INT, ColumnType.INT));
+    }
+
+    @Test
+    void quotes() throws IOException {
+        Table table = read("\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",\"12\",é\n", CsvCodec.COMMA);
+        assertEquals(List.of("a,b", "say \"hi\"", "line\nbreak", "12", "é"), table.row(0).valueList());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> read("1\n\"open", CsvCodec.COMMA));
+        assertTrue(e.getMessage().contains("byte 2"));
+        assertThrows(IllegalArgumentException.class, () -> read("\"a\"b", CsvCodec.COMMA));
+        assertThrows(IllegalArgumentException.class, () -> read("a", '"'));
+        assertEquals(List.of("a", ""), read("a,\n", CsvCodec.COMMA).row(0).valueList());
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Table table = new Table();
+        for (int i = 0; i < 1000; i++) {
+            table.push(new Tuple(i, (1L << 33) + i, i * 0.25, "row \"" + i + "\"", String.valueOf(i), "a,b", "ü", ""));
+        }
+        String text = write(table, CsvCodec.COMMA);
+        assertTrue(text.startsWith("0,8589934592,0.0,\"row \"\"0\"\"\",\"0\",\"a,b\",ü,\"\"\n"));
+        Table copy = read(text, CsvCodec.COMMA);
+        assertEquals(table.length(), copy.length());
+        for (int i = 0; i < table.length(); i++) {
+            assertEquals(table.row(i).valueList(), copy.row(i).valueList());
+        }
+        assertEquals("1\n2\n", write(new Tuple(1, 2), CsvCodec.TAB));
+        Table empty = new Table(new Tuple(""), new Tuple("x"));
+        assertEquals("\"\"\nx\n", write(empty, CsvCodec.COMMA));
+        assertEquals(List.of(""), read(write(empty, CsvCodec.COMMA), CsvCodec.COMMA).row(0).valueList());
+    }
+
+    @Test
+    void stream() throws IOException {
+        List<Tuple> rows = new ArrayList<>();
+        CsvCodec.read(Channels.newChannel(new ByteArrayInputStream("1;a\n2;b".getBytes(StandardCharsets.UTF_8))), ';',
+                rows::add, ColumnType.LONG, ColumnType.OBJECT);
+        assertEquals(2, rows.size());
+        assertEquals(List.of(2L, "b"), rows.get(1).valueList());
+    }
+
+    @Test
+    void parallelFile() throws IOException {
+        Table table = new Table();
+        for (int i = 0; i < 200_000; i++) {
+            table.push(new Tuple(i, "name" + i, i * 1.5));
+        }
+        Path file = this.tempDirectory.resolve("table.csv");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            CsvCodec.write(table, channel, CsvCodec.COMMA);
+        }
+        assertTrue(Files.size(file) > 2 * CsvCodec.MIN_CHUNK);
+        try (FileChannel channel = FileChannel.open(file)) {
+            long[] bounds = CsvCodec.split(channel);
+            byte[] bytes = Files.readAllBytes(file);
+            assertTrue(bounds.length > 2);
+            for (int k = 1; k < bounds.length - 1; k++) {
+                assertEquals('\n', bytes[(int) bounds[k] - 1]);
+            }
+        }
+        Table copy = CsvCodec.read(file, CsvCodec.COMMA, ColumnType.INT, ColumnType.OBJECT, ColumnType.DOUBLE);
+        assertEquals(table.length(), copy.length());
+        for (int i = 0; i < table.length(); i += 997) {
+            assertEquals(table.row(i).valueList(), copy.row(i).valueList());
+        }
+        assertEquals(List.of(199_999, "name199999", 199_999 * 1.5), copy.row(199_999).valueList());
+        assertEquals(table.length(), CsvCodec.read(file, CsvCodec.COMMA).length());
+        Path empty = this.tempDirectory.resolve("empty.csv");
+        Files.createFile(empty);
+        assertTrue(CsvCodec.read(empty, CsvCodec.COMMA).isEmpty());
+    }
+
+    @Test
+    void parallelMultiLine() throws IOException {
+        Table table = new Table();
+        String lines = "line\n".repeat(20);
+        for (int i = 0; i < 30_000; i++) {
+            table.push(new Tuple(i, lines + i));
+        }
+        Path file = this.tempDirectory.resolve("lines.csv");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            CsvCodec.write(table, channel, CsvCodec.COMMA);
+        }
+        assertTrue(Files.size(file) > 2 * CsvCodec.MIN_CHUNK);
+        Table copy = CsvCodec.read(file, CsvCodec.COMMA, ColumnType.INT, ColumnType.OBJECT);
+        assertEquals(table.length(), copy.length());
+        for (int i = 0; i < table.length(); i++) {
+            assertEquals(table.row(i).valueList(), copy.row(i).valueList());
+        }
+        assertEquals(table.length(), CsvCodec.read(file, CsvCodec.COMMA).length());
+        Files.write(file, "\"open".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertThrows(IllegalArgumentException.class, () -> CsvCodec.read(file, CsvCodec.COMMA));
+    }
+}
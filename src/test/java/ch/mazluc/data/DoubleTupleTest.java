@@ -0,0 +1,116 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleTupleTest {
+
+    @Test
+    void push() {
+        Data tuple = new DoubleTuple();
+        tuple.push(1.5);
+        tuple.push(2);
+        tuple.push(2.5f);
+        tuple.push(null);
+        assertEquals("[1.5, 2.0, 2.5]", tuple.toString());
+        assertThrows(IllegalArgumentException.class, () -> tuple.push("3"));
+        tuple.push(1L << 53);
+        assertThrows(IllegalArgumentException.class, () -> tuple.push((1L << 53) + 1));
+        assertThrows(IllegalArgumentException.class, () -> tuple.push(Long.MAX_VALUE));
+    }
+
+    @Test
+    void getDouble() {
+        DoubleTuple tuple = new DoubleTuple(0.5, 1.5);
+        assertEquals(0.5, tuple.getDouble(0));
+        assertEquals(1.5, tuple.getDouble(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.getDouble(2));
+    }
+
+    @Test
+    void contains() {
+        DoubleTuple tuple = new DoubleTuple(1.0, Double.NaN, 0.0);
+        assertTrue(tuple.contains(1.0));
+        assertTrue(tuple.contains(1));
+        assertTrue(tuple.contains(Double.NaN));
+        assertFalse(tuple.contains(-0.0));
+        assertFalse(tuple.contains("1.0"));
+        assertEquals(1, tuple.indexOf(Double.NaN));
+        DoubleTuple large = new DoubleTuple(0x1p53);
+        assertTrue(large.contains(Long.valueOf(1L << 53)));
+        assertFalse(large.contains(Long.valueOf((1L << 53) + 1)));
+    }
+
+    @Test
+    void aggregates() {
+        DoubleTuple tuple = new DoubleTuple(1.5, -2.0, 4.0);
+        assertEquals(3.5, tuple.sum());
+        assertEquals(-2.0, tuple.min());
+        assertEquals(4.0, tuple.max());
+        assertThrows(NoSuchElementException.class, () -> new DoubleTuple().max());
+    }
+
+    @Test
+    void conversion() {
+        DoubleTuple tuple = DoubleTuple.from(new Tuple(1.5, 2, 3L, 4.5f));
+        assertEquals(new DoubleTuple(1.5, 2.0, 3.0, 4.5), tuple);
+        assertEquals(new Tuple(1.5, 2.0, 3.0, 4.5).hashCode(), tuple.hashCode());
+        assertEquals(Double.class, tuple.toTuple().getValue(1).getClass());
+        assertThrows(IllegalArgumentException.class, () -> DoubleTuple.from(new Tuple(true)));
+    }
+
+    @Test
+    void setOperations() {
+        DoubleTuple all = new DoubleTuple();
+        DoubleTuple halves = new DoubleTuple();
+        for (int i = 0; i < 1000; i++) {
+            all.push(i / 2.0);
+            if (i % 2 == 1) {
+                halves.push(i / 2.0);
+            }
+        }
+        assertTrue(halves.isSubsetOf(all));
+        DoubleTuple wholes = (DoubleTuple) all.subtract(halves);
+        assertEquals(500, wholes.length());
+        assertTrue(wholes.isDisjoint(halves));
+        assertEquals(1000, ((DoubleTuple) wholes.symmetricDifference(halves)).length());
+    }
+
+    @Test
+    void filter() {
+        DoubleTuple tuple = new DoubleTuple(-1.5, 0.0, 1.5);
+        assertEquals("[1.5]", tuple.filterDouble(v -> v > 0).toString());
+        assertEquals("[-1.5, 0.0]", tuple.filter(o -> (double) o <= 0).toString());
+    }
+
+    @Test
+    void select() {
+        DoubleTuple tuple = new DoubleTuple(-1.5, 0.0, -0.0, Double.NaN, 1.5);
+        assertEquals("[0, 1, 2]", tuple.select(Comparison.LE, 0.0).toString());
+        assertEquals("[1, 2]", tuple.select(Comparison.EQ, 0.0).toString());
+        assertEquals("[0, 1, 2, 3]", tuple.select(Comparison.NE, 1.5).toString());
+        assertEquals("[]", tuple.select(Comparison.EQ, Double.NaN).toString());
+        assertEquals(3, tuple.indexOf(Double.NaN));
+        assertEquals(2, tuple.indexOf(-0.0));
+        assertTrue(Double.isNaN(tuple.max()));
+    }
+
+    @Test
+    void stream() {
+        DoubleTuple tuple = new DoubleTuple(1.5, 2.5, 3.5, 4.5);
+        tuple.pop();
+        tuple.push(4.5);
+        assertEquals(12.0, tuple.doubleStream().sum());
+        assertEquals(12.0, tuple.doubleStream().parallel().sum());
+        assertEquals(4, tuple.doubleStream().count());
+        assertTrue(tuple.doubleStream().spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertTrue(tuple.spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(4, tuple.stream().count());
+        assertTrue(tuple.stream().allMatch(Double.class::isInstance));
+        assertEquals(0, new DoubleTuple().doubleStream().count());
+    }
+}
@@ -0,0 +1,145 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExprTest {
+
+    private static Table sample() {
+        Table table = new Table();
+        for (int i = 0; i < 100; i++) {
+            table.push(new Tuple(i, i % 3 == 0 ? "red" : "blue", i * 0.5, (long) i * i));
+        }
+        return table;
+    }
+
+    private static void assertSame(Table table, Expr condition, Predicate<Tuple> expected) {
+        Predicate<Object> predicate = condition.toPredicate();
+        for (int i = 0; i < table.length(); i++) {
+            Tuple row = table.row(i);
+            assertEquals(expected.test(row), predicate.test(row), condition + " on " + row);
+        }
+    }
+
+    @Test
+    void comparisons() {
+        Table table = sample();
+        Expr typed = Expr.col(0, ColumnType.INT);
+        Expr untyped = Expr.col(0);
+        assertSame(table, typed.gt(50), row -> (int) row.getValue(0) > 50);
+        assertSame(table, untyped.gt(50), row -> (int) row.getValue(0) > 50);
+        assertSame(table, typed.le(50L), row -> (int) row.getValue(0) <= 50);
+        assertSame(table, untyped.eq(7L), row -> (int) row.getValue(0) == 7);
+        assertSame(table, untyped.ne(7.0), row -> (int) row.getValue(0) != 7);
+        assertSame(table, typed.lt(30.5), row -> (int) row.getValue(0) < 30.5);
+        assertSame(table, Expr.col(2, ColumnType.DOUBLE).ge(typed), row -> (double) row.getValue(2) >= (int) row.getValue(0));
+        assertSame(table, Expr.col(3, ColumnType.LONG).lt(Expr.col(0, ColumnType.INT).times(10)),
+                row -> (long) row.getValue(3) < (int) row.getValue(0) * 10L);
+        assertSame(table, Expr.col(1).eq("red"), row -> row.getValue(1).equals("red"));
+        assertSame(table, Expr.col(1).gt("c"), row -> row.getValue(1).equals("red"));
+        assertSame(table, Expr.col(1).lt(3), row -> false);
+    }
+
+    @Test
+    void logic() {
+        Table table = sample();
+        Expr red = Expr.col(1).eq("red");
+        Expr small = Expr.col(0, ColumnType.INT).lt(10);
+        assertSame(table, red.and(small), row -> row.getValue(1).equals("red") && (int) row.getValue(0) < 10);
+        assertSame(table, red.or(small), row -> row.getValue(1).equals("red") || (int) row.getValue(0) < 10);
+        assertSame(table, red.not(), row -> !row.getValue(1).equals("red"));
+        assertSame(table, Expr.lit(true), row -> true);
+        assertThrows(IllegalStateException.class, () -> Expr.col(0, ColumnType.INT).toPredicate());
+        assertThrows(IllegalStateException.class, () -> Expr.col(0).and(Expr.lit(3)).toPredicate());
+    }
+
+    @Test
+    void arithmetic() {
+        Table table = sample();
+        assertSame(table, Expr.col(0, ColumnType.INT).plus(1).div(2).eq(5), row -> ((int) row.getValue(0) + 1) / 2 == 5);
+        assertSame(table, Expr.col(0).minus(1).times(0.5).gt(20), row -> ((int) row.getValue(0) - 1) * 0.5 > 20);
+        assertSame(table, Expr.col(0).div(Expr.col(0).plus(1)).eq(0), row -> true);
+        assertThrows(ArithmeticException.class, () -> Expr.col(0).div(Expr.col(0)).eq(1).toPredicate().test(table.row(0)));
+        assertDoesNotThrow(() -> Expr.lit(1).div(0));
+        assertEquals("(1 / 0)", Expr.lit(1).div(0).toString());
+        assertEquals("Infinity", Expr.lit(1.0).div(0).toString());
+        assertThrows(IllegalStateException.class, () -> Expr.col(0).plus("a").eq(1).toPredicate());
+        assertEquals("col(0) > 10", Expr.col(0).gt(Expr.lit(5).times(2)).toString());
+        assertEquals("(col(0):INT + 1) < 2.5", Expr.col(0, ColumnType.INT).plus(1).lt(Expr.lit(5.0).div(2)).toString());
+    }
+
+    @Test
+    void in() {
+        Table table = sample();
+        assertSame(table, Expr.col(0, ColumnType.INT).in(5, 3L, 90), row -> java.util.Set.of(3, 5, 90).contains((int) row.getValue(0)));
+        assertSame(table, Expr.col(0).in(5, 3L, 90.0), row -> java.util.Set.of(3, 5, 90).contains((int) row.getValue(0)));
+        assertSame(table, Expr.col(2, ColumnType.DOUBLE).in(1.5, 2), row -> (double) row.getValue(2) == 1.5 || (double) row.getValue(2) == 2);
+        assertSame(table, Expr.col(1).in("red", "green"), row -> row.getValue(1).equals("red"));
+        assertEquals("col(1) in ['red', 2]", Expr.col(1).in("red", 2).toString());
+        Predicate<Object> zeros = Expr.value(ColumnType.DOUBLE).in(-0.0, Double.NaN).toPredicate();
+        Predicate<Object> equal = Expr.value(ColumnType.DOUBLE).eq(0.0).toPredicate();
+        for (double v : new double[] {0.0, -0.0, Double.NaN, 1.0}) {
+            assertEquals(equal.test(v), zeros.test(v), "in on " + v);
+        }
+        assertFalse(Expr.value(ColumnType.DOUBLE).in(Double.NaN).toPredicate().test(Double.NaN));
+    }
+
+    @Test
+    void missing() {
+        Predicate<Object> predicate = Expr.col(2, ColumnType.INT).gt(0).toPredicate();
+        assertFalse(predicate.test(new Tuple(1, 2)));
+        assertFalse(predicate.test(new Tuple(1, 2, "x")));
+        assertFalse(predicate.test(new Tuple(1, 2, 3L)));
+        assertTrue(predicate.test(new Tuple(1, 2, 3)));
+        assertTrue(Expr.col(2, ColumnType.INT).gt(0).not().toPredicate().test(new Tuple(1)));
+        assertThrows(ArithmeticException.class, () -> Expr.col(0, ColumnType.INT).div(0).eq(0).toPredicate().test(new Tuple(1)));
+        assertFalse(Expr.col(0).plus(1).gt(0).toPredicate().test(new Tuple("x")));
+        assertFalse(Expr.col(0).toPredicate().test(new Tuple(1)));
+        assertFalse(Expr.col(0).toPredicate().test("x"));
+        assertThrows(IllegalArgumentException.class, () -> Expr.col(-1));
+        assertThrows(NullPointerException.class, () -> Expr.lit(null));
+    }
+
+    @Test
+    void branches() {
+        Expr untyped = Expr.col(0).eq(Expr.lit(1)).or(Expr.col(1).eq(Expr.lit("x")));
+        assertTrue(untyped.toPredicate().test(new Tuple(1)));
+        assertTrue(untyped.toPredicate().test(new Tuple(2, "x")));
+        assertFalse(untyped.toPredicate().test(new Tuple(2)));
+        Expr typed = Expr.col(0, ColumnType.INT).gt(0).or(Expr.col(1, ColumnType.DOUBLE).lt(0.0));
+        assertTrue(typed.toPredicate().test(new Tuple(1)));
+        assertTrue(typed.toPredicate().test(new Tuple("a", -1.0)));
+        assertTrue(typed.toPredicate().test(new Tuple(1, "b")));
+        assertFalse(typed.toPredicate().test(new Tuple("a", "b")));
+        assertFalse(typed.toPredicate().test(new Tuple(1L, -1)));
+        Expr mixed = Expr.col(0).plus(1).gt(1).or(Expr.col(1).in("x"));
+        assertTrue(mixed.toPredicate().test(new Tuple("a", "x")));
+        assertTrue(mixed.toPredicate().test(new Tuple(1, 2)));
+        assertFalse(mixed.toPredicate().test(new Tuple("a", 2)));
+        assertTrue(Expr.col(0).and(Expr.col(1).eq(1)).not().toPredicate().test(new Tuple(true)));
+        assertTrue(Expr.col(0).or(Expr.col(1).eq(1)).toPredicate().test(new Tuple(true)));
+        assertTrue(Expr.col(0).not().or(Expr.col(1).eq(1)).toPredicate().test(new Tuple("x", 1)));
+    }
+
+    @Test
+    void compiled() {
+        Predicate<Object> a = Expr.col(0, ColumnType.INT).gt(1).toPredicate();
+        Predicate<Object> b = Expr.col(0, ColumnType.INT).gt(1).toPredicate();
+        assertTrue(a.getClass().isHidden());
+        assertNotSame(a.getClass(), b.getClass());
+        assertTrue(a.test(new Tuple(2)));
+        assertFalse(b.test(new Tuple(1)));
+    }
+
+    @Test
+    void value() {
+        Tuple tuple = new Tuple(1, 2.5, "x", 4, -3L);
+        assertEquals("[1, 4]", tuple.filter(Expr.value(ColumnType.INT).gt(0)).toString());
+        assertEquals("[1, 2.5, 4]", tuple.filter(Expr.value().gt(0)).toString());
+        assertEquals("[x]", tuple.filter(Expr.value().eq("x")).toString());
+        assertEquals("[-3]", ((Tuple) tuple.filter(Expr.value().lt(0).toPredicate())).toString());
+    }
+}
@@ -0,0 +1,161 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSortTest {
+
+    @TempDir
+    Path tempDirectory;
+
+    private static List<Tuple> drain(Iterator<Tuple> rows) {
+        List<Tuple> result = new ArrayList<>();
+        rows.forEachRemaining(result::add);
+        return result;
+    }
+
+    private long spilledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(this.tempDirectory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void inMemory() throws IOException {
+        ExternalSort sort = new ExternalSort(0);
+        sort.setTempDirectory(this.tempDirectory);
+        Table table = new Table(new Tuple(3, "c"), new Tuple(1, "a"), new Tuple(2, "b"));
+        try (ExternalSort.Rows rows = sort.sort(table.iterator())) {
+            assertEquals(0, this.spilledFiles());
+            assertEquals("[[1, a], [2, b], [3, c]]", drain(rows).toString());
+        }
+        assertFalse(sort.sort(new Table().iterator()).hasNext());
+        assertEquals("[[1], [2]]", drain(sort.sort(List.of(2, 1).iterator())).toString());
+    }
+
+    @Test
+    void spilled() throws IOException {
+        ExternalSort sort = new ExternalSort(0, 1);
+        sort.setMemoryBudget(4096);
+        sort.setTempDirectory(this.tempDirectory);
+        assertEquals(4096, sort.getMemoryBudget());
+        assertEquals(this.tempDirectory, sort.getTempDirectory());
+        List<Tuple> input = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            input.add(new Tuple((i * 7919) % 100, (long) -i, "row" + i, i % 2 == 0, new Tuple(1.5, 'c')));
+        }
+        ExternalSort.Rows rows = sort.sort(input.iterator());
+        assertTrue(this.spilledFiles() > 1);
+        List<Tuple> sorted = drain(rows);
+        assertEquals(0, this.spilledFiles());
+        assertEquals(5000, sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            int previous = sorted.get(i - 1).getValue(0);
+            int current = sorted.get(i).getValue(0);
+            assertTrue(previous < current || previous == current
+                    && (long) sorted.get(i - 1).getValue(1) < (long) sorted.get(i).getValue(1));
+        }
+        Tuple first = sorted.get(0);
+        assertEquals(0, (int) first.getValue(0));
+        assertEquals(-4900L, (long) first.getValue(1));
+        assertEquals("row4900", first.getValue(2));
+        assertEquals(true, first.getValue(3));
+        assertEquals("[1.5, c]", first.getValue(4).toString());
+        assertThrows(NoSuchElementException.class, rows::next);
+    }
+
+    @Test
+    void stable() {
+        ExternalSort sort = new ExternalSort(Comparator.comparingInt(row -> row.<Integer>getValue(0) % 10));
+        sort.setMemoryBudget(1024);
+        sort.setTempDirectory(this.tempDirectory);
+        List<Tuple> input = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            input.add(new Tuple(i));
+        }
+        List<Tuple> sorted = drain(sort.sort(input.iterator()));
+        for (int i = 1; i < sorted.size(); i++) {
+            int previous = sorted.get(i - 1).getValue(0);
+            int current = sorted.get(i).getValue(0);
+            assertTrue(previous % 10 < current % 10 || previous % 10 == current % 10 && previous < current);
+        }
+    }
+
+    @Test
+    void passes() throws IOException {
+        ExternalSort sort = new ExternalSort(Comparator.comparingInt(row -> row.<Integer>getValue(0) % 10));
+        sort.setMemoryBudget(1);
+        sort.setTempDirectory(this.tempDirectory);
+        int count = 3 * ExternalSort.MAX_FAN_IN * ExternalSort.MAX_FAN_IN / 2;
+        List<Tuple> input = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            input.add(new Tuple(i));
+        }
+        ExternalSort.Rows rows = sort.sort(input.iterator());
+        assertTrue(this.spilledFiles() <= ExternalSort.MAX_FAN_IN);
+        List<Tuple> sorted = drain(rows);
+        assertEquals(count, sorted.size());
+        assertEquals(0, this.spilledFiles());
+        for (int i = 1; i < sorted.size(); i++) {
+            int previous = sorted.get(i - 1).getValue(0);
+            int current = sorted.get(i).getValue(0);
+            assertTrue(previous % 10 < current % 10 || previous % 10 == current % 10 && previous < current);
+        }
+    }
+
+    @Test
+    void distinct() {
+        ExternalSort sort = new ExternalSort(0);
+        sort.setMemoryBudget(512);
+        sort.setTempDirectory(this.tempDirectory);
+        sort.setDistinct(true);
+        assertTrue(sort.isDistinct());
+        List<Tuple> input = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            input.add(new Tuple(i % 7, i));
+        }
+        List<Tuple> sorted = drain(sort.sort(input.iterator()));
+        assertEquals("[[0, 0], [1, 1], [2, 2], [3, 3], [4, 4], [5, 5], [6, 6]]", sorted.toString());
+    }
+
+    @Test
+    void close() throws IOException {
+        ExternalSort sort = new ExternalSort(0);
+        sort.setMemoryBudget(512);
+        sort.setTempDirectory(this.tempDirectory);
+        List<Tuple> input = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            input.add(new Tuple(300 - i));
+        }
+        ExternalSort.Rows rows = sort.sort(input.iterator());
+        assertEquals(1, (int) rows.next().getValue(0));
+        rows.close();
+        assertEquals(0, this.spilledFiles());
+        assertFalse(rows.hasNext());
+    }
+
+    @Test
+    void invalid() throws IOException {
+        assertThrows(IllegalArgumentException.class, ExternalSort::new);
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(-1));
+        ExternalSort sort = new ExternalSort(0);
+        assertThrows(IllegalArgumentException.class, () -> sort.setMemoryBudget(0));
+        sort.setMemoryBudget(64);
+        sort.setTempDirectory(this.tempDirectory);
+        Iterator<Tuple> rows = List.of(new Tuple(1), new Tuple(0, new Object())).iterator();
+        assertThrows(IllegalArgumentException.class, () -> sort.sort(rows));
+        assertEquals(0, this.spilledFiles());
+    }
+}
@@ -0,0 +1,89 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static ch.mazluc.data.Aggregator.avg;
+import static ch.mazluc.data.Aggregator.count;
+import static ch.mazluc.data.Aggregator.max;
+import static ch.mazluc.data.Aggregator.min;
+import static ch.mazluc.data.Aggregator.sum;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupByTest {
+
+    private static Table sales() {
+        return new Table(
+                new Tuple("north", 10, 2.5),
+                new Tuple("south", 4, 1.0),
+                new Tuple("north", 6L, "n/a"),
+                new Tuple("east"),
+                new Tuple("south", -1, 0.5),
+                new Tuple(7, 1, 1.5)
+        );
+    }
+
+    @Test
+    void aggregate() {
+        Table result = sales().groupBy(0).aggregate(count(), sum(1), sum(2), avg(1), min(2), max(1));
+        assertEquals("[north, 2, 16, 2.5, 8.0, 2.5, 10]\n"
+                + "[south, 2, 3, 1.5, 1.5, 0.5, 4]\n"
+                + "[east, 1, 0, 0, NaN, NaN, NaN]\n"
+                + "[7, 1, 1, 1.5, 1.0, 1.5, 1]\n", result.toString());
+        assertEquals(Long.class, result.getValue(0, 2).getClass());
+        assertEquals(Double.class, result.getValue(0, 3).getClass());
+        assertEquals("[north]\n[south]\n[east]\n[7]\n", sales().groupBy(0).aggregate().toString());
+        assertEquals("[10, 1]\n[4, 1]\n[6, 1]\n[-1, 1]\n[1, 1]\n", sales().groupBy(1).aggregate(count()).toString());
+        assertEquals(0, new Table().groupBy(0).aggregate(count()).length());
+        assertThrows(IllegalArgumentException.class, () -> sales().groupBy(-1));
+        assertThrows(IllegalArgumentException.class, () -> sum(-1));
+    }
+
+    @Test
+    void minMax() {
+        Table table = new Table(
+                new Tuple(0, 3),
+                new Tuple(0, 2.5),
+                new Tuple(0, "a"),
+                new Tuple(0, 9L),
+                new Tuple(0, new Tuple())
+        );
+        assertEquals("[0, 2.5, a]\n", table.groupBy(0).aggregate(min(1), max(1)).toString());
+    }
+
+    @Test
+    void custom() {
+        Aggregator<Set<Object>> distinct = Aggregator.of(
+                HashSet::new,
+                (set, row) -> set.add(row.getValue(1)),
+                (set, other) -> {
+                    set.addAll(other);
+                    return set;
+                },
+                Set::size);
+        Table table = new Table();
+        for (int i = 0; i < 1000; i++) {
+            table.push(new Tuple(i % 3, i % 10));
+        }
+        assertEquals("[0, 10]\n[1, 10]\n[2, 10]\n", table.groupBy(0).aggregate(distinct).toString());
+        Aggregator<Object> none = Aggregator.of(Object::new, (a, row) -> { }, (a, b) -> a, a -> null);
+        assertThrows(IllegalArgumentException.class, () -> table.groupBy(0).aggregate(none));
+    }
+
+    @Test
+    void parallel() {
+        Table table = new Table();
+        for (int i = 0; i < 50000; i++) {
+            table.push(new Tuple("k" + (i * 7) % 101, i, i % 2 == 0 ? (double) i : (long) i));
+        }
+        String sequential = table.groupBy(0).aggregate(count(), sum(1), sum(2), avg(2), min(1), max(2)).toString();
+        table.setParallelThreshold(1);
+        assertEquals(sequential, table.groupBy(0).aggregate(count(), sum(1), sum(2), avg(2), min(1), max(2)).toString());
+        Table result = table.groupBy(0).aggregate(count());
+        assertEquals(101, result.length());
+        assertEquals("k0", result.getValue(0, 0));
+        assertEquals("k7", result.getValue(1, 0));
+    }
+}
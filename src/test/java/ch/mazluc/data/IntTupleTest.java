@@ -0,0 +1,185 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntTupleTest {
+
+    @Test
+    void length() {
+        IntTuple tuple = new IntTuple();
+        assertEquals(0, tuple.length());
+        assertTrue(tuple.isEmpty());
+        tuple.push(1);
+        tuple.push(2);
+        assertEquals(2, tuple.length());
+        assertFalse(tuple.isEmpty());
+    }
+
+    @Test
+    void push() {
+        Data tuple = new IntTuple();
+        tuple.push(1);
+        tuple.push((short) 2);
+        tuple.push(null);
+        assertEquals("[1, 2]", tuple.toString());
+        assertThrows(IllegalArgumentException.class, () -> tuple.push(3L));
+        assertThrows(IllegalArgumentException.class, () -> tuple.push("4"));
+    }
+
+    @Test
+    void getInt() {
+        IntTuple tuple = new IntTuple(4, 5, 6);
+        assertEquals(4, tuple.getInt(0));
+        assertEquals(6, tuple.getInt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.getInt(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.getInt(-1));
+    }
+
+    @Test
+    void contains() {
+        IntTuple tuple = new IntTuple(1, 2, 3);
+        assertTrue(tuple.contains(2));
+        assertTrue(tuple.contains(Integer.valueOf(2)));
+        assertFalse(tuple.contains(Long.valueOf(2)));
+        assertFalse(tuple.contains("2"));
+        assertFalse(tuple.contains(null));
+        assertEquals(2, tuple.indexOf(3));
+        assertEquals(-1, tuple.indexOf(4));
+    }
+
+    @Test
+    void insertReplaceRemove() {
+        IntTuple tuple = new IntTuple(1, 3);
+        tuple.insert(1, 2);
+        tuple.insert(3, 4);
+        assertEquals("[1, 2, 3, 4]", tuple.toString());
+        tuple.replace(0, 0);
+        tuple.remove(3);
+        assertEquals("[0, 2, 3]", tuple.toString());
+        tuple.swap(0, 2);
+        assertEquals("[3, 2, 0]", tuple.toString());
+        tuple.pop();
+        assertEquals("[3, 2]", tuple.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.insert(5, 1));
+        tuple.clear();
+        assertTrue(tuple.isEmpty());
+        tuple.pop();
+        tuple.remove(0);
+    }
+
+    @Test
+    void aggregates() {
+        IntTuple tuple = new IntTuple(Integer.MAX_VALUE, Integer.MAX_VALUE, -7);
+        assertEquals(2L * Integer.MAX_VALUE - 7, tuple.sum());
+        assertEquals(-7, tuple.min());
+        assertEquals(Integer.MAX_VALUE, tuple.max());
+        assertEquals(0, new IntTuple().sum());
+        assertThrows(NoSuchElementException.class, () -> new IntTuple().min());
+        assertThrows(NoSuchElementException.class, () -> new IntTuple().max());
+    }
+
+    @Test
+    void conversion() {
+        Tuple boxed = new Tuple(1, 2, (byte) 3);
+        IntTuple tuple = IntTuple.from(boxed);
+        assertEquals(new IntTuple(1, 2, 3), tuple);
+        assertEquals(new Tuple(1, 2, 3), tuple.toTuple());
+        assertEquals(new Tuple(1, 2, 3).hashCode(), tuple.hashCode());
+        assertThrows(IllegalArgumentException.class, () -> IntTuple.from(new Tuple(1, "2")));
+        assertArrayEquals(new int[]{1, 2, 3}, tuple.toArray());
+    }
+
+    @Test
+    void slice() {
+        IntTuple tuple = new IntTuple(0, 1, 2, 3, 4, 5);
+        tuple.slice(1, 4);
+        assertEquals("[1, 2, 3]", tuple.toString());
+        tuple.slice(-1, 10);
+        assertEquals("[1, 2, 3]", tuple.toString());
+        assertThrows(IllegalArgumentException.class, () -> tuple.slice(2, 1));
+    }
+
+    @Test
+    void join() {
+        IntTuple tuple = new IntTuple(0, 1);
+        tuple.join(new IntTuple(2, 3), new Tuple(4), new IntTuple());
+        assertEquals("[0, 1, 2, 3]", tuple.toString());
+        tuple.join(tuple);
+        assertEquals("[0, 1, 2, 3, 0, 1, 2, 3]", tuple.toString());
+    }
+
+    @Test
+    void setOperations() {
+        IntTuple all = IntTuple.withCapacity(1000);
+        IntTuple evens = new IntTuple();
+        for (int i = 0; i < 1000; i++) {
+            all.push(i);
+            if (i % 2 == 0) {
+                evens.push(i);
+            }
+        }
+        assertTrue(evens.isSubsetOf(all));
+        assertTrue(all.isSupersetOf(evens));
+        assertFalse(all.isSubsetOf(evens));
+        IntTuple odds = (IntTuple) all.subtract(evens);
+        assertEquals(500, odds.length());
+        assertTrue(odds.isDisjoint(evens));
+        assertFalse(odds.isDisjoint(all));
+        assertEquals(1000, ((IntTuple) odds.symmetricDifference(evens)).length());
+        assertThrows(IllegalArgumentException.class, () -> all.isSubsetOf(new Tuple(1)));
+    }
+
+    @Test
+    void filter() {
+        IntTuple tuple = new IntTuple(-2, -1, 0, 1, 2);
+        assertEquals("[1, 2]", tuple.filterInt(v -> v > 0).toString());
+        assertEquals("[-2, 0, 2]", tuple.filter(o -> (int) o % 2 == 0).toString());
+    }
+
+    @Test
+    void select() {
+        IntTuple tuple = new IntTuple();
+        for (int i = 0; i < 100; i++) {
+            tuple.push(i % 10);
+        }
+        Selection selection = tuple.select(Comparison.EQ, 3);
+        assertEquals(10, selection.cardinality());
+        assertEquals(100, selection.length());
+        assertEquals(selection, tuple.select(Comparison.GE, 3).and(tuple.select(Comparison.LE, 3)));
+        assertEquals(23, selection.nextSelected(14));
+        assertEquals(90, tuple.select(Comparison.NE, 3).cardinality());
+        assertEquals(0, new IntTuple().select(Comparison.GE, 0).cardinality());
+        assertEquals(99, tuple.indexOf(9) + 90);
+        assertEquals(-1, tuple.indexOf(10));
+    }
+
+    @Test
+    void iterator() {
+        IntTuple tuple = new IntTuple(1, 2, 3);
+        int sum = 0;
+        for (Object value : tuple) {
+            sum += (Integer) value;
+        }
+        assertEquals(6, sum);
+    }
+
+    @Test
+    void stream() {
+        IntTuple tuple = new IntTuple(1, 2, 3, 4);
+        tuple.pop();
+        tuple.push(4);
+        assertEquals(10, tuple.intStream().sum());
+        assertEquals(10, tuple.intStream().parallel().sum());
+        assertEquals(4, tuple.intStream().count());
+        assertTrue(tuple.intStream().spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertTrue(tuple.spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(4, tuple.stream().count());
+        assertTrue(tuple.stream().allMatch(Integer.class::isInstance));
+        assertEquals(0, new IntTuple().intStream().count());
+    }
+}
@@ -0,0 +1,106 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongTupleTest {
+
+    @Test
+    void push() {
+        Data tuple = new LongTuple();
+        tuple.push(1L);
+        tuple.push(2);
+        tuple.push(null);
+        assertEquals("[1, 2]", tuple.toString());
+        assertEquals(2, tuple.length());
+        assertThrows(IllegalArgumentException.class, () -> tuple.push(3.0));
+    }
+
+    @Test
+    void getLong() {
+        LongTuple tuple = new LongTuple(4L, 5L, Long.MAX_VALUE);
+        assertEquals(4L, tuple.getLong(0));
+        assertEquals(Long.MAX_VALUE, tuple.getLong(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.getLong(3));
+    }
+
+    @Test
+    void contains() {
+        LongTuple tuple = new LongTuple(1L, 2L, 3L);
+        assertTrue(tuple.contains(2L));
+        assertTrue(tuple.contains(Integer.valueOf(2)));
+        assertFalse(tuple.contains(2.0));
+        assertEquals(2, tuple.indexOf(3L));
+        assertEquals(-1, tuple.indexOf(4L));
+    }
+
+    @Test
+    void aggregates() {
+        LongTuple tuple = new LongTuple(10L, -3L, 7L);
+        assertEquals(14L, tuple.sum());
+        assertEquals(-3L, tuple.min());
+        assertEquals(10L, tuple.max());
+        assertThrows(NoSuchElementException.class, () -> new LongTuple().min());
+    }
+
+    @Test
+    void conversion() {
+        LongTuple tuple = LongTuple.from(new Tuple(1L, 2, 3L));
+        assertEquals(new LongTuple(1L, 2L, 3L), tuple);
+        assertEquals(new Tuple(1L, 2L, 3L).toString(), tuple.toTuple().toString());
+        assertEquals(Long.class, tuple.toTuple().getValue(1).getClass());
+        assertThrows(IllegalArgumentException.class, () -> LongTuple.from(new Tuple(1.5)));
+    }
+
+    @Test
+    void setOperations() {
+        LongTuple all = new LongTuple();
+        LongTuple evens = new LongTuple();
+        for (long i = 0; i < 1000; i++) {
+            all.push(i);
+            if (i % 2 == 0) {
+                evens.push(i);
+            }
+        }
+        assertTrue(evens.isSubsetOf(all));
+        assertFalse(all.isSubsetOf(evens));
+        LongTuple odds = (LongTuple) all.subtract(evens);
+        assertEquals(500, odds.length());
+        assertTrue(odds.isDisjoint(evens));
+    }
+
+    @Test
+    void filter() {
+        LongTuple tuple = new LongTuple(-2L, -1L, 0L, 1L, 2L);
+        assertEquals("[1, 2]", tuple.filterLong(v -> v > 0).toString());
+        assertEquals("[-2, -1]", tuple.filter(o -> (long) o < 0).toString());
+    }
+
+    @Test
+    void select() {
+        LongTuple tuple = new LongTuple(-2L, -1L, 0L, 1L, 2L, Long.MAX_VALUE, Long.MIN_VALUE);
+        assertEquals("[3, 4, 5]", tuple.select(Comparison.GT, 0L).toString());
+        assertEquals("[0, 1, 6]", tuple.select(Comparison.LE, -1L).toString());
+        assertEquals(Long.MIN_VALUE, tuple.min());
+        assertEquals(6, tuple.indexOf(Long.MIN_VALUE));
+    }
+
+    @Test
+    void stream() {
+        LongTuple tuple = new LongTuple(1L, 2L, 3L, 4L);
+        tuple.pop();
+        tuple.push(4L);
+        assertEquals(10L, tuple.longStream().sum());
+        assertEquals(10L, tuple.longStream().parallel().sum());
+        assertEquals(4, tuple.longStream().count());
+        assertTrue(tuple.longStream().spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertTrue(tuple.spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(4, tuple.stream().count());
+        assertTrue(tuple.stream().allMatch(Long.class::isInstance));
+        assertEquals(0, new LongTuple().longStream().count());
+    }
+}
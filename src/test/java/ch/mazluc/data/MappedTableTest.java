@@ -0,0 +1,113 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTableTest {
+
+    @TempDir
+    Path tempDirectory;
+
+    private static Table sample() {
+        Table table = new Table();
+        for (int i = 0; i < 1000; i++) {
+            table.push(i % 100 == 0 ? new Tuple(i, "row" + i, i * 0.5, new Tuple(i, "nested")) : new Tuple(i, "row" + i, i * 0.5));
+        }
+        table.push(new Tuple());
+        table.push(new Tuple("short"));
+        return table;
+    }
+
+    private MappedTable mapped(Table table) throws IOException {
+        Path path = this.tempDirectory.resolve("table" + table.length() + ".bdat");
+        MappedTable.write(table, path);
+        return MappedTable.open(path);
+    }
+
+    @Test
+    void getValue() throws IOException {
+        Table table = sample();
+        MappedTable mapped = this.mapped(table);
+        assertEquals(1002, mapped.length());
+        assertFalse(mapped.isEmpty());
+        assertEquals("row500", mapped.getValue(500, 1));
+        assertEquals(250.0, (double) mapped.getValue(500, 2));
+        assertEquals("[500, nested]", mapped.getValue(500, 3).toString());
+        assertEquals(3, mapped.rowLength(999));
+        assertEquals(4, mapped.rowLength(900));
+        assertEquals(0, mapped.rowLength(1000));
+        assertEquals("[short]", mapped.getRow(1001).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> mapped.getValue(1000, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> mapped.getValue(1002, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> mapped.getValue(0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> mapped.getValue(1, 3));
+    }
+
+    @Test
+    void iterate() throws IOException {
+        Table table = sample();
+        MappedTable mapped = this.mapped(table);
+        assertEquals(table.toString(), mapped.toString());
+        assertEquals(table.toString(), mapped.toTable().toString());
+        assertEquals(1002, mapped.parallelStream().count());
+        assertEquals(table.toString(), this.mapped(mapped.toTable()).toString());
+        MappedTable empty = this.mapped(new Table());
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.iterator().hasNext());
+        assertEquals("", empty.toString());
+    }
+
+    @Test
+    void dataOperations() throws IOException {
+        MappedTable mapped = this.mapped(sample());
+        assertTrue(mapped.contains(new Tuple(7, "row7", 3.5)));
+        assertFalse(mapped.contains(new Tuple(7, "row7")));
+        assertTrue(mapped.contains("row999"));
+        assertFalse(mapped.contains("row1000"));
+        assertEquals(10, ((Tuple) mapped.filter(v -> v instanceof String s && s.endsWith("99"))).length());
+        Table firstRows = new Table(new Tuple(1, "row1", 0.5), new Tuple());
+        MappedTable subset = this.mapped(firstRows);
+        assertTrue(subset.isSubsetOf(mapped));
+        assertTrue(mapped.isSupersetOf(subset));
+        assertFalse(mapped.isSubsetOf(subset));
+        assertEquals(1000, ((Table) mapped.subtract(subset)).length());
+        assertFalse(mapped.isDisjoint(subset));
+        assertTrue(subset.isDisjoint(this.mapped(new Table(new Tuple("other")))));
+        assertThrows(IllegalArgumentException.class, () -> mapped.isSubsetOf(sample()));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.push(new Tuple()));
+        assertThrows(UnsupportedOperationException.class, mapped::pop);
+        assertThrows(UnsupportedOperationException.class, mapped::clear);
+    }
+
+    @Test
+    void invalid() throws IOException {
+        Path path = this.tempDirectory.resolve("invalid");
+        Files.write(path, new byte[10]);
+        assertThrows(IOException.class, () -> MappedTable.open(path));
+        Files.write(path, new byte[64]);
+        assertThrows(IOException.class, () -> MappedTable.open(path));
+        MappedTable.write(sample(), path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[4]++;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> MappedTable.open(path));
+        MappedTable.write(sample(), path);
+        bytes = Files.readAllBytes(path);
+        // A row count whose directory size overflows a long
+        ByteBuffer.wrap(bytes).putLong(8, 1L << 61);
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> MappedTable.open(path));
+        ByteBuffer.wrap(bytes).putLong(8, 1L << 40);
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> MappedTable.open(path));
+        assertThrows(IllegalArgumentException.class, () -> MappedTable.write(new Table(new Tuple(new Object())), path));
+        assertFalse(Files.exists(path));
+    }
+}
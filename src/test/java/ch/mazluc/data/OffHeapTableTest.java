@@ -0,0 +1,174 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTableTest {
+
+    private static OffHeapTable sample(int rows) {
+        OffHeapTable table = new OffHeapTable(ColumnType.INT, ColumnType.LONG, ColumnType.DOUBLE, ColumnType.OBJECT);
+        for (int i = 0; i < rows; i++) {
+            table.push(new Tuple(i, (long) i * 3, i * 0.5, "row" + i));
+        }
+        return table;
+    }
+
+    @Test
+    void typedAccessors() {
+        try (OffHeapTable table = sample(OffHeapTable.CHUNK_ROWS + 10)) {
+            assertEquals(OffHeapTable.CHUNK_ROWS + 10, table.length());
+            assertEquals(4, table.width());
+            int last = OffHeapTable.CHUNK_ROWS + 9;
+            assertEquals(last, table.getInt(last, 0));
+            assertEquals(last * 3L, table.getLong(last, 1));
+            assertEquals(last * 0.5, table.getDouble(last, 2));
+            assertEquals("row" + last, table.getString(last, 3));
+            assertEquals(7, (int) table.getValue(7, 0));
+            assertEquals("row7", table.getValue(7, 3));
+            assertEquals(List.of(5, 15L, 2.5, "row5"), table.getRow(5).valueList());
+            assertThrows(IllegalArgumentException.class, () -> table.getInt(0, 1));
+            assertThrows(IllegalArgumentException.class, () -> table.getString(0, 0));
+            assertThrows(IndexOutOfBoundsException.class, () -> table.getInt(last + 1, 0));
+            assertThrows(IndexOutOfBoundsException.class, () -> table.getInt(-1, 0));
+        }
+    }
+
+    @Test
+    void push() {
+        OffHeapTable table = new OffHeapTable(ColumnType.OBJECT);
+        table.push("single");
+        table.push(new Tuple(new Tuple(1, "nested")));
+        assertEquals("single", table.getString(0, 0));
+        assertEquals("[1, nested]", table.getValue(1, 0).toString());
+        assertThrows(IllegalArgumentException.class, () -> table.push(new Tuple(1, 2)));
+        OffHeapTable typed = new OffHeapTable(ColumnType.INT);
+        assertThrows(IllegalArgumentException.class, () -> typed.push("a"));
+        assertThrows(IllegalArgumentException.class, () -> typed.push(1L));
+        assertTrue(typed.isEmpty());
+    }
+
+    @Test
+    void largeValues() {
+        OffHeapTable table = new OffHeapTable(ColumnType.OBJECT);
+        String large = "x".repeat(3 << 20);
+        table.push("small");
+        table.push(large);
+        table.push("after");
+        assertEquals("small", table.getString(0, 0));
+        assertEquals(large, table.getString(1, 0));
+        assertEquals("after", table.getString(2, 0));
+    }
+
+    @Test
+    void modify() {
+        OffHeapTable table = sample(10);
+        table.swap(0, 9);
+        assertEquals(9, table.getInt(0, 0));
+        assertEquals("row9", table.getString(0, 3));
+        assertEquals("row0", table.getString(9, 3));
+        table.replace(1, new Tuple(-1, -1L, -1.0, "replaced"));
+        assertEquals(List.of(-1, -1L, -1.0, "replaced"), table.getRow(1).valueList());
+        table.pop();
+        assertEquals(9, table.length());
+        table.slice(2, 5);
+        assertEquals(3, table.length());
+        assertEquals("row2", table.getString(0, 3));
+        assertEquals(4, table.getInt(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.slice(2, 1));
+        table.slice(-1, 100);
+        assertEquals(3, table.length());
+        assertEquals("row2", table.getString(0, 3));
+        table.join(sample(2), new Table(new Tuple(7, 7L, 7.0, "seven")));
+        assertEquals(6, table.length());
+        assertEquals("seven", table.getString(5, 3));
+        table.join(table);
+        assertEquals(12, table.length());
+        assertEquals("row2", table.getString(6, 3));
+        assertEquals("seven", table.getString(11, 3));
+        table.clear();
+        assertTrue(table.isEmpty());
+        table.push(new Tuple(1, 2L, 3.0, "again"));
+        assertEquals("again", table.getString(0, 3));
+    }
+
+    @Test
+    void fromTable() {
+        Table source = new Table();
+        for (int i = 0; i < 100; i++) {
+            source.push(new Tuple(i, "row" + i, i * 1.5));
+        }
+        OffHeapTable table = OffHeapTable.from(source);
+        assertEquals(ColumnType.INT, table.getColumnType(0));
+        assertEquals(ColumnType.OBJECT, table.getColumnType(1));
+        assertEquals(ColumnType.DOUBLE, table.getColumnType(2));
+        Table copy = table.toTable();
+        assertEquals(100, copy.length());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(source.row(i).valueList(), copy.row(i).valueList());
+        }
+        assertEquals(0, OffHeapTable.from(new Table()).length());
+    }
+
+    @Test
+    void dataOperations() {
+        OffHeapTable table = sample(10);
+        OffHeapTable smaller = sample(5);
+        assertTrue(table.contains(new Tuple(3, 9L, 1.5, "row3")));
+        assertFalse(table.contains(new Tuple(3, 9L, 1.5, "row4")));
+        assertTrue(table.contains("row8"));
+        assertTrue(table.contains(27L));
+        assertFalse(table.contains("missing"));
+        assertTrue(smaller.isSubsetOf(table));
+        assertTrue(table.isSupersetOf(smaller));
+        assertFalse(table.isSubsetOf(smaller));
+        OffHeapTable rest = (OffHeapTable) table.subtract(smaller);
+        assertEquals(5, rest.length());
+        assertEquals(5, rest.getInt(0, 0));
+        assertFalse(table.isDisjoint(smaller));
+        assertTrue(rest.isDisjoint(new OffHeapTable(ColumnType.INT)));
+        assertEquals(List.of("row1"), ((Tuple) table.filter("row1"::equals)).valueList());
+        assertThrows(IllegalArgumentException.class, () -> table.isSubsetOf(new Table()));
+    }
+
+    @Test
+    void iterate() {
+        OffHeapTable table = sample(100);
+        List<Object> rows = new ArrayList<>();
+        table.forEach(rows::add);
+        assertEquals(100, rows.size());
+        assertEquals(List.of(42, 126L, 21.0, "row42"), ((Tuple) rows.get(42)).valueList());
+        assertEquals(100, table.parallelStream().count());
+        assertTrue(table.toString().startsWith("[0, 0, 0.0, row0]\n"));
+    }
+
+    @Test
+    void close() {
+        OffHeapTable table = sample(3);
+        OffHeapTable other = sample(3);
+        Iterator<Object> rows = table.iterator();
+        table.close();
+        table.close();
+        assertThrows(IllegalStateException.class, () -> table.getInt(0, 0));
+        assertThrows(IllegalStateException.class, () -> table.push(new Tuple(1, 1L, 1.0, "a")));
+        assertThrows(IllegalStateException.class, table::clear);
+        assertThrows(IllegalStateException.class, table::length);
+        assertThrows(IllegalStateException.class, table::isEmpty);
+        assertThrows(IllegalStateException.class, table::iterator);
+        assertThrows(IllegalStateException.class, rows::hasNext);
+        assertThrows(IllegalStateException.class, rows::next);
+        assertThrows(IllegalStateException.class, table::spliterator);
+        assertThrows(IllegalStateException.class, () -> table.filter(value -> true));
+        assertThrows(IllegalStateException.class, table::toString);
+        assertThrows(IllegalStateException.class, table::toTable);
+        assertThrows(IllegalStateException.class, () -> table.isSubsetOf(other));
+        assertThrows(IllegalStateException.class, () -> other.isSubsetOf(table));
+        assertThrows(IllegalStateException.class, () -> table.subtract(other));
+        assertThrows(IllegalStateException.class, () -> table.isDisjoint(other));
+        assertThrows(IllegalStateException.class, () -> other.isDisjoint(table));
+    }
+}
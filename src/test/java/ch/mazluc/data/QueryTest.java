@@ -0,0 +1,111 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTest {
+
+    private static Table sample() {
+        Table table = new Table();
+        for (int i = 0; i < 100; i++) {
+            table.push(new Tuple(i, i % 3 == 0 ? "red" : "blue", (i * 37) % 100));
+        }
+        return table;
+    }
+
+    @Test
+    void toTable() {
+        Table table = sample();
+        assertEquals(table.toString(), table.query().toTable().toString());
+        assertEquals("[3, 11]\n[6, 22]\n[9, 33]\n", table.query()
+                .filter(row -> (int) row.getValue(0) > 0)
+                .where(1, "red")
+                .select(0, 2)
+                .limit(3)
+                .toTable().toString());
+        assertEquals("[22]\n", table.query()
+                .where(1, "red")
+                .select(2, 0)
+                .select(0)
+                .limit(5)
+                .limit(3)
+                .filter(row -> (int) row.getValue(0) > 20)
+                .toTable().toString());
+        assertEquals("[red]\n[blue]\n", table.query().select(1).distinct().toTable().toString());
+        assertEquals("[0]\n[2]\n[4]\n", table.query()
+                .map(row -> new Tuple((int) row.getValue(0) * 2))
+                .limit(3)
+                .toTable().toString());
+        assertEquals(34, table.query().where(1, "red").count());
+        assertEquals(0, table.query().limit(0).count());
+        assertThrows(IllegalArgumentException.class, () -> table.query().limit(-1));
+        assertThrows(IllegalArgumentException.class, () -> table.query().select(-1));
+        assertThrows(IllegalArgumentException.class, () -> table.query().select(0).select(1).toTable());
+    }
+
+    @Test
+    void filterExpr() {
+        Table table = sample();
+        Expr condition = Expr.col(0, ColumnType.INT).gt(90).and(Expr.col(1).eq("red"));
+        assertEquals("[93]\n[96]\n[99]\n", table.query().filter(condition).select(0).toTable().toString());
+        assertEquals("Pipeline 1: Scan(100 rows) -> Filter((col(0):INT > 90 and col(1) = 'red')) -> Project[0]\n",
+                table.query().filter(condition).select(0).explain());
+    }
+
+    @Test
+    void shortCircuit() {
+        AtomicInteger tested = new AtomicInteger();
+        Table table = sample();
+        assertEquals(2, table.query()
+                .filter(row -> tested.incrementAndGet() > 0)
+                .limit(2)
+                .count());
+        assertEquals(2, tested.get());
+    }
+
+    @Test
+    void sortBy() {
+        Table table = sample();
+        Table sorted = new Table();
+        sorted.join(table);
+        sorted.sortBy(2);
+        sorted.slice(0, 5);
+        assertEquals(sorted.toString(), table.query().sortBy(2).limit(5).toTable().toString());
+        assertEquals(sorted.toString(), table.query().sortBy(2).limit(10).limit(5).toTable().toString());
+        assertEquals(100, table.query().sortBy(2).toTable().length());
+        assertEquals("[0]\n[3]\n[6]\n[9]\n", table.query()
+                .sortBy(Comparator.comparing((Tuple row) -> (String) row.getValue(1)).reversed())
+                .limit(4)
+                .sortBy(1)
+                .select(0)
+                .toTable().toString());
+        assertEquals(0, table.query().sortBy(0).limit(0).count());
+        assertThrows(IllegalArgumentException.class, () -> table.query().sortBy());
+    }
+
+    @Test
+    void explain() {
+        Table table = sample();
+        Query query = table.query()
+                .where(1, "red")
+                .filter(row -> true)
+                .filter(row -> true)
+                .select(2, 0)
+                .select(1)
+                .sortBy(0)
+                .limit(4)
+                .distinct();
+        assertEquals("Pipeline 1: Scan(100 rows) -> Filter(3 fused) -> Project[0] -> TopK(4, by columns [0])\n"
+                + "Pipeline 2: Read(previous pipeline) -> Distinct\n", query.explain());
+        table.createIndex(1);
+        assertEquals("Pipeline 1: IndexLookup(1 = red) -> Filter(2 fused) -> Project[0] -> TopK(4, by columns [0])\n"
+                + "Pipeline 2: Read(previous pipeline) -> Distinct\n", query.explain());
+        assertEquals("[0]\n[3]\n[6]\n[9]\n", query.toTable().toString());
+        assertEquals("Pipeline 1: Scan(100 rows) -> Sort(by columns [1])\n"
+                + "Pipeline 2: Read(previous pipeline) -> Map\n", table.query().sortBy(1).map(row -> row).explain());
+    }
+}
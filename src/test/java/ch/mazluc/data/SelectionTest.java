@@ -0,0 +1,116 @@
+package ch.mazluc.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectionTest {
+
+    private static final Kernels SCALAR = new ScalarKernels();
+
+    private static Selection selection(int length, int... positions) {
+        Selection selection = Selection.empty(length);
+        for (int position : positions) {
+            selection.bits()[position >>> 6] |= 1L << position;
+        }
+        return selection;
+    }
+
+    @Test
+    void bitmap() {
+        Selection a = selection(130, 0, 63, 64, 129);
+        Selection b = selection(130, 1, 64, 129);
+        assertEquals(4, a.cardinality());
+        assertTrue(a.get(63));
+        assertFalse(a.get(62));
+        assertEquals("[64, 129]", a.and(b).toString());
+        assertEquals("[0, 1, 63, 64, 129]", a.or(b).toString());
+        assertEquals(126, a.not().cardinality());
+        assertFalse(a.not().get(129));
+        assertEquals(a, a.not().not());
+        assertEquals(a.hashCode(), selection(130, 129, 64, 63, 0).hashCode());
+        assertEquals("[0, 63, 64, 129]", a.toIntTuple().toString());
+        assertEquals(63, a.nextSelected(1));
+        assertEquals(129, a.nextSelected(65));
+        assertEquals(-1, a.nextSelected(130));
+        assertEquals(0, Selection.empty(0).not().cardinality());
+        assertThrows(IndexOutOfBoundsException.class, () -> a.get(130));
+        assertThrows(IllegalArgumentException.class, () -> a.and(selection(129)));
+    }
+
+    @Test
+    void vectorized() {
+        boolean available = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(available, Kernels.INSTANCE instanceof VectorKernels);
+    }
+
+    @Test
+    void kernels() {
+        Random random = new Random(42);
+        for (int n = 1; n < 200; n += 7) {
+            int length = n;
+            int[] ints = random.ints(length, -20, 20).toArray();
+            long[] longs = random.longs(length, -20, 20).toArray();
+            double[] doubles = random.ints(length, -20, 20).asDoubleStream().map(v -> v / 4).toArray();
+            doubles[length / 2] = Double.NaN;
+            doubles[length - 1] = -0.0;
+            for (Comparison op : Comparison.values()) {
+                for (int o = -21; o <= 21; o += 3) {
+                    int operand = o;
+                    assertSelect(length, (k, bits) -> k.select(ints, length, op, operand, bits));
+                    long longOperand = operand;
+                    assertSelect(length, (k, bits) -> k.select(longs, length, op, longOperand, bits));
+                    double doubleOperand = operand / 4.0;
+                    assertSelect(length, (k, bits) -> k.select(doubles, length, op, doubleOperand, bits));
+                }
+            }
+            for (int value = -21; value <= 21; value++) {
+                assertEquals(SCALAR.indexOf(ints, length, value), Kernels.INSTANCE.indexOf(ints, length, value));
+                assertEquals(SCALAR.indexOf(longs, length, value), Kernels.INSTANCE.indexOf(longs, length, value));
+                assertEquals(SCALAR.indexOf(doubles, length, value / 4.0), Kernels.INSTANCE.indexOf(doubles, length, value / 4.0));
+            }
+            assertEquals(SCALAR.indexOf(doubles, length, Double.NaN), Kernels.INSTANCE.indexOf(doubles, length, Double.NaN));
+            assertEquals(SCALAR.indexOf(doubles, length, 0.0), Kernels.INSTANCE.indexOf(doubles, length, 0.0));
+            assertEquals(SCALAR.sum(ints, length), Kernels.INSTANCE.sum(ints, length));
+            assertEquals(SCALAR.sum(longs, length), Kernels.INSTANCE.sum(longs, length));
+            assertEquals(SCALAR.min(ints, length), Kernels.INSTANCE.min(ints, length));
+            assertEquals(SCALAR.max(longs, length), Kernels.INSTANCE.max(longs, length));
+            assertEquals(SCALAR.min(doubles, length), Kernels.INSTANCE.min(doubles, length));
+            assertEquals(SCALAR.max(doubles, length), Kernels.INSTANCE.max(doubles, length));
+            doubles[length / 2] = 1;
+            assertEquals(SCALAR.sum(doubles, length), Kernels.INSTANCE.sum(doubles, length), 1e-9);
+            int[] otherInts = ints.clone();
+            double[] otherDoubles = doubles.clone();
+            assertTrue(Kernels.INSTANCE.equals(ints, otherInts, length));
+            assertTrue(Kernels.INSTANCE.equals(doubles, otherDoubles, length));
+            otherInts[length - 1]++;
+            otherDoubles[length - 1] = 0.0;
+            assertFalse(Kernels.INSTANCE.equals(ints, otherInts, length));
+            assertFalse(Kernels.INSTANCE.equals(doubles, otherDoubles, length));
+            assertTrue(Kernels.INSTANCE.equals(longs, longs.clone(), length));
+        }
+        int[] big = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        assertEquals(16L * Integer.MAX_VALUE, Kernels.INSTANCE.sum(big, big.length));
+        double[] nans = {Double.NaN, 1, 2, 3, 4, 5, 6, 7, Double.longBitsToDouble(0x7ff8000000000001L), 1, 2, 3, 4, 5, 6, 7};
+        double[] canonical = nans.clone();
+        canonical[8] = Double.NaN;
+        assertTrue(Kernels.INSTANCE.equals(nans, canonical, nans.length));
+    }
+
+    private interface Scan {
+        void run(Kernels kernels, long[] bits);
+    }
+
+    private static void assertSelect(int length, Scan scan) {
+        Selection expected = Selection.empty(length);
+        Selection actual = Selection.empty(length);
+        scan.run(SCALAR, expected.bits());
+        scan.run(Kernels.INSTANCE, actual.bits());
+        assertEquals(expected, actual);
+    }
+}
@@ -2,8 +2,16 @@ package ch.mazluc.data;
 
 import ch.mazluc.data.Table;
 import ch.mazluc.data.Tuple;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TableTest {
@@ -39,6 +47,45 @@ class TableTest {
         assertFalse(table.contains(0));
     }
 
+    @Test
+    void initialCapacity() {
+        Table table = new Table(100);
+        assertTrue(table.isEmpty());
+        for (int i = 0; i < 1000; i++) {
+            table.push(new Tuple(i, i + 1));
+        }
+        assertEquals(1000, table.length());
+        assertEquals(1000, (int)table.getValue(999, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Table(-1));
+    }
+
+    @Test
+    void ensureCapacity() {
+        Table table = new Table(new Tuple(0, 1), new Tuple(2, 3));
+        table.ensureCapacity(1000);
+        assertEquals(2, table.length());
+        assertEquals(new Table(new Tuple(0, 1), new Tuple(2, 3)), table);
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getValue(2, 0));
+        int count = 0;
+        for (Object ignored : table) {
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    void trimToSize() {
+        Table table = new Table(50);
+        table.push(new Tuple(0, 1));
+        table.trimToSize();
+        assertEquals(1, table.length());
+        table.push(new Tuple(2, 3));
+        assertEquals(3, (int)table.getValue(1, 1));
+        table.clear();
+        table.trimToSize();
+        assertTrue(table.isEmpty());
+    }
+
     @Test
     void setValues() {
         Table table = new Table();
@@ -176,6 +223,13 @@ class TableTest {
         assertEquals(0, table.length());
         table.pop();
         assertEquals(0, table.length());
+        Tuple[] rows = {new Tuple(1), new Tuple(2), new Tuple(3)};
+        Tuple[] before = rows.clone();
+        Table copy = new Table(rows);
+        copy.pop();
+        copy.slice(1, 2);
+        copy.clear();
+        assertArrayEquals(before, rows);
     }
 
     @Test
@@ -310,6 +364,29 @@ class TableTest {
         assertEquals(comp, subt);
     }
 
+    @Test
+    void largeSetOperations() {
+        Table table = new Table();
+        Table evens = new Table();
+        for (int i = 0; i < 20000; i++) {
+            Tuple row = new Tuple(i, "row");
+            table.push(row);
+            if (i % 2 == 0) {
+                evens.push(row);
+            }
+        }
+        assertTrue(evens.isSubsetOf(table));
+        assertTrue(table.isSupersetOf(evens));
+        assertFalse(table.isSubsetOf(evens));
+        Table odds = (Table) table.subtract(evens);
+        assertEquals(10000, odds.length());
+        assertEquals(1, (int)odds.getValue(0, 0));
+        assertFalse(odds.isDisjoint(evens));
+        Table other = new Table(new Tuple(-1, "other"), new Tuple(new Tuple(1, "row")));
+        assertTrue(other.isDisjoint(new Table(new Tuple(-2), new Tuple(1, "row"))));
+        assertFalse(other.isDisjoint(new Table(new Tuple(new Tuple(-1, "other")))));
+    }
+
     @Test
     void filter() {
         Table table = new Table();
@@ -324,6 +401,22 @@ class TableTest {
         assertEquals("[0, 1, 2, 3.0, 4, 5, 6, 7, 8, 9]", table.filter(t -> t instanceof Number).toString());
     }
 
+    @Test
+    void where() {
+        Table table = new Table();
+        table.setValues(
+                new Tuple(0, "a"),
+                new Tuple(3.0, "b"),
+                new Tuple(7, "c", false),
+                new Tuple(9)
+        );
+        Table matching = table.where(Expr.col(0).gt(1).and(Expr.col(1).ne("b")));
+        assertEquals("[7, c, false]\n", matching.toString());
+        assertSame(table.row(2), matching.row(0));
+        assertEquals(0, table.where(Expr.col(0, ColumnType.INT).lt(0)).length());
+        assertEquals("[0, 3.0, 7, 9]", table.filter(Expr.value().ge(0).toPredicate()).toString());
+    }
+
     @Test
     void isDisjoint() {
         Table table = new Table();
@@ -349,4 +442,333 @@ class TableTest {
         );
         assertTrue(table.isDisjoint(table1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void sliceView() {
+        Tuple first = new Tuple(0, 1);
+        Tuple second = new Tuple(2, 3);
+        Tuple third = new Tuple(4, 5);
+        Table table = new Table();
+        table.setValues(first, second, third);
+        Table view = table.sliceView(1, 3);
+        assertEquals("[2, 3]\n[4, 5]\n", view.toString());
+        assertEquals(2, view.length());
+        assertEquals(4, (int) view.getValue(1, 0));
+        view.pop();
+        assertEquals("[2, 3]\n", view.toString());
+        assertEquals("[0, 1]\n[2, 3]\n[4, 5]\n", table.toString());
+
+        view = table.sliceView(0, 2);
+        view.push(new Tuple(6));
+        view.swap(0, 1);
+        assertEquals("[2, 3]\n[0, 1]\n[6]\n", view.toString());
+        assertEquals("[0, 1]\n[2, 3]\n[4, 5]\n", table.toString());
+
+        Table kept = table.sliceView(0, 2);
+        table.clear();
+        assertEquals("[0, 1]\n[2, 3]\n", kept.toString());
+        assertEquals(0, table.length());
+        assertThrows(IllegalArgumentException.class, () -> kept.sliceView(2, 1));
+    }
+
+    @Test
+    void parallelFilter() {
+        Table table = new Table();
+        for (int i = 0; i < 10000; i++) {
+            table.push(new Tuple(i, "" + i, i % 3 == 0));
+        }
+        table.setParallelThreshold(1);
+        assertEquals(1, table.getParallelThreshold());
+        AtomicInteger calls = new AtomicInteger();
+        Tuple result = table.parallelFilter(o -> calls.incrementAndGet() > 0 && o instanceof Integer i && i % 7 == 0);
+        assertEquals(30000, calls.get());
+        assertEquals(table.filter(o -> o instanceof Integer i && i % 7 == 0).toString(), result.toString());
+        assertEquals(1429, result.length());
+        assertEquals(9996, (int) result.getValue(1428));
+        assertEquals(0, table.parallelFilter(o -> false).length());
+
+        Table view = table.sliceView(5000, 5010);
+        assertEquals("[5001, 5004, 5007]", view.parallelFilter(o -> o instanceof Integer i && i % 3 == 0).toString());
+        assertThrows(IllegalArgumentException.class, () -> table.setParallelThreshold(0));
+        assertEquals(Table.DEFAULT_PARALLEL_THRESHOLD, new Table().getParallelThreshold());
+    }
+
+    @Test
+    void stream() {
+        Table table = new Table();
+        for (int i = 0; i < 1000; i++) {
+            table.push(new Tuple(i, -i));
+        }
+        Spliterator<Object> spliterator = table.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(500, spliterator.trySplit().getExactSizeIfKnown());
+        assertEquals(1000, table.parallelStream().count());
+        assertEquals(499500, table.parallelStream().mapToInt(row -> ((Tuple) row).getValue(0)).sum());
+        assertEquals(table.stream().toList(), table.parallelStream().toList());
+        assertEquals(2, table.sliceView(998, 1000).stream().count());
+    }
+
+    /**
+     * Checks that the index on a column answers like a scan of the table
+     */
+    private static void assertIndexed(Table table, int column, Object... values) {
+        Table scanned = new Table();
+        for (Object row : table) {
+            scanned.push(row);
+        }
+        assertTrue(table.hasIndex(column));
+        assertFalse(scanned.hasIndex(column));
+        for (Object value : values) {
+            assertEquals(scanned.rowsWhere(column, value), table.rowsWhere(column, value));
+            assertEquals(scanned.indexOf(column, value), table.indexOf(column, value));
+        }
+    }
+
+    @Test
+    void createIndex() {
+        Table table = new Table();
+        for (int i = 0; i < 20; i++) {
+            table.push(new Tuple(i, "k" + i % 4));
+        }
+        table.push(new Tuple(20));
+        table.createIndex(1);
+        table.createIndex(1);
+        assertTrue(table.hasIndex(1));
+        assertFalse(table.hasIndex(0));
+        assertEquals(new IntTuple(1, 5, 9, 13, 17), table.rowsWhere(1, "k1"));
+        assertEquals(1, table.indexOf(1, "k1"));
+        assertEquals(-1, table.indexOf(1, "k4"));
+        assertTrue(table.rowsWhere(1, "k4").isEmpty());
+        Object[] keys = {"k0", "k1", "k2", "k3", "k4", "x"};
+
+        table.push(new Tuple(21, "k1"));
+        assertIndexed(table, 1, keys);
+        table.replace(0, 1, "x");
+        assertIndexed(table, 1, keys);
+        table.insert(2, 1, "k4");
+        assertIndexed(table, 1, keys);
+        table.remove(2, 1);
+        table.remove(3, 0);
+        assertIndexed(table, 1, keys);
+        table.swap(1, 19);
+        table.swap(4, 4);
+        assertIndexed(table, 1, keys);
+        table.pop();
+        assertIndexed(table, 1, keys);
+        table.slice(0, 15);
+        assertIndexed(table, 1, keys);
+        table.slice(3, 12);
+        assertIndexed(table, 1, keys);
+        table.join(new Table(new Tuple(0, "k2"), new Tuple(1, "x")));
+        assertIndexed(table, 1, keys);
+        Table view = table.sliceView(0, 4);
+        assertFalse(view.hasIndex(1));
+        table.pop();
+        assertIndexed(table, 1, keys);
+        table.clear();
+        assertIndexed(table, 1, keys);
+        table.setValues(new Tuple(0, "k0"), new Tuple(1, "k0"));
+        assertEquals(new IntTuple(0, 1), table.rowsWhere(1, "k0"));
+
+        table.createIndex(0);
+        assertEquals(1, table.indexOf(0, 1));
+        table.dropIndex(1);
+        assertFalse(table.hasIndex(1));
+        assertTrue(table.hasIndex(0));
+        assertEquals(new IntTuple(0, 1), table.rowsWhere(1, "k0"));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.createIndex(-1));
+    }
+
+    @Test
+    void createSortedIndex() {
+        Table table = new Table();
+        for (int i = 0; i < 20; i++) {
+            table.push(new Tuple(i, (i * 7) % 10, "v" + i));
+        }
+        table.push(new Tuple(20, "x"));
+        table.push(new Tuple(21));
+        IntTuple scanned = table.range(1, 3, 5);
+        table.createIndex(1);
+        table.createSortedIndex(1);
+        table.createSortedIndex(1);
+        assertTrue(table.hasIndex(1));
+        assertEquals(scanned, table.range(1, 3, 5));
+        assertEquals(new IntTuple(9, 19, 2, 12, 5, 15), table.range(1, 3, 5));
+        assertEquals(new IntTuple(1, 11), table.rowsWhere(1, 7));
+        assertEquals(new IntTuple(20), table.rowsWhere(1, "x"));
+        assertEquals(new IntTuple(20), table.range(1, "a", "z"));
+        assertTrue(table.range(1, 5, 3).isEmpty());
+        assertEquals(9, (int) table.floor(1, 100));
+        assertEquals(0, (int) table.ceiling(1, -100));
+        assertNull(table.ceiling(1, 100));
+        assertNull(table.floor(1, "a"));
+        assertThrows(IllegalArgumentException.class, () -> table.range(1, 0, "x"));
+        assertThrows(IllegalArgumentException.class, () -> table.range(1, "a", null));
+        assertThrows(IllegalArgumentException.class, () -> table.range(1, null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> table.floor(1, new Tuple()));
+
+        table.replace(0, 1, 4);
+        table.remove(9, 1);
+        table.push(new Tuple(22, 3));
+        table.swap(2, 22);
+        assertEquals(new IntTuple(2, 19, 0, 12, 22, 5, 15), table.range(1, 3, 5));
+        table.slice(1, 23);
+        assertEquals(new IntTuple(1, 18, 11, 21, 4, 14), table.range(1, 3, 5));
+
+        Iterator<Object> rows = table.iterator(1);
+        Tuple previous = (Tuple) rows.next();
+        int count = 1;
+        while (rows.hasNext()) {
+            Tuple row = (Tuple) rows.next();
+            if (row.getValue(1) instanceof Integer value && previous.getValue(1) instanceof Integer last) {
+                assertTrue(last <= value);
+            }
+            previous = row;
+            count++;
+        }
+        assertEquals(21, count);
+        assertThrows(NoSuchElementException.class, rows::next);
+        assertFalse(new Table().iterator(0).hasNext());
+    }
+
+    @Test
+    void sortBy() {
+        Tuple a = new Tuple(3, "b", 1.5);
+        Tuple b = new Tuple(1, "a", -0.5);
+        Tuple c = new Tuple(3, "a");
+        Tuple d = new Tuple(-2, "c", 1.5);
+        Tuple e = new Tuple(1, "a", 0.0);
+        Table table = new Table(a, b, c, d, e);
+        table.sortBy(0);
+        assertEquals(new Table(d, b, e, a, c), table);
+        table.sortBy(1, 0);
+        assertEquals(new Table(b, e, c, a, d), table);
+        table.sortBy(2);
+        assertEquals(new Table(b, e, a, d, c), table);
+        table.sortBy(null, true, 2);
+        assertEquals(new Table(c, b, e, a, d), table);
+        table.sortBy(Comparator.reverseOrder(), false, 0, 1);
+        assertEquals(new Table(a, c, b, e, d), table);
+        table.sortBy(Comparator.comparingInt(Tuple::length));
+        assertEquals(new Table(c, a, b, e, d), table);
+        table.push(new Tuple("x"));
+        table.sortBy(0);
+        assertEquals("x", table.getValue(5, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.sortBy());
+        assertThrows(IllegalArgumentException.class, () -> table.sortBy(-1));
+
+        Table large = new Table();
+        for (int i = 0; i < 20000; i++) {
+            large.push(new Tuple((i * 7919) % 1000, (long) -i, (double) (i % 13), i));
+        }
+        large.createIndex(3);
+        large.sortBy(0);
+        for (int i = 1; i < large.length(); i++) {
+            int previous = large.getValue(i - 1, 0);
+            int current = large.getValue(i, 0);
+            assertTrue(previous < current
+                    || previous == current && (int) large.getValue(i - 1, 3) < (int) large.getValue(i, 3));
+        }
+        assertEquals(large.rowsWhere(3, 42).getInt(0), indexOfScan(large, 42));
+        large.sortBy(1);
+        assertEquals(19999, (int) large.getValue(0, 3));
+        large.sortBy(2);
+        for (int i = 1; i < large.length(); i++) {
+            double previous = large.getValue(i - 1, 2);
+            double current = large.getValue(i, 2);
+            assertTrue(previous < current
+                    || previous == current && (long) large.getValue(i - 1, 1) < (long) large.getValue(i, 1));
+        }
+    }
+
+    private static int indexOfScan(Table table, int value) {
+        for (int i = 0; i < table.length(); i++) {
+            if ((int) table.getValue(i, 3) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Joins two tables with nested loops
+     */
+    private static String nestedLoopJoin(Table left, int column, Table right, int otherColumn, JoinType type) {
+        Table result = new Table();
+        for (Object l : left) {
+            Tuple leftRow = (Tuple) l;
+            boolean matched = false;
+            for (Object r : right) {
+                Tuple rightRow = (Tuple) r;
+                if (column < leftRow.length() && otherColumn < rightRow.length()
+                        && leftRow.getValue(column).equals(rightRow.getValue(otherColumn))) {
+                    matched = true;
+                    if (type == JoinType.INNER || type == JoinType.LEFT) {
+                        Tuple row = new Tuple();
+                        row.join(leftRow, rightRow);
+                        result.push(row);
+                    }
+                }
+            }
+            if (matched ? type == JoinType.SEMI : type == JoinType.LEFT || type == JoinType.ANTI) {
+                result.push(leftRow);
+            }
+        }
+        return result.toString();
+    }
+
+    @Test
+    void hashJoin() {
+        Table people = new Table(
+                new Tuple("ann", 1),
+                new Tuple("bob", 2),
+                new Tuple("cid", 2),
+                new Tuple("dan", 9),
+                new Tuple("eve")
+        );
+        Table teams = new Table(
+                new Tuple(2, "blue"),
+                new Tuple(1, "red"),
+                new Tuple(2, "green"),
+                new Tuple(3, "gold")
+        );
+        assertEquals("[ann, 1, 1, red]\n[bob, 2, 2, blue]\n[bob, 2, 2, green]\n[cid, 2, 2, blue]\n[cid, 2, 2, green]\n",
+                people.hashJoin(teams, 1, 0).toString());
+        assertEquals(people.hashJoin(teams, 1, 0).toString(), people.mergeJoin(teams, 1, 0).toString());
+        assertEquals("[ann, 1, 1, red]\n[bob, 2, 2, blue]\n[bob, 2, 2, green]\n[cid, 2, 2, blue]\n[cid, 2, 2, green]\n[dan, 9]\n[eve]\n",
+                people.hashJoin(teams, 1, 0, JoinType.LEFT).toString());
+        assertEquals("[ann, 1]\n[bob, 2]\n[cid, 2]\n", people.hashJoin(teams, 1, 0, JoinType.SEMI).toString());
+        assertEquals("[dan, 9]\n[eve]\n", people.mergeJoin(teams, 1, 0, JoinType.ANTI).toString());
+        assertEquals("[2, blue, bob, 2]\n[2, blue, cid, 2]\n[1, red, ann, 1]\n[2, green, bob, 2]\n[2, green, cid, 2]\n",
+                teams.hashJoin(people, 0, 1).toString());
+        assertEquals(0, people.hashJoin(new Table(), 1, 0).length());
+        assertEquals(5, people.hashJoin(new Table(), 1, 0, JoinType.ANTI).length());
+        assertThrows(IllegalArgumentException.class, () -> people.hashJoin(teams, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> people.mergeJoin(teams, 0, -1));
+    }
+
+    @Test
+    void largeJoin() {
+        Table left = new Table();
+        Table right = new Table();
+        for (int i = 0; i < 700; i++) {
+            left.push(new Tuple(i, (i * 31) % 97, i % 5 == 0 ? "s" + i % 3 : (long) i % 11));
+        }
+        for (int i = 0; i < 300; i++) {
+            right.push(new Tuple((i * 17) % 89, i % 7 == 0 ? "s" + i % 4 : (long) i % 13, i));
+        }
+        right.push(new Tuple());
+        for (JoinType type : JoinType.values()) {
+            for (int threshold : new int[]{Table.DEFAULT_PARALLEL_THRESHOLD, 1}) {
+                left.setParallelThreshold(threshold);
+                right.setParallelThreshold(threshold);
+                assertEquals(nestedLoopJoin(left, 1, right, 0, type), left.hashJoin(right, 1, 0, type).toString());
+                assertEquals(nestedLoopJoin(right, 0, left, 1, type), right.hashJoin(left, 0, 1, type).toString());
+                assertEquals(nestedLoopJoin(left, 2, right, 1, type), left.hashJoin(right, 2, 1, type).toString());
+            }
+            assertEquals(nestedLoopJoin(left, 1, right, 0, type), left.mergeJoin(right, 1, 0, type).toString());
+            assertEquals(nestedLoopJoin(right, 0, left, 1, type), right.mergeJoin(left, 0, 1, type).toString());
+            assertEquals(nestedLoopJoin(left, 2, right, 1, type), left.mergeJoin(right, 2, 1, type).toString());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import ch.mazluc.data.Tuple;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigInteger;
+import java.util.List;
+import java.util.Spliterator;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -79,6 +81,51 @@ class TupleTest {
         assertTrue(tuple.containsType(Boolean.class));
     }
 
+    @Test
+    void withCapacity() {
+        Tuple tuple = Tuple.withCapacity(100);
+        assertEquals(0, tuple.length());
+        assertTrue(tuple.isEmpty());
+        assertEquals("[]", tuple.toString());
+        for (int i = 0; i < 1000; i++) {
+            tuple.push(i);
+        }
+        assertEquals(1000, tuple.length());
+        assertEquals(999, (int)tuple.getValue(999));
+        assertThrows(IllegalArgumentException.class, () -> Tuple.withCapacity(-1));
+    }
+
+    @Test
+    void ensureCapacity() {
+        Tuple tuple = new Tuple(1, 2, 3);
+        tuple.ensureCapacity(1000);
+        assertEquals(3, tuple.length());
+        assertEquals(new Tuple(1, 2, 3), tuple);
+        assertEquals(new Tuple(1, 2, 3).hashCode(), tuple.hashCode());
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.getValue(3));
+        int count = 0;
+        for (Object ignored : tuple) {
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    void trimToSize() {
+        Tuple tuple = Tuple.withCapacity(50);
+        tuple.push(1);
+        tuple.push("2");
+        tuple.trimToSize();
+        assertEquals("[1, 2]", tuple.toString());
+        tuple.push(3);
+        assertEquals("[1, 2, 3]", tuple.toString());
+        tuple.clear();
+        tuple.trimToSize();
+        assertEquals(0, tuple.length());
+        tuple.push(4);
+        assertEquals("[4]", tuple.toString());
+    }
+
     @Test
     void setValues() {
         Tuple tuple = new Tuple();
@@ -198,6 +245,67 @@ class TupleTest {
         assertEquals(11, tuple.indexOf(false));
     }
 
+    @Test
+    void indexed() {
+        Tuple tuple = new Tuple(0, 1, 2, 3, "2", false, 1);
+        tuple.setIndexed(true);
+        assertTrue(tuple.isIndexed());
+        assertEquals(1, tuple.indexOf(1));
+        assertEquals(4, tuple.indexOf("2"));
+        assertEquals(-1, tuple.indexOf(9));
+        assertEquals(-1, tuple.indexOf(null));
+        tuple.push(9);
+        assertEquals(7, tuple.indexOf(9));
+        tuple.pop();
+        assertFalse(tuple.contains(9));
+        tuple.remove(1);
+        assertEquals(5, tuple.indexOf(1));
+        tuple.insert(0, 3);
+        assertEquals(0, tuple.indexOf(3));
+        tuple.replace(0, "x");
+        assertEquals(3, tuple.indexOf(3));
+        tuple.swap(0, 3);
+        assertEquals(0, tuple.indexOf(3));
+        assertEquals(3, tuple.indexOf("x"));
+        tuple.join(new Tuple("y", 3));
+        assertEquals(7, tuple.indexOf("y"));
+        assertEquals(0, tuple.indexOf(3));
+        tuple.reverse();
+        assertEquals(0, tuple.indexOf(3));
+        assertEquals(1, tuple.indexOf("y"));
+        tuple.slice(1, 3);
+        assertEquals(0, tuple.indexOf("y"));
+        assertFalse(tuple.contains(3));
+        tuple.clear();
+        assertFalse(tuple.contains("y"));
+        tuple.setIndexed(false);
+        assertFalse(tuple.isIndexed());
+    }
+
+    @Test
+    void largeSetOperations() {
+        Tuple evens = new Tuple();
+        Tuple all = new Tuple();
+        for (int i = 0; i < 20000; i++) {
+            all.push(i);
+            if (i % 2 == 0) {
+                evens.push(i);
+            }
+        }
+        assertTrue(evens.isSubsetOf(all));
+        assertTrue(all.isSupersetOf(evens));
+        assertFalse(all.isSubsetOf(evens));
+        Tuple odds = (Tuple) all.subtract(evens);
+        assertEquals(10000, odds.length());
+        assertEquals(1, (int)odds.getValue(0));
+        assertTrue(odds.isDisjoint(evens));
+        assertEquals(all.length(), ((Tuple) odds.symmetricDifference(evens)).length());
+        evens.setIndexed(true);
+        assertTrue(evens.contains(19998));
+        assertFalse(evens.contains(19999));
+        assertTrue(odds.isDisjoint(evens));
+    }
+
     @Test
     void pop() {
         Data tupleEmpty = new Tuple();
@@ -247,6 +355,19 @@ class TupleTest {
         assertEquals("[]", tuple.toString());
     }
 
+    @Test
+    void clearNulls() {
+        Tuple tuple = new Tuple(null, null, 1, null, null, null, 2, null);
+        assertEquals("[1, 2]", tuple.toString());
+        assertEquals(2, tuple.length());
+        tuple.setValues(null, null, null);
+        assertTrue(tuple.isEmpty());
+        Object[] values = {3, null, null, 4};
+        tuple.setValues(values);
+        assertEquals("[3, 4]", tuple.toString());
+        assertArrayEquals(new Object[]{3, null, null, 4}, values);
+    }
+
     @Test
     void reverse() {
         Tuple tuple = new Tuple(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, "2", null, false, null, null);
@@ -410,4 +531,79 @@ class TupleTest {
         tuple2.push(-1);
         assertEquals("[-1]", tuple2.filter(o -> o instanceof Integer && (int) o < 0).toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void filterExpr() {
+        Tuple tuple = new Tuple(0, 1, 2.5, 3L, -4, "cuai", false);
+        assertEquals("[1, 2.5, 3]", tuple.filter(Expr.value().gt(0)).toString());
+        assertEquals("[0, 1]", tuple.filter(Expr.value(ColumnType.INT).in(0, 1, 2)).toString());
+        assertEquals("[false]", tuple.filter(Expr.value(ColumnType.OBJECT).eq(false)).toString());
+        assertThrows(IllegalStateException.class, () -> tuple.filter(Expr.value().plus(1)));
+    }
+
+    @Test
+    void sliceView() {
+        Tuple tuple = new Tuple(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Tuple view = tuple.sliceView(2, 6);
+        assertEquals("[2, 3, 4, 5]", view.toString());
+        assertEquals(4, view.length());
+        assertEquals(3, (int) view.getValue(1));
+        assertTrue(view.contains(5));
+        assertFalse(view.contains(6));
+        view.slice(1, 3);
+        assertEquals("[3, 4]", view.toString());
+        view.pop();
+        assertEquals("[3]", view.toString());
+        assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", tuple.toString());
+
+        view = tuple.sliceView(2, 6);
+        view.replace(0, -1);
+        view.push(10);
+        assertEquals("[-1, 3, 4, 5, 10]", view.toString());
+        assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", tuple.toString());
+
+        view = tuple.sliceView(2, 6);
+        tuple.swap(2, 3);
+        tuple.remove(0);
+        assertEquals("[1, 3, 2, 4, 5, 6, 7, 8, 9]", tuple.toString());
+        assertEquals("[2, 3, 4, 5]", view.toString());
+
+        assertEquals("[]", tuple.sliceView(4, 4).toString());
+        assertEquals("[8, 9]", tuple.sliceView(7, 100).toString());
+        assertThrows(IllegalArgumentException.class, () -> tuple.sliceView(5, 4));
+    }
+
+    @Test
+    void splitView() {
+        Tuple tuple = new Tuple(0, 1, 2, 3, 4);
+        Tuple[] views = tuple.splitView(2);
+        assertEquals("[0, 1]", views[0].toString());
+        assertEquals("[2, 3, 4]", views[1].toString());
+        assertEquals("[0, 1, 2, 3, 4]", tuple.toString());
+        views[0].push(5);
+        assertEquals("[0, 1, 5]", views[0].toString());
+        assertEquals("[2, 3, 4]", views[1].toString());
+        views[1].clear();
+        assertEquals(0, views[1].length());
+        assertEquals("[0, 1, 2, 3, 4]", tuple.toString());
+    }
+
+    @Test
+    void stream() {
+        Tuple tuple = new Tuple();
+        for (int i = 0; i < 1000; i++) {
+            tuple.push(i);
+        }
+        Spliterator<Object> spliterator = tuple.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+        assertEquals(500, spliterator.trySplit().getExactSizeIfKnown());
+        assertEquals(499500, tuple.stream().mapToInt(o -> (int) o).sum());
+        assertEquals(499500, tuple.parallelStream().mapToInt(o -> (int) o).sum());
+        assertEquals(tuple.stream().toList(), tuple.parallelStream().toList());
+
+        Tuple view = tuple.sliceView(10, 13);
+        assertEquals(List.of(10, 11, 12), view.stream().toList());
+        assertEquals(0, new Tuple().stream().count());
+    }
+}